@@ -0,0 +1,143 @@
+package com.smartusers.logitrackapi.aspect;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.entity.User;
+import com.smartusers.logitrackapi.service.impl.IdempotencyStore;
+import com.smartusers.logitrackapi.service.impl.SessionManager;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Rejoue la réponse enregistrée quand une requête mutante est renvoyée avec le même en-tête Idempotency-Key,
+// sans réexécuter le service (pas de seconde réservation de stock). La clé est propre à l'utilisateur,
+// à la méthode HTTP et au chemin ; seules les réponses 2xx sont enregistrées, un échec peut être retenté.
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class IdempotencyAspect {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_SCOPE_LENGTH = 512;
+
+    private final IdempotencyStore store;
+    private final SessionManager sessionManager;
+    private final ObjectMapper objectMapper;
+
+    @Around("@annotation(com.smartusers.logitrackapi.annotation.Idempotent)")
+    public Object idempotent(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        String key = attributes == null ? null : attributes.getRequest().getHeader(HEADER);
+        if (key == null || key.isBlank()) {
+            return joinPoint.proceed();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Clé d'idempotence trop longue (" + MAX_KEY_LENGTH + " caractères max)");
+        }
+
+        HttpServletRequest request = attributes.getRequest();
+        String scope = scope(request);
+        String fingerprint = fingerprint(joinPoint.getArgs());
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+
+        IdempotencyStore.StoredResponse stored = store.begin(scope, key, fingerprint);
+        if (stored != null) {
+            return replay(stored, signature.getMethod().getGenericReturnType(), attributes.getResponse());
+        }
+
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            store.abandon(scope, key);
+            throw e;
+        }
+        record(scope, key, fingerprint, result);
+        return result;
+    }
+
+    private void record(String scope, String key, String fingerprint, Object result) throws Exception {
+        int status = 200;
+        Object body = result;
+        String location = null;
+        if (result instanceof ResponseEntity<?> entity) {
+            status = entity.getStatusCode().value();
+            body = entity.getBody();
+            URI uri = entity.getHeaders().getLocation();
+            location = uri == null ? null : uri.toString();
+        }
+        if (status < 200 || status >= 300) {
+            store.abandon(scope, key);
+            return;
+        }
+        store.complete(scope, key, fingerprint, status,
+                body == null ? null : objectMapper.writeValueAsString(body), location);
+    }
+
+    private Object replay(IdempotencyStore.StoredResponse stored, Type returnType,
+                          HttpServletResponse response) throws Exception {
+        if (response != null) {
+            response.setHeader(REPLAYED_HEADER, "true");
+        }
+        if (returnType instanceof ParameterizedType parameterized && parameterized.getRawType() == ResponseEntity.class) {
+            Object body = read(stored.body(), parameterized.getActualTypeArguments()[0]);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status());
+            if (stored.location() != null) {
+                builder.location(URI.create(stored.location()));
+            }
+            return builder.body(body);
+        }
+        return read(stored.body(), returnType);
+    }
+
+    private Object read(String body, Type type) throws Exception {
+        if (body == null) {
+            return null;
+        }
+        JavaType javaType = objectMapper.getTypeFactory().constructType(type);
+        return objectMapper.readValue(body, javaType);
+    }
+
+    // Utilisateur de la session (anonyme sinon), méthode et chemin avec paramètres : ?async=true est une autre requête
+    private String scope(HttpServletRequest request) {
+        String sessionId = request.getHeader("Session-Id");
+        User user = sessionId == null ? null : sessionManager.getUserBySessionId(sessionId);
+        String principal = user == null ? "anonymous" : "user:" + user.getId();
+        String query = request.getQueryString();
+        String scope = principal + " " + request.getMethod() + " " + request.getRequestURI()
+                + (query == null ? "" : "?" + query);
+        return scope.length() <= MAX_SCOPE_LENGTH ? scope : principal + " " + sha256(scope);
+    }
+
+    private String fingerprint(Object[] args) throws Exception {
+        return sha256(objectMapper.writeValueAsString(args));
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.smartusers.logitrackapi.aspect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Rejoue une méthode transactionnelle en cas de conflit de version sur Inventory.
+// Placé avant l'intercepteur transactionnel : chaque tentative s'exécute dans une nouvelle transaction.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class OptimisticLockRetryAspect {
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public OptimisticLockRetryAspect(MeterRegistry meterRegistry,
+                                     @Value("${logitrack.inventory.retry.max-attempts:5}") int maxAttempts,
+                                     @Value("${logitrack.inventory.retry.base-backoff-ms:10}") long baseBackoffMs,
+                                     @Value("${logitrack.inventory.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.conflicts = Counter.builder("inventory.optimistic.conflicts")
+                .description("Conflits de version détectés sur les inventaires")
+                .register(meterRegistry);
+        this.retries = Counter.builder("inventory.optimistic.retries")
+                .description("Tentatives rejouées après un conflit de version")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("inventory.optimistic.exhausted")
+                .description("Opérations abandonnées après épuisement des tentatives")
+                .register(meterRegistry);
+    }
+
+    @Around("@annotation(com.smartusers.logitrackapi.annotation.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Dans une transaction englobante, rejouer ne sert à rien : c'est l'appelant qui doit être rejoué
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException ex) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Conflit de version persistant sur {} après {} tentatives",
+                            joinPoint.getSignature().getName(), attempt);
+                    throw ex;
+                }
+                retries.increment();
+                sleepWithJitter(attempt);
+            }
+        }
+    }
+
+    // Backoff exponentiel avec jitter complet : attente aléatoire dans [0, min(max, base * 2^attempt)]
+    private void sleepWithJitter(int attempt) throws InterruptedException {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        if (ceiling > 0) {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+    }
+}
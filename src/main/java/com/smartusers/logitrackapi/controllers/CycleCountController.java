@@ -0,0 +1,35 @@
+package com.smartusers.logitrackapi.controllers;
+
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountLineRequest;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountReport;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountResponse;
+import com.smartusers.logitrackapi.service.interfaces.CycleCountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/cycle-counts")
+public class CycleCountController {
+
+    private final CycleCountService cycleCountService;
+
+    // Gèle l'entrepôt : ses mouvements sont mis en file jusqu'à la clôture
+    @PostMapping
+    public CycleCountResponse start(@RequestParam Long warehouseId) {
+        return cycleCountService.start(warehouseId);
+    }
+
+    @GetMapping("/{id}")
+    public CycleCountResponse getById(@PathVariable Long id) {
+        return cycleCountService.getById(id);
+    }
+
+    // Quantités comptées par inventaire ; les écarts deviennent des mouvements ADJUSTMENT puis la file est rejouée
+    @PostMapping("/{id}/complete")
+    public CycleCountReport complete(@PathVariable Long id, @RequestBody List<CycleCountLineRequest> lines) {
+        return cycleCountService.complete(id, lines);
+    }
+}
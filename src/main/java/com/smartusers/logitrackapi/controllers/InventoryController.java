@@ -1,15 +1,33 @@
 package com.smartusers.logitrackapi.controllers;
 
+import com.smartusers.logitrackapi.dto.common.CursorPage;
 import com.smartusers.logitrackapi.dto.inventory.*;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementRequest;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementResult;
 import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.enums.ExportFormat;
 import com.smartusers.logitrackapi.mapper.InventoryMapper;
+import com.smartusers.logitrackapi.service.interfaces.InventoryImportService;
+import com.smartusers.logitrackapi.service.interfaces.InventoryMovementExportService;
+import com.smartusers.logitrackapi.service.interfaces.InventoryReconciliationService;
 import com.smartusers.logitrackapi.service.interfaces.InventoryService;
+import com.smartusers.logitrackapi.service.interfaces.InventorySnapshotService;
+import com.smartusers.logitrackapi.service.interfaces.InventoryValuationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 @RestController
 @RequiredArgsConstructor
@@ -18,6 +36,11 @@ public class InventoryController {
 
     private final InventoryService inventoryService;
     private final InventoryMapper inventoryMapper;
+    private final InventorySnapshotService inventorySnapshotService;
+    private final InventoryMovementExportService inventoryMovementExportService;
+    private final InventoryImportService inventoryImportService;
+    private final InventoryReconciliationService inventoryReconciliationService;
+    private final InventoryValuationService inventoryValuationService;
 
     @PostMapping
     public InventoryResponse create(@Valid @RequestBody InventoryRequest request) {
@@ -41,6 +64,93 @@ public class InventoryController {
                 .toList();
     }
 
+    // Liste paginée par clé : ?cursor=<nextCursor de la page précédente>&size=50
+    // lowStock=true ne garde que les inventaires sous leur seuil de réapprovisionnement (/api/stock-alerts/thresholds)
+    @GetMapping("/search")
+    public CursorPage<InventoryResponse> search(@RequestParam(required = false) Long warehouseId,
+                                                @RequestParam(required = false) Long productId,
+                                                @RequestParam(defaultValue = "false") boolean lowStock,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "50") int size) {
+        return inventoryService.search(warehouseId, productId, lowStock, cursor, size);
+    }
+
+    // Mouvements en lot (réceptions / sorties scanners), appliqués dans une seule transaction
+    @PostMapping("/movements/batch")
+    public List<StockMovementResult> applyMovements(@RequestBody List<StockMovementRequest> requests) {
+        return inventoryService.applyMovements(requests);
+    }
+
+    // Import CSV en masse (sku, warehouse ou warehouseId, quantity) ; les lignes rejetées sont listées dans le rapport
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public InventoryImportReport importCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            return inventoryImportService.importCsv(input);
+        }
+    }
+
+    // Compare chaque quantité en stock au registre des mouvements ; repair=true aligne les écarts sur le registre
+    @PostMapping("/reconciliation")
+    public ReconciliationReport reconcile(@RequestParam(defaultValue = "false") boolean repair) {
+        return inventoryReconciliationService.reconcile(repair);
+    }
+
+    // Valorisation du stock d'un entrepôt (FIFO et coût moyen pondéré), calculée depuis le dernier point de reprise
+    @GetMapping("/valuation")
+    public ValuationReport valuation(@RequestParam Long warehouseId) {
+        return inventoryValuationService.valuate(warehouseId);
+    }
+
+    // Stock d'un inventaire à une date passée (ex. fin de mois pour l'audit)
+    @GetMapping("/{id}/stock-at")
+    public InventoryStockAtResponse getStockAt(@PathVariable Long id,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return inventorySnapshotService.getStockAt(id, at);
+    }
+
+    @GetMapping("/stock-at")
+    public List<InventoryStockAtResponse> getWarehouseStockAt(@RequestParam Long warehouseId,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return inventorySnapshotService.getWarehouseStockAt(warehouseId, at);
+    }
+
+    @PostMapping("/snapshots")
+    public int takeSnapshots() {
+        return inventorySnapshotService.takeSnapshots();
+    }
+
+    // Export en flux de l'historique des mouvements (format=ndjson|csv, bornes de dates optionnelles)
+    @GetMapping("/{id}/movements/export")
+    public ResponseEntity<StreamingResponseBody> exportMovements(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return exportResponse("inventory-" + id + "-movements", exportFormat,
+                inventoryMovementExportService.exportByInventory(id, from, to, exportFormat));
+    }
+
+    @GetMapping("/movements/export")
+    public ResponseEntity<StreamingResponseBody> exportWarehouseMovements(
+            @RequestParam Long warehouseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return exportResponse("warehouse-" + warehouseId + "-movements", exportFormat,
+                inventoryMovementExportService.exportByWarehouse(warehouseId, from, to, exportFormat));
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(String fileName, ExportFormat format,
+                                                                 StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + fileName + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public InventoryResponse getById(@PathVariable Long id) {
         return inventoryMapper.toResponse(inventoryService.getById(id));
@@ -1,9 +1,12 @@
 package com.smartusers.logitrackapi.controllers;
 
+import com.smartusers.logitrackapi.annotation.Idempotent;
+import com.smartusers.logitrackapi.dto.common.OrderEventResponse;
 import com.smartusers.logitrackapi.dto.purchaseorder.PurchaseOrderRequest;
 import com.smartusers.logitrackapi.dto.purchaseorder.PurchaseOrderResponse;
 import com.smartusers.logitrackapi.entity.PurchaseOrder;
 import com.smartusers.logitrackapi.enums.POStatus;
+import com.smartusers.logitrackapi.mapper.OrderEventMapper;
 import com.smartusers.logitrackapi.mapper.PurchaseOrderMapper;
 import com.smartusers.logitrackapi.service.interfaces.PurchaseOrderService;
 import jakarta.validation.Valid;
@@ -22,13 +25,16 @@ public class PurchaseOrderController {
 
     private final PurchaseOrderService purchaseOrderService;
     private final PurchaseOrderMapper purchaseOrderMapper;
+    private final OrderEventMapper orderEventMapper;
 
+    @Idempotent
     @PostMapping
     public PurchaseOrderResponse create(@Valid @RequestBody PurchaseOrderRequest request) {
         PurchaseOrder po = purchaseOrderService.create(request);
         return purchaseOrderMapper.toResponse(po);
     }
 
+    @Idempotent
     @PutMapping("/{id}")
     public PurchaseOrderResponse update(@PathVariable Long id, @Valid @RequestBody PurchaseOrderRequest request) {
         PurchaseOrder po = purchaseOrderService.update(id, request);
@@ -54,24 +60,32 @@ public class PurchaseOrderController {
         purchaseOrderService.delete(id);
     }
 
+    @Idempotent
     @PatchMapping("/{id}/approve")
     public PurchaseOrderResponse approve(@PathVariable Long id) {
         PurchaseOrder po = purchaseOrderService.approve(id);
         return purchaseOrderMapper.toResponse(po);
     }
 
+    @Idempotent
     @PatchMapping("/{id}/receive")
     public PurchaseOrderResponse receive(@PathVariable Long id, @RequestParam Long warehouseId) {
         PurchaseOrder po = purchaseOrderService.receive(id, warehouseId);
         return purchaseOrderMapper.toResponse(po);
     }
 
+    @Idempotent
     @PatchMapping("/{id}/cancel")
     public PurchaseOrderResponse cancel(@PathVariable Long id) {
         PurchaseOrder po = purchaseOrderService.cancel(id);
         return purchaseOrderMapper.toResponse(po);
     }
 
+    @GetMapping("/{id}/events")
+    public List<OrderEventResponse> getEvents(@PathVariable Long id) {
+        return orderEventMapper.toResponses(purchaseOrderService.getEvents(id));
+    }
+
 
 
     @GetMapping("/supplier/{supplierId}")
@@ -1,16 +1,35 @@
 package com.smartusers.logitrackapi.controllers;
 
+import com.smartusers.logitrackapi.annotation.Idempotent;
+import com.smartusers.logitrackapi.dto.common.CursorPage;
+import com.smartusers.logitrackapi.dto.common.OrderEventResponse;
+import com.smartusers.logitrackapi.dto.salesorder.BulkCancelRequest;
+import com.smartusers.logitrackapi.dto.salesorder.BulkCancelResult;
+import com.smartusers.logitrackapi.dto.salesorder.BulkSalesOrderResult;
+import com.smartusers.logitrackapi.dto.salesorder.ClientOrderSummaryResponse;
+import com.smartusers.logitrackapi.dto.salesorder.ConfirmationJobResponse;
 import com.smartusers.logitrackapi.dto.salesorder.SalesOrderRequest;
 import com.smartusers.logitrackapi.dto.salesorder.SalesOrderResponse;
+import com.smartusers.logitrackapi.dto.salesorder.SalesOrderSummaryResponse;
 import com.smartusers.logitrackapi.entity.SalesOrder;
 import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.mapper.OrderEventMapper;
 import com.smartusers.logitrackapi.mapper.SalesOrderMapper;
+import com.smartusers.logitrackapi.service.interfaces.ClientOrderSummaryService;
+import com.smartusers.logitrackapi.service.interfaces.OrderConfirmationService;
 import com.smartusers.logitrackapi.service.interfaces.SalesOrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/sales-orders")
@@ -19,8 +38,12 @@ public class SalesOrderController {
 
     private final SalesOrderService salesOrderService;
     private final SalesOrderMapper salesOrderMapper;
+    private final OrderConfirmationService orderConfirmationService;
+    private final OrderEventMapper orderEventMapper;
+    private final ClientOrderSummaryService clientOrderSummaryService;
 
     // ➕ Créer une commande
+    @Idempotent
     @PostMapping
     public ResponseEntity<SalesOrderResponse> create(@Valid @RequestBody SalesOrderRequest request) {
         try {
@@ -31,7 +54,35 @@ public class SalesOrderController {
         }
     }
 
+    // ➕ Créer des commandes en lot (intégration marketplace) : résultat par commande, les invalides sont ignorées
+    @Idempotent
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkSalesOrderResult>> createBulk(@RequestBody List<SalesOrderRequest> requests) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(salesOrderService.createBulk(requests));
+    }
+
+    // 🔎 Recherche, plus récentes d'abord : ?cursor=<nextCursor de la page précédente>&size=50
+    // from inclus, to exclu ; les lignes ne sont pas chargées (totaux calculés en base)
+    @GetMapping("/search")
+    public CursorPage<SalesOrderSummaryResponse> search(
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) Long warehouseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return salesOrderService.search(clientId, status, warehouseId, from, to, cursor, size);
+    }
+
+    // 📊 Synthèse des commandes d'un client (compteurs par statut, montants ouverts et totaux)
+    @GetMapping("/clients/{clientId}/summary")
+    public ClientOrderSummaryResponse getClientSummary(@PathVariable Long clientId) {
+        return clientOrderSummaryService.getByClient(clientId);
+    }
+
     // ✅ Confirmer une commande (réservation du stock)
+    @Idempotent
     @PostMapping("/{id}/confirm")
     public ResponseEntity<SalesOrderResponse> confirmOrder(@PathVariable Long id) {
         try {
@@ -43,14 +94,43 @@ public class SalesOrderController {
         }
     }
 
+    // ⏳ Confirmation asynchrone : 202 avec le job, suivi via GET /confirmations/{jobId} ou le flux SSE
+    @Idempotent
+    @PostMapping(value = "/{id}/confirm", params = "async=true")
+    public ResponseEntity<ConfirmationJobResponse> confirmOrderAsync(@PathVariable Long id) {
+        ConfirmationJobResponse job = orderConfirmationService.submit(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/sales-orders/confirmations/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/confirmations/{jobId}")
+    public ConfirmationJobResponse getConfirmationJob(@PathVariable String jobId) {
+        return orderConfirmationService.getJob(jobId);
+    }
+
+    @GetMapping(value = "/confirmations/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter confirmationEvents(@PathVariable String jobId) {
+        return orderConfirmationService.subscribe(jobId);
+    }
+
     // ❌ Annuler une commande
+    @Idempotent
     @PostMapping("/{id}/cancel")
     public ResponseEntity<SalesOrderResponse> cancelOrder(@PathVariable Long id) {
         SalesOrder canceled = salesOrderService.cancel(id);
         return ResponseEntity.ok(salesOrderMapper.toResponse(canceled));
     }
 
+    // ❌ Annuler des commandes en lot (liste d'ids ou filtres) : les commandes déjà expédiées ou livrées sont ignorées
+    @Idempotent
+    @PostMapping("/cancel")
+    public ResponseEntity<BulkCancelResult> cancelBulk(@RequestBody BulkCancelRequest request) {
+        return ResponseEntity.ok(salesOrderService.cancelBulk(request));
+    }
+
     // 🚚 Marquer comme expédiée
+    @Idempotent
     @PostMapping("/{id}/ship")
     public ResponseEntity<SalesOrderResponse> shipOrder(@PathVariable Long id) {
         SalesOrder shipped = salesOrderService.markAsShipped(id);
@@ -58,9 +138,16 @@ public class SalesOrderController {
     }
 
     // 📦 Marquer comme livrée
+    @Idempotent
     @PostMapping("/{id}/deliver")
     public ResponseEntity<SalesOrderResponse> deliverOrder(@PathVariable Long id) {
         SalesOrder delivered = salesOrderService.markAsDelivered(id);
         return ResponseEntity.ok(salesOrderMapper.toResponse(delivered));
     }
+
+    // 🕓 Historique des changements de statut
+    @GetMapping("/{id}/events")
+    public List<OrderEventResponse> getEvents(@PathVariable Long id) {
+        return orderEventMapper.toResponses(salesOrderService.getEvents(id));
+    }
 }
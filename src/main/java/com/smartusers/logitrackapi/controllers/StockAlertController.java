@@ -0,0 +1,47 @@
+package com.smartusers.logitrackapi.controllers;
+
+import com.smartusers.logitrackapi.dto.stockalert.LowStockAlertResponse;
+import com.smartusers.logitrackapi.dto.stockalert.ReorderThresholdRequest;
+import com.smartusers.logitrackapi.dto.stockalert.ReorderThresholdResponse;
+import com.smartusers.logitrackapi.mapper.StockAlertMapper;
+import com.smartusers.logitrackapi.service.interfaces.LowStockAlertService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/stock-alerts")
+public class StockAlertController {
+
+    private final LowStockAlertService lowStockAlertService;
+    private final StockAlertMapper stockAlertMapper;
+
+    @PutMapping("/thresholds")
+    public ReorderThresholdResponse setThreshold(@Valid @RequestBody ReorderThresholdRequest request) {
+        return stockAlertMapper.toResponse(lowStockAlertService.setThreshold(request));
+    }
+
+    @GetMapping("/thresholds")
+    public List<ReorderThresholdResponse> getThresholds() {
+        return lowStockAlertService.getThresholds()
+                .stream()
+                .map(stockAlertMapper::toResponse)
+                .toList();
+    }
+
+    @DeleteMapping("/thresholds/{id}")
+    public void deleteThreshold(@PathVariable Long id) {
+        lowStockAlertService.deleteThreshold(id);
+    }
+
+    @GetMapping
+    public List<LowStockAlertResponse> getAlerts(@RequestParam(defaultValue = "true") boolean activeOnly) {
+        return lowStockAlertService.getAlerts(activeOnly)
+                .stream()
+                .map(stockAlertMapper::toResponse)
+                .toList();
+    }
+}
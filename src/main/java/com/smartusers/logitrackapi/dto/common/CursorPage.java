@@ -0,0 +1,16 @@
+package com.smartusers.logitrackapi.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Page obtenue par pagination par clé : nextCursor est à renvoyer tel quel pour la page suivante (null = fin)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
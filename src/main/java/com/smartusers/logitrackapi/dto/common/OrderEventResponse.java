@@ -0,0 +1,14 @@
+package com.smartusers.logitrackapi.dto.common;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OrderEventResponse {
+    private Long id;
+    private Long orderId;
+    private String fromStatus;
+    private String toStatus;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,16 @@
+package com.smartusers.logitrackapi.dto.cyclecount;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CycleCountAdjustment {
+    private Long inventoryId;
+    // Stock attendu en rayon : quantité en stock + réservations de commandes non expédiées
+    private Integer expectedQuantity;
+    private Integer countedQuantity;
+    private Integer delta;
+}
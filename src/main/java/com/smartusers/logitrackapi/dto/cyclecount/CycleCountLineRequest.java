@@ -0,0 +1,13 @@
+package com.smartusers.logitrackapi.dto.cyclecount;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CycleCountLineRequest {
+    private Long inventoryId;
+    private Integer countedQuantity;
+}
@@ -0,0 +1,15 @@
+package com.smartusers.logitrackapi.dto.cyclecount;
+
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementResult;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CycleCountReport {
+    private CycleCountResponse cycleCount;
+    private List<CycleCountAdjustment> adjustments = new ArrayList<>();
+    // Résultat des mouvements mis en file pendant le comptage, rejoués dans l'ordre d'arrivée
+    private List<StockMovementResult> replayed = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.smartusers.logitrackapi.dto.cyclecount;
+
+import com.smartusers.logitrackapi.enums.CycleCountStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class CycleCountResponse {
+    private Long id;
+    private Long warehouseId;
+    private String warehouseName;
+    private CycleCountStatus status;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private long queuedMovements;
+}
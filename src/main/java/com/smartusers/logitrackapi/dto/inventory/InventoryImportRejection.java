@@ -0,0 +1,15 @@
+package com.smartusers.logitrackapi.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryImportRejection {
+    private long line;
+    private String sku;
+    private String warehouse;
+    private String reason;
+}
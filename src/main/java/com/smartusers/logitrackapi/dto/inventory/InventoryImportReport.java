@@ -0,0 +1,15 @@
+package com.smartusers.logitrackapi.dto.inventory;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class InventoryImportReport {
+    private int totalRows;
+    private int imported;
+    private int rejectedCount;
+    // Limité à logitrack.inventory.import.max-reported-rejections ; rejectedCount reste exact
+    private List<InventoryImportRejection> rejections = new ArrayList<>();
+}
@@ -3,9 +3,12 @@ package com.smartusers.logitrackapi.dto.inventory;
 
 import com.smartusers.logitrackapi.dto.inventoryMovement.InventoryMovementResponse;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class InventoryResponse {
     private Long id;
     private Long productId;
@@ -15,4 +18,16 @@ public class InventoryResponse {
     private Integer quantityOnHand;
     private Integer quantityReserved;
     private List<InventoryMovementResponse> movements;
-}
\ No newline at end of file
+
+    // Projection JPQL (SELECT new ...) : pas de mouvements
+    public InventoryResponse(Long id, Long productId, String productName, Long warehouseId, String warehouseName,
+                             Integer quantityOnHand, Integer quantityReserved) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.warehouseId = warehouseId;
+        this.warehouseName = warehouseName;
+        this.quantityOnHand = quantityOnHand;
+        this.quantityReserved = quantityReserved;
+    }
+}
@@ -0,0 +1,19 @@
+package com.smartusers.logitrackapi.dto.inventory;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class InventoryStockAtResponse {
+    private Long inventoryId;
+    private Long productId;
+    private Long warehouseId;
+    private LocalDateTime at;
+    private Integer quantityOnHand;
+    // Les réservations ne génèrent pas de mouvement : valeur de la photo utilisée (null sans photo)
+    private Integer quantityReserved;
+    private LocalDateTime snapshotDate;
+}
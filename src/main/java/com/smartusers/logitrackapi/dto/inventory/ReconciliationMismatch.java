@@ -0,0 +1,15 @@
+package com.smartusers.logitrackapi.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationMismatch {
+    private Long inventoryId;
+    private Integer recordedOnHand;
+    private Integer ledgerOnHand;
+    private boolean repaired;
+}
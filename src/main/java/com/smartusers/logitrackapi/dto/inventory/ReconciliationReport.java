@@ -0,0 +1,18 @@
+package com.smartusers.logitrackapi.dto.inventory;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ReconciliationReport {
+    private LocalDateTime startedAt;
+    private long durationMs;
+    private int inventoriesChecked;
+    private int mismatchCount;
+    private int repairedCount;
+    // Limité à logitrack.reconciliation.max-reported-mismatches ; les compteurs restent exacts
+    private List<ReconciliationMismatch> mismatches = new ArrayList<>();
+}
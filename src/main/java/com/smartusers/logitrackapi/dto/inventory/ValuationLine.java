@@ -0,0 +1,18 @@
+package com.smartusers.logitrackapi.dto.inventory;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ValuationLine {
+    private Long inventoryId;
+    private Long productId;
+    private String sku;
+    private String productName;
+    // Quantité issue des mouvements valorisés (peut différer du stock si des mouvements sont en attente)
+    private long quantity;
+    private BigDecimal averageCost;
+    private BigDecimal averageValue;
+    private BigDecimal fifoValue;
+}
@@ -0,0 +1,20 @@
+package com.smartusers.logitrackapi.dto.inventory;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ValuationReport {
+    private Long warehouseId;
+    private LocalDateTime valuedAt;
+    // Dernier mouvement intégré et nombre de mouvements lus par ce calcul (incrémental)
+    private long lastMovementId;
+    private long movementsApplied;
+    private BigDecimal totalAverageValue = BigDecimal.ZERO;
+    private BigDecimal totalFifoValue = BigDecimal.ZERO;
+    private List<ValuationLine> lines = new ArrayList<>();
+}
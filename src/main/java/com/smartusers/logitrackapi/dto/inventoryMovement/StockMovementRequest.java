@@ -0,0 +1,16 @@
+package com.smartusers.logitrackapi.dto.inventoryMovement;
+
+import com.smartusers.logitrackapi.enums.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementRequest {
+    private Long inventoryId;
+    private MovementType type;
+    private Integer quantity;
+    private String description;
+}
@@ -0,0 +1,19 @@
+package com.smartusers.logitrackapi.dto.inventoryMovement;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementResult {
+    private int index;
+    private Long inventoryId;
+    private boolean success;
+    // Entrepôt en inventaire tournant : le mouvement sera appliqué à la clôture
+    private boolean queued;
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.smartusers.logitrackapi.dto.salesorder;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Commandes à annuler : la liste orderIds, ou à défaut les commandes correspondant aux filtres
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCancelRequest {
+    private List<Long> orderIds;
+    private Long clientId;
+    private Long warehouseId;
+    // from inclus, to exclu (date de création)
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
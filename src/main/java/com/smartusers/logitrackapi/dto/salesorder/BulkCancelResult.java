@@ -0,0 +1,19 @@
+package com.smartusers.logitrackapi.dto.salesorder;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCancelResult {
+    // Commandes sélectionnées (liste fournie ou filtre)
+    private int requested;
+    // Commandes effectivement annulées ; les autres étaient déjà expédiées, livrées ou annulées
+    private List<Long> canceledIds;
+}
@@ -0,0 +1,18 @@
+package com.smartusers.logitrackapi.dto.salesorder;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSalesOrderResult {
+    // Position de la commande dans la requête
+    private int index;
+    private Long orderId;
+    private boolean success;
+    private String message;
+}
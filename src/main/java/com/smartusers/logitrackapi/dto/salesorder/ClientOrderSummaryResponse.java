@@ -0,0 +1,24 @@
+package com.smartusers.logitrackapi.dto.salesorder;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientOrderSummaryResponse {
+
+    private Long clientId;
+    private long orderCount;
+    private long openOrderCount;
+    private BigDecimal openOrderValue;
+    private BigDecimal totalOrderValue;
+    private long reservedOrderCount;
+    private long shippedOrderCount;
+    private long deliveredOrderCount;
+    private long canceledOrderCount;
+    private LocalDateTime lastOrderAt;
+    private LocalDateTime updatedAt;
+}
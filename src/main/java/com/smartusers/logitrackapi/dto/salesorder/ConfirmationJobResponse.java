@@ -0,0 +1,27 @@
+package com.smartusers.logitrackapi.dto.salesorder;
+
+import com.smartusers.logitrackapi.enums.ConfirmationJobStatus;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfirmationJobResponse {
+    private String jobId;
+    private Long orderId;
+    private Long warehouseId;
+    private ConfirmationJobStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    // Statut de la commande après confirmation (RESERVED ou CREATED si rupture), null tant que le job tourne
+    private OrderStatus orderStatus;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.smartusers.logitrackapi.dto.stockalert;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class LowStockAlertResponse {
+    private Long id;
+    private Long inventoryId;
+    private Long productId;
+    private String productName;
+    private Long warehouseId;
+    private String warehouseName;
+    private Integer threshold;
+    private Integer availableAtRaise;
+    private LocalDateTime raisedAt;
+    private LocalDateTime resolvedAt;
+    private Boolean active;
+}
@@ -0,0 +1,19 @@
+package com.smartusers.logitrackapi.dto.stockalert;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ReorderThresholdRequest {
+
+    @NotNull(message = "Le produit est obligatoire")
+    private Long productId;
+
+    @NotNull(message = "L'entrepôt est obligatoire")
+    private Long warehouseId;
+
+    @NotNull(message = "Le seuil est obligatoire")
+    @Min(value = 0, message = "Le seuil doit être positif ou nul")
+    private Integer threshold;
+}
@@ -0,0 +1,13 @@
+package com.smartusers.logitrackapi.dto.stockalert;
+
+import lombok.Data;
+
+@Data
+public class ReorderThresholdResponse {
+    private Long id;
+    private Long productId;
+    private String productName;
+    private Long warehouseId;
+    private String warehouseName;
+    private Integer threshold;
+}
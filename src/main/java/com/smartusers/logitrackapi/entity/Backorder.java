@@ -0,0 +1,65 @@
+package com.smartusers.logitrackapi.entity;
+
+import com.smartusers.logitrackapi.enums.BackorderStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Quantité manquante d'une ligne de commande à la confirmation, en attente d'une commande fournisseur.
+// QUEUED jusqu'au regroupement par fournisseur, ORDERED une fois rattachée à sa commande d'achat,
+// FULFILLED quand la réception a été réservée pour la commande client.
+@Entity
+@Table(name = "backorders", indexes = {
+        @Index(name = "idx_backorder_status", columnList = "status, id"),
+        @Index(name = "idx_backorder_purchase_order", columnList = "purchase_order_id, status"),
+        @Index(name = "idx_backorder_order", columnList = "sales_order_id, status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Backorder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "sales_order_id", nullable = false)
+    private SalesOrder salesOrder;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "sales_order_line_id", nullable = false)
+    private SalesOrderLine salesOrderLine;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private BackorderStatus status = BackorderStatus.QUEUED;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "purchase_order_id")
+    private PurchaseOrder purchaseOrder;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "ordered_at")
+    private LocalDateTime orderedAt;
+
+    @Column(name = "fulfilled_at")
+    private LocalDateTime fulfilledAt;
+}
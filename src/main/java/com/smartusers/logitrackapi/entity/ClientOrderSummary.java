@@ -0,0 +1,54 @@
+package com.smartusers.logitrackapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Vue de lecture par client (portail) : compteurs et montants tenus à jour par deltas dans la transaction
+// de chaque création / transition de commande, jamais recalculés à la lecture.
+// Une commande est "ouverte" tant qu'elle n'est ni livrée ni annulée ; les annulées sortent du total.
+@Entity
+@Table(name = "client_order_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClientOrderSummary {
+
+    @Id
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "open_order_count", nullable = false)
+    private long openOrderCount;
+
+    @Column(name = "open_order_value", nullable = false, precision = 19, scale = 2)
+    private BigDecimal openOrderValue;
+
+    @Column(name = "total_order_value", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalOrderValue;
+
+    @Column(name = "reserved_order_count", nullable = false)
+    private long reservedOrderCount;
+
+    @Column(name = "shipped_order_count", nullable = false)
+    private long shippedOrderCount;
+
+    @Column(name = "delivered_order_count", nullable = false)
+    private long deliveredOrderCount;
+
+    @Column(name = "canceled_order_count", nullable = false)
+    private long canceledOrderCount;
+
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.smartusers.logitrackapi.entity;
+
+import com.smartusers.logitrackapi.enums.CycleCountStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Inventaire tournant d'un entrepôt : tant qu'il est OPEN, les mouvements de l'entrepôt sont mis en file
+@Entity
+@Table(name = "cycle_counts",
+        indexes = @Index(name = "idx_cycle_count_warehouse_status", columnList = "warehouse_id, status"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CycleCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "warehouse_id", nullable = false)
+    private Warehouse warehouse;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private CycleCountStatus status = CycleCountStatus.OPEN;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+}
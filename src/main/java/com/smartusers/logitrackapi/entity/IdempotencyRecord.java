@@ -0,0 +1,53 @@
+package com.smartusers.logitrackapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+// Réponse enregistrée pour une clé d'idempotence. Tant que completed est faux, la requête d'origine
+// est en cours (ou a été interrompue, auquel cas la ligne est reprise après pending-timeout-seconds).
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_scope_key",
+                columnNames = {"scope", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Utilisateur, méthode HTTP et chemin de la requête
+    @Column(nullable = false, length = 512)
+    private String scope;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    // SHA-256 des paramètres : une même clé réutilisée avec un autre contenu est refusée
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    private Integer responseStatus;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String responseBody;
+
+    private String location;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+}
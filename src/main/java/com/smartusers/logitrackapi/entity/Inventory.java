@@ -6,7 +6,13 @@ import lombok.*;
 import java.util.List;
 
 @Entity
-@Table(name = "inventories")
+@Table(name = "inventories",
+        uniqueConstraints = @UniqueConstraint(name = "uk_inventory_warehouse_product",
+                columnNames = {"warehouse_id", "product_id"}),
+        indexes = {
+        @Index(name = "idx_inventory_warehouse_id", columnList = "warehouse_id, id"),
+        @Index(name = "idx_inventory_product_id", columnList = "product_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,6 +23,9 @@ public class Inventory {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
     private Integer quantityOnHand;
     private Integer quantityReserved;
     @ManyToOne
@@ -3,9 +3,12 @@ package com.smartusers.logitrackapi.entity;
 import com.smartusers.logitrackapi.enums.MovementType;
 import jakarta.persistence.*;
 import lombok.*;
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_movement_inventory_date", columnList = "inventory_id, movement_date"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,9 +24,14 @@ public class InventoryMovement {
     private MovementType type;
 
     private Integer quantity;
+    @Column(name = "movement_date")
     private LocalDateTime movementDate;
     private String description;
 
+    // Coût unitaire d'entrée (prix d'achat) ; null quand il n'est pas connu
+    @Column(name = "unit_cost", precision = 19, scale = 4)
+    private BigDecimal unitCost;
+
     @ManyToOne
     @JoinColumn(name = "inventory_id")
     private Inventory inventory;
@@ -0,0 +1,30 @@
+package com.smartusers.logitrackapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "inventory_snapshots",
+        indexes = @Index(name = "idx_snapshot_inventory_date", columnList = "inventory_id, snapshot_date"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Integer quantityOnHand;
+    private Integer quantityReserved;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDateTime snapshotDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id")
+    private Inventory inventory;
+}
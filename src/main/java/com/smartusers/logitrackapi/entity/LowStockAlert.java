@@ -0,0 +1,33 @@
+package com.smartusers.logitrackapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "low_stock_alerts",
+        indexes = @Index(name = "idx_low_stock_alert_active", columnList = "active, inventory_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Integer threshold;
+    private Integer availableAtRaise;
+    private LocalDateTime raisedAt;
+    private LocalDateTime resolvedAt;
+
+    // Une seule alerte active par inventaire, jusqu'à remontée du stock
+    @Column(nullable = false)
+    private Boolean active;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id")
+    private Inventory inventory;
+}
@@ -0,0 +1,47 @@
+package com.smartusers.logitrackapi.entity;
+
+import com.smartusers.logitrackapi.enums.MovementType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Mouvement que le journal ASYNC n'a pas pu écrire dans le registre après ses tentatives : conservé ici
+// (sans clé étrangère, l'inventaire peut être la cause de l'échec) pour être rejoué ou corrigé.
+@Entity
+@Table(name = "inventory_movement_dead_letters",
+        indexes = @Index(name = "idx_movement_dead_letter_failed_at", columnList = "failed_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovementDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inventory_id")
+    private Long inventoryId;
+
+    @Enumerated(EnumType.STRING)
+    private MovementType type;
+
+    private Integer quantity;
+
+    @Column(name = "movement_date")
+    private LocalDateTime movementDate;
+
+    private String description;
+
+    @Column(name = "unit_cost", precision = 19, scale = 4)
+    private BigDecimal unitCost;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+}
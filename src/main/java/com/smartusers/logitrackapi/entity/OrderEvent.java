@@ -0,0 +1,39 @@
+package com.smartusers.logitrackapi.entity;
+
+import com.smartusers.logitrackapi.enums.OrderEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Journal des changements de statut des commandes clients et fournisseurs (ajout seul)
+@Entity
+@Table(name = "order_events",
+        indexes = @Index(name = "idx_order_events_order", columnList = "order_type, order_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_type", nullable = false, length = 20)
+    private OrderEventType orderType;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(length = 20)
+    private String fromStatus;
+
+    @Column(nullable = false, length = 20)
+    private String toStatus;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
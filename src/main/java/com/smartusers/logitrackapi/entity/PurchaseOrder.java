@@ -31,6 +31,14 @@ public class PurchaseOrder {
     @Column(nullable = false)
     private POStatus status ;
 
+    // Renseignés par la mise à jour gardée d'OrderStateMachine, relus pour alimenter order_events
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status")
+    private POStatus previousStatus;
+
+    @Column(name = "status_changed_at")
+    private LocalDateTime statusChangedAt;
+
     @Column(nullable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -0,0 +1,58 @@
+package com.smartusers.logitrackapi.entity;
+
+import com.smartusers.logitrackapi.enums.MovementType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Mouvement reçu pendant un inventaire tournant, rejoué à sa clôture dans l'ordre d'arrivée.
+// inventory est renseigné pour les entrées / sorties, product pour les réceptions sur emplacement
+// (avec la commande d'achat reçue, dont les ruptures sont servies au rejeu).
+@Entity
+@Table(name = "cycle_count_queue",
+        indexes = @Index(name = "idx_queued_movement_count", columnList = "cycle_count_id, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueuedMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "cycle_count_id", nullable = false)
+    private CycleCount cycleCount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id")
+    private Inventory inventory;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "purchase_order_id")
+    private PurchaseOrder purchaseOrder;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MovementType type;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Prix d'achat des réceptions, reporté sur le mouvement rejoué
+    @Column(precision = 19, scale = 4)
+    private BigDecimal unitCost;
+
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime queuedAt;
+}
@@ -0,0 +1,32 @@
+package com.smartusers.logitrackapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "reorder_thresholds",
+        uniqueConstraints = @UniqueConstraint(name = "uk_threshold_product_warehouse",
+                columnNames = {"product_id", "warehouse_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReorderThreshold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Alerte dès que le disponible passe sous ce seuil
+    @Column(nullable = false)
+    private Integer threshold;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "warehouse_id")
+    private Warehouse warehouse;
+}
@@ -9,7 +9,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name="sales_orders")
+// Index alignés sur la recherche par clé (createdAt, id), avec ou sans filtre client / statut / entrepôt
+@Table(name = "sales_orders", indexes = {
+        @Index(name = "idx_sales_orders_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_sales_orders_client_created_at_id", columnList = "client_id, created_at, id"),
+        @Index(name = "idx_sales_orders_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_sales_orders_warehouse_created_at_id", columnList = "warehouse_id, created_at, id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -30,6 +36,14 @@ public class SalesOrder {
     @Builder.Default
     private com.smartusers.logitrackapi.enums.OrderStatus status = com.smartusers.logitrackapi.enums.OrderStatus.CREATED;
 
+    // Renseignés par la mise à jour gardée d'OrderStateMachine, relus pour alimenter order_events
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status")
+    private com.smartusers.logitrackapi.enums.OrderStatus previousStatus;
+
+    @Column(name = "status_changed_at")
+    private LocalDateTime statusChangedAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
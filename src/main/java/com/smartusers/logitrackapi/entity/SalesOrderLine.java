@@ -9,7 +9,8 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "sales_order_lines")
+@Table(name = "sales_order_lines",
+        indexes = @Index(name = "idx_sales_order_lines_order_id", columnList = "sales_order_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,34 @@
+package com.smartusers.logitrackapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Point de reprise de la valorisation d'un entrepôt : les mouvements d'id <= lastMovementId sont déjà
+// intégrés dans les ValuationState de ses inventaires.
+@Entity
+@Table(name = "valuation_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ValuationCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "warehouse_id", nullable = false, unique = true)
+    private Warehouse warehouse;
+
+    @Column(nullable = false)
+    private Long lastMovementId;
+
+    @Column(nullable = false)
+    private Long movementsApplied;
+
+    private LocalDateTime updatedAt;
+}
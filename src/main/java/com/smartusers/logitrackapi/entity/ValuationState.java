@@ -0,0 +1,41 @@
+package com.smartusers.logitrackapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+// État de valorisation d'un inventaire au point de reprise de son entrepôt.
+// Les coûts sont en dix-millièmes (échelle des prix d'achat) ; fifoLayers est l'encodage compact
+// des couches FIFO produit par ValuationLedger.
+@Entity
+@Table(name = "valuation_states",
+        indexes = @Index(name = "idx_valuation_state_warehouse", columnList = "warehouse_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ValuationState {
+
+    @Id
+    @Column(name = "inventory_id")
+    private Long inventoryId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(nullable = false)
+    private Long averageCost;
+
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(name = "fifo_layers", length = 1048576)
+    private byte[] fifoLayers;
+
+    // Version null = nouvel état : save() fait un persist sans relire la ligne
+    @Version
+    private Long version;
+}
@@ -0,0 +1,8 @@
+package com.smartusers.logitrackapi.enums;
+
+public enum AllocationStrategyType {
+    MAIN_WAREHOUSE_FIRST,
+    MIN_SOURCES,
+    PREFERRED_RANKING,
+    LARGEST_STOCK_FIRST
+}
@@ -0,0 +1,6 @@
+package com.smartusers.logitrackapi.enums;
+
+public enum CycleCountStatus {
+    OPEN,
+    COMPLETED
+}
@@ -0,0 +1,6 @@
+package com.smartusers.logitrackapi.enums;
+
+public enum OrderEventType {
+    SALES_ORDER,
+    PURCHASE_ORDER
+}
@@ -0,0 +1,8 @@
+package com.smartusers.logitrackapi.enums;
+
+public enum ReservationStatus {
+    ACTIVE,
+    CONSUMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,5 @@
+package com.smartusers.logitrackapi.event;
+
+// Publié après commit quand un inventaire passe sous son seuil (raised = true) ou le retrouve (raised = false)
+public record LowStockAlertEvent(Long alertId, Long inventoryId, int available, int threshold, boolean raised) {
+}
@@ -0,0 +1,21 @@
+package com.smartusers.logitrackapi.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class LowStockAlertLogListener {
+
+    @EventListener
+    public void onLowStock(LowStockAlertEvent event) {
+        if (event.raised()) {
+            log.warn("Stock bas : inventaire {} à {} unités disponibles (seuil {})",
+                    event.inventoryId(), event.available(), event.threshold());
+        } else {
+            log.info("Stock rétabli : inventaire {} à {} unités disponibles (seuil {})",
+                    event.inventoryId(), event.available(), event.threshold());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.smartusers.logitrackapi.mapper;
+
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountResponse;
+import com.smartusers.logitrackapi.entity.CycleCount;
+import org.mapstruct.*;
+
+@Mapper(componentModel = "spring")
+public interface CycleCountMapper {
+
+    @Mapping(target = "warehouseId", source = "warehouse.id")
+    @Mapping(target = "warehouseName", source = "warehouse.name")
+    @Mapping(target = "queuedMovements", ignore = true)
+    CycleCountResponse toResponse(CycleCount cycleCount);
+}
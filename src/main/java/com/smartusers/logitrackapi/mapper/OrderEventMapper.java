@@ -0,0 +1,15 @@
+package com.smartusers.logitrackapi.mapper;
+
+import com.smartusers.logitrackapi.dto.common.OrderEventResponse;
+import com.smartusers.logitrackapi.entity.OrderEvent;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface OrderEventMapper {
+
+    OrderEventResponse toResponse(OrderEvent event);
+
+    List<OrderEventResponse> toResponses(List<OrderEvent> events);
+}
@@ -0,0 +1,24 @@
+package com.smartusers.logitrackapi.mapper;
+
+import com.smartusers.logitrackapi.dto.stockalert.LowStockAlertResponse;
+import com.smartusers.logitrackapi.dto.stockalert.ReorderThresholdResponse;
+import com.smartusers.logitrackapi.entity.LowStockAlert;
+import com.smartusers.logitrackapi.entity.ReorderThreshold;
+import org.mapstruct.*;
+
+@Mapper(componentModel = "spring")
+public interface StockAlertMapper {
+
+    @Mapping(target = "productId", source = "product.id")
+    @Mapping(target = "productName", source = "product.name")
+    @Mapping(target = "warehouseId", source = "warehouse.id")
+    @Mapping(target = "warehouseName", source = "warehouse.name")
+    ReorderThresholdResponse toResponse(ReorderThreshold threshold);
+
+    @Mapping(target = "inventoryId", source = "inventory.id")
+    @Mapping(target = "productId", source = "inventory.product.id")
+    @Mapping(target = "productName", source = "inventory.product.name")
+    @Mapping(target = "warehouseId", source = "inventory.warehouse.id")
+    @Mapping(target = "warehouseName", source = "inventory.warehouse.name")
+    LowStockAlertResponse toResponse(LowStockAlert alert);
+}
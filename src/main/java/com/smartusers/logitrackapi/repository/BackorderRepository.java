@@ -0,0 +1,53 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.Backorder;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BackorderRepository extends JpaRepository<Backorder, Long> {
+
+    // Lot de ruptures à commander ; les lignes déjà verrouillées par une autre instance sont sautées
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM Backorder b " +
+            "WHERE b.status = com.smartusers.logitrackapi.enums.BackorderStatus.QUEUED ORDER BY b.id")
+    List<Backorder> lockQueued(Limit limit);
+
+    // Verrouille aussi les commandes : une annulation concurrente attend la fin de la réservation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Backorder b JOIN FETCH b.salesOrder JOIN FETCH b.salesOrderLine " +
+            "WHERE b.purchaseOrder.id = :purchaseOrderId " +
+            "AND b.status = com.smartusers.logitrackapi.enums.BackorderStatus.ORDERED ORDER BY b.id")
+    List<Backorder> lockOrderedByPurchaseOrder(@Param("purchaseOrderId") Long purchaseOrderId);
+
+    @Query("SELECT DISTINCT b.salesOrder.id FROM Backorder b WHERE b.salesOrder.id IN :orderIds " +
+            "AND b.status IN (com.smartusers.logitrackapi.enums.BackorderStatus.QUEUED, " +
+            "com.smartusers.logitrackapi.enums.BackorderStatus.ORDERED)")
+    List<Long> findOrderIdsWithOpenBackorders(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("SELECT DISTINCT b.salesOrder.id FROM Backorder b WHERE b.id IN :ids " +
+            "AND b.salesOrder.status = com.smartusers.logitrackapi.enums.OrderStatus.PENDING")
+    List<Long> findPendingOrderIds(@Param("ids") Collection<Long> ids);
+
+    // Commande d'achat annulée : ses ruptures seront recommandées au prochain passage
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Backorder b SET b.status = com.smartusers.logitrackapi.enums.BackorderStatus.QUEUED, " +
+            "b.purchaseOrder = null, b.orderedAt = null " +
+            "WHERE b.purchaseOrder.id = :purchaseOrderId " +
+            "AND b.status = com.smartusers.logitrackapi.enums.BackorderStatus.ORDERED")
+    int requeueByPurchaseOrder(@Param("purchaseOrderId") Long purchaseOrderId);
+
+    // Nouvelle confirmation : les ruptures précédentes de la commande ne doivent plus être commandées ni servies
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Backorder b SET b.status = com.smartusers.logitrackapi.enums.BackorderStatus.CANCELED " +
+            "WHERE b.salesOrder.id = :orderId " +
+            "AND b.status IN (com.smartusers.logitrackapi.enums.BackorderStatus.QUEUED, " +
+            "com.smartusers.logitrackapi.enums.BackorderStatus.ORDERED)")
+    int cancelOpenByOrder(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,129 @@
+package com.smartusers.logitrackapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Écritures de client_order_summaries : création des lignes manquantes puis deltas additifs, chacun en
+// un batch JDBC. Les UPDATE col = col + ? sont atomiques : aucune relecture, pas de perte entre transactions.
+// Deltas et reconstruction sont sérialisés par un verrou consultatif de transaction (partagé / exclusif) :
+// une reconstruction attend les deltas en cours et bloque les suivants jusqu'à son commit.
+@Repository
+@RequiredArgsConstructor
+public class ClientOrderSummaryBatchRepository {
+
+    private static final String ENSURE_SQL =
+            "INSERT INTO client_order_summaries (client_id, order_count, open_order_count, open_order_value, " +
+            "total_order_value, reserved_order_count, shipped_order_count, delivered_order_count, " +
+            "canceled_order_count, updated_at) VALUES (?, 0, 0, 0, 0, 0, 0, 0, 0, ?) " +
+            "ON CONFLICT (client_id) DO NOTHING";
+
+    private static final String APPLY_SQL =
+            "UPDATE client_order_summaries SET " +
+            "order_count = order_count + ?, " +
+            "open_order_count = open_order_count + ?, " +
+            "open_order_value = open_order_value + ?, " +
+            "total_order_value = total_order_value + ?, " +
+            "reserved_order_count = reserved_order_count + ?, " +
+            "shipped_order_count = shipped_order_count + ?, " +
+            "delivered_order_count = delivered_order_count + ?, " +
+            "canceled_order_count = canceled_order_count + ?, " +
+            "last_order_at = CASE WHEN last_order_at IS NULL OR last_order_at < ? THEN ? ELSE last_order_at END, " +
+            "updated_at = ? " +
+            "WHERE client_id = ?";
+
+    // Reconstruction complète depuis les commandes ; statuts ouverts = ClientOrderSummaryProjector.OPEN
+    private static final String REBUILD_SQL =
+            "INSERT INTO client_order_summaries (client_id, order_count, open_order_count, open_order_value, " +
+            "total_order_value, reserved_order_count, shipped_order_count, delivered_order_count, " +
+            "canceled_order_count, last_order_at, updated_at) " +
+            "SELECT o.client_id, COUNT(*), " +
+            "SUM(CASE WHEN o.status IN ('CREATED', 'PENDING', 'RESERVED', 'SHIPPED') THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(CASE WHEN o.status IN ('CREATED', 'PENDING', 'RESERVED', 'SHIPPED') THEN a.amount END), 0), " +
+            "COALESCE(SUM(CASE WHEN o.status <> 'CANCELED' THEN a.amount END), 0), " +
+            "SUM(CASE WHEN o.status = 'RESERVED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN o.status = 'SHIPPED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN o.status = 'DELIVERED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN o.status = 'CANCELED' THEN 1 ELSE 0 END), " +
+            "MAX(o.created_at), ? " +
+            "FROM sales_orders o LEFT JOIN (" +
+            "    SELECT sales_order_id, SUM(unit_price * qty_ordered) AS amount " +
+            "    FROM sales_order_lines GROUP BY sales_order_id) a ON a.sales_order_id = o.id " +
+            "GROUP BY o.client_id";
+
+    // Clé du verrou consultatif PostgreSQL de la table de synthèse
+    private static final long LOCK_KEY = 0x4C54_0001L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Variation à ajouter à la ligne d'un client ; lastOrderAt null = inchangé
+    public record Delta(long clientId, long orders, long openOrders, BigDecimal openValue, BigDecimal totalValue,
+                        long reservedOrders, long shippedOrders, long deliveredOrders, long canceledOrders,
+                        LocalDateTime lastOrderAt) {
+    }
+
+    // deltas triés par client : verrous de ligne toujours pris dans le même ordre entre transactions
+    public void apply(List<Delta> deltas, LocalDateTime now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock_shared(?)", LOCK_KEY);
+        Timestamp at = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(ENSURE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, deltas.get(i).clientId());
+                ps.setTimestamp(2, at);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deltas.size();
+            }
+        });
+        jdbcTemplate.batchUpdate(APPLY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Delta delta = deltas.get(i);
+                ps.setLong(1, delta.orders());
+                ps.setLong(2, delta.openOrders());
+                ps.setBigDecimal(3, delta.openValue());
+                ps.setBigDecimal(4, delta.totalValue());
+                ps.setLong(5, delta.reservedOrders());
+                ps.setLong(6, delta.shippedOrders());
+                ps.setLong(7, delta.deliveredOrders());
+                ps.setLong(8, delta.canceledOrders());
+                Timestamp lastOrderAt = delta.lastOrderAt() == null ? null : Timestamp.valueOf(delta.lastOrderAt());
+                ps.setObject(9, lastOrderAt, Types.TIMESTAMP);
+                ps.setObject(10, lastOrderAt, Types.TIMESTAMP);
+                ps.setTimestamp(11, at);
+                ps.setLong(12, delta.clientId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deltas.size();
+            }
+        });
+    }
+
+    // Verrou exclusif jusqu'à la fin de la transaction : à prendre avant de décider d'une reconstruction
+    public void lockForRebuild() {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", LOCK_KEY);
+    }
+
+    // Appelant : transaction ayant pris lockForRebuild
+    public int rebuild(LocalDateTime now) {
+        jdbcTemplate.update("DELETE FROM client_order_summaries");
+        return jdbcTemplate.update(REBUILD_SQL, Timestamp.valueOf(now));
+    }
+}
@@ -0,0 +1,7 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.ClientOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ClientOrderSummaryRepository extends JpaRepository<ClientOrderSummary, Long> {
+}
@@ -0,0 +1,32 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.CycleCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CycleCountRepository extends JpaRepository<CycleCount, Long> {
+
+    String OPEN = "com.smartusers.logitrackapi.enums.CycleCountStatus.OPEN";
+
+    @Query("SELECT c FROM CycleCount c WHERE c.warehouse.id = :warehouseId AND c.status = " + OPEN)
+    Optional<CycleCount> findOpenByWarehouseId(@Param("warehouseId") Long warehouseId);
+
+    // Verrou partagé : la clôture (verrou exclusif) attend la fin des transactions qui mettent en file
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM CycleCount c WHERE c.warehouse.id IN :warehouseIds AND c.status = " + OPEN)
+    List<CycleCount> lockOpenByWarehouseIdIn(@Param("warehouseIds") Collection<Long> warehouseIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CycleCount c JOIN FETCH c.warehouse WHERE c.id = :id")
+    Optional<CycleCount> lockById(@Param("id") Long id);
+
+    @Query("SELECT c.warehouse.id FROM CycleCount c WHERE c.status = " + OPEN)
+    List<Long> findFrozenWarehouseIds();
+}
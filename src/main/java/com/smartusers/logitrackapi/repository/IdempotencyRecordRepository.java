@@ -0,0 +1,44 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    // Reprise d'une requête interrompue : le premier appelant rafraîchit createdAt, les suivants ne matchent plus
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now " +
+            "WHERE r.id = :id AND r.completed = false AND r.createdAt < :staleBefore")
+    int takeOver(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore,
+                 @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE IdempotencyRecord r SET r.completed = true, r.responseStatus = :status, " +
+            "r.responseBody = :body, r.location = :location, r.completedAt = :now " +
+            "WHERE r.scope = :scope AND r.idempotencyKey = :key AND r.completed = false")
+    int complete(@Param("scope") String scope, @Param("key") String key, @Param("status") int status,
+                 @Param("body") String body, @Param("location") String location,
+                 @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r " +
+            "WHERE r.scope = :scope AND r.idempotencyKey = :key AND r.completed = false")
+    int deletePending(@Param("scope") String scope, @Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :limit")
+    int deleteCreatedBefore(@Param("limit") LocalDateTime limit);
+}
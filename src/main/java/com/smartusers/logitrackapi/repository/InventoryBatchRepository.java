@@ -0,0 +1,136 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.repository.projection.LocationReceipt;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+// Écritures JDBC en lot sur les inventaires : une seule requête préparée envoyée en batch
+@Repository
+@RequiredArgsConstructor
+public class InventoryBatchRepository {
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE inventories SET quantity_on_hand = quantity_on_hand + ?, version = version + 1 " +
+            "WHERE id = ? " +
+            "AND (? >= 0 OR quantity_on_hand - quantity_reserved >= ?) " +
+            "AND warehouse_id IN (SELECT w.id FROM warehouses w WHERE w.active = true) " +
+            "AND warehouse_id NOT IN (SELECT c.warehouse_id FROM cycle_counts c WHERE c.status = 'OPEN')";
+
+    // Variation signée sans condition (réservation expirée, ajustement d'inventaire), même entrepôt inactif ou gelé
+    private static final String ADD_ON_HAND_SQL =
+            "UPDATE inventories SET quantity_on_hand = quantity_on_hand + ?, version = version + 1 WHERE id = ?";
+
+    private static final String INSERT_INVENTORY_SQL =
+            "INSERT INTO inventories (quantity_on_hand, quantity_reserved, version, product_id, warehouse_id) " +
+            "VALUES (?, 0, 0, ?, ?)";
+
+    // Crée l'inventaire de l'emplacement ou incrémente l'existant en une instruction (xmax = 0 : ligne insérée)
+    private static final String UPSERT_ON_HAND_SQL =
+            "INSERT INTO inventories (quantity_on_hand, quantity_reserved, version, product_id, warehouse_id) " +
+            "VALUES (?, 0, 0, ?, ?) " +
+            "ON CONFLICT (warehouse_id, product_id) DO UPDATE " +
+            "SET quantity_on_hand = inventories.quantity_on_hand + EXCLUDED.quantity_on_hand, " +
+            "version = inventories.version + 1 " +
+            "RETURNING id, (xmax = 0) AS created";
+
+    private static final String INSERT_MOVEMENT_SQL =
+            "INSERT INTO inventory_movement (inventory_id, type, quantity, movement_date, description, unit_cost) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Applique des variations signées de quantityOnHand ; une sortie n'est acceptée que si le disponible la couvre.
+    // Retourne, pour chaque variation, le nombre de lignes modifiées (0 = refusée).
+    public int[] applyOnHandDeltas(long[] inventoryIds, int[] deltas) {
+        return jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, deltas[i]);
+                ps.setLong(2, inventoryIds[i]);
+                ps.setInt(3, deltas[i]);
+                ps.setInt(4, -deltas[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return inventoryIds.length;
+            }
+        });
+    }
+
+    public void addOnHand(long[] inventoryIds, int[] quantities) {
+        jdbcTemplate.batchUpdate(ADD_ON_HAND_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, quantities[i]);
+                ps.setLong(2, inventoryIds[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return inventoryIds.length;
+            }
+        });
+    }
+
+    public LocationReceipt receiveIntoLocation(long warehouseId, long productId, int quantity) {
+        return jdbcTemplate.queryForObject(UPSERT_ON_HAND_SQL,
+                (rs, rowNum) -> new LocationReceipt(rs.getLong("id"), rs.getBoolean("created")),
+                quantity, productId, warehouseId);
+    }
+
+    // Insère les inventaires en un seul batch et retourne leurs identifiants dans l'ordre d'entrée
+    public long[] insertInventories(long[] productIds, long[] warehouseIds, int[] quantities) {
+        if (productIds.length == 0) {
+            return new long[0];
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_INVENTORY_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, quantities[i]);
+                        ps.setLong(2, productIds[i]);
+                        ps.setLong(3, warehouseIds[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return productIds.length;
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        long[] ids = new long[keys.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) keys.get(i).values().iterator().next()).longValue();
+        }
+        return ids;
+    }
+
+    public void insertMovements(List<InventoryMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, movements, movements.size(), (ps, movement) -> {
+            ps.setLong(1, movement.getInventory().getId());
+            ps.setString(2, movement.getType().name());
+            ps.setInt(3, movement.getQuantity());
+            ps.setTimestamp(4, Timestamp.valueOf(movement.getMovementDate()));
+            ps.setString(5, movement.getDescription());
+            ps.setObject(6, movement.getUnitCost(), Types.NUMERIC);
+        });
+    }
+}
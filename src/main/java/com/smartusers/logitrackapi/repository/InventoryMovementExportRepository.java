@@ -0,0 +1,73 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.repository.projection.MovementExportRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Lecture des mouvements par curseur : les lignes sont lues par paquets de fetchSize et passées
+// une à une au consommateur, sans jamais matérialiser la liste complète.
+// Avec PostgreSQL le curseur n'est utilisé qu'à l'intérieur d'une transaction (autocommit désactivé).
+@Repository
+public class InventoryMovementExportRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT m.id, m.inventory_id, m.type, m.quantity, m.movement_date, m.description " +
+            "FROM inventory_movement m ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryMovementExportRepository(DataSource dataSource,
+                                             @Value("${logitrack.movements.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void streamByInventory(Long inventoryId, LocalDateTime from, LocalDateTime to,
+                                  Consumer<MovementExportRow> consumer) {
+        List<Object> args = new ArrayList<>();
+        args.add(inventoryId);
+        stream(SELECT_SQL + "WHERE m.inventory_id = ?", args, from, to, consumer);
+    }
+
+    public void streamByWarehouse(Long warehouseId, LocalDateTime from, LocalDateTime to,
+                                  Consumer<MovementExportRow> consumer) {
+        List<Object> args = new ArrayList<>();
+        args.add(warehouseId);
+        stream(SELECT_SQL + "JOIN inventories i ON i.id = m.inventory_id WHERE i.warehouse_id = ?",
+                args, from, to, consumer);
+    }
+
+    private void stream(String baseSql, List<Object> args, LocalDateTime from, LocalDateTime to,
+                        Consumer<MovementExportRow> consumer) {
+        StringBuilder sql = new StringBuilder(baseSql);
+        if (from != null) {
+            sql.append(" AND m.movement_date >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND m.movement_date <= ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY m.movement_date, m.id");
+
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+            Timestamp date = rs.getTimestamp(5);
+            consumer.accept(new MovementExportRow(
+                    rs.getLong(1),
+                    rs.getLong(2),
+                    rs.getString(3),
+                    rs.getInt(4),
+                    date != null ? date.toLocalDateTime() : null,
+                    rs.getString(6)));
+        }, args.toArray());
+    }
+}
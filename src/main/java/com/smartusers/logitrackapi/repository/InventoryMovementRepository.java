@@ -2,10 +2,48 @@ package com.smartusers.logitrackapi.repository;
 
 import com.smartusers.logitrackapi.entity.Inventory;
 import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.repository.projection.InventoryDeltaView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
     List<InventoryMovement> findByInventoryId(Long inventoryId);
+
+    // Effet net sur le stock physique : INBOUND +, OUTBOUND -, ADJUSTMENT porte déjà son signe
+    String NET_QUANTITY = "CASE WHEN m.type = com.smartusers.logitrackapi.enums.MovementType.OUTBOUND " +
+            "THEN -m.quantity ELSE m.quantity END";
+
+    @Query("SELECT COALESCE(SUM(" + NET_QUANTITY + "), 0) FROM InventoryMovement m " +
+            "WHERE m.inventory.id = :inventoryId AND m.movementDate > :from AND m.movementDate <= :to")
+    long sumNetQuantityBetween(@Param("inventoryId") Long inventoryId,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(" + NET_QUANTITY + "), 0) FROM InventoryMovement m " +
+            "WHERE m.inventory.id = :inventoryId AND m.movementDate <= :to")
+    long sumNetQuantityUntil(@Param("inventoryId") Long inventoryId, @Param("to") LocalDateTime to);
+
+    @Query("SELECT m.inventory.id AS inventoryId, SUM(" + NET_QUANTITY + ") AS delta FROM InventoryMovement m " +
+            "WHERE m.inventory.id IN :inventoryIds AND m.movementDate > :from AND m.movementDate <= :to " +
+            "GROUP BY m.inventory.id")
+    List<InventoryDeltaView> sumNetQuantityBetween(@Param("inventoryIds") Collection<Long> inventoryIds,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
+
+    // Solde complet du registre par inventaire sur une plage d'id
+    @Query("SELECT m.inventory.id AS inventoryId, SUM(" + NET_QUANTITY + ") AS delta FROM InventoryMovement m " +
+            "WHERE m.inventory.id BETWEEN :fromId AND :toId GROUP BY m.inventory.id")
+    List<InventoryDeltaView> sumNetQuantityByInventoryBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT m.inventory.id AS inventoryId, SUM(" + NET_QUANTITY + ") AS delta FROM InventoryMovement m " +
+            "WHERE m.inventory.warehouse.id = :warehouseId AND m.movementDate <= :to " +
+            "AND NOT EXISTS (SELECT 1 FROM InventorySnapshot s WHERE s.inventory = m.inventory AND s.snapshotDate <= :to) " +
+            "GROUP BY m.inventory.id")
+    List<InventoryDeltaView> sumNetQuantityWithoutSnapshot(@Param("warehouseId") Long warehouseId,
+                                                           @Param("to") LocalDateTime to);
 }
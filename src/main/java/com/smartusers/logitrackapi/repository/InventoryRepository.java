@@ -1,27 +1,27 @@
 package com.smartusers.logitrackapi.repository;
 
 import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.repository.projection.IdRangeView;
+import com.smartusers.logitrackapi.repository.projection.InventoryAvailabilityView;
+import com.smartusers.logitrackapi.repository.projection.InventoryLocationView;
+import com.smartusers.logitrackapi.repository.projection.InventoryQuantityView;
+import com.smartusers.logitrackapi.repository.projection.InventoryValuationView;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
-    // ⚠️ DEPRECATED : Peut retourner NonUniqueResultException si plusieurs inventaires
-    // Gardez-la uniquement si vous êtes sûr qu'il n'y a qu'UN SEUL inventaire par warehouse/product
-    @Deprecated
+    // Au plus un inventaire par (entrepôt, produit) : contrainte uk_inventory_warehouse_product
     Optional<Inventory> findByWarehouse_IdAndProduct_Id(Long warehouseId, Long productId);
 
-    // ✅ RECOMMANDÉ : Retourne TOUS les inventaires pour un warehouse et un product
-    @Query("SELECT i FROM Inventory i WHERE i.warehouse.id = :warehouseId AND i.product.id = :productId")
-    List<Inventory> findAllByWarehouse_IdAndProduct_Id(
-            @Param("warehouseId") Long warehouseId,
-            @Param("productId") Long productId
-    );
-
     // Tous les inventaires pour un produit
     List<Inventory> findAllByProduct_Id(Long productId);
 
@@ -31,4 +31,80 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
             "AND (i.quantityOnHand - i.quantityReserved) > 0 " +
             "ORDER BY i.warehouse.id ASC")
     List<Inventory> findAllAvailableByProduct(@Param("productId") Long productId);
-}
\ No newline at end of file
+
+    // Tous les inventaires candidats pour un ensemble de produits (une seule requête par commande)
+    @Query("SELECT i FROM Inventory i " +
+            "JOIN FETCH i.warehouse w " +
+            "WHERE i.product.id IN :productIds " +
+            "ORDER BY w.id ASC")
+    List<Inventory> findAllWithWarehouseByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Inventaires comptés, verrouillés dans l'ordre des id
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.id IN :ids ORDER BY i.id")
+    List<Inventory> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Réconciliation : découpage par plages d'id et correction conditionnelle
+    @Query("SELECT MIN(i.id) AS minId, MAX(i.id) AS maxId FROM Inventory i")
+    IdRangeView findIdRange();
+
+    @Query("SELECT i.id AS inventoryId, i.quantityOnHand AS quantity FROM Inventory i " +
+            "WHERE i.id BETWEEN :fromId AND :toId")
+    List<InventoryQuantityView> findOnHandBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantityOnHand = :expected, i.version = i.version + 1 " +
+            "WHERE i.id = :id AND i.quantityOnHand = :observed")
+    int repairOnHand(@Param("id") Long id, @Param("observed") int observed, @Param("expected") int expected);
+
+    // Valorisation : produits de l'entrepôt avec leur prix de référence (coût par défaut)
+    @Query("SELECT i.id AS inventoryId, p.id AS productId, p.sku AS sku, p.name AS name, " +
+            "p.originalPrice AS originalPrice FROM Inventory i JOIN i.product p " +
+            "WHERE i.warehouse.id = :warehouseId ORDER BY i.id")
+    List<InventoryValuationView> findValuationViewsByWarehouseId(@Param("warehouseId") Long warehouseId);
+
+    // Couples (produit, entrepôt) déjà présents, sans charger les inventaires
+    @Query("SELECT i.product.id AS productId, i.warehouse.id AS warehouseId FROM Inventory i " +
+            "WHERE i.product.id IN :productIds")
+    List<InventoryLocationView> findLocationsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Mutations atomiques : un seul UPDATE conditionnel, retourne le nombre de lignes modifiées (0 = refusé)
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantityOnHand = i.quantityOnHand + :quantity, i.version = i.version + 1 " +
+            "WHERE i.id = :id " +
+            "AND i.warehouse.id IN (SELECT w.id FROM Warehouse w WHERE w.active = true) " +
+            "AND i.warehouse.id NOT IN (SELECT c.warehouse.id FROM CycleCount c WHERE c.status = " + CycleCountRepository.OPEN + ")")
+    int receiveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantityOnHand = i.quantityOnHand - :quantity, i.version = i.version + 1 " +
+            "WHERE i.id = :id " +
+            "AND (i.quantityOnHand - i.quantityReserved) >= :quantity " +
+            "AND i.warehouse.id IN (SELECT w.id FROM Warehouse w WHERE w.active = true) " +
+            "AND i.warehouse.id NOT IN (SELECT c.warehouse.id FROM CycleCount c WHERE c.status = " + CycleCountRepository.OPEN + ")")
+    int issueStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantityReserved = i.quantityReserved + :quantity, i.version = i.version + 1 " +
+            "WHERE i.id = :id " +
+            "AND (i.quantityOnHand - i.quantityReserved) >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantityReserved = i.quantityReserved - :quantity, i.version = i.version + 1 " +
+            "WHERE i.id = :id " +
+            "AND i.quantityReserved >= :quantity")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Disponible par inventaire, sans charger les entités (index ATP)
+    @Query("SELECT i.id AS id, i.product.id AS productId, w.id AS warehouseId, " +
+            "(i.quantityOnHand - i.quantityReserved) AS available, w.active AS active " +
+            "FROM Inventory i JOIN i.warehouse w")
+    List<InventoryAvailabilityView> findAllAvailability();
+
+    @Query("SELECT i.id AS id, i.product.id AS productId, w.id AS warehouseId, " +
+            "(i.quantityOnHand - i.quantityReserved) AS available, w.active AS active " +
+            "FROM Inventory i JOIN i.warehouse w WHERE i.id = :id")
+    Optional<InventoryAvailabilityView> findAvailabilityById(@Param("id") Long id);
+}
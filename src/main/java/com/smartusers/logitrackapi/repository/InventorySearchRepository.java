@@ -0,0 +1,64 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.dto.inventory.InventoryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Recherche d'inventaires paginée par clé sur l'id. Seuls les filtres renseignés figurent dans la requête :
+// PostgreSQL parcourt directement l'index (warehouse_id, id) ou (product_id, id) à partir du curseur.
+// Le stock bas suit les seuils de réapprovisionnement par emplacement (même règle que les alertes :
+// disponible < seuil) ; un inventaire sans seuil n'est jamais en stock bas.
+@Repository
+@RequiredArgsConstructor
+public class InventorySearchRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT i.id, p.id, p.name, w.id, w.name, i.quantity_on_hand, i.quantity_reserved " +
+            "FROM inventories i JOIN products p ON p.id = i.product_id JOIN warehouses w ON w.id = i.warehouse_id";
+
+    private static final String LOW_STOCK_JOIN =
+            " JOIN reorder_thresholds t ON t.product_id = i.product_id AND t.warehouse_id = i.warehouse_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Critères optionnels : null = non filtré
+    public record Filter(Long warehouseId, Long productId, boolean lowStock) {
+    }
+
+    // Page strictement après afterId (0 pour la première page)
+    public List<InventoryResponse> pageAfter(Filter filter, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        if (filter.lowStock()) {
+            sql.append(LOW_STOCK_JOIN);
+        }
+        sql.append(" WHERE i.id > ?");
+        args.add(afterId);
+        if (filter.warehouseId() != null) {
+            sql.append(" AND i.warehouse_id = ?");
+            args.add(filter.warehouseId());
+        }
+        if (filter.productId() != null) {
+            sql.append(" AND i.product_id = ?");
+            args.add(filter.productId());
+        }
+        if (filter.lowStock()) {
+            sql.append(" AND (i.quantity_on_hand - i.quantity_reserved) < t.threshold");
+        }
+        sql.append(" ORDER BY i.id LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new InventoryResponse(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getString(3),
+                rs.getLong(4),
+                rs.getString(5),
+                rs.getInt(6),
+                rs.getInt(7)), args.toArray());
+    }
+}
@@ -0,0 +1,31 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    // Photographie de tous les inventaires en une seule instruction INSERT ... SELECT
+    @Modifying
+    @Query("INSERT INTO InventorySnapshot (inventory, quantityOnHand, quantityReserved, snapshotDate) " +
+            "SELECT i, i.quantityOnHand, i.quantityReserved, :at FROM Inventory i")
+    int snapshotAll(@Param("at") LocalDateTime at);
+
+    Optional<InventorySnapshot> findFirstByInventory_IdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+            Long inventoryId, LocalDateTime at);
+
+    // Dernière photo antérieure ou égale à :at pour chaque inventaire de l'entrepôt
+    @Query("SELECT s FROM InventorySnapshot s JOIN FETCH s.inventory i JOIN FETCH i.product " +
+            "WHERE i.warehouse.id = :warehouseId AND s.snapshotDate = (" +
+            "SELECT MAX(s2.snapshotDate) FROM InventorySnapshot s2 " +
+            "WHERE s2.inventory = s.inventory AND s2.snapshotDate <= :at)")
+    List<InventorySnapshot> findLatestByWarehouseAt(@Param("warehouseId") Long warehouseId,
+                                                    @Param("at") LocalDateTime at);
+}
@@ -0,0 +1,60 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.enums.MovementType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Lecture des mouvements à valoriser par curseur, dans l'ordre chronologique, sans objet par ligne.
+// Comme pour l'export, le curseur PostgreSQL n'est utilisé qu'à l'intérieur d'une transaction.
+@Repository
+public class InventoryValuationRepository {
+
+    // Coût unitaire ramené en dix-millièmes entiers (échelle de unit_cost)
+    private static final String STREAM_SQL =
+            "SELECT m.inventory_id, m.type, m.quantity, ROUND(m.unit_cost * 10000) " +
+            "FROM inventory_movement m JOIN inventories i ON i.id = m.inventory_id " +
+            "WHERE i.warehouse_id = ? AND m.id > ? AND m.id <= ? " +
+            "ORDER BY m.movement_date, m.id";
+
+    private static final String LAST_SETTLED_SQL =
+            "SELECT COALESCE(MAX(id), 0) FROM inventory_movement WHERE movement_date <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryValuationRepository(DataSource dataSource,
+                                        @Value("${logitrack.movements.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public interface MovementSink {
+        // unitCost en dix-millièmes, -1 si le mouvement n'a pas de coût
+        void accept(long inventoryId, MovementType type, int quantity, long unitCost);
+    }
+
+    // Plus grand id de mouvement daté au plus tard à cutoff : les transactions plus anciennes sont commitées
+    public long findLastSettledMovementId(LocalDateTime cutoff) {
+        Long id = jdbcTemplate.queryForObject(LAST_SETTLED_SQL, Long.class, Timestamp.valueOf(cutoff));
+        return id != null ? id : 0L;
+    }
+
+    // Mouvements de l'entrepôt dont l'id est dans ]afterId, upToId], passés un à un au sink
+    public long streamByWarehouse(Long warehouseId, long afterId, long upToId, MovementSink sink) {
+        long[] count = {0};
+        jdbcTemplate.query(STREAM_SQL, (RowCallbackHandler) rs -> {
+            long unitCost = rs.getLong(4);
+            if (rs.wasNull()) {
+                unitCost = -1;
+            }
+            sink.accept(rs.getLong(1), MovementType.valueOf(rs.getString(2)), rs.getInt(3), unitCost);
+            count[0]++;
+        }, warehouseId, afterId, upToId);
+        return count[0];
+    }
+}
@@ -0,0 +1,23 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.LowStockAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LowStockAlertRepository extends JpaRepository<LowStockAlert, Long> {
+
+    @Query("SELECT a FROM LowStockAlert a JOIN FETCH a.inventory i JOIN FETCH i.product JOIN FETCH i.warehouse " +
+            "WHERE (:activeOnly = false OR a.active = true) ORDER BY a.raisedAt DESC")
+    List<LowStockAlert> search(@Param("activeOnly") boolean activeOnly);
+
+    List<LowStockAlert> findByActiveTrue();
+
+    @Modifying
+    @Query("UPDATE LowStockAlert a SET a.active = false, a.resolvedAt = :at WHERE a.id = :id AND a.active = true")
+    int resolve(@Param("id") Long id, @Param("at") LocalDateTime at);
+}
@@ -0,0 +1,7 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.MovementDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MovementDeadLetterRepository extends JpaRepository<MovementDeadLetter, Long> {
+}
@@ -0,0 +1,27 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.OrderEvent;
+import com.smartusers.logitrackapi.enums.OrderEventType;
+import com.smartusers.logitrackapi.enums.POStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    List<OrderEvent> findByOrderTypeAndOrderIdOrderByIdAsc(OrderEventType orderType, Long orderId);
+
+    @Modifying
+    @Query("INSERT INTO OrderEvent (orderType, orderId, fromStatus, toStatus, occurredAt) " +
+            "SELECT com.smartusers.logitrackapi.enums.OrderEventType.PURCHASE_ORDER, p.id, " +
+            "CAST(p.previousStatus AS String), CAST(p.status AS String), p.statusChangedAt " +
+            "FROM PurchaseOrder p WHERE p.id IN :ids AND p.status = :to AND p.statusChangedAt = :now")
+    int appendPurchaseOrderTransitions(@Param("ids") Collection<Long> ids,
+                                       @Param("to") POStatus to,
+                                       @Param("now") LocalDateTime now);
+}
@@ -2,12 +2,24 @@ package com.smartusers.logitrackapi.repository;
 
 
 import com.smartusers.logitrackapi.entity.POLine;
+import com.smartusers.logitrackapi.repository.projection.ProductSupplier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface POLineRepository extends JpaRepository<POLine, Long> {
     List<POLine> findByPurchaseOrder_Id(Long purchaseOrderId);
-}
\ No newline at end of file
+
+    // Dernier fournisseur actif ayant reçu une commande pour chaque produit
+    @Query("SELECT new com.smartusers.logitrackapi.repository.projection.ProductSupplier(l.product.id, po.supplier.id) " +
+            "FROM POLine l JOIN l.purchaseOrder po " +
+            "WHERE l.product.id IN :productIds AND po.id = (" +
+            "    SELECT MAX(l2.purchaseOrder.id) FROM POLine l2 " +
+            "    WHERE l2.product.id = l.product.id AND l2.purchaseOrder.supplier.active = true)")
+    List<ProductSupplier> findLastActiveSuppliers(@Param("productIds") Collection<Long> productIds);
+}
@@ -1,6 +1,7 @@
 package com.smartusers.logitrackapi.repository;
 
 import com.smartusers.logitrackapi.entity.Product;
+import com.smartusers.logitrackapi.repository.projection.ProductSkuView;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -20,4 +22,11 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Product updateSkuById(@Param("id") Long id, @Param("newSku") String newSku);
 
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    // Résolution en lot des SKU (import)
+    @Query("SELECT p.id AS id, p.sku AS sku FROM Product p WHERE p.sku IN :skus")
+    List<ProductSkuView> findIdsBySkuIn(@Param("skus") Collection<String> skus);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.smartusers.logitrackapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Commandes d'achat de réapprovisionnement : en-têtes, lignes et rattachement des ruptures,
+// chacun en un batch JDBC quel que soit le nombre de fournisseurs
+@Repository
+@RequiredArgsConstructor
+public class PurchaseOrderBatchRepository {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO purchase_orders (supplier_id, status, created_at) VALUES (?, 'CREATED', ?)";
+
+    private static final String INSERT_LINE_SQL =
+            "INSERT INTO po_lines (purchase_order_id, product_id, quantity_ordered, quantity_received, unit_price) " +
+            "VALUES (?, ?, ?, 0, ?)";
+
+    private static final String MARK_ORDERED_SQL =
+            "UPDATE backorders SET status = 'ORDERED', purchase_order_id = ?, ordered_at = ? " +
+            "WHERE id = ? AND status = 'QUEUED'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Insère les en-têtes (statut CREATED) et retourne leurs identifiants dans l'ordre d'entrée
+    public long[] insertOrders(long[] supplierIds, LocalDateTime createdAt) {
+        if (supplierIds.length == 0) {
+            return new long[0];
+        }
+        Timestamp at = Timestamp.valueOf(createdAt);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_ORDER_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, supplierIds[i]);
+                        ps.setTimestamp(2, at);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return supplierIds.length;
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        long[] ids = new long[keys.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) keys.get(i).values().iterator().next()).longValue();
+        }
+        return ids;
+    }
+
+    public void insertLines(long[] orderIds, long[] productIds, int[] quantities, BigDecimal[] unitPrices) {
+        if (orderIds.length == 0) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, orderIds[i]);
+                ps.setLong(2, productIds[i]);
+                ps.setInt(3, quantities[i]);
+                ps.setBigDecimal(4, unitPrices[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return orderIds.length;
+            }
+        });
+    }
+
+    public void markOrdered(long[] backorderIds, long[] purchaseOrderIds, LocalDateTime orderedAt) {
+        if (backorderIds.length == 0) {
+            return;
+        }
+        Timestamp at = Timestamp.valueOf(orderedAt);
+        jdbcTemplate.batchUpdate(MARK_ORDERED_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, purchaseOrderIds[i]);
+                ps.setTimestamp(2, at);
+                ps.setLong(3, backorderIds[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return backorderIds.length;
+            }
+        });
+    }
+}
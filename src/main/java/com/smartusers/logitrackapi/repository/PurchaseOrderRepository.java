@@ -6,14 +6,31 @@ import com.smartusers.logitrackapi.enums.POStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
     Page<PurchaseOrder> findBySupplier_Id(Long supplierId, Pageable pageable);
     Page<PurchaseOrder> findByStatus(POStatus status, Pageable pageable);
     List<PurchaseOrder> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("SELECT p.status FROM PurchaseOrder p WHERE p.id = :id")
+    Optional<POStatus> findStatusById(@Param("id") Long id);
+
+    // Transition gardée, voir SalesOrderRepository.transition
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PurchaseOrder p SET p.previousStatus = p.status, p.status = :to, p.statusChangedAt = :now " +
+            "WHERE p.id IN :ids AND p.status IN :from")
+    int transition(@Param("ids") Collection<Long> ids,
+                   @Param("from") Collection<POStatus> from,
+                   @Param("to") POStatus to,
+                   @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,20 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.QueuedMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface QueuedMovementRepository extends JpaRepository<QueuedMovement, Long> {
+
+    List<QueuedMovement> findByCycleCount_IdOrderByIdAsc(Long cycleCountId);
+
+    long countByCycleCount_Id(Long cycleCountId);
+
+    @Modifying
+    @Query("DELETE FROM QueuedMovement q WHERE q.cycleCount.id = :cycleCountId")
+    int deleteByCycleCountId(@Param("cycleCountId") Long cycleCountId);
+}
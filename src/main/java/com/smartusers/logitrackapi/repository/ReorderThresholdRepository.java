@@ -0,0 +1,22 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.ReorderThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ReorderThresholdRepository extends JpaRepository<ReorderThreshold, Long> {
+
+    Optional<ReorderThreshold> findByProduct_IdAndWarehouse_Id(Long productId, Long warehouseId);
+
+    @Query("SELECT t FROM ReorderThreshold t JOIN FETCH t.product JOIN FETCH t.warehouse ORDER BY t.id")
+    List<ReorderThreshold> findAllWithLocation();
+
+    // Seuil applicable à un inventaire (même produit, même entrepôt)
+    @Query("SELECT t.threshold FROM ReorderThreshold t, Inventory i " +
+            "WHERE i.id = :inventoryId AND t.product = i.product AND t.warehouse = i.warehouse")
+    Optional<Integer> findThresholdForInventory(@Param("inventoryId") Long inventoryId);
+}
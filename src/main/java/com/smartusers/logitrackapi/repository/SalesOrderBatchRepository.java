@@ -0,0 +1,81 @@
+package com.smartusers.logitrackapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Création de commandes en lot : en-têtes puis lignes, chacun en un seul batch JDBC
+@Repository
+@RequiredArgsConstructor
+public class SalesOrderBatchRepository {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO sales_orders (client_id, warehouse_id, status, created_at) VALUES (?, ?, 'CREATED', ?)";
+
+    private static final String INSERT_LINE_SQL =
+            "INSERT INTO sales_order_lines (sales_order_id, product_id, qty_ordered, qty_reserved, unit_price) " +
+            "VALUES (?, ?, ?, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Insère les en-têtes (statut CREATED) et retourne leurs identifiants dans l'ordre d'entrée
+    public long[] insertOrders(long[] clientIds, long[] warehouseIds, LocalDateTime createdAt) {
+        if (clientIds.length == 0) {
+            return new long[0];
+        }
+        Timestamp at = Timestamp.valueOf(createdAt);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_ORDER_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, clientIds[i]);
+                        ps.setLong(2, warehouseIds[i]);
+                        ps.setTimestamp(3, at);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return clientIds.length;
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        long[] ids = new long[keys.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) keys.get(i).values().iterator().next()).longValue();
+        }
+        return ids;
+    }
+
+    public void insertLines(long[] orderIds, long[] productIds, int[] quantities, BigDecimal[] unitPrices) {
+        if (orderIds.length == 0) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, orderIds[i]);
+                ps.setLong(2, productIds[i]);
+                ps.setInt(3, quantities[i]);
+                ps.setBigDecimal(4, unitPrices[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return orderIds.length;
+            }
+        });
+    }
+}
@@ -3,10 +3,12 @@ package com.smartusers.logitrackapi.repository;
 import com.smartusers.logitrackapi.entity.SalesOrder;
 import com.smartusers.logitrackapi.entity.SalesOrderLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +16,10 @@ public interface SalesOrderLineRepository extends JpaRepository<SalesOrderLine,
 
     List<SalesOrderLine> findBySalesOrder_Id(Long salesOrderId);
 
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE SalesOrderLine l SET l.qtyReserved = 0 WHERE l.salesOrder.id IN :orderIds")
+    int clearReserved(@Param("orderIds") Collection<Long> orderIds);
+
 
 
 
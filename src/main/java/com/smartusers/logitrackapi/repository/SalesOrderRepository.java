@@ -1,7 +1,10 @@
 package com.smartusers.logitrackapi.repository;
 
 import com.smartusers.logitrackapi.entity.SalesOrder;
+import com.smartusers.logitrackapi.enums.OrderStatus;
 import com.smartusers.logitrackapi.enums.SalesOrderStatus;
+import com.smartusers.logitrackapi.repository.projection.ClientStatusAmount;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -11,6 +14,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 @Repository
@@ -20,6 +24,35 @@ public interface SalesOrderRepository extends JpaRepository<SalesOrder, Long> {
     @EntityGraph(attributePaths = {"lines", "lines.product", "client", "warehouse"})
     Optional<SalesOrder> findWithDetailsById(Long id);
 
+    // Entrepôt de la commande sans la charger (file de confirmation asynchrone)
+    @Query("SELECT o.warehouse.id FROM SalesOrder o WHERE o.id = :id")
+    Optional<Long> findWarehouseIdById(@Param("id") Long id);
+
+    @Query("SELECT o.status FROM SalesOrder o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    @Query("SELECT new com.smartusers.logitrackapi.repository.projection.ClientStatusAmount(" +
+            "o.client.id, o.status, COUNT(DISTINCT o.id), COALESCE(SUM(l.price * l.qtyOrdered), 0)) " +
+            "FROM SalesOrder o LEFT JOIN o.lines l WHERE o.id IN :ids " +
+            "GROUP BY o.client.id, o.status")
+    List<ClientStatusAmount> sumByClientAndStatus(@Param("ids") Collection<Long> ids);
+
+    // Sélection par filtre pour les opérations en lot, limitée aux statuts :statuses, par tranches après :afterId
+    @Query("SELECT o.id FROM SalesOrder o " +
+            "WHERE o.id > :afterId AND o.status IN :statuses " +
+            "AND (:clientId IS NULL OR o.client.id = :clientId) " +
+            "AND (:warehouseId IS NULL OR o.warehouse.id = :warehouseId) " +
+            "AND (:from IS NULL OR o.createdAt >= :from) " +
+            "AND (:to IS NULL OR o.createdAt < :to) " +
+            "ORDER BY o.id")
+    List<Long> findIdsByFilter(@Param("statuses") Collection<OrderStatus> statuses,
+                               @Param("clientId") Long clientId,
+                               @Param("warehouseId") Long warehouseId,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("afterId") long afterId,
+                               Limit limit);
+
     // Autres méthodes...
     Page<SalesOrder> findByClient_Id(Long clientId, Pageable pageable);
     Page<SalesOrder> findByStatus(SalesOrderStatus status, Pageable pageable);
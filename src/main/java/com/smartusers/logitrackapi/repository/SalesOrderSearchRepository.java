@@ -0,0 +1,92 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.repository.projection.SalesOrderSummaryRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Recherche de commandes paginée par clé sur (created_at, id) décroissants.
+// Seuls les filtres renseignés figurent dans la requête, et la reprise utilise une comparaison de ligne
+// (created_at, id) < (?, ?) : PostgreSQL parcourt directement l'index (filtre, created_at, id) à partir du curseur,
+// au lieu de relire toutes les lignes plus récentes comme avec des prédicats ":p IS NULL OR ...".
+@Repository
+@RequiredArgsConstructor
+public class SalesOrderSearchRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT o.id, c.first_name, w.name, o.status, o.created_at, " +
+            "(SELECT COALESCE(SUM(l.unit_price * l.qty_ordered), 0) FROM sales_order_lines l WHERE l.sales_order_id = o.id), " +
+            "(SELECT COALESCE(SUM(l.qty_ordered), 0) FROM sales_order_lines l WHERE l.sales_order_id = o.id) " +
+            "FROM sales_orders o JOIN users c ON c.id = o.client_id JOIN warehouses w ON w.id = o.warehouse_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Critères optionnels : null = non filtré ; from inclus, to exclu
+    public record Filter(Long clientId, OrderStatus status, Long warehouseId, LocalDateTime from, LocalDateTime to) {
+    }
+
+    public List<SalesOrderSummaryRow> firstPage(Filter filter, int limit) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        addFilter(filter, conditions, args);
+        return query(conditions, args, limit);
+    }
+
+    // Page suivante : strictement après le dernier élément (afterCreatedAt, afterId) de la page précédente
+    public List<SalesOrderSummaryRow> pageAfter(Filter filter, LocalDateTime afterCreatedAt, long afterId, int limit) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        addFilter(filter, conditions, args);
+        conditions.add("(o.created_at, o.id) < (?, ?)");
+        args.add(Timestamp.valueOf(afterCreatedAt));
+        args.add(afterId);
+        return query(conditions, args, limit);
+    }
+
+    private void addFilter(Filter filter, List<String> conditions, List<Object> args) {
+        if (filter.clientId() != null) {
+            conditions.add("o.client_id = ?");
+            args.add(filter.clientId());
+        }
+        if (filter.status() != null) {
+            conditions.add("o.status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.warehouseId() != null) {
+            conditions.add("o.warehouse_id = ?");
+            args.add(filter.warehouseId());
+        }
+        if (filter.from() != null) {
+            conditions.add("o.created_at >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            conditions.add("o.created_at < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+    }
+
+    private List<SalesOrderSummaryRow> query(List<String> conditions, List<Object> args, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY o.created_at DESC, o.id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SalesOrderSummaryRow(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                OrderStatus.valueOf(rs.getString(4)),
+                rs.getTimestamp(5).toLocalDateTime(),
+                rs.getBigDecimal(6),
+                rs.getLong(7)), args.toArray());
+    }
+}
@@ -0,0 +1,68 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Transition gardée des commandes clients en une seule instruction PostgreSQL : la mise à jour (seules les commandes
+// dans un des statuts sources passent à la cible), l'ajout au journal order_events et la relecture des commandes
+// déplacées (client, statut d'origine, montant) s'appuient sur les mêmes lignes RETURNING, sans rapprochement
+// par horodatage.
+@Repository
+@RequiredArgsConstructor
+public class SalesOrderTransitionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    // Commande passée à la cible : statut quitté et montant de ses lignes
+    public record Moved(Long id, Long clientId, OrderStatus from, BigDecimal amount) {
+    }
+
+    public List<Moved> transition(Collection<Long> ids, Collection<OrderStatus> from, OrderStatus to, LocalDateTime now) {
+        if (ids.isEmpty() || from.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>(ids.size() + from.size() + 2);
+        args.add(to.name());
+        args.add(Timestamp.valueOf(now));
+        args.addAll(ids);
+        from.forEach(status -> args.add(status.name()));
+
+        String sql = "WITH moved AS (" +
+                "UPDATE sales_orders SET previous_status = status, status = ?, status_changed_at = ? " +
+                "WHERE id IN (" + placeholders(ids.size()) + ") AND status IN (" + placeholders(from.size()) + ") " +
+                "RETURNING id, client_id, previous_status, status, status_changed_at), " +
+                "events AS (" +
+                "INSERT INTO order_events (order_type, order_id, from_status, to_status, occurred_at) " +
+                "SELECT 'SALES_ORDER', m.id, m.previous_status, m.status, m.status_changed_at FROM moved m) " +
+                "SELECT m.id, m.client_id, m.previous_status, " +
+                "(SELECT COALESCE(SUM(l.unit_price * l.qty_ordered), 0) FROM sales_order_lines l WHERE l.sales_order_id = m.id) " +
+                "FROM moved m ORDER BY m.id";
+
+        // Comme @Modifying(flushAutomatically, clearAutomatically) : écritures JPA en attente envoyées avant,
+        // entités relues ensuite (une commande encore gérée réécrirait l'ancien statut au flush)
+        entityManager.flush();
+        List<Moved> moved = jdbcTemplate.query(sql, (rs, rowNum) -> new Moved(
+                rs.getLong(1),
+                rs.getLong(2),
+                OrderStatus.valueOf(rs.getString(3)),
+                rs.getBigDecimal(4)), args.toArray());
+        entityManager.clear();
+        return moved;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.StockReservation;
+import com.smartusers.logitrackapi.enums.ReservationStatus;
+import com.smartusers.logitrackapi.repository.projection.InventoryDeltaView;
+import com.smartusers.logitrackapi.repository.projection.ReservationDeadlineView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Verrouille les réservations encore actives : une seule transaction peut les libérer
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.salesOrder.id IN :orderIds " +
+            "AND r.status = com.smartusers.logitrackapi.enums.ReservationStatus.ACTIVE ORDER BY r.inventory.id")
+    List<StockReservation> lockActiveByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :status, r.closedAt = :at " +
+            "WHERE r.id IN :ids AND r.status = com.smartusers.logitrackapi.enums.ReservationStatus.ACTIVE")
+    int closeAll(@Param("ids") Collection<Long> ids, @Param("status") ReservationStatus status, @Param("at") LocalDateTime at);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :status, r.closedAt = :at " +
+            "WHERE r.salesOrder.id = :orderId AND r.status = com.smartusers.logitrackapi.enums.ReservationStatus.ACTIVE")
+    int closeByOrder(@Param("orderId") Long orderId, @Param("status") ReservationStatus status, @Param("at") LocalDateTime at);
+
+    // Échéances actives à réarmer au démarrage (index status, expires_at)
+    @Query("SELECT r.salesOrder.id AS orderId, MIN(r.expiresAt) AS expiresAt FROM StockReservation r " +
+            "WHERE r.status = com.smartusers.logitrackapi.enums.ReservationStatus.ACTIVE GROUP BY r.salesOrder.id")
+    List<ReservationDeadlineView> findActiveDeadlines();
+
+    // Stock prélevé par des commandes non expédiées, encore physiquement en rayon
+    @Query("SELECT r.inventory.id AS inventoryId, SUM(r.quantity) AS delta FROM StockReservation r " +
+            "WHERE r.inventory.id IN :inventoryIds " +
+            "AND r.status = com.smartusers.logitrackapi.enums.ReservationStatus.ACTIVE GROUP BY r.inventory.id")
+    List<InventoryDeltaView> sumActiveByInventoryIdIn(@Param("inventoryIds") Collection<Long> inventoryIds);
+}
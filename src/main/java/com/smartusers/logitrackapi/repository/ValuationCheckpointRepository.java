@@ -0,0 +1,18 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.ValuationCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ValuationCheckpointRepository extends JpaRepository<ValuationCheckpoint, Long> {
+
+    // Une seule valorisation à la fois par entrepôt
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ValuationCheckpoint c WHERE c.warehouse.id = :warehouseId")
+    Optional<ValuationCheckpoint> lockByWarehouseId(@Param("warehouseId") Long warehouseId);
+}
@@ -0,0 +1,11 @@
+package com.smartusers.logitrackapi.repository;
+
+import com.smartusers.logitrackapi.entity.ValuationState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ValuationStateRepository extends JpaRepository<ValuationState, Long> {
+
+    List<ValuationState> findByWarehouseId(Long warehouseId);
+}
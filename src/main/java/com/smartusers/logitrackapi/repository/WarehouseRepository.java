@@ -1,8 +1,23 @@
 package com.smartusers.logitrackapi.repository;
 
 import com.smartusers.logitrackapi.entity.Warehouse;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
     boolean existsByName(String name);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Warehouse w WHERE w.id = :id")
+    Optional<Warehouse> lockById(@Param("id") Long id);
+
+    @Query("SELECT w.id FROM Warehouse w WHERE w.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
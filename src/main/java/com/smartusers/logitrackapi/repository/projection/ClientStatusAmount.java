@@ -0,0 +1,9 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+import com.smartusers.logitrackapi.enums.OrderStatus;
+
+import java.math.BigDecimal;
+
+// Commandes d'un client regroupées par statut : nombre et montant total des lignes
+public record ClientStatusAmount(Long clientId, OrderStatus status, Long orders, BigDecimal amount) {
+}
@@ -0,0 +1,6 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+public interface IdRangeView {
+    Long getMinId();
+    Long getMaxId();
+}
@@ -0,0 +1,9 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+public interface InventoryAvailabilityView {
+    Long getId();
+    Long getProductId();
+    Long getWarehouseId();
+    Integer getAvailable();
+    Boolean getActive();
+}
@@ -0,0 +1,6 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+public interface InventoryDeltaView {
+    Long getInventoryId();
+    Long getDelta();
+}
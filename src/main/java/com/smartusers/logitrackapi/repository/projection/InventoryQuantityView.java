@@ -0,0 +1,6 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+public interface InventoryQuantityView {
+    Long getInventoryId();
+    Integer getQuantity();
+}
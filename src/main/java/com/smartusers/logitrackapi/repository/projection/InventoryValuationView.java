@@ -0,0 +1,11 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface InventoryValuationView {
+    Long getInventoryId();
+    Long getProductId();
+    String getSku();
+    String getName();
+    BigDecimal getOriginalPrice();
+}
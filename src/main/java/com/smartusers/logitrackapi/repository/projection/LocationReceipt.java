@@ -0,0 +1,5 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+// Résultat d'une réception par emplacement : inventaire visé et s'il vient d'être créé
+public record LocationReceipt(long inventoryId, boolean created) {
+}
@@ -0,0 +1,7 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+import java.time.LocalDateTime;
+
+public record MovementExportRow(long id, long inventoryId, String type, int quantity,
+                                LocalDateTime movementDate, String description) {
+}
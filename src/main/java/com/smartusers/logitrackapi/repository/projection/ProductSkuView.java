@@ -0,0 +1,6 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+public interface ProductSkuView {
+    Long getId();
+    String getSku();
+}
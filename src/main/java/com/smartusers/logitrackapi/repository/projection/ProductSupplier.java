@@ -0,0 +1,5 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+// Fournisseur retenu pour réapprovisionner un produit
+public record ProductSupplier(Long productId, Long supplierId) {
+}
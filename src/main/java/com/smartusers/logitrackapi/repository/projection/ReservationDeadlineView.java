@@ -0,0 +1,8 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface ReservationDeadlineView {
+    Long getOrderId();
+    LocalDateTime getExpiresAt();
+}
@@ -0,0 +1,11 @@
+package com.smartusers.logitrackapi.repository.projection;
+
+import com.smartusers.logitrackapi.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Ligne de recherche de commandes : totaux calculés en SQL, sans charger les lignes
+public record SalesOrderSummaryRow(Long id, String clientName, String warehouseName, OrderStatus status,
+                                   LocalDateTime createdAt, BigDecimal totalAmount, Long totalItems) {
+}
@@ -0,0 +1,38 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.AllocationStrategyType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Stratégies d'allocation disponibles ; logitrack.allocation.strategy choisit celle des confirmations
+@Component
+public class AllocationStrategies {
+
+    private final Map<AllocationStrategyType, AllocationStrategy> strategies = new EnumMap<>(AllocationStrategyType.class);
+    private final AllocationStrategyType defaultType;
+
+    public AllocationStrategies(@Value("${logitrack.allocation.strategy:MIN_SOURCES}") AllocationStrategyType defaultType,
+                                @Value("${logitrack.allocation.preferred-warehouses:}") List<Long> preferredWarehouses) {
+        this.defaultType = defaultType;
+        register(new MainWarehouseFirstStrategy());
+        register(new MinSourcesStrategy());
+        register(new PreferredRankingStrategy(preferredWarehouses));
+        register(new LargestStockFirstStrategy());
+    }
+
+    public void register(AllocationStrategy strategy) {
+        strategies.put(strategy.type(), strategy);
+    }
+
+    public AllocationStrategy get() {
+        return get(defaultType);
+    }
+
+    public AllocationStrategy get(AllocationStrategyType type) {
+        return strategies.get(type);
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.AllocationStrategyType;
+
+// Choix des entrepôts sources d'une commande à partir de sa matrice de disponible.
+// Retourne les quantités prises par [produit][entrepôt] ; jamais plus que le disponible d'une case
+// ni que la demande d'un produit. Le reste devient une rupture gérée par StockReservationEngine.
+public interface AllocationStrategy {
+
+    AllocationStrategyType type();
+
+    int[][] allocate(AvailabilityMatrix matrix);
+}
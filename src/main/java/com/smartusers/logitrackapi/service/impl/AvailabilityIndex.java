@@ -0,0 +1,266 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.projection.InventoryAvailabilityView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Index en mémoire du disponible à la vente (ATP) par (produit, entrepôt) avec un total par produit.
+// Chargé au démarrage, mis à jour uniquement après le commit des transactions d'inventaire,
+// et rechargé périodiquement pour absorber les écritures faites par d'autres instances.
+// Les lectures ne prennent aucun verrou. Les relectures en base (rechargement, inventaire isolé) se font sous
+// le verrou exclusif de fence, qu'une transaction d'inventaire tient en partagé de son commit à l'application
+// de ses variations : une relecture voit exactement les commits déjà appliqués, ni doublon ni perte.
+@Component
+@Slf4j
+public class AvailabilityIndex {
+
+    private static final Object PENDING_KEY = AvailabilityIndex.class.getName() + ".pending";
+
+    private final InventoryRepository inventoryRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock fence = new ReentrantReadWriteLock();
+
+    private volatile State state;
+
+    public AvailabilityIndex(InventoryRepository inventoryRepository,
+                             @Value("${logitrack.atp.enabled:true}") boolean enabled) {
+        this.inventoryRepository = inventoryRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isLoaded() {
+        return state != null;
+    }
+
+    // Somme des disponibles positifs de ce produit dans cet entrepôt
+    public int availableIn(long productId, long warehouseId) {
+        ProductEntry entry = state.products.get(productId);
+        if (entry == null) {
+            return 0;
+        }
+        LongAdder location = entry.byWarehouse.get(warehouseId);
+        return location == null ? 0 : (int) location.sum();
+    }
+
+    // Disponible d'un inventaire (peut être négatif), null s'il n'est pas indexé
+    public Integer availableOf(long inventoryId) {
+        Slot slot = state.slots.get(inventoryId);
+        return slot == null ? null : slot.available.get();
+    }
+
+    // Somme des disponibles positifs de ce produit dans les entrepôts actifs
+    public int availableEverywhere(long productId) {
+        ProductEntry entry = state.products.get(productId);
+        return entry == null ? 0 : (int) entry.activeTotal.sum();
+    }
+
+    // Les commits d'inventaire attendent la fin de la lecture : elle est faite en une requête de projection
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        State fresh = new State();
+        fence.writeLock().lock();
+        try {
+            for (InventoryAvailabilityView row : inventoryRepository.findAllAvailability()) {
+                fresh.put(row);
+            }
+            state = fresh;
+        } finally {
+            fence.writeLock().unlock();
+        }
+        log.info("Index ATP chargé : {} inventaires", fresh.slots.size());
+    }
+
+    @Scheduled(initialDelayString = "${logitrack.atp.refresh-interval-ms:300000}",
+            fixedDelayString = "${logitrack.atp.refresh-interval-ms:300000}")
+    public void refreshAll() {
+        if (isLoaded()) {
+            load();
+        }
+    }
+
+    // Variation du disponible d'un inventaire, appliquée après commit
+    public void adjustAfterCommit(Long inventoryId, int delta) {
+        if (delta != 0) {
+            afterCommit(changes -> changes.adjustments.merge(inventoryId, delta, Integer::sum));
+        }
+    }
+
+    // Relit la ligne après commit (création, écrasement des quantités)
+    public void refreshAfterCommit(Long inventoryId) {
+        afterCommit(changes -> changes.refreshes.add(inventoryId));
+    }
+
+    public void removeAfterCommit(Long inventoryId) {
+        afterCommit(changes -> changes.removals.add(inventoryId));
+    }
+
+    // Changement qui touche un entrepôt entier (activation / désactivation) : rechargement complet
+    public void reloadAfterCommit() {
+        afterCommit(changes -> changes.reload = true);
+    }
+
+    // Enregistré aussi avant le premier chargement, pour que celui-ci attende les commits en cours
+    private void afterCommit(Consumer<Changes> change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Changes changes = new Changes();
+            change.accept(changes);
+            fence.readLock().lock();
+            applyAndUnlock(changes);
+            return;
+        }
+        change.accept(pendingChanges());
+    }
+
+    private Changes pendingChanges() {
+        Changes pending = (Changes) TransactionSynchronizationManager.getResource(PENDING_KEY);
+        if (pending == null) {
+            Changes created = new Changes();
+            TransactionSynchronizationManager.bindResource(PENDING_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean fenced;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    fence.readLock().lock();
+                    fenced = true;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+                    if (!fenced) {
+                        return;
+                    }
+                    if (status == STATUS_COMMITTED) {
+                        applyAndUnlock(created);
+                    } else {
+                        fence.readLock().unlock();
+                    }
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    // Appelé sous le verrou partagé, libéré avant les relectures qui prennent le verrou exclusif
+    private void applyAndUnlock(Changes changes) {
+        try {
+            State current = state;
+            if (current != null) {
+                changes.adjustments.forEach((inventoryId, delta) -> {
+                    Slot slot = current.slots.get(inventoryId);
+                    if (slot == null) {
+                        changes.refreshes.add(inventoryId);
+                    } else {
+                        current.shift(slot, delta);
+                    }
+                });
+                changes.removals.forEach(inventoryId -> remove(current, inventoryId));
+            }
+        } finally {
+            fence.readLock().unlock();
+        }
+        if (changes.reload) {
+            refreshAll();
+        } else {
+            changes.refreshes.forEach(this::refresh);
+        }
+    }
+
+    // Les variations déjà appliquées à l'ancienne ligne sont incluses dans la relecture
+    private void refresh(Long inventoryId) {
+        fence.writeLock().lock();
+        try {
+            State current = state;
+            if (current == null) {
+                return;
+            }
+            remove(current, inventoryId);
+            inventoryRepository.findAvailabilityById(inventoryId).ifPresent(current::put);
+        } finally {
+            fence.writeLock().unlock();
+        }
+    }
+
+    private static void remove(State current, Long inventoryId) {
+        Slot slot = current.slots.remove(inventoryId);
+        if (slot != null) {
+            current.shift(slot, -slot.available.get());
+        }
+    }
+
+    // Variations d'une transaction, appliquées après son commit
+    private static final class Changes {
+        final Map<Long, Integer> adjustments = new LinkedHashMap<>();
+        final Set<Long> removals = new LinkedHashSet<>();
+        final Set<Long> refreshes = new LinkedHashSet<>();
+        boolean reload;
+    }
+
+    private static final class Slot {
+        final long productId;
+        final long warehouseId;
+        final boolean active;
+        final AtomicInteger available = new AtomicInteger();
+
+        Slot(long productId, long warehouseId, boolean active) {
+            this.productId = productId;
+            this.warehouseId = warehouseId;
+            this.active = active;
+        }
+    }
+
+    private static final class ProductEntry {
+        final LongAdder activeTotal = new LongAdder();
+        final ConcurrentHashMap<Long, LongAdder> byWarehouse = new ConcurrentHashMap<>();
+    }
+
+    private static final class State {
+        final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, ProductEntry> products = new ConcurrentHashMap<>();
+
+        void put(InventoryAvailabilityView row) {
+            Slot slot = new Slot(row.getProductId(), row.getWarehouseId(), Boolean.TRUE.equals(row.getActive()));
+            slots.put(row.getId(), slot);
+            shift(slot, row.getAvailable() == null ? 0 : row.getAvailable());
+        }
+
+        // Les agrégats ne comptent que la part positive du disponible de chaque inventaire
+        void shift(Slot slot, int delta) {
+            int before = slot.available.getAndAdd(delta);
+            int clampedDelta = Math.max(0, before + delta) - Math.max(0, before);
+            if (clampedDelta == 0) {
+                return;
+            }
+            ProductEntry entry = products.computeIfAbsent(slot.productId, k -> new ProductEntry());
+            entry.byWarehouse.computeIfAbsent(slot.warehouseId, k -> new LongAdder()).add(clampedDelta);
+            if (slot.active) {
+                entry.activeTotal.add(clampedDelta);
+            }
+        }
+    }
+}
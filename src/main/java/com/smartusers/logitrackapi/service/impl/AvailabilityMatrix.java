@@ -0,0 +1,149 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.SalesOrderLine;
+
+import java.util.*;
+
+// Disponible produit x entrepôt d'une commande, construit une fois à partir des inventaires candidats.
+// Seuls les entrepôts actifs et non gelés sont des colonnes ; l'entrepôt de la commande est la colonne 0
+// quand il est éligible, les autres suivent par id croissant.
+public class AvailabilityMatrix {
+
+    private final long[] productIds;
+    private final long[] warehouseIds;
+    private final int[] demand;
+    private final int[][] available;
+    private final Inventory[][] inventories;
+    private final Map<Long, Integer> rowsByProduct = new HashMap<>();
+    private final int mainColumn;
+
+    public AvailabilityMatrix(Long mainWarehouseId, List<SalesOrderLine> lines,
+                              Map<Long, List<Inventory>> candidatesByProduct, Set<Long> frozenWarehouses) {
+        Map<Long, Integer> demandByProduct = new LinkedHashMap<>();
+        for (SalesOrderLine line : lines) {
+            demandByProduct.merge(line.getProduct().getId(), line.getQtyOrdered(), Integer::sum);
+        }
+
+        TreeSet<Long> eligible = new TreeSet<>();
+        for (Long productId : demandByProduct.keySet()) {
+            for (Inventory inv : candidatesByProduct.getOrDefault(productId, List.of())) {
+                if (isEligible(inv, frozenWarehouses)) {
+                    eligible.add(inv.getWarehouse().getId());
+                }
+            }
+        }
+        List<Long> columns = new ArrayList<>(eligible.size());
+        if (eligible.remove(mainWarehouseId)) {
+            columns.add(mainWarehouseId);
+        }
+        columns.addAll(eligible);
+        mainColumn = !columns.isEmpty() && columns.get(0).equals(mainWarehouseId) ? 0 : -1;
+
+        Map<Long, Integer> columnsByWarehouse = new HashMap<>();
+        warehouseIds = new long[columns.size()];
+        for (int col = 0; col < warehouseIds.length; col++) {
+            warehouseIds[col] = columns.get(col);
+            columnsByWarehouse.put(columns.get(col), col);
+        }
+
+        productIds = new long[demandByProduct.size()];
+        demand = new int[productIds.length];
+        available = new int[productIds.length][warehouseIds.length];
+        inventories = new Inventory[productIds.length][warehouseIds.length];
+        int row = 0;
+        for (Map.Entry<Long, Integer> entry : demandByProduct.entrySet()) {
+            productIds[row] = entry.getKey();
+            demand[row] = entry.getValue();
+            rowsByProduct.put(entry.getKey(), row);
+            for (Inventory inv : candidatesByProduct.getOrDefault(entry.getKey(), List.of())) {
+                if (isEligible(inv, frozenWarehouses)) {
+                    int col = columnsByWarehouse.get(inv.getWarehouse().getId());
+                    inventories[row][col] = inv;
+                    available[row][col] = Math.max(0, inv.getQuantityOnHand() - inv.getQuantityReserved());
+                }
+            }
+            row++;
+        }
+    }
+
+    private static boolean isEligible(Inventory inv, Set<Long> frozenWarehouses) {
+        return Boolean.TRUE.equals(inv.getWarehouse().getActive())
+                && !frozenWarehouses.contains(inv.getWarehouse().getId());
+    }
+
+    public int rows() {
+        return productIds.length;
+    }
+
+    public int columns() {
+        return warehouseIds.length;
+    }
+
+    // -1 si l'entrepôt de la commande n'est pas éligible
+    public int mainColumn() {
+        return mainColumn;
+    }
+
+    public int rowOf(long productId) {
+        return rowsByProduct.getOrDefault(productId, -1);
+    }
+
+    public long productId(int row) {
+        return productIds[row];
+    }
+
+    public long warehouseId(int col) {
+        return warehouseIds[col];
+    }
+
+    public int demand(int row) {
+        return demand[row];
+    }
+
+    public int available(int row, int col) {
+        return available[row][col];
+    }
+
+    public Inventory inventory(int row, int col) {
+        return inventories[row][col];
+    }
+
+    public int[][] emptyAllocation() {
+        return new int[productIds.length][warehouseIds.length];
+    }
+
+    // Remplit la demande restante d'une ligne en suivant l'ordre de colonnes donné
+    public void fill(int[][] allocation, int row, int[] columnOrder) {
+        int remaining = demand[row];
+        for (int col : allocation[row]) {
+            remaining -= col;
+        }
+        for (int col : columnOrder) {
+            if (remaining <= 0) {
+                break;
+            }
+            int take = Math.min(remaining, available[row][col] - allocation[row][col]);
+            if (take > 0) {
+                allocation[row][col] += take;
+                remaining -= take;
+            }
+        }
+    }
+
+    // Colonnes par disponible décroissant pour cette ligne (ordre des colonnes en cas d'égalité)
+    public int[] columnsByAvailableDesc(int row, int[] candidates) {
+        return Arrays.stream(candidates).boxed()
+                .sorted(Comparator.comparingInt((Integer col) -> -available[row][col]).thenComparingInt(col -> col))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public int[] allColumns() {
+        int[] cols = new int[warehouseIds.length];
+        for (int col = 0; col < cols.length; col++) {
+            cols[col] = col;
+        }
+        return cols;
+    }
+}
@@ -0,0 +1,276 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.BackorderStatus;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.repository.*;
+import com.smartusers.logitrackapi.repository.projection.ProductSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// File des ruptures : la confirmation n'enregistre que la quantité manquante (commande PENDING) ;
+// un passage périodique regroupe la file en une commande d'achat multi-lignes par fournisseur, écrite
+// en batch ; la réception de cette commande réserve les quantités et fait passer la commande à RESERVED.
+@Component
+@Slf4j
+public class BackorderQueue {
+
+    private final BackorderRepository backorderRepository;
+    private final POLineRepository poLineRepository;
+    private final SupplierRepository supplierRepository;
+    private final PurchaseOrderBatchRepository purchaseOrderBatchRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final StockReservationExpiry reservationExpiry;
+    private final OrderStateMachine orderStateMachine;
+    private final TransactionTemplate transactionTemplate;
+    private final int drainBatchSize;
+
+    public BackorderQueue(BackorderRepository backorderRepository,
+                          POLineRepository poLineRepository,
+                          SupplierRepository supplierRepository,
+                          PurchaseOrderBatchRepository purchaseOrderBatchRepository,
+                          InventoryRepository inventoryRepository,
+                          InventoryBatchRepository inventoryBatchRepository,
+                          AvailabilityIndex availabilityIndex,
+                          LowStockAlertEngine lowStockAlertEngine,
+                          StockReservationExpiry reservationExpiry,
+                          OrderStateMachine orderStateMachine,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${logitrack.backorders.drain-batch-size:5000}") int drainBatchSize) {
+        this.backorderRepository = backorderRepository;
+        this.poLineRepository = poLineRepository;
+        this.supplierRepository = supplierRepository;
+        this.purchaseOrderBatchRepository = purchaseOrderBatchRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryBatchRepository = inventoryBatchRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.lowStockAlertEngine = lowStockAlertEngine;
+        this.reservationExpiry = reservationExpiry;
+        this.orderStateMachine = orderStateMachine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.drainBatchSize = drainBatchSize;
+    }
+
+    // Ruptures du plan de confirmation ; celles d'une confirmation précédente de la commande sont annulées
+    public void enqueue(SalesOrder order, Map<SalesOrderLine, Integer> shortages) {
+        backorderRepository.cancelOpenByOrder(order.getId());
+        if (shortages.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Backorder> backorders = new ArrayList<>(shortages.size());
+        shortages.forEach((line, quantity) -> backorders.add(Backorder.builder()
+                .salesOrder(order)
+                .salesOrderLine(line)
+                .product(line.getProduct())
+                .quantity(quantity)
+                .unitPrice(line.getPrice())
+                .createdAt(now)
+                .build()));
+        backorderRepository.saveAll(backorders);
+    }
+
+    // Commande d'achat annulée : ses ruptures repartent en file, les commandes clients restent PENDING
+    public int requeue(Long purchaseOrderId) {
+        return backorderRepository.requeueByPurchaseOrder(purchaseOrderId);
+    }
+
+    @Scheduled(fixedDelayString = "${logitrack.backorders.drain-interval-ms:60000}")
+    public void drainScheduled() {
+        try {
+            int created = drain();
+            if (created > 0) {
+                log.info("{} commandes d'achat de réapprovisionnement créées", created);
+            }
+        } catch (RuntimeException e) {
+            // Les ruptures restent QUEUED et seront reprises au passage suivant
+            log.warn("Échec du regroupement des ruptures : {}", e.getMessage());
+        }
+    }
+
+    // Retourne le nombre de commandes d'achat créées
+    public int drain() {
+        Integer created = transactionTemplate.execute(status -> drainBatch());
+        return created == null ? 0 : created;
+    }
+
+    private int drainBatch() {
+        List<Backorder> queued = backorderRepository.lockQueued(Limit.of(drainBatchSize));
+        if (queued.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> pendingOrders = new HashSet<>(
+                backorderRepository.findPendingOrderIds(queued.stream().map(Backorder::getId).toList()));
+        List<Backorder> live = new ArrayList<>(queued.size());
+        Set<Long> productIds = new HashSet<>();
+        for (Backorder backorder : queued) {
+            // Commande annulée ou expirée depuis la confirmation : rien à commander
+            if (!pendingOrders.contains(backorder.getSalesOrder().getId())) {
+                backorder.setStatus(BackorderStatus.CANCELED);
+                continue;
+            }
+            live.add(backorder);
+            productIds.add(backorder.getProduct().getId());
+        }
+        if (live.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Long> supplierByProduct = suppliers(productIds);
+        // fournisseur -> produit -> ruptures, ordonnés pour des écritures déterministes
+        SortedMap<Long, SortedMap<Long, List<Backorder>>> grouped = new TreeMap<>();
+        for (Backorder backorder : live) {
+            Long supplierId = supplierByProduct.get(backorder.getProduct().getId());
+            if (supplierId == null) {
+                continue;
+            }
+            grouped.computeIfAbsent(supplierId, k -> new TreeMap<>())
+                    .computeIfAbsent(backorder.getProduct().getId(), k -> new ArrayList<>())
+                    .add(backorder);
+        }
+        if (grouped.isEmpty()) {
+            log.warn("Aucun fournisseur actif : {} ruptures en attente", live.size());
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        long[] supplierIds = grouped.keySet().stream().mapToLong(Long::longValue).toArray();
+        long[] purchaseOrderIds = purchaseOrderBatchRepository.insertOrders(supplierIds, now);
+
+        int lineCount = grouped.values().stream().mapToInt(Map::size).sum();
+        int backorderCount = grouped.values().stream()
+                .flatMap(byProduct -> byProduct.values().stream()).mapToInt(List::size).sum();
+        long[] lineOrders = new long[lineCount];
+        long[] lineProducts = new long[lineCount];
+        int[] lineQuantities = new int[lineCount];
+        BigDecimal[] linePrices = new BigDecimal[lineCount];
+        long[] backorderIds = new long[backorderCount];
+        long[] backorderOrders = new long[backorderCount];
+        int l = 0;
+        int b = 0;
+        int po = 0;
+        for (SortedMap<Long, List<Backorder>> byProduct : grouped.values()) {
+            long purchaseOrderId = purchaseOrderIds[po++];
+            for (Map.Entry<Long, List<Backorder>> entry : byProduct.entrySet()) {
+                int quantity = 0;
+                BigDecimal amount = BigDecimal.ZERO;
+                for (Backorder backorder : entry.getValue()) {
+                    quantity += backorder.getQuantity();
+                    amount = amount.add(backorder.getUnitPrice().multiply(BigDecimal.valueOf(backorder.getQuantity())));
+                    backorderIds[b] = backorder.getId();
+                    backorderOrders[b++] = purchaseOrderId;
+                }
+                lineOrders[l] = purchaseOrderId;
+                lineProducts[l] = entry.getKey();
+                lineQuantities[l] = quantity;
+                // Prix moyen pondéré des lignes regroupées
+                linePrices[l++] = amount.divide(BigDecimal.valueOf(quantity), 4, RoundingMode.HALF_UP);
+            }
+        }
+        purchaseOrderBatchRepository.insertLines(lineOrders, lineProducts, lineQuantities, linePrices);
+        purchaseOrderBatchRepository.markOrdered(backorderIds, backorderOrders, now);
+        return purchaseOrderIds.length;
+    }
+
+    // Dernier fournisseur actif du produit, sinon le fournisseur actif par défaut
+    private Map<Long, Long> suppliers(Set<Long> productIds) {
+        Map<Long, Long> supplierByProduct = new HashMap<>();
+        for (ProductSupplier row : poLineRepository.findLastActiveSuppliers(productIds)) {
+            supplierByProduct.put(row.productId(), row.supplierId());
+        }
+        if (supplierByProduct.size() < productIds.size()) {
+            supplierRepository.findByActiveTrue().stream().findFirst().ifPresent(defaultSupplier ->
+                    productIds.forEach(id -> supplierByProduct.putIfAbsent(id, defaultSupplier.getId())));
+        }
+        return supplierByProduct;
+    }
+
+    // Réception d'une commande d'achat : les quantités en rupture sont prélevées sur le stock reçu
+    // (inventoryByProduct), puis les commandes dont plus aucune rupture n'est ouverte passent à RESERVED.
+    // Appelée à la réception, puis au rejeu des réceptions différées par un inventaire tournant.
+    // Retourne ces commandes.
+    public Set<Long> promote(Long purchaseOrderId, Map<Long, Long> inventoryByProduct) {
+        List<Backorder> ordered = backorderRepository.lockOrderedByPurchaseOrder(purchaseOrderId);
+        if (ordered.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<Long, List<Backorder>> byProduct = new TreeMap<>();
+        for (Backorder backorder : ordered) {
+            if (backorder.getSalesOrder().getStatus() != OrderStatus.PENDING) {
+                // Commande annulée ou expirée : la marchandise reste en stock libre
+                backorder.setStatus(BackorderStatus.CANCELED);
+                continue;
+            }
+            byProduct.computeIfAbsent(backorder.getProduct().getId(), k -> new ArrayList<>()).add(backorder);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, SalesOrder> orders = new LinkedHashMap<>();
+        Map<Long, Map<Inventory, Integer>> allocations = new HashMap<>();
+        List<InventoryMovement> movements = new ArrayList<>();
+        byProduct.forEach((productId, backorders) -> {
+            int quantity = backorders.stream().mapToInt(Backorder::getQuantity).sum();
+            Long inventoryId = inventoryByProduct.get(productId);
+            // Les ruptures restent ORDERED et rattachées à la commande d'achat : la marchandise est déjà achetée,
+            // elles ne doivent pas être recommandées au prochain passage
+            if (inventoryId == null) {
+                // Réception différée par un inventaire tournant : servies au rejeu de la réception
+                return;
+            }
+            if (inventoryRepository.issueStock(inventoryId, quantity) == 0) {
+                log.warn("Stock reçu insuffisant pour les ruptures du produit {} de la commande d'achat {}",
+                        productId, purchaseOrderId);
+                return;
+            }
+            Inventory inventory = inventoryRepository.getReferenceById(inventoryId);
+            for (Backorder backorder : backorders) {
+                SalesOrder order = backorder.getSalesOrder();
+                SalesOrderLine line = backorder.getSalesOrderLine();
+                line.setQtyReserved(line.getQtyReserved() + backorder.getQuantity());
+                backorder.setStatus(BackorderStatus.FULFILLED);
+                backorder.setFulfilledAt(now);
+                orders.putIfAbsent(order.getId(), order);
+                allocations.computeIfAbsent(order.getId(), k -> new HashMap<>())
+                        .merge(inventory, backorder.getQuantity(), Integer::sum);
+                movements.add(InventoryMovement.builder()
+                        .inventory(inventory)
+                        .type(MovementType.OUTBOUND)
+                        .quantity(backorder.getQuantity())
+                        .movementDate(now)
+                        .description("Réservation commande " + order.getId()
+                                + " après réception commande achat #" + purchaseOrderId)
+                        .build());
+            }
+            availabilityIndex.adjustAfterCommit(inventoryId, -quantity);
+            lowStockAlertEngine.onAvailableChanged(inventoryId, -quantity);
+        });
+        if (orders.isEmpty()) {
+            return Set.of();
+        }
+
+        // Inventaire éventuellement créé par la réception dans cette transaction : écriture directe
+        inventoryBatchRepository.insertMovements(movements);
+        orders.forEach((orderId, order) -> reservationExpiry.trackAllocations(order, allocations.get(orderId)));
+
+        Set<Long> complete = new LinkedHashSet<>(orders.keySet());
+        complete.removeAll(backorderRepository.findOrderIdsWithOpenBackorders(orders.keySet()));
+        orderStateMachine.transitionAll(complete, OrderStatus.RESERVED);
+        return complete;
+    }
+}
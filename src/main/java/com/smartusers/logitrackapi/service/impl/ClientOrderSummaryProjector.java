@@ -0,0 +1,148 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.repository.ClientOrderSummaryBatchRepository;
+import com.smartusers.logitrackapi.repository.ClientOrderSummaryRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderTransitionRepository;
+import com.smartusers.logitrackapi.repository.projection.ClientStatusAmount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Tient client_order_summaries à jour par deltas, dans la transaction appelante : une commande compte
+// pour son statut courant, un changement de statut retire sa contribution à l'ancien et l'ajoute au nouveau.
+// Les commandes déplacées arrivent avec leur client, statut d'origine et montant (lignes RETURNING de la transition).
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClientOrderSummaryProjector {
+
+    static final Set<OrderStatus> OPEN =
+            EnumSet.of(OrderStatus.CREATED, OrderStatus.PENDING, OrderStatus.RESERVED, OrderStatus.SHIPPED);
+
+    private final SalesOrderRepository salesOrderRepository;
+    private final ClientOrderSummaryRepository summaryRepository;
+    private final ClientOrderSummaryBatchRepository summaryBatchRepository;
+
+    public void apply(Deltas deltas) {
+        summaryBatchRepository.apply(deltas.toList(), LocalDateTime.now());
+    }
+
+    public void onCreated(Long clientId, BigDecimal amount, LocalDateTime createdAt) {
+        Deltas deltas = new Deltas();
+        deltas.created(clientId, amount, createdAt);
+        apply(deltas);
+    }
+
+    // Commandes passées à :to par la transition horodatée :now
+    public void onTransition(List<SalesOrderTransitionRepository.Moved> moved, OrderStatus to, LocalDateTime now) {
+        Deltas deltas = new Deltas();
+        for (SalesOrderTransitionRepository.Moved order : moved) {
+            deltas.moved(order.clientId(), order.from(), to, 1, order.amount());
+        }
+        summaryBatchRepository.apply(deltas.toList(), now);
+    }
+
+    // À appeler avant la suppression, tant que les commandes et leurs lignes existent
+    public void onDeleted(Collection<Long> orderIds) {
+        Deltas deltas = new Deltas();
+        for (ClientStatusAmount row : salesOrderRepository.sumByClientAndStatus(orderIds)) {
+            deltas.removed(row.clientId(), row.status(), row.orders(), row.amount());
+        }
+        apply(deltas);
+    }
+
+    // Première mise en service : la table est construite une fois depuis les commandes existantes.
+    // Le verrou exclusif écarte les deltas concurrents et les autres instances qui démarrent en même temps.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (summaryRepository.count() > 0 || salesOrderRepository.count() == 0) {
+            return;
+        }
+        summaryBatchRepository.lockForRebuild();
+        // Table peut-être construite par une autre instance pendant l'attente du verrou
+        if (summaryRepository.count() > 0) {
+            return;
+        }
+        int clients = summaryBatchRepository.rebuild(LocalDateTime.now());
+        log.info("Synthèse des commandes initialisée pour {} clients", clients);
+    }
+
+    // Deltas cumulés par client, appliqués en un batch (une ligne par client, triées par id)
+    public static final class Deltas {
+
+        private final SortedMap<Long, Counters> byClient = new TreeMap<>();
+
+        public void created(Long clientId, BigDecimal amount, LocalDateTime createdAt) {
+            Counters counters = counters(clientId);
+            counters.orders++;
+            counters.add(OrderStatus.CREATED, 1, amount);
+            if (counters.lastOrderAt == null || counters.lastOrderAt.isBefore(createdAt)) {
+                counters.lastOrderAt = createdAt;
+            }
+        }
+
+        public void moved(Long clientId, OrderStatus from, OrderStatus to, long orders, BigDecimal amount) {
+            Counters counters = counters(clientId);
+            counters.add(from, -orders, amount.negate());
+            counters.add(to, orders, amount);
+        }
+
+        public void removed(Long clientId, OrderStatus status, long orders, BigDecimal amount) {
+            Counters counters = counters(clientId);
+            counters.orders -= orders;
+            counters.add(status, -orders, amount.negate());
+        }
+
+        List<ClientOrderSummaryBatchRepository.Delta> toList() {
+            List<ClientOrderSummaryBatchRepository.Delta> list = new ArrayList<>(byClient.size());
+            byClient.forEach((clientId, c) -> list.add(new ClientOrderSummaryBatchRepository.Delta(clientId,
+                    c.orders, c.openOrders, c.openValue, c.totalValue, c.reserved, c.shipped, c.delivered,
+                    c.canceled, c.lastOrderAt)));
+            return list;
+        }
+
+        private Counters counters(Long clientId) {
+            return byClient.computeIfAbsent(clientId, id -> new Counters());
+        }
+    }
+
+    private static final class Counters {
+        long orders;
+        long openOrders;
+        BigDecimal openValue = BigDecimal.ZERO;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        long reserved;
+        long shipped;
+        long delivered;
+        long canceled;
+        LocalDateTime lastOrderAt;
+
+        // Contribution d'une commande dans ce statut ; les annulées ne comptent plus dans le total
+        void add(OrderStatus status, long orders, BigDecimal amount) {
+            if (OPEN.contains(status)) {
+                openOrders += orders;
+                openValue = openValue.add(amount);
+            }
+            if (status != OrderStatus.CANCELED) {
+                totalValue = totalValue.add(amount);
+            }
+            switch (status) {
+                case RESERVED -> reserved += orders;
+                case SHIPPED -> shipped += orders;
+                case DELIVERED -> delivered += orders;
+                case CANCELED -> canceled += orders;
+                default -> { }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.ResourceNotFoundException;
+import com.smartusers.logitrackapi.dto.salesorder.ClientOrderSummaryResponse;
+import com.smartusers.logitrackapi.entity.ClientOrderSummary;
+import com.smartusers.logitrackapi.repository.ClientOrderSummaryRepository;
+import com.smartusers.logitrackapi.repository.UserRepository;
+import com.smartusers.logitrackapi.service.interfaces.ClientOrderSummaryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ClientOrderSummaryServiceImpl implements ClientOrderSummaryService {
+
+    private final ClientOrderSummaryRepository summaryRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public ClientOrderSummaryResponse getByClient(Long clientId) {
+        return summaryRepository.findById(clientId)
+                .map(this::toResponse)
+                .orElseGet(() -> empty(clientId));
+    }
+
+    // Pas encore de commande : synthèse vide si le client existe
+    private ClientOrderSummaryResponse empty(Long clientId) {
+        if (!userRepository.existsById(clientId)) {
+            throw new ResourceNotFoundException("Client non trouvé avec l'id: " + clientId);
+        }
+        return ClientOrderSummaryResponse.builder()
+                .clientId(clientId)
+                .openOrderValue(BigDecimal.ZERO)
+                .totalOrderValue(BigDecimal.ZERO)
+                .build();
+    }
+
+    private ClientOrderSummaryResponse toResponse(ClientOrderSummary summary) {
+        return ClientOrderSummaryResponse.builder()
+                .clientId(summary.getClientId())
+                .orderCount(summary.getOrderCount())
+                .openOrderCount(summary.getOpenOrderCount())
+                .openOrderValue(summary.getOpenOrderValue())
+                .totalOrderValue(summary.getTotalOrderValue())
+                .reservedOrderCount(summary.getReservedOrderCount())
+                .shippedOrderCount(summary.getShippedOrderCount())
+                .deliveredOrderCount(summary.getDeliveredOrderCount())
+                .canceledOrderCount(summary.getCanceledOrderCount())
+                .lastOrderAt(summary.getLastOrderAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.CycleCount;
+import com.smartusers.logitrackapi.entity.QueuedMovement;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.repository.CycleCountRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.ProductRepository;
+import com.smartusers.logitrackapi.repository.PurchaseOrderRepository;
+import com.smartusers.logitrackapi.repository.QueuedMovementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// File des mouvements d'un entrepôt gelé par un inventaire tournant.
+// Seule la ligne cycle_counts de l'entrepôt est verrouillée (en partage) : les autres entrepôts ne sont pas concernés.
+@Component
+@RequiredArgsConstructor
+public class CycleCountQueue {
+
+    private final CycleCountRepository cycleCountRepository;
+    private final QueuedMovementRepository queuedMovementRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+
+    // Inventaires tournants ouverts par entrepôt, verrouillés jusqu'à la fin de la transaction courante
+    public Map<Long, CycleCount> lockOpenCounts(Collection<Long> warehouseIds) {
+        if (warehouseIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, CycleCount> open = new HashMap<>();
+        for (CycleCount count : cycleCountRepository.lockOpenByWarehouseIdIn(warehouseIds)) {
+            open.put(count.getWarehouse().getId(), count);
+        }
+        return open;
+    }
+
+    // Lecture sans verrou pour l'allocation des commandes : un entrepôt gelé n'est pas candidat
+    public Set<Long> frozenWarehouseIds() {
+        return new HashSet<>(cycleCountRepository.findFrozenWarehouseIds());
+    }
+
+    public void enqueue(CycleCount count, Long inventoryId, MovementType type, int quantity, String description) {
+        queuedMovementRepository.save(QueuedMovement.builder()
+                .cycleCount(count)
+                .inventory(inventoryRepository.getReferenceById(inventoryId))
+                .type(type)
+                .quantity(quantity)
+                .description(description)
+                .queuedAt(LocalDateTime.now())
+                .build());
+    }
+
+    // Réception sur emplacement : mise en file si l'entrepôt est gelé, sinon false
+    public boolean enqueueReceipt(Long warehouseId, Long productId, int quantity, BigDecimal unitCost,
+                                  String description, Long purchaseOrderId) {
+        CycleCount count = lockOpenCounts(List.of(warehouseId)).get(warehouseId);
+        if (count == null) {
+            return false;
+        }
+        queuedMovementRepository.save(QueuedMovement.builder()
+                .cycleCount(count)
+                .product(productRepository.getReferenceById(productId))
+                .purchaseOrder(purchaseOrderId == null ? null : purchaseOrderRepository.getReferenceById(purchaseOrderId))
+                .type(MovementType.INBOUND)
+                .quantity(quantity)
+                .unitCost(unitCost)
+                .description(description)
+                .queuedAt(LocalDateTime.now())
+                .build());
+        return true;
+    }
+}
@@ -0,0 +1,222 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountAdjustment;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountLineRequest;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountReport;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountResponse;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementRequest;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementResult;
+import com.smartusers.logitrackapi.entity.CycleCount;
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.entity.QueuedMovement;
+import com.smartusers.logitrackapi.entity.Warehouse;
+import com.smartusers.logitrackapi.enums.CycleCountStatus;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.mapper.CycleCountMapper;
+import com.smartusers.logitrackapi.repository.*;
+import com.smartusers.logitrackapi.repository.projection.InventoryDeltaView;
+import com.smartusers.logitrackapi.service.interfaces.CycleCountService;
+import com.smartusers.logitrackapi.service.interfaces.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Inventaire tournant d'un entrepôt : ouverture (gel), puis clôture qui applique les quantités comptées
+// en mouvements ADJUSTMENT signés et rejoue les mouvements mis en file, dans une seule transaction.
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class CycleCountServiceImpl implements CycleCountService {
+
+    private final CycleCountRepository cycleCountRepository;
+    private final QueuedMovementRepository queuedMovementRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
+    private final InventoryService inventoryService;
+    private final AvailabilityIndex availabilityIndex;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final BackorderQueue backorderQueue;
+    private final CycleCountMapper cycleCountMapper;
+
+    @Override
+    public CycleCountResponse start(Long warehouseId) {
+        // Verrou sur la seule ligne de l'entrepôt : deux ouvertures simultanées sont sérialisées
+        Warehouse warehouse = warehouseRepository.lockById(warehouseId)
+                .orElseThrow(() -> new BusinessException("Entrepôt non trouvé"));
+        if (cycleCountRepository.findOpenByWarehouseId(warehouseId).isPresent()) {
+            throw new BusinessException("Un inventaire tournant est déjà en cours pour cet entrepôt");
+        }
+
+        CycleCount count = cycleCountRepository.save(CycleCount.builder()
+                .warehouse(warehouse)
+                .status(CycleCountStatus.OPEN)
+                .startedAt(LocalDateTime.now())
+                .build());
+        return cycleCountMapper.toResponse(count);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CycleCountResponse getById(Long id) {
+        CycleCount count = cycleCountRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("Inventaire tournant non trouvé avec ID " + id));
+        CycleCountResponse response = cycleCountMapper.toResponse(count);
+        response.setQueuedMovements(queuedMovementRepository.countByCycleCount_Id(id));
+        return response;
+    }
+
+    @Override
+    public CycleCountReport complete(Long id, List<CycleCountLineRequest> lines) {
+        // Verrou exclusif : attend les transactions qui sont en train de mettre un mouvement en file
+        CycleCount count = cycleCountRepository.lockById(id)
+                .orElseThrow(() -> new BusinessException("Inventaire tournant non trouvé avec ID " + id));
+        if (count.getStatus() != CycleCountStatus.OPEN) {
+            throw new BusinessException("Cet inventaire tournant est déjà clôturé");
+        }
+        Long warehouseId = count.getWarehouse().getId();
+        Map<Long, Integer> counted = validateLines(lines);
+
+        CycleCountReport report = new CycleCountReport();
+        report.setAdjustments(applyCounts(count, warehouseId, counted));
+
+        // Dégel avant le rejeu : les mouvements rejoués passent par les contrôles habituels
+        count.setStatus(CycleCountStatus.COMPLETED);
+        count.setCompletedAt(LocalDateTime.now());
+        cycleCountRepository.saveAndFlush(count);
+
+        report.setReplayed(replay(count));
+        queuedMovementRepository.deleteByCycleCountId(id);
+
+        report.setCycleCount(cycleCountMapper.toResponse(count));
+        return report;
+    }
+
+    private Map<Long, Integer> validateLines(List<CycleCountLineRequest> lines) {
+        Map<Long, Integer> counted = new TreeMap<>();
+        for (CycleCountLineRequest line : lines == null ? List.<CycleCountLineRequest>of() : lines) {
+            if (line == null || line.getInventoryId() == null) {
+                throw new BusinessException("L'ID de l'inventaire est obligatoire");
+            }
+            if (line.getCountedQuantity() == null || line.getCountedQuantity() < 0) {
+                throw new BusinessException("La quantité comptée doit être positive ou nulle");
+            }
+            if (counted.put(line.getInventoryId(), line.getCountedQuantity()) != null) {
+                throw new BusinessException("Inventaire compté deux fois : " + line.getInventoryId());
+            }
+        }
+        return counted;
+    }
+
+    // Les inventaires non comptés restent inchangés (comptage partiel possible)
+    private List<CycleCountAdjustment> applyCounts(CycleCount count, Long warehouseId, Map<Long, Integer> counted) {
+        List<CycleCountAdjustment> adjustments = new ArrayList<>();
+        if (counted.isEmpty()) {
+            return adjustments;
+        }
+
+        Map<Long, Inventory> inventories = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.lockAllByIdIn(counted.keySet())) {
+            inventories.put(inventory.getId(), inventory);
+        }
+        Map<Long, Long> reserved = new HashMap<>();
+        for (InventoryDeltaView row : stockReservationRepository.sumActiveByInventoryIdIn(counted.keySet())) {
+            reserved.put(row.getInventoryId(), row.getDelta());
+        }
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> deltas = new ArrayList<>();
+        List<InventoryMovement> movements = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Map.Entry<Long, Integer> entry : counted.entrySet()) {
+            Inventory inventory = inventories.get(entry.getKey());
+            if (inventory == null) {
+                throw new BusinessException("Inventaire non trouvé avec ID " + entry.getKey());
+            }
+            if (!inventory.getWarehouse().getId().equals(warehouseId)) {
+                throw new BusinessException("L'inventaire " + entry.getKey() + " n'appartient pas à l'entrepôt compté");
+            }
+            // Le stock réservé par des commandes non expédiées est encore en rayon : il fait partie du comptage
+            int expected = inventory.getQuantityOnHand() + Math.toIntExact(reserved.getOrDefault(inventory.getId(), 0L));
+            int delta = entry.getValue() - expected;
+            adjustments.add(new CycleCountAdjustment(inventory.getId(), expected, entry.getValue(), delta));
+            if (delta == 0) {
+                continue;
+            }
+            ids.add(inventory.getId());
+            deltas.add(delta);
+            // ADJUSTMENT porte son signe (voir InventoryMovementRepository.NET_QUANTITY)
+            movements.add(InventoryMovement.builder()
+                    .inventory(Inventory.builder().id(inventory.getId()).build())
+                    .type(MovementType.ADJUSTMENT)
+                    .quantity(delta)
+                    .movementDate(now)
+                    .description("Inventaire tournant #" + count.getId() + " : compté " + entry.getValue()
+                            + ", attendu " + expected)
+                    .build());
+        }
+
+        if (!ids.isEmpty()) {
+            inventoryBatchRepository.addOnHand(ids.stream().mapToLong(Long::longValue).toArray(),
+                    deltas.stream().mapToInt(Integer::intValue).toArray());
+            inventoryBatchRepository.insertMovements(movements);
+            for (int i = 0; i < ids.size(); i++) {
+                availabilityIndex.adjustAfterCommit(ids.get(i), deltas.get(i));
+                lowStockAlertEngine.onAvailableChanged(ids.get(i), deltas.get(i));
+            }
+        }
+        return adjustments;
+    }
+
+    // Rejoue la file dans l'ordre : les entrées / sorties consécutives partent en un seul lot.
+    // Les ruptures servies par une réception de commande d'achat différée sont ensuite réservées.
+    private List<StockMovementResult> replay(CycleCount count) {
+        List<StockMovementResult> results = new ArrayList<>();
+        List<StockMovementRequest> run = new ArrayList<>();
+        Long warehouseId = count.getWarehouse().getId();
+        // commande d'achat -> produit -> inventaire reçu
+        Map<Long, Map<Long, Long>> receipts = new TreeMap<>();
+
+        for (QueuedMovement queued : queuedMovementRepository.findByCycleCount_IdOrderByIdAsc(count.getId())) {
+            if (queued.getInventory() != null) {
+                run.add(new StockMovementRequest(queued.getInventory().getId(), queued.getType(),
+                        queued.getQuantity(), queued.getDescription()));
+                continue;
+            }
+            flush(run, results);
+            Long purchaseOrderId = queued.getPurchaseOrder() != null ? queued.getPurchaseOrder().getId() : null;
+            Long inventoryId = inventoryService.receiveIntoLocation(warehouseId, queued.getProduct().getId(),
+                    queued.getQuantity(), queued.getUnitCost(), queued.getDescription(), purchaseOrderId);
+            if (purchaseOrderId != null && inventoryId != null) {
+                receipts.computeIfAbsent(purchaseOrderId, k -> new HashMap<>()).put(queued.getProduct().getId(), inventoryId);
+            }
+            results.add(StockMovementResult.builder()
+                    .index(results.size())
+                    .inventoryId(inventoryId)
+                    .success(true)
+                    .build());
+        }
+        flush(run, results);
+        receipts.forEach(backorderQueue::promote);
+        return results;
+    }
+
+    private void flush(List<StockMovementRequest> run, List<StockMovementResult> results) {
+        if (run.isEmpty()) {
+            return;
+        }
+        int offset = results.size();
+        for (StockMovementResult result : inventoryService.applyMovements(new ArrayList<>(run))) {
+            result.setIndex(offset + result.getIndex());
+            results.add(result);
+        }
+        run.clear();
+    }
+}
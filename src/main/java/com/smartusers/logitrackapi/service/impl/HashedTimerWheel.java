@@ -0,0 +1,113 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Roue temporelle hachée : planification et annulation en O(1), chaque tick ne visite qu'un seau.
+// Une échéance au-delà d'un tour de roue garde un compteur de tours restants.
+// Les ajouts passent par une file concurrente ; les seaux ne sont touchés que par advance().
+public class HashedTimerWheel<K> {
+
+    private final long tickMs;
+    private final int mask;
+    private final List<Timeout<K>>[] buckets;
+    private final ConcurrentLinkedQueue<Timeout<K>> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<K, Timeout<K>> live = new ConcurrentHashMap<>();
+    private final long startMs;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimerWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs et wheelSize doivent être positifs");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMs = tickMs;
+        this.mask = Math.max(size, 1) - 1;
+        this.buckets = new List[mask + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.startMs = startMs;
+    }
+
+    // Remplace l'éventuelle échéance déjà planifiée pour cette clé
+    public void schedule(K key, long deadlineMs) {
+        Timeout<K> timeout = new Timeout<>(key, deadlineMs);
+        Timeout<K> previous = live.put(key, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(timeout);
+    }
+
+    public boolean cancel(K key) {
+        Timeout<K> timeout = live.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        timeout.cancelled = true;
+        return true;
+    }
+
+    public int size() {
+        return live.size();
+    }
+
+    // Traite tous les ticks écoulés jusqu'à nowMs et retourne les clés arrivées à échéance
+    public synchronized List<K> advance(long nowMs) {
+        long target = (nowMs - startMs) / tickMs;
+        List<K> expired = new ArrayList<>();
+        if (target < tick) {
+            return expired;
+        }
+        drainPending();
+
+        for (; tick <= target; tick++) {
+            List<Timeout<K>> bucket = buckets[(int) (tick & mask)];
+            int kept = 0;
+            for (Timeout<K> timeout : bucket) {
+                if (timeout.cancelled) {
+                    continue;
+                }
+                if (timeout.remainingRounds <= 0) {
+                    if (live.remove(timeout.key, timeout)) {
+                        expired.add(timeout.key);
+                    }
+                    continue;
+                }
+                timeout.remainingRounds--;
+                bucket.set(kept++, timeout);
+            }
+            bucket.subList(kept, bucket.size()).clear();
+        }
+        return expired;
+    }
+
+    private void drainPending() {
+        Timeout<K> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Une échéance déjà dépassée part dans le seau courant
+            long deadlineTick = Math.max((timeout.deadlineMs - startMs) / tickMs, tick);
+            timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+            buckets[(int) (deadlineTick & mask)].add(timeout);
+        }
+    }
+
+    private static final class Timeout<K> {
+        final K key;
+        final long deadlineMs;
+        long remainingRounds;
+        volatile boolean cancelled;
+
+        Timeout(K key, long deadlineMs) {
+            this.key = key;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
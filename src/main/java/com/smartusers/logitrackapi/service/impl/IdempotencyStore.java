@@ -0,0 +1,134 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.Exception.DuplicateResourceException;
+import com.smartusers.logitrackapi.entity.IdempotencyRecord;
+import com.smartusers.logitrackapi.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Réponses des requêtes idempotentes. La table idempotency_keys fait foi (partagée entre instances,
+// survit aux redémarrages) ; un cache LRU borné en mémoire garde les réponses terminées récentes
+// pour que les rejeux courants ne touchent pas la base.
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final long ttlHours;
+    private final long pendingTimeoutSeconds;
+    private final Map<String, StoredResponse> cache;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${logitrack.idempotency.cache-size:10000}") int cacheSize,
+                            @Value("${logitrack.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${logitrack.idempotency.pending-timeout-seconds:300}") long pendingTimeoutSeconds) {
+        this.repository = repository;
+        this.ttlHours = ttlHours;
+        this.pendingTimeoutSeconds = pendingTimeoutSeconds;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    // Réponse enregistrée pour cette clé, ou null si l'appelant doit exécuter la requête
+    // (la clé est alors réservée jusqu'à complete ou abandon)
+    public StoredResponse begin(String scope, String key, String fingerprint) {
+        StoredResponse cached = cache.get(cacheKey(scope, key));
+        if (cached != null && !isExpired(cached.createdAt())) {
+            return checkFingerprint(cached, fingerprint);
+        }
+
+        Optional<IdempotencyRecord> existing = repository.findByScopeAndIdempotencyKey(scope, key);
+        if (existing.isPresent()) {
+            return resume(existing.get(), fingerprint);
+        }
+
+        try {
+            repository.saveAndFlush(IdempotencyRecord.builder()
+                    .scope(scope)
+                    .idempotencyKey(key)
+                    .fingerprint(fingerprint)
+                    .completed(false)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            // Une requête concurrente avec la même clé vient de la réserver
+            throw new DuplicateResourceException("Requête déjà en cours pour cette clé d'idempotence");
+        }
+    }
+
+    public void complete(String scope, String key, String fingerprint, int status, String body, String location) {
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.complete(scope, key, status, body, location, now) == 0) {
+            log.warn("Clé d'idempotence {} introuvable à l'enregistrement de la réponse", key);
+            return;
+        }
+        cache.put(cacheKey(scope, key), new StoredResponse(fingerprint, status, body, location, now));
+    }
+
+    // Échec ou réponse non 2xx : la clé est libérée pour qu'un nouvel essai s'exécute
+    public void abandon(String scope, String key) {
+        repository.deletePending(scope, key);
+    }
+
+    @Scheduled(fixedDelayString = "${logitrack.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime limit = LocalDateTime.now().minusHours(ttlHours);
+        int purged = repository.deleteCreatedBefore(limit);
+        cache.values().removeIf(response -> response.createdAt().isBefore(limit));
+        if (purged > 0) {
+            log.info("{} clés d'idempotence expirées supprimées", purged);
+        }
+    }
+
+    private StoredResponse resume(IdempotencyRecord record, String fingerprint) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new BusinessException("Clé d'idempotence déjà utilisée pour une autre requête");
+        }
+        if (record.isCompleted()) {
+            StoredResponse stored = new StoredResponse(record.getFingerprint(), record.getResponseStatus(),
+                    record.getResponseBody(), record.getLocation(), record.getCompletedAt());
+            cache.put(cacheKey(record.getScope(), record.getIdempotencyKey()), stored);
+            return stored;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.takeOver(record.getId(), now.minusSeconds(pendingTimeoutSeconds), now) == 1) {
+            log.warn("Reprise de la clé d'idempotence {} restée en cours", record.getIdempotencyKey());
+            return null;
+        }
+        throw new DuplicateResourceException("Requête déjà en cours pour cette clé d'idempotence");
+    }
+
+    private StoredResponse checkFingerprint(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new BusinessException("Clé d'idempotence déjà utilisée pour une autre requête");
+        }
+        return stored;
+    }
+
+    private boolean isExpired(LocalDateTime createdAt) {
+        return createdAt.isBefore(LocalDateTime.now().minusHours(ttlHours));
+    }
+
+    private static String cacheKey(String scope, String key) {
+        return scope + '\n' + key;
+    }
+
+    public record StoredResponse(String fingerprint, int status, String body, String location,
+                                 LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,325 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.inventory.InventoryImportRejection;
+import com.smartusers.logitrackapi.dto.inventory.InventoryImportReport;
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.entity.Warehouse;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.repository.InventoryBatchRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.ProductRepository;
+import com.smartusers.logitrackapi.repository.WarehouseRepository;
+import com.smartusers.logitrackapi.repository.projection.InventoryLocationView;
+import com.smartusers.logitrackapi.repository.projection.ProductSkuView;
+import com.smartusers.logitrackapi.service.interfaces.InventoryImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Import CSV d'inventaires (colonnes sku, warehouse ou warehouseId, quantity), lu en flux par paquets.
+// Chaque paquet résout ses SKU et ses doublons en une requête chacun, puis écrit inventaires et
+// mouvements initiaux en batch JDBC dans sa propre transaction : la mémoire ne dépend que de la taille du paquet.
+@Service
+@Slf4j
+public class InventoryImportServiceImpl implements InventoryImportService {
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxReportedRejections;
+
+    public InventoryImportServiceImpl(InventoryRepository inventoryRepository,
+                                      ProductRepository productRepository,
+                                      WarehouseRepository warehouseRepository,
+                                      InventoryBatchRepository inventoryBatchRepository,
+                                      AvailabilityIndex availabilityIndex,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${logitrack.inventory.import.chunk-size:5000}") int chunkSize,
+                                      @Value("${logitrack.inventory.import.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.inventoryRepository = inventoryRepository;
+        this.productRepository = productRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.inventoryBatchRepository = inventoryBatchRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    @Override
+    public InventoryImportReport importCsv(InputStream input) {
+        InventoryImportReport report = new InventoryImportReport();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new BusinessException("Fichier d'import vide");
+            }
+            Header header = Header.parse(headerLine);
+            Map<String, Warehouse> warehouses = loadWarehouses(header.warehouseById);
+
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.setTotalRows(report.getTotalRows() + 1);
+                chunk.add(header.row(lineNumber, line));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(chunk, warehouses, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, warehouses, report);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("Lecture du fichier d'import impossible");
+        }
+
+        // Un seul rechargement de l'index ATP plutôt qu'une relecture par inventaire créé
+        if (report.getImported() > 0) {
+            availabilityIndex.refreshAll();
+        }
+        log.info("Import d'inventaires : {} lignes, {} importées, {} rejetées",
+                report.getTotalRows(), report.getImported(), report.getRejectedCount());
+        return report;
+    }
+
+    private Map<String, Warehouse> loadWarehouses(boolean byId) {
+        Map<String, Warehouse> warehouses = new HashMap<>();
+        for (Warehouse warehouse : warehouseRepository.findAll()) {
+            warehouses.put(byId ? String.valueOf(warehouse.getId()) : warehouse.getName(), warehouse);
+        }
+        return warehouses;
+    }
+
+    private void processChunk(List<Row> chunk, Map<String, Warehouse> warehouses, InventoryImportReport report) {
+        Set<String> skus = new HashSet<>();
+        for (Row row : chunk) {
+            if (row.error == null) {
+                skus.add(row.sku);
+            }
+        }
+        Map<String, Long> productIds = new HashMap<>();
+        if (!skus.isEmpty()) {
+            for (ProductSkuView product : productRepository.findIdsBySkuIn(skus)) {
+                productIds.put(product.getSku(), product.getId());
+            }
+        }
+
+        Set<Location> existing = new HashSet<>();
+        if (!productIds.isEmpty()) {
+            for (InventoryLocationView location : inventoryRepository.findLocationsByProductIdIn(productIds.values())) {
+                existing.add(new Location(location.getProductId(), location.getWarehouseId()));
+            }
+        }
+
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (row.error != null) {
+                reject(report, row, row.error);
+                continue;
+            }
+            Long productId = productIds.get(row.sku);
+            if (productId == null) {
+                reject(report, row, "Produit non trouvé");
+                continue;
+            }
+            Warehouse warehouse = warehouses.get(row.warehouse);
+            if (warehouse == null) {
+                reject(report, row, "Entrepôt non trouvé");
+                continue;
+            }
+            if (!Boolean.TRUE.equals(warehouse.getActive())) {
+                reject(report, row, "Entrepôt inactif");
+                continue;
+            }
+            // existing couvre la base et les lignes déjà acceptées de ce paquet
+            if (!existing.add(new Location(productId, warehouse.getId()))) {
+                reject(report, row, "Ce produit existe déjà dans cet entrepôt !");
+                continue;
+            }
+            row.productId = productId;
+            row.warehouseId = warehouse.getId();
+            accepted.add(row);
+        }
+
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(accepted));
+            report.setImported(report.getImported() + accepted.size());
+        } catch (DataAccessException e) {
+            log.warn("Import d'inventaires : échec d'écriture d'un paquet de {} lignes", accepted.size(), e);
+            for (Row row : accepted) {
+                reject(report, row, "Erreur d'écriture : " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void write(List<Row> rows) {
+        int size = rows.size();
+        long[] productIds = new long[size];
+        long[] warehouseIds = new long[size];
+        int[] quantities = new int[size];
+        for (int i = 0; i < size; i++) {
+            Row row = rows.get(i);
+            productIds[i] = row.productId;
+            warehouseIds[i] = row.warehouseId;
+            quantities[i] = row.quantity;
+        }
+
+        long[] ids = inventoryBatchRepository.insertInventories(productIds, warehouseIds, quantities);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<InventoryMovement> movements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (quantities[i] > 0) {
+                movements.add(InventoryMovement.builder()
+                        .inventory(Inventory.builder().id(ids[i]).build())
+                        .type(MovementType.INBOUND)
+                        .quantity(quantities[i])
+                        .movementDate(now)
+                        .description("Initialisation du stock avec " + quantities[i] + " unités")
+                        .build());
+            }
+        }
+        inventoryBatchRepository.insertMovements(movements);
+    }
+
+    private void reject(InventoryImportReport report, Row row, String reason) {
+        report.setRejectedCount(report.getRejectedCount() + 1);
+        if (report.getRejections().size() < maxReportedRejections) {
+            report.getRejections().add(new InventoryImportRejection(row.line, row.sku, row.warehouse, reason));
+        }
+    }
+
+    private record Location(long productId, long warehouseId) {
+    }
+
+    private static final class Row {
+        final long line;
+        final String sku;
+        final String warehouse;
+        final int quantity;
+        final String error;
+        long productId;
+        long warehouseId;
+
+        Row(long line, String sku, String warehouse, int quantity, String error) {
+            this.line = line;
+            this.sku = sku;
+            this.warehouse = warehouse;
+            this.quantity = quantity;
+            this.error = error;
+        }
+    }
+
+    private static final class Header {
+        final int skuIndex;
+        final int warehouseIndex;
+        final int quantityIndex;
+        final boolean warehouseById;
+
+        private Header(int skuIndex, int warehouseIndex, int quantityIndex, boolean warehouseById) {
+            this.skuIndex = skuIndex;
+            this.warehouseIndex = warehouseIndex;
+            this.quantityIndex = quantityIndex;
+            this.warehouseById = warehouseById;
+        }
+
+        static Header parse(String line) {
+            List<String> columns = splitCsv(line.startsWith("\uFEFF") ? line.substring(1) : line);
+            int sku = -1, warehouse = -1, warehouseId = -1, quantity = -1;
+            for (int i = 0; i < columns.size(); i++) {
+                switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "sku" -> sku = i;
+                    case "warehouse" -> warehouse = i;
+                    case "warehouseid" -> warehouseId = i;
+                    case "quantity" -> quantity = i;
+                    default -> { }
+                }
+            }
+            if (sku < 0 || quantity < 0 || (warehouse < 0 && warehouseId < 0)) {
+                throw new BusinessException("En-tête invalide : colonnes sku, warehouse (ou warehouseId) et quantity obligatoires");
+            }
+            return warehouseId >= 0
+                    ? new Header(sku, warehouseId, quantity, true)
+                    : new Header(sku, warehouse, quantity, false);
+        }
+
+        Row row(long lineNumber, String line) {
+            List<String> fields = splitCsv(line);
+            String sku = field(fields, skuIndex);
+            String warehouse = field(fields, warehouseIndex);
+            String rawQuantity = field(fields, quantityIndex);
+            if (sku.isEmpty() || warehouse.isEmpty() || rawQuantity.isEmpty()) {
+                return new Row(lineNumber, sku, warehouse, 0, "Champs obligatoires manquants");
+            }
+            int quantity;
+            try {
+                quantity = Integer.parseInt(rawQuantity);
+            } catch (NumberFormatException e) {
+                return new Row(lineNumber, sku, warehouse, 0, "Quantité invalide");
+            }
+            if (quantity < 0) {
+                return new Row(lineNumber, sku, warehouse, quantity, "Quantité invalide");
+            }
+            return new Row(lineNumber, sku, warehouse, quantity, null);
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index < fields.size() ? fields.get(index).trim() : "";
+        }
+    }
+
+    // Découpage d'une ligne CSV : séparateur virgule, champs éventuellement entre guillemets ("" = guillemet)
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
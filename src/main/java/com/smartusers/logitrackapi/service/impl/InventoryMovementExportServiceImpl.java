@@ -0,0 +1,176 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.enums.ExportFormat;
+import com.smartusers.logitrackapi.repository.InventoryMovementExportRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.WarehouseRepository;
+import com.smartusers.logitrackapi.repository.projection.MovementExportRow;
+import com.smartusers.logitrackapi.service.interfaces.InventoryMovementExportService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+// Les vérifications sont faites avant de renvoyer le corps ; l'écriture se fait ensuite ligne par ligne
+// depuis le curseur, dans une transaction en lecture seule ouverte par le thread qui écrit la réponse.
+@Service
+public class InventoryMovementExportServiceImpl implements InventoryMovementExportService {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String CSV_HEADER = "id,inventoryId,type,quantity,movementDate,description\n";
+
+    private final InventoryMovementExportRepository exportRepository;
+    private final InventoryRepository inventoryRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public InventoryMovementExportServiceImpl(InventoryMovementExportRepository exportRepository,
+                                              InventoryRepository inventoryRepository,
+                                              WarehouseRepository warehouseRepository,
+                                              PlatformTransactionManager transactionManager) {
+        this.exportRepository = exportRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public StreamingResponseBody exportByInventory(Long inventoryId, LocalDateTime from, LocalDateTime to,
+                                                   ExportFormat format) {
+        checkRange(from, to);
+        if (!inventoryRepository.existsById(inventoryId)) {
+            throw new BusinessException("Inventaire non trouvé avec ID " + inventoryId);
+        }
+        return out -> write(out, format,
+                consumer -> exportRepository.streamByInventory(inventoryId, from, to, consumer));
+    }
+
+    @Override
+    public StreamingResponseBody exportByWarehouse(Long warehouseId, LocalDateTime from, LocalDateTime to,
+                                                   ExportFormat format) {
+        checkRange(from, to);
+        if (!warehouseRepository.existsById(warehouseId)) {
+            throw new BusinessException("Entrepôt non trouvé avec ID " + warehouseId);
+        }
+        return out -> write(out, format,
+                consumer -> exportRepository.streamByWarehouse(warehouseId, from, to, consumer));
+    }
+
+    private void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException("La date de début doit précéder la date de fin");
+        }
+    }
+
+    private void write(OutputStream out, ExportFormat format, Consumer<Consumer<MovementExportRow>> source)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> source.accept(rowWriter));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.finish();
+        writer.flush();
+    }
+
+    private abstract static class RowWriter implements Consumer<MovementExportRow> {
+        @Override
+        public void accept(MovementExportRow row) {
+            try {
+                writeRow(row);
+            } catch (IOException e) {
+                // Client déconnecté : on interrompt la lecture du curseur
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract void writeRow(MovementExportRow row) throws IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator generator;
+        private final Writer writer;
+        private boolean empty = true;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = JSON_FACTORY.createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        void writeRow(MovementExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.id());
+            generator.writeNumberField("inventoryId", row.inventoryId());
+            generator.writeStringField("type", row.type());
+            generator.writeNumberField("quantity", row.quantity());
+            generator.writeStringField("movementDate", row.movementDate() != null ? row.movementDate().toString() : null);
+            generator.writeStringField("description", row.description());
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+            if (!empty) {
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        void writeRow(MovementExportRow row) throws IOException {
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writer.write(Long.toString(row.inventoryId()));
+            writer.write(',');
+            writer.write(row.type() != null ? row.type() : "");
+            writer.write(',');
+            writer.write(Integer.toString(row.quantity()));
+            writer.write(',');
+            writer.write(row.movementDate() != null ? row.movementDate().toString() : "");
+            writer.write(',');
+            writer.write(escape(row.description()));
+            writer.write('\n');
+        }
+
+        @Override
+        void finish() {
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
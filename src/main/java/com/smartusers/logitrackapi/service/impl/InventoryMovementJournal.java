@@ -0,0 +1,303 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.entity.MovementDeadLetter;
+import com.smartusers.logitrackapi.repository.InventoryBatchRepository;
+import com.smartusers.logitrackapi.repository.InventoryMovementRepository;
+import com.smartusers.logitrackapi.repository.MovementDeadLetterRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Journal des mouvements de stock.
+// Désactivé : chaque mouvement est enregistré immédiatement, comme avant.
+// Activé : les mouvements d'une transaction sont regroupés puis écrits en un batch JDBC.
+// En mode SYNC, le batch est écrit juste avant le commit, sur la connexion et dans la transaction
+// de l'appelant : il est validé ou annulé avec les changements de stock qu'il décrit.
+// En mode ASYNC, les mouvements partent après le commit vers une file bornée qu'un thread dédié
+// vide par lots multi-lignes, sans bloquer l'appelant. Un lot en échec est retenté avec backoff, puis
+// transaction par transaction ; ce qui échoue encore est rangé dans inventory_movement_dead_letters.
+@Component
+@Slf4j
+public class InventoryMovementJournal {
+
+    public enum Durability { SYNC, ASYNC }
+
+    private static final Object BUFFER_KEY = InventoryMovementJournal.class.getName() + ".buffer";
+
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
+    private final MovementDeadLetterRepository deadLetterRepository;
+    private final TransactionTemplate writerTransaction;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Durability durability;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    // Une entrée = les mouvements d'une transaction validée
+    private final BlockingQueue<List<InventoryMovement>> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public InventoryMovementJournal(InventoryMovementRepository inventoryMovementRepository,
+                                    InventoryBatchRepository inventoryBatchRepository,
+                                    MovementDeadLetterRepository deadLetterRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${logitrack.movements.journal.enabled:false}") boolean enabled,
+                                    @Value("${logitrack.movements.journal.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${logitrack.movements.journal.batch-size:500}") int batchSize,
+                                    @Value("${logitrack.movements.journal.flush-interval-ms:50}") long flushIntervalMs,
+                                    @Value("${logitrack.movements.journal.durability:SYNC}") Durability durability,
+                                    @Value("${logitrack.movements.journal.max-attempts:3}") int maxAttempts,
+                                    @Value("${logitrack.movements.journal.retry-backoff-ms:100}") long retryBackoffMs) {
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.inventoryBatchRepository = inventoryBatchRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.writerTransaction = new TransactionTemplate(transactionManager);
+        this.writerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.durability = durability;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @PostConstruct
+    void start() {
+        // Seul le mode ASYNC utilise le thread d'écriture
+        if (!enabled || durability != Durability.ASYNC) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "inventory-movement-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        // Les mouvements restants sont écrits avant l'arrêt
+        List<List<InventoryMovement>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    // Mouvements écrits après le commit : le registre peut être en retard sur quantity_on_hand
+    public boolean writesAfterCommit() {
+        return enabled && durability == Durability.ASYNC;
+    }
+
+    public void record(InventoryMovement movement) {
+        record(List.of(movement));
+    }
+
+    public void record(List<InventoryMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        if (!enabled) {
+            if (movements.size() == 1) {
+                inventoryMovementRepository.save(movements.get(0));
+            } else {
+                inventoryMovementRepository.saveAll(movements);
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (durability == Durability.SYNC) {
+                inventoryBatchRepository.insertMovements(movements);
+            } else {
+                submit(new ArrayList<>(movements));
+            }
+            return;
+        }
+        transactionBuffer().addAll(movements);
+    }
+
+    // Tampon propre à la transaction courante, écrit avant le commit (SYNC) ou soumis au journal après (ASYNC)
+    @SuppressWarnings("unchecked")
+    private List<InventoryMovement> transactionBuffer() {
+        List<InventoryMovement> buffer = (List<InventoryMovement>) TransactionSynchronizationManager.getResource(BUFFER_KEY);
+        if (buffer == null) {
+            List<InventoryMovement> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(BUFFER_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Une erreur d'écriture annule la transaction de l'appelant, et elle seule
+                    if (durability == Durability.SYNC) {
+                        inventoryBatchRepository.insertMovements(created);
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (durability == Durability.ASYNC) {
+                        submit(created);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BUFFER_KEY);
+                }
+            });
+            buffer = created;
+        }
+        return buffer;
+    }
+
+    // Appelé après commit : ne lève pas d'exception, l'appelant ne peut plus rien annuler
+    private void submit(List<InventoryMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        if (!running) {
+            // Journal arrêté : écriture directe pour ne rien perdre
+            flush(List.of(movements));
+            return;
+        }
+        try {
+            queue.put(movements);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Journal des mouvements interrompu : écriture directe de {} mouvements", movements.size());
+            flush(List.of(movements));
+        }
+    }
+
+    private void runWriter() {
+        List<List<InventoryMovement>> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                List<InventoryMovement> first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int size = first.size();
+                // Regroupe ce qui arrive pendant l'intervalle, jusqu'à la taille de lot
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (size < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    List<InventoryMovement> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    size += next.size();
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Lot complet avec backoff exponentiel (erreurs transitoires), puis chaque transaction séparément :
+    // une entrée invalide ne fait pas perdre les autres. Rien n'est abandonné sans trace.
+    private void flush(List<List<InventoryMovement>> batch) {
+        List<InventoryMovement> movements = new ArrayList<>();
+        batch.forEach(movements::addAll);
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                write(movements);
+                return;
+            } catch (RuntimeException ex) {
+                failure = ex;
+                log.warn("Échec d'écriture de {} mouvements de stock (tentative {}/{}) : {}",
+                        movements.size(), attempt, maxAttempts, ex.getMessage());
+                if (attempt < maxAttempts && !pause(retryBackoffMs << (attempt - 1))) {
+                    break;
+                }
+            }
+        }
+        if (batch.size() == 1) {
+            deadLetter(batch.get(0), failure);
+            return;
+        }
+        for (List<InventoryMovement> entry : batch) {
+            try {
+                write(entry);
+            } catch (RuntimeException ex) {
+                deadLetter(entry, ex);
+            }
+        }
+    }
+
+    private void write(List<InventoryMovement> movements) {
+        writerTransaction.executeWithoutResult(status -> inventoryBatchRepository.insertMovements(movements));
+    }
+
+    private void deadLetter(List<InventoryMovement> movements, RuntimeException cause) {
+        String error = cause == null ? null : String.valueOf(cause.getMessage());
+        if (error != null && error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<MovementDeadLetter> letters = new ArrayList<>(movements.size());
+        for (InventoryMovement movement : movements) {
+            letters.add(MovementDeadLetter.builder()
+                    .inventoryId(movement.getInventory() != null ? movement.getInventory().getId() : null)
+                    .type(movement.getType())
+                    .quantity(movement.getQuantity())
+                    .movementDate(movement.getMovementDate())
+                    .description(movement.getDescription())
+                    .unitCost(movement.getUnitCost())
+                    .error(error)
+                    .failedAt(now)
+                    .build());
+        }
+        try {
+            writerTransaction.executeWithoutResult(status -> deadLetterRepository.saveAll(letters));
+            log.error("{} mouvements de stock non écrits, rangés dans inventory_movement_dead_letters", movements.size(), cause);
+        } catch (RuntimeException ex) {
+            // Dernier recours : le détail reste dans les logs
+            log.error("Mouvements de stock perdus (registre et file d'erreurs indisponibles) : {}", letters.stream()
+                    .map(l -> l.getInventoryId() + ":" + l.getType() + ":" + l.getQuantity() + "@" + l.getMovementDate())
+                    .toList(), ex);
+        }
+    }
+
+    private boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.inventory.ReconciliationMismatch;
+import com.smartusers.logitrackapi.dto.inventory.ReconciliationReport;
+import com.smartusers.logitrackapi.repository.InventoryMovementRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.projection.IdRangeView;
+import com.smartusers.logitrackapi.repository.projection.InventoryDeltaView;
+import com.smartusers.logitrackapi.repository.projection.InventoryQuantityView;
+import com.smartusers.logitrackapi.service.interfaces.InventoryReconciliationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Recalcule le stock attendu de chaque inventaire à partir de son registre de mouvements et le compare
+// à quantity_on_hand. La plage d'id est découpée récursivement sur un pool fork-join dédié ; chaque paquet
+// lit ses quantités et ses soldes de registre en deux requêtes groupées dans une transaction REPEATABLE READ
+// (instantané cohérent même si des mouvements arrivent pendant la lecture).
+// Avec le journal en mode ASYNC, des mouvements pas encore écrits peuvent apparaître comme des écarts :
+// la correction est alors refusée, elle aurait aligné le stock sur un registre incomplet.
+@Service
+@Slf4j
+public class InventoryReconciliationServiceImpl implements InventoryReconciliationService {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final InventoryMovementJournal inventoryMovementJournal;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate repairTemplate;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int maxReportedMismatches;
+
+    public InventoryReconciliationServiceImpl(InventoryRepository inventoryRepository,
+                                              InventoryMovementRepository inventoryMovementRepository,
+                                              AvailabilityIndex availabilityIndex,
+                                              LowStockAlertEngine lowStockAlertEngine,
+                                              InventoryMovementJournal inventoryMovementJournal,
+                                              PlatformTransactionManager transactionManager,
+                                              @Value("${logitrack.reconciliation.parallelism:4}") int parallelism,
+                                              @Value("${logitrack.reconciliation.chunk-size:2000}") int chunkSize,
+                                              @Value("${logitrack.reconciliation.max-reported-mismatches:1000}") int maxReportedMismatches) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.lowStockAlertEngine = lowStockAlertEngine;
+        this.inventoryMovementJournal = inventoryMovementJournal;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.repairTemplate = new TransactionTemplate(transactionManager);
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxReportedMismatches = maxReportedMismatches;
+    }
+
+    @Override
+    public ReconciliationReport reconcile(boolean repair) {
+        if (repair && inventoryMovementJournal.writesAfterCommit()) {
+            throw new BusinessException("Correction impossible : le journal des mouvements est en mode ASYNC, "
+                    + "le registre peut ne pas contenir les derniers mouvements");
+        }
+        ReconciliationReport report = new ReconciliationReport();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        report.setStartedAt(startedAt);
+
+        IdRangeView range = inventoryRepository.findIdRange();
+        if (range != null && range.getMinId() != null) {
+            // Pool dédié : le nombre de connexions utilisées reste borné par le parallélisme
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                ChunkResult result = pool.invoke(new RangeTask(range.getMinId(), range.getMaxId(), repair));
+                report.setInventoriesChecked(result.checked);
+                report.setMismatchCount(result.mismatches.size());
+                report.setRepairedCount((int) result.mismatches.stream().filter(ReconciliationMismatch::isRepaired).count());
+                result.mismatches.sort((a, b) -> Long.compare(a.getInventoryId(), b.getInventoryId()));
+                report.setMismatches(new ArrayList<>(
+                        result.mismatches.subList(0, Math.min(result.mismatches.size(), maxReportedMismatches))));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        report.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        log.info("Réconciliation terminée : {} inventaires, {} écarts, {} corrigés en {} ms",
+                report.getInventoriesChecked(), report.getMismatchCount(), report.getRepairedCount(), report.getDurationMs());
+        return report;
+    }
+
+    ChunkResult reconcileChunk(long fromId, long toId, boolean repair) {
+        ChunkResult result = readTemplate.execute(status -> compare(fromId, toId));
+        if (repair && !result.mismatches.isEmpty()) {
+            repairTemplate.executeWithoutResult(status -> repair(result.mismatches));
+        }
+        return result;
+    }
+
+    private ChunkResult compare(long fromId, long toId) {
+        Map<Long, Long> ledger = new HashMap<>();
+        for (InventoryDeltaView row : inventoryMovementRepository.sumNetQuantityByInventoryBetween(fromId, toId)) {
+            ledger.put(row.getInventoryId(), row.getDelta() == null ? 0L : row.getDelta());
+        }
+
+        ChunkResult result = new ChunkResult();
+        for (InventoryQuantityView row : inventoryRepository.findOnHandBetween(fromId, toId)) {
+            result.checked++;
+            int recorded = row.getQuantity() == null ? 0 : row.getQuantity();
+            long expected = ledger.getOrDefault(row.getInventoryId(), 0L);
+            if (recorded != expected) {
+                result.mismatches.add(new ReconciliationMismatch(row.getInventoryId(), recorded, Math.toIntExact(expected), false));
+            }
+        }
+        return result;
+    }
+
+    // Le registre fait foi ; la mise à jour est conditionnée à la quantité lue pour ne pas écraser un mouvement concurrent
+    private void repair(List<ReconciliationMismatch> mismatches) {
+        for (ReconciliationMismatch mismatch : mismatches) {
+            Long id = mismatch.getInventoryId();
+            int updated = inventoryRepository.repairOnHand(id, mismatch.getRecordedOnHand(), mismatch.getLedgerOnHand());
+            if (updated == 1) {
+                int delta = mismatch.getLedgerOnHand() - mismatch.getRecordedOnHand();
+                mismatch.setRepaired(true);
+                availabilityIndex.adjustAfterCommit(id, delta);
+                lowStockAlertEngine.onAvailableChanged(id, delta);
+            }
+        }
+    }
+
+    static final class ChunkResult {
+        int checked;
+        final List<ReconciliationMismatch> mismatches = new ArrayList<>();
+
+        ChunkResult merge(ChunkResult other) {
+            checked += other.checked;
+            mismatches.addAll(other.mismatches);
+            return this;
+        }
+    }
+
+    private final class RangeTask extends RecursiveTask<ChunkResult> {
+        private final long fromId;
+        private final long toId;
+        private final boolean repair;
+
+        RangeTask(long fromId, long toId, boolean repair) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.repair = repair;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (toId - fromId < chunkSize) {
+                return reconcileChunk(fromId, toId, repair);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, middle, repair);
+            left.fork();
+            ChunkResult right = new RangeTask(middle + 1, toId, repair).compute();
+            return left.join().merge(right);
+        }
+    }
+}
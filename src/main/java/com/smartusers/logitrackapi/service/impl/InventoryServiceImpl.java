@@ -1,30 +1,50 @@
 package com.smartusers.logitrackapi.service.impl;
 
 import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.annotation.RetryOnConflict;
+import com.smartusers.logitrackapi.dto.common.CursorPage;
+import com.smartusers.logitrackapi.dto.inventory.InventoryResponse;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementRequest;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementResult;
+import com.smartusers.logitrackapi.entity.CycleCount;
 import com.smartusers.logitrackapi.entity.Inventory;
 import com.smartusers.logitrackapi.entity.InventoryMovement;
 import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.repository.InventoryBatchRepository;
 import com.smartusers.logitrackapi.repository.InventoryMovementRepository;
 import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.InventorySearchRepository;
 import com.smartusers.logitrackapi.repository.ProductRepository;
 import com.smartusers.logitrackapi.repository.WarehouseRepository;
+import com.smartusers.logitrackapi.repository.projection.LocationReceipt;
 import com.smartusers.logitrackapi.service.interfaces.InventoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class InventoryServiceImpl implements InventoryService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_MOVEMENTS = 5000;
+
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
     private final WarehouseRepository warehouseRepository;
     private final InventoryMovementRepository inventoryMovementRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
+    private final InventorySearchRepository inventorySearchRepository;
+    private final InventoryMovementJournal inventoryMovementJournal;
+    private final AvailabilityIndex availabilityIndex;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final CycleCountQueue cycleCountQueue;
 
     @Override
     public Inventory create(Inventory inventory) {
@@ -40,77 +60,104 @@ public class InventoryServiceImpl implements InventoryService {
         inventory.setProduct(product);
         inventory.setWarehouse(warehouse);
 
-        List<Inventory> existingInventories = inventoryRepository
-                .findAllByWarehouse_IdAndProduct_Id(warehouse.getId(), product.getId());
-
-        if (!existingInventories.isEmpty()) {
-            throw new BusinessException("Ce produit existe déjà dans cet entrepôt !");
-        }
-
         if (inventory.getQuantityOnHand() == null) {
             inventory.setQuantityOnHand(0);
         }
         inventory.setQuantityReserved(0);
 
-        Inventory savedInventory = inventoryRepository.save(inventory);
+        // Le doublon est détecté par la contrainte unique (entrepôt, produit), sans lecture préalable
+        Inventory savedInventory;
+        try {
+            savedInventory = inventoryRepository.save(inventory);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("Ce produit existe déjà dans cet entrepôt !");
+        }
+        availabilityIndex.refreshAfterCommit(savedInventory.getId());
 
+        // Inventaire créé dans cette transaction : le mouvement initial est écrit directement
         if (savedInventory.getQuantityOnHand() > 0) {
-            saveMovement(savedInventory, MovementType.INBOUND, savedInventory.getQuantityOnHand(),
-                    "Initialisation du stock avec " + savedInventory.getQuantityOnHand() + " unités");
+            inventoryMovementRepository.save(movement(savedInventory, MovementType.INBOUND, savedInventory.getQuantityOnHand(),
+                    "Initialisation du stock avec " + savedInventory.getQuantityOnHand() + " unités"));
         }
 
         return savedInventory;
     }
 
     @Override
-    public Inventory addStock(Long inventoryId, int quantity, String description) {
+    public void addStock(Long inventoryId, int quantity, String description) {
         if (quantity <= 0) {
             throw new BusinessException("La quantité doit être positive");
         }
 
-        Inventory inventory = getById(inventoryId);
-
-        if (!inventory.getWarehouse().getActive()) {
+        if (inventoryRepository.receiveStock(inventoryId, quantity) == 0) {
+            Inventory inventory = getById(inventoryId);
+            if (enqueueIfFrozen(inventory, MovementType.INBOUND, quantity, description)) {
+                return;
+            }
             throw new BusinessException("Entrepôt inactif");
         }
 
-        inventory.setQuantityOnHand(inventory.getQuantityOnHand() + quantity);
-        Inventory updatedInventory = inventoryRepository.save(inventory);
-
-        saveMovement(updatedInventory, MovementType.INBOUND, quantity,
+        availableChanged(inventoryId, quantity);
+        saveMovement(inventoryRepository.getReferenceById(inventoryId), MovementType.INBOUND, quantity,
                 description != null ? description : "Réception de " + quantity + " unités");
-
-        return updatedInventory;
     }
 
+    // Réception sur un emplacement : crée l'inventaire ou l'incrémente en une seule instruction.
+    // L'appelant a déjà vérifié que l'entrepôt est actif.
     @Override
-    public Inventory sortieStock(Long inventoryId, int quantity, String description) {
+    public Long receiveIntoLocation(Long warehouseId, Long productId, int quantity, BigDecimal unitCost,
+                                    String description, Long purchaseOrderId) {
         if (quantity <= 0) {
             throw new BusinessException("La quantité doit être positive");
         }
+        // Entrepôt en inventaire tournant : la réception sera rejouée à la clôture
+        if (cycleCountQueue.enqueueReceipt(warehouseId, productId, quantity, unitCost, description, purchaseOrderId)) {
+            return null;
+        }
 
-        Inventory inventory = getById(inventoryId);
+        LocationReceipt receipt = inventoryBatchRepository.receiveIntoLocation(warehouseId, productId, quantity);
+        Long inventoryId = receipt.inventoryId();
 
-        if (!inventory.getWarehouse().getActive()) {
-            throw new BusinessException("Entrepôt inactif");
+        // Ligne éventuellement créée dans cette transaction : le mouvement est écrit directement
+        InventoryMovement movement = movement(Inventory.builder().id(inventoryId).build(),
+                MovementType.INBOUND, quantity, description != null ? description : "Réception de " + quantity + " unités");
+        movement.setUnitCost(unitCost);
+        inventoryBatchRepository.insertMovements(List.of(movement));
+
+        if (receipt.created()) {
+            availabilityIndex.refreshAfterCommit(inventoryId);
+        } else {
+            availableChanged(inventoryId, quantity);
         }
+        return inventoryId;
+    }
 
-        int available = inventory.getQuantityOnHand() - inventory.getQuantityReserved();
+    @Override
+    public void sortieStock(Long inventoryId, int quantity, String description) {
+        if (quantity <= 0) {
+            throw new BusinessException("La quantité doit être positive");
+        }
+
+        if (inventoryRepository.issueStock(inventoryId, quantity) == 0) {
+            Inventory inventory = getById(inventoryId);
+            if (enqueueIfFrozen(inventory, MovementType.OUTBOUND, quantity, description)) {
+                return;
+            }
 
-        if (available < quantity) {
+            if (!inventory.getWarehouse().getActive()) {
+                throw new BusinessException("Entrepôt inactif");
+            }
+
+            int available = inventory.getQuantityOnHand() - inventory.getQuantityReserved();
             throw new BusinessException(
                     "Stock insuffisant dans l'entrepôt " + inventory.getWarehouse().getName() +
                             ". Disponible: " + available + ", Demandé: " + quantity
             );
         }
 
-        inventory.setQuantityOnHand(inventory.getQuantityOnHand() - quantity);
-        Inventory updatedInventory = inventoryRepository.save(inventory);
-
-        saveMovement(updatedInventory, MovementType.OUTBOUND, quantity,
+        availableChanged(inventoryId, -quantity);
+        saveMovement(inventoryRepository.getReferenceById(inventoryId), MovementType.OUTBOUND, quantity,
                 description != null ? description : "Sortie de " + quantity + " unités");
-
-        return updatedInventory;
     }
 
     @Override
@@ -119,15 +166,11 @@ public class InventoryServiceImpl implements InventoryService {
             throw new BusinessException("La quantité doit être positive");
         }
 
-        Inventory inventory = getById(inventoryId);
-        int available = inventory.getQuantityOnHand() - inventory.getQuantityReserved();
-
-        if (available < quantity) {
+        if (inventoryRepository.reserveStock(inventoryId, quantity) == 0) {
+            getById(inventoryId);
             throw new BusinessException("Stock disponible insuffisant pour réservation");
         }
-
-        inventory.setQuantityReserved(inventory.getQuantityReserved() + quantity);
-        inventoryRepository.save(inventory);
+        availableChanged(inventoryId, -quantity);
     }
 
     @Override
@@ -136,39 +179,179 @@ public class InventoryServiceImpl implements InventoryService {
             throw new BusinessException("La quantité doit être positive");
         }
 
-        Inventory inventory = getById(inventoryId);
-
-        if (inventory.getQuantityReserved() < quantity) {
+        if (inventoryRepository.releaseStock(inventoryId, quantity) == 0) {
+            getById(inventoryId);
             throw new BusinessException("Quantité réservée insuffisante");
         }
+        availableChanged(inventoryId, quantity);
+    }
+
+    @Override
+    public List<StockMovementResult> applyMovements(List<StockMovementRequest> requests) {
+        // Un lot est appliqué dans une seule transaction : sa taille est bornée
+        if (requests.size() > MAX_BATCH_MOVEMENTS) {
+            throw new BusinessException("Au plus " + MAX_BATCH_MOVEMENTS + " mouvements par appel");
+        }
+        StockMovementResult[] results = new StockMovementResult[requests.size()];
+        int[] positions = new int[requests.size()];
+        long[] inventoryIds = new long[requests.size()];
+        int[] deltas = new int[requests.size()];
+        int count = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            StockMovementRequest req = requests.get(i);
+            String error = validateMovement(req);
+            if (error != null) {
+                results[i] = movementResult(i, req, false, error);
+                continue;
+            }
+            positions[count] = i;
+            inventoryIds[count] = req.getInventoryId();
+            deltas[count] = req.getType() == MovementType.INBOUND ? req.getQuantity() : -req.getQuantity();
+            count++;
+        }
+
+        int[] updated = count == 0 ? new int[0]
+                : inventoryBatchRepository.applyOnHandDeltas(Arrays.copyOf(inventoryIds, count), Arrays.copyOf(deltas, count));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<InventoryMovement> movements = new ArrayList<>();
+        Set<Long> refusedIds = new HashSet<>();
+
+        for (int k = 0; k < count; k++) {
+            int i = positions[k];
+            StockMovementRequest req = requests.get(i);
+            if (updated[k] > 0) {
+                availableChanged(req.getInventoryId(), deltas[k]);
+                movements.add(InventoryMovement.builder()
+                        .inventory(Inventory.builder().id(req.getInventoryId()).build())
+                        .type(req.getType())
+                        .quantity(req.getQuantity())
+                        .movementDate(now)
+                        .description(req.getDescription() != null ? req.getDescription()
+                                : (req.getType() == MovementType.INBOUND ? "Réception de " : "Sortie de ")
+                                + req.getQuantity() + " unités")
+                        .build());
+                results[i] = movementResult(i, req, true, null);
+            } else {
+                refusedIds.add(req.getInventoryId());
+            }
+        }
 
-        inventory.setQuantityReserved(inventory.getQuantityReserved() - quantity);
-        inventoryRepository.save(inventory);
+        inventoryBatchRepository.insertMovements(movements);
+
+        // Seules les lignes refusées sont relues, pour expliquer le refus
+        if (!refusedIds.isEmpty()) {
+            Map<Long, Inventory> refused = new HashMap<>();
+            Set<Long> refusedWarehouses = new HashSet<>();
+            inventoryRepository.findAllById(refusedIds).forEach(inv -> {
+                refused.put(inv.getId(), inv);
+                refusedWarehouses.add(inv.getWarehouse().getId());
+            });
+            // Refus dû à un inventaire tournant : mise en file dans l'ordre de la requête
+            Map<Long, CycleCount> openCounts = cycleCountQueue.lockOpenCounts(refusedWarehouses);
+
+            for (int k = 0; k < count; k++) {
+                int i = positions[k];
+                if (results[i] == null) {
+                    StockMovementRequest req = requests.get(i);
+                    Inventory inventory = refused.get(req.getInventoryId());
+                    CycleCount openCount = inventory == null ? null : openCounts.get(inventory.getWarehouse().getId());
+                    if (openCount != null) {
+                        cycleCountQueue.enqueue(openCount, req.getInventoryId(), req.getType(), req.getQuantity(), req.getDescription());
+                        results[i] = movementResult(i, req, true, "Mis en file : inventaire tournant en cours");
+                        results[i].setQueued(true);
+                    } else {
+                        results[i] = movementResult(i, req, false, refusalReason(inventory, req));
+                    }
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private String validateMovement(StockMovementRequest req) {
+        if (req == null || req.getInventoryId() == null) {
+            return "L'ID de l'inventaire est obligatoire";
+        }
+        if (req.getType() != MovementType.INBOUND && req.getType() != MovementType.OUTBOUND) {
+            return "Type de mouvement non supporté : " + req.getType();
+        }
+        if (req.getQuantity() == null || req.getQuantity() <= 0) {
+            return "La quantité doit être positive";
+        }
+        return null;
+    }
+
+    private String refusalReason(Inventory inventory, StockMovementRequest req) {
+        if (inventory == null) {
+            return "Inventaire non trouvé avec ID " + req.getInventoryId();
+        }
+        if (!Boolean.TRUE.equals(inventory.getWarehouse().getActive())) {
+            return "Entrepôt inactif";
+        }
+        int available = inventory.getQuantityOnHand() - inventory.getQuantityReserved();
+        return "Stock insuffisant dans l'entrepôt " + inventory.getWarehouse().getName() +
+                ". Disponible: " + available + ", Demandé: " + req.getQuantity();
+    }
+
+    private StockMovementResult movementResult(int index, StockMovementRequest req, boolean success, String message) {
+        return StockMovementResult.builder()
+                .index(index)
+                .inventoryId(req != null ? req.getInventoryId() : null)
+                .success(success)
+                .message(message)
+                .build();
+    }
+
+    private boolean enqueueIfFrozen(Inventory inventory, MovementType type, int quantity, String description) {
+        Long warehouseId = inventory.getWarehouse().getId();
+        CycleCount openCount = cycleCountQueue.lockOpenCounts(Collections.singletonList(warehouseId)).get(warehouseId);
+        if (openCount == null) {
+            return false;
+        }
+        cycleCountQueue.enqueue(openCount, inventory.getId(), type, quantity, description);
+        return true;
     }
 
     private void saveMovement(Inventory inventory, MovementType type, int quantity, String description) {
-        InventoryMovement movement = InventoryMovement.builder()
+        inventoryMovementJournal.record(movement(inventory, type, quantity, description));
+    }
+
+    // Variation du disponible : index ATP et alertes de stock bas, après commit
+    private void availableChanged(Long inventoryId, int delta) {
+        availabilityIndex.adjustAfterCommit(inventoryId, delta);
+        lowStockAlertEngine.onAvailableChanged(inventoryId, delta);
+    }
+
+    private InventoryMovement movement(Inventory inventory, MovementType type, int quantity, String description) {
+        return InventoryMovement.builder()
                 .inventory(inventory)
                 .type(type)
                 .quantity(quantity)
                 .movementDate(LocalDateTime.now())
                 .description(description)
                 .build();
-        inventoryMovementRepository.save(movement);
     }
 
     @Override
     public Integer checkAvailableByWarehouse(Long productId, Long warehouseId) {
-        List<Inventory> inventories = inventoryRepository
-                .findAllByWarehouse_IdAndProduct_Id(warehouseId, productId);
+        if (availabilityIndex.isLoaded()) {
+            return availabilityIndex.availableIn(productId, warehouseId);
+        }
 
-        return inventories.stream()
-                .mapToInt(inv -> Math.max(0, inv.getQuantityOnHand() - inv.getQuantityReserved()))
-                .sum();
+        return inventoryRepository.findByWarehouse_IdAndProduct_Id(warehouseId, productId)
+                .map(inv -> Math.max(0, inv.getQuantityOnHand() - inv.getQuantityReserved()))
+                .orElse(0);
     }
 
     @Override
     public Integer checkAvailableInAllWarehouses(Long productId) {
+        if (availabilityIndex.isLoaded()) {
+            return availabilityIndex.availableEverywhere(productId);
+        }
+
         List<Inventory> list = inventoryRepository.findAllAvailableByProduct(productId);
 
         return list.stream()
@@ -178,10 +361,15 @@ public class InventoryServiceImpl implements InventoryService {
     }
 
     @Override
+    @RetryOnConflict
     public Inventory update(Long id, Inventory inventory) {
         Inventory existing = getById(id);
+        int availableBefore = existing.getQuantityOnHand() - existing.getQuantityReserved();
         existing.setQuantityOnHand(inventory.getQuantityOnHand());
         existing.setQuantityReserved(inventory.getQuantityReserved());
+        availabilityIndex.refreshAfterCommit(id);
+        lowStockAlertEngine.onAvailableChanged(id,
+                existing.getQuantityOnHand() - existing.getQuantityReserved() - availableBefore);
         return inventoryRepository.save(existing);
     }
 
@@ -190,6 +378,30 @@ public class InventoryServiceImpl implements InventoryService {
         return inventoryRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<InventoryResponse> search(Long warehouseId, Long productId, boolean lowStock,
+                                                String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE);
+        }
+        long afterId;
+        try {
+            afterId = cursor == null || cursor.isBlank() ? 0L : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Curseur invalide");
+        }
+
+        // Une ligne de plus que demandé pour savoir s'il reste une page
+        List<InventoryResponse> rows = inventorySearchRepository.pageAfter(
+                new InventorySearchRepository.Filter(warehouseId, productId, lowStock), afterId, size + 1);
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<InventoryResponse> items = rows.subList(0, size);
+        return new CursorPage<>(new ArrayList<>(items), String.valueOf(items.get(size - 1).getId()));
+    }
+
     @Override
     public Inventory getById(Long id) {
         return inventoryRepository.findById(id)
@@ -205,5 +417,6 @@ public class InventoryServiceImpl implements InventoryService {
         }
 
         inventoryRepository.deleteById(id);
+        availabilityIndex.removeAfterCommit(id);
     }
 }
\ No newline at end of file
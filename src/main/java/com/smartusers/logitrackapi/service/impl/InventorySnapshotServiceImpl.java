@@ -0,0 +1,119 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.inventory.InventoryStockAtResponse;
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.InventorySnapshot;
+import com.smartusers.logitrackapi.repository.InventoryMovementRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.InventorySnapshotRepository;
+import com.smartusers.logitrackapi.repository.projection.InventoryDeltaView;
+import com.smartusers.logitrackapi.service.interfaces.InventorySnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Stock à une date donnée = dernière photo <= date + mouvements postérieurs à la photo.
+// Un mouvement daté avant la photo mais commité après elle n'est pas rejoué : la photo est
+// prise à heure creuse pour rendre cette fenêtre négligeable.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventorySnapshotServiceImpl implements InventorySnapshotService {
+
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final InventoryRepository inventoryRepository;
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${logitrack.snapshots.cron:0 0 0 * * *}")
+    public int takeSnapshots() {
+        int count = inventorySnapshotRepository.snapshotAll(LocalDateTime.now());
+        log.info("Photo des inventaires : {} lignes", count);
+        return count;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public InventoryStockAtResponse getStockAt(Long inventoryId, LocalDateTime at) {
+        Inventory inventory = inventoryRepository.findById(inventoryId)
+                .orElseThrow(() -> new BusinessException("Inventaire non trouvé avec ID " + inventoryId));
+
+        Optional<InventorySnapshot> snapshot = inventorySnapshotRepository
+                .findFirstByInventory_IdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(inventoryId, at);
+
+        InventoryStockAtResponse.InventoryStockAtResponseBuilder response = InventoryStockAtResponse.builder()
+                .inventoryId(inventoryId)
+                .productId(inventory.getProduct() != null ? inventory.getProduct().getId() : null)
+                .warehouseId(inventory.getWarehouse() != null ? inventory.getWarehouse().getId() : null)
+                .at(at);
+
+        if (snapshot.isEmpty()) {
+            // Aucune photo avant cette date : rejeu complet de l'historique
+            long onHand = inventoryMovementRepository.sumNetQuantityUntil(inventoryId, at);
+            return response.quantityOnHand((int) onHand).build();
+        }
+
+        InventorySnapshot s = snapshot.get();
+        long delta = inventoryMovementRepository.sumNetQuantityBetween(inventoryId, s.getSnapshotDate(), at);
+        return response
+                .quantityOnHand((int) (s.getQuantityOnHand() + delta))
+                .quantityReserved(s.getQuantityReserved())
+                .snapshotDate(s.getSnapshotDate())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InventoryStockAtResponse> getWarehouseStockAt(Long warehouseId, LocalDateTime at) {
+        List<InventorySnapshot> snapshots = inventorySnapshotRepository.findLatestByWarehouseAt(warehouseId, at);
+
+        // Les photos sont prises pour tous les inventaires à la fois : en pratique une seule date, donc une requête
+        Map<LocalDateTime, List<Long>> idsBySnapshotDate = new HashMap<>();
+        for (InventorySnapshot s : snapshots) {
+            idsBySnapshotDate.computeIfAbsent(s.getSnapshotDate(), k -> new ArrayList<>()).add(s.getInventory().getId());
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        idsBySnapshotDate.forEach((date, ids) -> inventoryMovementRepository.sumNetQuantityBetween(ids, date, at)
+                .forEach(row -> deltas.put(row.getInventoryId(), row.getDelta())));
+
+        Map<Long, InventoryStockAtResponse> results = new TreeMap<>();
+        for (InventorySnapshot s : snapshots) {
+            Inventory inventory = s.getInventory();
+            results.put(inventory.getId(), InventoryStockAtResponse.builder()
+                    .inventoryId(inventory.getId())
+                    .productId(inventory.getProduct().getId())
+                    .warehouseId(warehouseId)
+                    .at(at)
+                    .quantityOnHand((int) (s.getQuantityOnHand() + deltas.getOrDefault(inventory.getId(), 0L)))
+                    .quantityReserved(s.getQuantityReserved())
+                    .snapshotDate(s.getSnapshotDate())
+                    .build());
+        }
+
+        // Inventaires créés après la dernière photo : rejeu complet, limité à leurs mouvements
+        Map<Long, Long> withoutSnapshot = new HashMap<>();
+        for (InventoryDeltaView row : inventoryMovementRepository.sumNetQuantityWithoutSnapshot(warehouseId, at)) {
+            withoutSnapshot.put(row.getInventoryId(), row.getDelta());
+        }
+        if (!withoutSnapshot.isEmpty()) {
+            for (Inventory inventory : inventoryRepository.findAllById(withoutSnapshot.keySet())) {
+                results.put(inventory.getId(), InventoryStockAtResponse.builder()
+                        .inventoryId(inventory.getId())
+                        .productId(inventory.getProduct().getId())
+                        .warehouseId(warehouseId)
+                        .at(at)
+                        .quantityOnHand(withoutSnapshot.get(inventory.getId()).intValue())
+                        .build());
+            }
+        }
+
+        return new ArrayList<>(results.values());
+    }
+}
@@ -0,0 +1,143 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.inventory.ValuationLine;
+import com.smartusers.logitrackapi.dto.inventory.ValuationReport;
+import com.smartusers.logitrackapi.entity.ValuationCheckpoint;
+import com.smartusers.logitrackapi.entity.ValuationState;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.InventoryValuationRepository;
+import com.smartusers.logitrackapi.repository.ValuationCheckpointRepository;
+import com.smartusers.logitrackapi.repository.ValuationStateRepository;
+import com.smartusers.logitrackapi.repository.WarehouseRepository;
+import com.smartusers.logitrackapi.repository.projection.InventoryValuationView;
+import com.smartusers.logitrackapi.service.interfaces.InventoryValuationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Valorisation incrémentale par entrepôt : l'état persisté au point de reprise est rechargé dans un
+// ValuationLedger, seuls les mouvements plus récents sont lus (par curseur, dans l'ordre chronologique),
+// puis les états modifiés et le nouveau point de reprise sont enregistrés dans la même transaction.
+// Les mouvements des settle-seconds dernières secondes sont laissés au calcul suivant : un id attribué
+// par une transaction pas encore commitée ne doit pas passer sous le point de reprise.
+@Service
+public class InventoryValuationServiceImpl implements InventoryValuationService {
+
+    private final WarehouseRepository warehouseRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ValuationCheckpointRepository checkpointRepository;
+    private final ValuationStateRepository stateRepository;
+    private final InventoryValuationRepository valuationRepository;
+    private final long settleSeconds;
+
+    public InventoryValuationServiceImpl(WarehouseRepository warehouseRepository,
+                                         InventoryRepository inventoryRepository,
+                                         ValuationCheckpointRepository checkpointRepository,
+                                         ValuationStateRepository stateRepository,
+                                         InventoryValuationRepository valuationRepository,
+                                         @Value("${logitrack.valuation.settle-seconds:300}") long settleSeconds) {
+        this.warehouseRepository = warehouseRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.stateRepository = stateRepository;
+        this.valuationRepository = valuationRepository;
+        this.settleSeconds = settleSeconds;
+    }
+
+    @Override
+    @Transactional
+    public ValuationReport valuate(Long warehouseId) {
+        if (!warehouseRepository.existsById(warehouseId)) {
+            throw new BusinessException("Entrepôt non trouvé");
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        ValuationCheckpoint checkpoint = checkpointRepository.lockByWarehouseId(warehouseId)
+                .orElseGet(() -> checkpointRepository.saveAndFlush(ValuationCheckpoint.builder()
+                        .warehouse(warehouseRepository.getReferenceById(warehouseId))
+                        .lastMovementId(0L)
+                        .movementsApplied(0L)
+                        .build()));
+
+        ValuationLedger ledger = new ValuationLedger();
+        Map<Long, ValuationState> states = new HashMap<>();
+        for (ValuationState state : stateRepository.findByWarehouseId(warehouseId)) {
+            states.put(state.getInventoryId(), state);
+            ledger.restore(state.getInventoryId(), state.getQuantity(), state.getAverageCost(), state.getFifoLayers());
+        }
+        List<InventoryValuationView> inventories = inventoryRepository.findValuationViewsByWarehouseId(warehouseId);
+        for (InventoryValuationView view : inventories) {
+            ledger.fallbackCost(view.getInventoryId(), ValuationLedger.toScaled(view.getOriginalPrice()));
+        }
+
+        long applied = 0;
+        long upTo = valuationRepository.findLastSettledMovementId(now.minusSeconds(settleSeconds));
+        if (upTo > checkpoint.getLastMovementId()) {
+            applied = valuationRepository.streamByWarehouse(warehouseId, checkpoint.getLastMovementId(), upTo,
+                    ledger::apply);
+            checkpoint.setLastMovementId(upTo);
+        }
+        checkpoint.setMovementsApplied(checkpoint.getMovementsApplied() + applied);
+        checkpoint.setUpdatedAt(now);
+
+        saveStates(ledger, states, warehouseId);
+        return report(warehouseId, ledger, inventories, checkpoint, applied, now);
+    }
+
+    // Seuls les états touchés par ce calcul sont écrits
+    private void saveStates(ValuationLedger ledger, Map<Long, ValuationState> states, Long warehouseId) {
+        List<ValuationState> created = new ArrayList<>();
+        for (int slot = 0; slot < ledger.size(); slot++) {
+            if (!ledger.isDirty(slot)) {
+                continue;
+            }
+            ValuationState state = states.get(ledger.inventoryId(slot));
+            if (state == null) {
+                state = ValuationState.builder()
+                        .inventoryId(ledger.inventoryId(slot))
+                        .warehouseId(warehouseId)
+                        .build();
+                created.add(state);
+            }
+            state.setQuantity(ledger.quantity(slot));
+            state.setAverageCost(ledger.averageCost(slot));
+            state.setFifoLayers(ledger.encodeLayers(slot));
+        }
+        if (!created.isEmpty()) {
+            stateRepository.saveAll(created);
+        }
+    }
+
+    private ValuationReport report(Long warehouseId, ValuationLedger ledger, List<InventoryValuationView> inventories,
+                                   ValuationCheckpoint checkpoint, long applied, LocalDateTime now) {
+        ValuationReport report = new ValuationReport();
+        report.setWarehouseId(warehouseId);
+        report.setValuedAt(now);
+        report.setLastMovementId(checkpoint.getLastMovementId());
+        report.setMovementsApplied(applied);
+
+        for (InventoryValuationView view : inventories) {
+            int slot = ledger.slotOf(view.getInventoryId());
+            ValuationLine line = new ValuationLine();
+            line.setInventoryId(view.getInventoryId());
+            line.setProductId(view.getProductId());
+            line.setSku(view.getSku());
+            line.setProductName(view.getName());
+            line.setQuantity(ledger.quantity(slot));
+            line.setAverageCost(ValuationLedger.fromScaled(ledger.averageCost(slot)));
+            line.setAverageValue(ledger.averageValue(slot));
+            line.setFifoValue(ledger.fifoValue(slot));
+            report.getLines().add(line);
+            report.setTotalAverageValue(report.getTotalAverageValue().add(line.getAverageValue()));
+            report.setTotalFifoValue(report.getTotalFifoValue().add(line.getFifoValue()));
+        }
+        return report;
+    }
+}
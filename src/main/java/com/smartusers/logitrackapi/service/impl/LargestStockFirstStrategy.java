@@ -0,0 +1,22 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.AllocationStrategyType;
+
+// Glouton par produit : l'entrepôt qui a le plus de disponible pour ce produit est servi en premier
+public class LargestStockFirstStrategy implements AllocationStrategy {
+
+    @Override
+    public AllocationStrategyType type() {
+        return AllocationStrategyType.LARGEST_STOCK_FIRST;
+    }
+
+    @Override
+    public int[][] allocate(AvailabilityMatrix matrix) {
+        int[][] allocation = matrix.emptyAllocation();
+        int[] columns = matrix.allColumns();
+        for (int row = 0; row < matrix.rows(); row++) {
+            matrix.fill(allocation, row, matrix.columnsByAvailableDesc(row, columns));
+        }
+        return allocation;
+    }
+}
@@ -0,0 +1,172 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.LowStockAlert;
+import com.smartusers.logitrackapi.event.LowStockAlertEvent;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.LowStockAlertRepository;
+import com.smartusers.logitrackapi.repository.ReorderThresholdRepository;
+import com.smartusers.logitrackapi.repository.projection.InventoryAvailabilityView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Alertes de stock bas évaluées à chaque variation du disponible, après commit, en O(1) :
+// seuil en cache par inventaire, disponible lu dans l'index ATP, alerte active gardée en mémoire
+// pour ne lever qu'une alerte jusqu'à ce que le stock repasse au-dessus du seuil.
+@Component
+@Slf4j
+public class LowStockAlertEngine {
+
+    private static final long PENDING = -1L;
+
+    private final ReorderThresholdRepository reorderThresholdRepository;
+    private final LowStockAlertRepository lowStockAlertRepository;
+    private final InventoryRepository inventoryRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate newTransaction;
+
+    private final ConcurrentHashMap<Long, OptionalInt> thresholds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> activeAlerts = new ConcurrentHashMap<>();
+
+    public LowStockAlertEngine(ReorderThresholdRepository reorderThresholdRepository,
+                               LowStockAlertRepository lowStockAlertRepository,
+                               InventoryRepository inventoryRepository,
+                               AvailabilityIndex availabilityIndex,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager) {
+        this.reorderThresholdRepository = reorderThresholdRepository;
+        this.lowStockAlertRepository = lowStockAlertRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
+        // Après commit, la transaction d'origine est terminée : les écritures d'alerte ont leur propre transaction
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveAlerts() {
+        for (LowStockAlert alert : lowStockAlertRepository.findByActiveTrue()) {
+            activeAlerts.put(alert.getInventory().getId(), alert.getId());
+        }
+    }
+
+    // Variation du disponible d'un inventaire (delta déjà appliqué dans la transaction courante)
+    public void onAvailableChanged(Long inventoryId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        // Une hausse ne peut que clore une alerte : sans alerte active il n'y a rien à évaluer
+        if (delta > 0 && !activeAlerts.containsKey(inventoryId)) {
+            return;
+        }
+        // Une baisse ne peut que lever une alerte, une hausse que la clore
+        afterCommit(() -> evaluate(inventoryId, delta < 0, delta > 0));
+    }
+
+    // Seuil (produit, entrepôt) créé, modifié ou supprimé dans la transaction courante. Après commit, le seuil
+    // en cache est oublié (une relecture concurrente ne peut plus remettre l'ancien) et le stock actuel est
+    // comparé au nouveau seuil sans attendre le prochain mouvement.
+    public void thresholdChanged(Long productId, Long warehouseId) {
+        inventoryRepository.findByWarehouse_IdAndProduct_Id(warehouseId, productId).ifPresent(inventory -> {
+            Long inventoryId = inventory.getId();
+            afterCommit(() -> {
+                thresholds.remove(inventoryId);
+                evaluate(inventoryId, true, true);
+            });
+        });
+    }
+
+    boolean hasActiveAlert(Long inventoryId) {
+        return activeAlerts.containsKey(inventoryId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void evaluate(Long inventoryId, boolean mayRaise, boolean mayResolve) {
+        try {
+            OptionalInt threshold = thresholds.computeIfAbsent(inventoryId, id ->
+                    reorderThresholdRepository.findThresholdForInventory(id)
+                            .map(OptionalInt::of)
+                            .orElse(OptionalInt.empty()));
+            Integer available = currentAvailable(inventoryId);
+            if (available == null) {
+                return;
+            }
+
+            if (threshold.isPresent() && available < threshold.getAsInt()) {
+                if (mayRaise) {
+                    raise(inventoryId, available, threshold.getAsInt());
+                }
+            } else if (mayResolve) {
+                resolve(inventoryId, available, threshold.orElse(0));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Évaluation du stock bas impossible pour l'inventaire {}", inventoryId, e);
+        }
+    }
+
+    private Integer currentAvailable(Long inventoryId) {
+        if (availabilityIndex.isLoaded()) {
+            Integer available = availabilityIndex.availableOf(inventoryId);
+            if (available != null) {
+                return available;
+            }
+        }
+        return inventoryRepository.findAvailabilityById(inventoryId)
+                .map(InventoryAvailabilityView::getAvailable)
+                .orElse(null);
+    }
+
+    private void raise(Long inventoryId, int available, int threshold) {
+        if (activeAlerts.putIfAbsent(inventoryId, PENDING) != null) {
+            return;
+        }
+        try {
+            LowStockAlert alert = newTransaction.execute(status -> lowStockAlertRepository.save(LowStockAlert.builder()
+                    .inventory(inventoryRepository.getReferenceById(inventoryId))
+                    .threshold(threshold)
+                    .availableAtRaise(available)
+                    .raisedAt(LocalDateTime.now())
+                    .active(true)
+                    .build()));
+            activeAlerts.put(inventoryId, alert.getId());
+            eventPublisher.publishEvent(new LowStockAlertEvent(alert.getId(), inventoryId, available, threshold, true));
+        } catch (RuntimeException e) {
+            activeAlerts.remove(inventoryId, PENDING);
+            throw e;
+        }
+    }
+
+    private void resolve(Long inventoryId, int available, int threshold) {
+        Long alertId = activeAlerts.get(inventoryId);
+        if (alertId == null || alertId == PENDING || !activeAlerts.remove(inventoryId, alertId)) {
+            return;
+        }
+        newTransaction.executeWithoutResult(status -> lowStockAlertRepository.resolve(alertId, LocalDateTime.now()));
+        eventPublisher.publishEvent(new LowStockAlertEvent(alertId, inventoryId, available, threshold, false));
+    }
+}
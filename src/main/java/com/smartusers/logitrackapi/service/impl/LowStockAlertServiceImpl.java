@@ -0,0 +1,69 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.stockalert.ReorderThresholdRequest;
+import com.smartusers.logitrackapi.entity.LowStockAlert;
+import com.smartusers.logitrackapi.entity.Product;
+import com.smartusers.logitrackapi.entity.ReorderThreshold;
+import com.smartusers.logitrackapi.entity.Warehouse;
+import com.smartusers.logitrackapi.repository.LowStockAlertRepository;
+import com.smartusers.logitrackapi.repository.ProductRepository;
+import com.smartusers.logitrackapi.repository.ReorderThresholdRepository;
+import com.smartusers.logitrackapi.repository.WarehouseRepository;
+import com.smartusers.logitrackapi.service.interfaces.LowStockAlertService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class LowStockAlertServiceImpl implements LowStockAlertService {
+
+    private final ReorderThresholdRepository reorderThresholdRepository;
+    private final LowStockAlertRepository lowStockAlertRepository;
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final LowStockAlertEngine lowStockAlertEngine;
+
+    // Crée ou remplace le seuil du couple (produit, entrepôt)
+    @Override
+    public ReorderThreshold setThreshold(ReorderThresholdRequest request) {
+        ReorderThreshold threshold = reorderThresholdRepository
+                .findByProduct_IdAndWarehouse_Id(request.getProductId(), request.getWarehouseId())
+                .orElseGet(() -> {
+                    Product product = productRepository.findById(request.getProductId())
+                            .orElseThrow(() -> new BusinessException("Produit non trouvé"));
+                    Warehouse warehouse = warehouseRepository.findById(request.getWarehouseId())
+                            .orElseThrow(() -> new BusinessException("Entrepôt non trouvé"));
+                    return ReorderThreshold.builder().product(product).warehouse(warehouse).build();
+                });
+
+        threshold.setThreshold(request.getThreshold());
+        ReorderThreshold saved = reorderThresholdRepository.save(threshold);
+        lowStockAlertEngine.thresholdChanged(request.getProductId(), request.getWarehouseId());
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReorderThreshold> getThresholds() {
+        return reorderThresholdRepository.findAllWithLocation();
+    }
+
+    @Override
+    public void deleteThreshold(Long id) {
+        ReorderThreshold threshold = reorderThresholdRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("Seuil non trouvé avec ID " + id));
+        reorderThresholdRepository.delete(threshold);
+        lowStockAlertEngine.thresholdChanged(threshold.getProduct().getId(), threshold.getWarehouse().getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LowStockAlert> getAlerts(boolean activeOnly) {
+        return lowStockAlertRepository.search(activeOnly);
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.AllocationStrategyType;
+
+// Entrepôt de la commande d'abord, puis les autres par id croissant
+public class MainWarehouseFirstStrategy implements AllocationStrategy {
+
+    @Override
+    public AllocationStrategyType type() {
+        return AllocationStrategyType.MAIN_WAREHOUSE_FIRST;
+    }
+
+    @Override
+    public int[][] allocate(AvailabilityMatrix matrix) {
+        int[][] allocation = matrix.emptyAllocation();
+        int[] columns = matrix.allColumns();
+        for (int row = 0; row < matrix.rows(); row++) {
+            matrix.fill(allocation, row, columns);
+        }
+        return allocation;
+    }
+}
@@ -0,0 +1,129 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.AllocationStrategyType;
+
+// Le moins d'entrepôts sources possible pour toute la commande, à quantité servie maximale.
+// Jusqu'à EXACT_LIMIT entrepôts éligibles les ensembles sont énumérés par taille croissante (à taille égale,
+// celui qui contient l'entrepôt de la commande gagne) ; au-delà, couverture gloutonne par entrepôt
+// qui sert le plus d'unités restantes. Dans l'ensemble retenu, chaque produit est pris du plus gros stock.
+public class MinSourcesStrategy implements AllocationStrategy {
+
+    static final int EXACT_LIMIT = 12;
+
+    @Override
+    public AllocationStrategyType type() {
+        return AllocationStrategyType.MIN_SOURCES;
+    }
+
+    @Override
+    public int[][] allocate(AvailabilityMatrix matrix) {
+        int[][] allocation = matrix.emptyAllocation();
+        if (matrix.columns() == 0) {
+            return allocation;
+        }
+        int[] sources = matrix.columns() <= EXACT_LIMIT ? exactSources(matrix) : greedySources(matrix);
+        for (int row = 0; row < matrix.rows(); row++) {
+            matrix.fill(allocation, row, matrix.columnsByAvailableDesc(row, sources));
+        }
+        return allocation;
+    }
+
+    private int[] exactSources(AvailabilityMatrix matrix) {
+        int columns = matrix.columns();
+        int full = (1 << columns) - 1;
+        long target = served(matrix, full);
+        int mainBit = matrix.mainColumn() >= 0 ? 1 << matrix.mainColumn() : 0;
+
+        for (int size = 1; size <= columns; size++) {
+            int best = -1;
+            // Énumération des masques à size bits (Gosper)
+            for (int mask = (1 << size) - 1; mask <= full && mask > 0; mask = nextMask(mask)) {
+                if (served(matrix, mask) == target) {
+                    if ((mask & mainBit) != 0) {
+                        best = mask;
+                        break;
+                    }
+                    if (best < 0) {
+                        best = mask;
+                    }
+                }
+            }
+            if (best >= 0) {
+                return columnsOf(best, columns);
+            }
+        }
+        return matrix.allColumns();
+    }
+
+    private int[] greedySources(AvailabilityMatrix matrix) {
+        int[] remaining = new int[matrix.rows()];
+        for (int row = 0; row < remaining.length; row++) {
+            remaining[row] = matrix.demand(row);
+        }
+        boolean[] chosen = new boolean[matrix.columns()];
+        int count = 0;
+        while (true) {
+            int bestCol = -1;
+            long bestGain = 0;
+            for (int col = 0; col < chosen.length; col++) {
+                if (chosen[col]) {
+                    continue;
+                }
+                long gain = 0;
+                for (int row = 0; row < remaining.length; row++) {
+                    gain += Math.min(remaining[row], matrix.available(row, col));
+                }
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestCol = col;
+                }
+            }
+            if (bestCol < 0) {
+                break;
+            }
+            chosen[bestCol] = true;
+            count++;
+            for (int row = 0; row < remaining.length; row++) {
+                remaining[row] -= Math.min(remaining[row], matrix.available(row, bestCol));
+            }
+        }
+        int[] sources = new int[count];
+        for (int col = 0, i = 0; col < chosen.length; col++) {
+            if (chosen[col]) {
+                sources[i++] = col;
+            }
+        }
+        return sources;
+    }
+
+    // Unités servies par un ensemble d'entrepôts, demande plafonnée par produit
+    private long served(AvailabilityMatrix matrix, int mask) {
+        long total = 0;
+        for (int row = 0; row < matrix.rows(); row++) {
+            long stock = 0;
+            for (int col = 0; col < matrix.columns(); col++) {
+                if ((mask & (1 << col)) != 0) {
+                    stock += matrix.available(row, col);
+                }
+            }
+            total += Math.min(stock, matrix.demand(row));
+        }
+        return total;
+    }
+
+    private static int nextMask(int mask) {
+        int lowest = mask & -mask;
+        int ripple = mask + lowest;
+        return (((ripple ^ mask) >>> 2) / lowest) | ripple;
+    }
+
+    private static int[] columnsOf(int mask, int columns) {
+        int[] result = new int[Integer.bitCount(mask)];
+        for (int col = 0, i = 0; col < columns; col++) {
+            if ((mask & (1 << col)) != 0) {
+                result[i++] = col;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,213 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.ResourceNotFoundException;
+import com.smartusers.logitrackapi.Exception.ServiceUnavailableException;
+import com.smartusers.logitrackapi.dto.salesorder.ConfirmationJobResponse;
+import com.smartusers.logitrackapi.entity.SalesOrder;
+import com.smartusers.logitrackapi.enums.ConfirmationJobStatus;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.repository.SalesOrderRepository;
+import com.smartusers.logitrackapi.service.interfaces.OrderConfirmationService;
+import com.smartusers.logitrackapi.service.interfaces.SalesOrderService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+// Confirmations asynchrones : chaque entrepôt est rattaché à une voie (un thread, file bornée), donc les
+// confirmations d'un même entrepôt s'exécutent dans l'ordre d'arrivée et ne se disputent pas son stock,
+// tandis que les autres entrepôts avancent en parallèle. Une file pleine est refusée (503) plutôt
+// que d'accumuler des jobs. Les jobs terminés restent consultables retention-minutes.
+@Service
+@Slf4j
+public class OrderConfirmationServiceImpl implements OrderConfirmationService {
+
+    private final SalesOrderService salesOrderService;
+    private final SalesOrderRepository salesOrderRepository;
+    private final ThreadPoolExecutor[] lanes;
+    private final long retentionMinutes;
+    private final long sseTimeoutMs;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, Job> activeByOrder = new ConcurrentHashMap<>();
+
+    public OrderConfirmationServiceImpl(SalesOrderService salesOrderService,
+                                        SalesOrderRepository salesOrderRepository,
+                                        @Value("${logitrack.confirmations.lanes:4}") int laneCount,
+                                        @Value("${logitrack.confirmations.queue-capacity:1000}") int queueCapacity,
+                                        @Value("${logitrack.confirmations.retention-minutes:60}") long retentionMinutes,
+                                        @Value("${logitrack.confirmations.sse-timeout-ms:300000}") long sseTimeoutMs) {
+        this.salesOrderService = salesOrderService;
+        this.salesOrderRepository = salesOrderRepository;
+        this.retentionMinutes = retentionMinutes;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "order-confirmation-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> new Thread(runnable, name));
+        }
+    }
+
+    @Override
+    public ConfirmationJobResponse submit(Long orderId) {
+        Long warehouseId = salesOrderRepository.findWarehouseIdById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Commande non trouvée avec l'id: " + orderId));
+
+        Job job = new Job(UUID.randomUUID().toString(), orderId, warehouseId);
+        Job active = activeByOrder.putIfAbsent(orderId, job);
+        if (active != null) {
+            return active.toResponse();
+        }
+        jobs.put(job.id, job);
+        try {
+            lanes[Math.floorMod(Long.hashCode(warehouseId), lanes.length)].execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            activeByOrder.remove(orderId, job);
+            throw new ServiceUnavailableException("File de confirmation pleine, réessayez plus tard");
+        }
+        return job.toResponse();
+    }
+
+    @Override
+    public ConfirmationJobResponse getJob(String jobId) {
+        return find(jobId).toResponse();
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        Job job = find(jobId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+
+        // Sous le verrou du job : aucun changement d'état ne peut passer entre l'envoi initial et l'abonnement
+        synchronized (job) {
+            if (!send(emitter, job.toResponse())) {
+                return emitter;
+            }
+            if (job.isFinished()) {
+                emitter.complete();
+            } else {
+                job.emitters.add(emitter);
+            }
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${logitrack.confirmations.cleanup-interval-ms:60000}")
+    public void evictFinished() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(limit));
+    }
+
+    @PreDestroy
+    void stop() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private void run(Job job) {
+        job.transition(ConfirmationJobStatus.RUNNING, null, null);
+        publish(job);
+        try {
+            SalesOrder order = salesOrderService.confirmerOrderByClient(job.orderId);
+            job.transition(ConfirmationJobStatus.SUCCEEDED, order.getStatus(), null);
+        } catch (Exception e) {
+            log.warn("Confirmation de la commande {} échouée : {}", job.orderId, e.getMessage());
+            job.transition(ConfirmationJobStatus.FAILED, null, e.getMessage());
+        } finally {
+            activeByOrder.remove(job.orderId, job);
+        }
+        publish(job);
+    }
+
+    private void publish(Job job) {
+        synchronized (job) {
+            ConfirmationJobResponse state = job.toResponse();
+            job.emitters.removeIf(emitter -> !send(emitter, state));
+            if (job.isFinished()) {
+                job.emitters.forEach(SseEmitter::complete);
+                job.emitters.clear();
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, ConfirmationJobResponse state) {
+        try {
+            emitter.send(SseEmitter.event().name("job").data(state));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté
+            return false;
+        }
+    }
+
+    private Job find(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Job de confirmation non trouvé: " + jobId);
+        }
+        return job;
+    }
+
+    private static final class Job {
+        final String id;
+        final Long orderId;
+        final Long warehouseId;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        volatile ConfirmationJobStatus status = ConfirmationJobStatus.QUEUED;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile OrderStatus orderStatus;
+        volatile String message;
+
+        Job(String id, Long orderId, Long warehouseId) {
+            this.id = id;
+            this.orderId = orderId;
+            this.warehouseId = warehouseId;
+        }
+
+        synchronized void transition(ConfirmationJobStatus next, OrderStatus orderStatus, String message) {
+            if (next == ConfirmationJobStatus.RUNNING) {
+                startedAt = LocalDateTime.now();
+            } else {
+                finishedAt = LocalDateTime.now();
+            }
+            this.orderStatus = orderStatus;
+            this.message = message;
+            status = next;
+        }
+
+        boolean isFinished() {
+            return status == ConfirmationJobStatus.SUCCEEDED || status == ConfirmationJobStatus.FAILED;
+        }
+
+        synchronized ConfirmationJobResponse toResponse() {
+            return ConfirmationJobResponse.builder()
+                    .jobId(id)
+                    .orderId(orderId)
+                    .warehouseId(warehouseId)
+                    .status(status)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .orderStatus(orderStatus)
+                    .message(message)
+                    .build();
+        }
+    }
+}
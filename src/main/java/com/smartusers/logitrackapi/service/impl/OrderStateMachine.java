@@ -0,0 +1,103 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.Exception.ResourceNotFoundException;
+import com.smartusers.logitrackapi.entity.OrderEvent;
+import com.smartusers.logitrackapi.enums.OrderEventType;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.enums.POStatus;
+import com.smartusers.logitrackapi.repository.OrderEventRepository;
+import com.smartusers.logitrackapi.repository.PurchaseOrderRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderTransitionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+
+// Changements de statut des commandes : une mise à jour gardée par les statuts sources autorisés (pas de
+// lecture préalable, une transition concurrente perd proprement), puis l'ajout au journal order_events.
+// Pour les commandes clients, les deux tiennent en une instruction dont les lignes RETURNING alimentent aussi
+// la synthèse par client. La lecture du statut courant n'a lieu qu'en cas de refus, pour le message d'erreur.
+@Component
+@RequiredArgsConstructor
+public class OrderStateMachine {
+
+    static final TransitionTable<OrderStatus> SALES_ORDER = TransitionTable.builder(OrderStatus.class)
+            // Toute réservation passe par PENDING (confirmation)
+            .allow(OrderStatus.CREATED, OrderStatus.PENDING, OrderStatus.CANCELED)
+            // PENDING : confirmation en cours ou en attente de réapprovisionnement (rupture)
+            // -> CREATED : réservation expirée
+            .allow(OrderStatus.PENDING, OrderStatus.CREATED, OrderStatus.RESERVED, OrderStatus.CANCELED)
+            .allow(OrderStatus.RESERVED, OrderStatus.CREATED, OrderStatus.SHIPPED, OrderStatus.CANCELED)
+            .allow(OrderStatus.SHIPPED, OrderStatus.DELIVERED)
+            .build();
+
+    static final TransitionTable<POStatus> PURCHASE_ORDER = TransitionTable.builder(POStatus.class)
+            .allow(POStatus.DRAFT, POStatus.CREATED, POStatus.CANCELLED)
+            .allow(POStatus.CREATED, POStatus.APPROVED, POStatus.CANCELLED)
+            .allow(POStatus.APPROVED, POStatus.RECEIVED, POStatus.CANCELLED)
+            .build();
+
+    private final SalesOrderRepository salesOrderRepository;
+    private final SalesOrderTransitionRepository salesOrderTransitionRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final OrderEventRepository orderEventRepository;
+    private final ClientOrderSummaryProjector summaryProjector;
+
+    public void transition(Long orderId, OrderStatus to) {
+        if (transitionAll(List.of(orderId), to) == 0) {
+            OrderStatus current = salesOrderRepository.findStatusById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Commande non trouvée avec l'id: " + orderId));
+            throw new BusinessException("Transition impossible de " + current + " vers " + to
+                    + " pour la commande " + orderId);
+        }
+    }
+
+    // Commandes effectivement passées à :to parmi orderIds (les autres sont ignorées)
+    public int transitionAll(Collection<Long> orderIds, OrderStatus to) {
+        return move(orderIds, to).size();
+    }
+
+    // Comme transitionAll, mais retourne les identifiants des commandes passées à :to
+    public List<Long> transitionAllReturningIds(Collection<Long> orderIds, OrderStatus to) {
+        return move(orderIds, to).stream().map(SalesOrderTransitionRepository.Moved::id).toList();
+    }
+
+    private List<SalesOrderTransitionRepository.Moved> move(Collection<Long> orderIds, OrderStatus to) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = now();
+        List<SalesOrderTransitionRepository.Moved> moved =
+                salesOrderTransitionRepository.transition(orderIds, SALES_ORDER.sourcesOf(to), to, now);
+        if (!moved.isEmpty()) {
+            summaryProjector.onTransition(moved, to, now);
+        }
+        return moved;
+    }
+
+    public void transition(Long purchaseOrderId, POStatus to) {
+        LocalDateTime now = now();
+        List<Long> ids = List.of(purchaseOrderId);
+        if (purchaseOrderRepository.transition(ids, PURCHASE_ORDER.sourcesOf(to), to, now) == 0) {
+            POStatus current = purchaseOrderRepository.findStatusById(purchaseOrderId)
+                    .orElseThrow(() -> new BusinessException("Commande d'achat non trouvée avec ID: " + purchaseOrderId));
+            throw new BusinessException("Transition impossible de " + current + " vers " + to
+                    + " pour la commande d'achat " + purchaseOrderId);
+        }
+        orderEventRepository.appendPurchaseOrderTransitions(ids, to, now);
+    }
+
+    public List<OrderEvent> history(OrderEventType orderType, Long orderId) {
+        return orderEventRepository.findByOrderTypeAndOrderIdOrderByIdAsc(orderType, orderId);
+    }
+
+    // Précision de la colonne : l'horodatage relu par appendPurchaseOrderTransitions doit être identique
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,42 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.AllocationStrategyType;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Entrepôts servis dans l'ordre du classement configuré ; ceux qui n'y figurent pas passent ensuite
+// (entrepôt de la commande d'abord, puis par id croissant)
+public class PreferredRankingStrategy implements AllocationStrategy {
+
+    private final Map<Long, Integer> ranks = new HashMap<>();
+
+    public PreferredRankingStrategy(List<Long> ranking) {
+        for (int i = 0; i < ranking.size(); i++) {
+            ranks.putIfAbsent(ranking.get(i), i);
+        }
+    }
+
+    @Override
+    public AllocationStrategyType type() {
+        return AllocationStrategyType.PREFERRED_RANKING;
+    }
+
+    @Override
+    public int[][] allocate(AvailabilityMatrix matrix) {
+        int[] columns = Arrays.stream(matrix.allColumns()).boxed()
+                .sorted(Comparator.comparingInt((Integer col) ->
+                        ranks.getOrDefault(matrix.warehouseId(col), Integer.MAX_VALUE)).thenComparingInt(col -> col))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        int[][] allocation = matrix.emptyAllocation();
+        for (int row = 0; row < matrix.rows(); row++) {
+            matrix.fill(allocation, row, columns);
+        }
+        return allocation;
+    }
+}
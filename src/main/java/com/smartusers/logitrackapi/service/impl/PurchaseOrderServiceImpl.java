@@ -3,6 +3,7 @@ package com.smartusers.logitrackapi.service.impl;
 import com.smartusers.logitrackapi.Exception.BusinessException;
 import com.smartusers.logitrackapi.dto.purchaseorder.PurchaseOrderRequest;
 import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.OrderEventType;
 import com.smartusers.logitrackapi.enums.POStatus;
 import com.smartusers.logitrackapi.repository.*;
 import com.smartusers.logitrackapi.service.interfaces.InventoryService;
@@ -15,7 +16,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -27,8 +30,9 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     private final SupplierRepository supplierRepository;
     private final ProductRepository productRepository;
     private final WarehouseRepository warehouseRepository;
-    private final InventoryRepository inventoryRepository;
     private final InventoryService inventoryService;
+    private final OrderStateMachine orderStateMachine;
+    private final BackorderQueue backorderQueue;
 
     @Override
     public PurchaseOrder create(PurchaseOrderRequest request) {
@@ -105,24 +109,15 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
 
     @Override
     public PurchaseOrder approve(Long id) {
-        PurchaseOrder po = getById(id);
-
-        if (po.getStatus() != POStatus.CREATED) {
-            throw new BusinessException("Seules les commandes en statut CREATED peuvent être approuvées. Status actuel: " + po.getStatus());
-        }
-
-        po.setStatus(POStatus.APPROVED);
-        return purchaseOrderRepository.save(po);
+        orderStateMachine.transition(id, POStatus.APPROVED);
+        return getById(id);
     }
 
 
     @Override
     public PurchaseOrder receive(Long id, Long warehouseId) {
-        PurchaseOrder po = getById(id);
-
-        if (po.getStatus() != POStatus.APPROVED) {
-            throw new BusinessException("Seules les commandes approuvées peuvent être reçues");
-        }
+        // Passage à RECEIVED en premier : une seconde réception concurrente est refusée avant toute entrée en stock
+        orderStateMachine.transition(id, POStatus.RECEIVED);
 
         Warehouse warehouse = warehouseRepository.findById(warehouseId)
                 .orElseThrow(() -> new BusinessException("Entrepôt non trouvé"));
@@ -131,46 +126,43 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
             throw new BusinessException("L'entrepôt sélectionné est inactif");
         }
 
+        PurchaseOrder po = getById(id);
+        Map<Long, Long> inventoryByProduct = new HashMap<>();
         for (POLine line : po.getLines()) {
             line.setQuantityReceived(line.getQuantityOrdered());
             poLineRepository.save(line);
 
-            Inventory inventory = inventoryRepository
-                    .findByWarehouse_IdAndProduct_Id(warehouse.getId(), line.getProduct().getId())
-                    .orElse(null);
-
-            if (inventory != null) {
-                inventoryService.addStock(
-                        inventory.getId(),
-                        line.getQuantityOrdered(),
-                        "Réception commande achat #" + po.getId()
-                );
-            } else {
-                Inventory newInventory = Inventory.builder()
-                        .warehouse(warehouse)
-                        .product(line.getProduct())
-                        .quantityOnHand(line.getQuantityOrdered())
-                        .quantityReserved(0)
-                        .build();
-
-                inventoryService.create(newInventory);
+            Long inventoryId = inventoryService.receiveIntoLocation(
+                    warehouse.getId(),
+                    line.getProduct().getId(),
+                    line.getQuantityOrdered(),
+                    line.getUnitPrice(),
+                    "Réception commande achat #" + po.getId(),
+                    po.getId()
+            );
+            if (inventoryId != null) {
+                inventoryByProduct.put(line.getProduct().getId(), inventoryId);
             }
         }
 
-        po.setStatus(POStatus.RECEIVED);
-        return purchaseOrderRepository.save(po);
+        // Commandes clients en rupture servies par cette réception : réservées puis passées à RESERVED
+        backorderQueue.promote(po.getId(), inventoryByProduct);
+        return po;
     }
 
     @Override
     public PurchaseOrder cancel(Long id) {
-        PurchaseOrder po = getById(id);
-
-        if (po.getStatus() == POStatus.RECEIVED) {
-            throw new BusinessException("Impossible d'annuler une commande déjà reçue");
-        }
+        orderStateMachine.transition(id, POStatus.CANCELLED);
+        // Réapprovisionnement annulé : les ruptures qu'il devait servir seront recommandées
+        backorderQueue.requeue(id);
+        return getById(id);
+    }
 
-        po.setStatus(POStatus.CANCELLED);
-        return purchaseOrderRepository.save(po);
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderEvent> getEvents(Long id) {
+        getById(id);
+        return orderStateMachine.history(OrderEventType.PURCHASE_ORDER, id);
     }
 
     @Override
@@ -0,0 +1,54 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.entity.SalesOrderLine;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Résultat de l'allocation en mémoire d'une commande, écrit en une seule fois par StockReservationEngine.apply
+@Getter
+public class ReservationPlan {
+
+    private final Map<SalesOrderLine, Integer> reserved = new IdentityHashMap<>();
+    private final Map<SalesOrderLine, Integer> shortages = new LinkedHashMap<>();
+    private final Set<Inventory> touchedInventories = new LinkedHashSet<>();
+    private final List<InventoryMovement> movements = new ArrayList<>();
+    // Quantités prélevées, par inventaire
+    private final Map<Inventory, Integer> allocations = new LinkedHashMap<>();
+
+    public int reservedFor(SalesOrderLine line) {
+        return reserved.getOrDefault(line, 0);
+    }
+
+    public boolean hasShortages() {
+        return !shortages.isEmpty();
+    }
+
+    void addReserved(SalesOrderLine line, int quantity) {
+        reserved.merge(line, quantity, Integer::sum);
+    }
+
+    void addShortage(SalesOrderLine line, int quantity) {
+        shortages.merge(line, quantity, Integer::sum);
+    }
+
+    void touch(Inventory inventory) {
+        touchedInventories.add(inventory);
+    }
+
+    void allocate(Inventory inventory, int quantity) {
+        allocations.merge(inventory, quantity, Integer::sum);
+    }
+
+    void addMovement(InventoryMovement movement) {
+        movements.add(movement);
+    }
+}
@@ -2,25 +2,34 @@ package com.smartusers.logitrackapi.service.impl;
 
 import com.smartusers.logitrackapi.Exception.BusinessException;
 import com.smartusers.logitrackapi.Exception.ResourceNotFoundException;
-import com.smartusers.logitrackapi.dto.purchaseorder.PurchaseOrderLineRequest;
+import com.smartusers.logitrackapi.annotation.RetryOnConflict;
+import com.smartusers.logitrackapi.dto.common.CursorPage;
+import com.smartusers.logitrackapi.dto.salesorder.BulkCancelRequest;
+import com.smartusers.logitrackapi.dto.salesorder.BulkCancelResult;
+import com.smartusers.logitrackapi.dto.salesorder.BulkSalesOrderResult;
 import com.smartusers.logitrackapi.dto.salesorder.SalesOrderLineRequest;
 import com.smartusers.logitrackapi.dto.salesorder.SalesOrderRequest;
-import com.smartusers.logitrackapi.dto.purchaseorder.PurchaseOrderRequest;
+import com.smartusers.logitrackapi.dto.salesorder.SalesOrderSummaryResponse;
 import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.OrderEventType;
 import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.enums.SalesOrderStatus;
 import com.smartusers.logitrackapi.repository.*;
-import com.smartusers.logitrackapi.service.interfaces.InventoryService;
-import com.smartusers.logitrackapi.service.interfaces.PurchaseOrderService;
+import com.smartusers.logitrackapi.repository.projection.SalesOrderSummaryRow;
 import com.smartusers.logitrackapi.service.interfaces.SalesOrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -30,13 +39,21 @@ public class SalesOrderServiceImpl implements SalesOrderService {
     private final SalesOrderRepository salesOrderRepository;
     private final SalesOrderLineRepository salesOrderLineRepository;
     private final UserRepository userRepository;
-    private final InventoryRepository inventoryRepository;
     private final WarehouseRepository warehouseRepository;
     private final ProductRepository productRepository;
-    private final InventoryService inventoryService;
 
-    private final PurchaseOrderService purchaseOrderService;
-    private final SupplierRepository supplierRepository;
+    private final StockReservationEngine reservationEngine;
+    private final StockReservationExpiry reservationExpiry;
+    private final SalesOrderBatchRepository salesOrderBatchRepository;
+    private final SalesOrderSearchRepository salesOrderSearchRepository;
+    private final OrderStateMachine orderStateMachine;
+    private final ClientOrderSummaryProjector summaryProjector;
+    private final BackorderQueue backorderQueue;
+
+    private static final int MAX_BULK_ORDERS = 5000;
+    private static final int LOOKUP_CHUNK = 1000;
+    private static final BigDecimal MIN_UNIT_PRICE = new BigDecimal("0.01");
+    private static final int MAX_PAGE_SIZE = 500;
 
     @Override
     public SalesOrder create(SalesOrderRequest request) {
@@ -72,107 +89,163 @@ public class SalesOrderServiceImpl implements SalesOrderService {
             order.getLines().add(line);
         }
 
+        summaryProjector.onCreated(client.getId(), amount(request), order.getCreatedAt());
         return salesOrderRepository.save(order);
     }
 
-
-
+    // Création en lot : clients, entrepôts et produits résolus par requêtes ensemblistes, puis en-têtes et lignes
+    // insérés en deux batchs JDBC. Une commande invalide est signalée à son index sans bloquer les autres.
     @Override
-    @Transactional
-    public SalesOrder confirmerOrderByClient(Long orderId) {
-        SalesOrder order = salesOrderRepository.findWithDetailsById(orderId)
-                .orElseThrow(() -> new BusinessException("Commande non trouvée: " + orderId));
-
-        boolean allReserved = true;
+    public List<BulkSalesOrderResult> createBulk(List<SalesOrderRequest> requests) {
+        if (requests.size() > MAX_BULK_ORDERS) {
+            throw new BusinessException("Au plus " + MAX_BULK_ORDERS + " commandes par appel");
+        }
 
-        for (SalesOrderLine line : order.getLines()) {
-            int needed = line.getQtyOrdered();
-            int totalReserved = 0;
-            Long productId = line.getProduct().getId();
-
-
-            Inventory mainInventory = inventoryRepository
-                    .findAllByWarehouse_IdAndProduct_Id(order.getWarehouse().getId(), productId)
-                    .stream().findFirst().orElse(null);
-
-            if (mainInventory != null) {
-                int available = mainInventory.getQuantityOnHand() - mainInventory.getQuantityReserved();
-                int toReserve = Math.min(needed, available);
-                if (toReserve > 0) {
-                    inventoryService.sortieStock(mainInventory.getId(), toReserve,
-                            "Réservation commande " + order.getId() + " - produit " + line.getProduct().getName());
-                    totalReserved += toReserve;
-                }
+        Set<Long> clientIds = new HashSet<>();
+        Set<Long> warehouseIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (SalesOrderRequest request : requests) {
+            if (request == null) {
+                continue;
             }
+            clientIds.add(request.getClientId());
+            warehouseIds.add(request.getWarehouseId());
+            if (request.getOrderLines() != null) {
+                request.getOrderLines().forEach(line -> productIds.add(line.getProductId()));
+            }
+        }
+        Set<Long> existingClients = existing(clientIds, userRepository::findExistingIds);
+        Set<Long> existingWarehouses = existing(warehouseIds, warehouseRepository::findExistingIds);
+        Set<Long> existingProducts = existing(productIds, productRepository::findExistingIds);
+
+        List<BulkSalesOrderResult> results = new ArrayList<>(requests.size());
+        List<SalesOrderRequest> accepted = new ArrayList<>();
+        List<BulkSalesOrderResult> acceptedResults = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validateBulk(requests.get(i), existingClients, existingWarehouses, existingProducts);
+            BulkSalesOrderResult result = BulkSalesOrderResult.builder()
+                    .index(i)
+                    .success(error == null)
+                    .message(error)
+                    .build();
+            results.add(result);
+            if (error == null) {
+                accepted.add(requests.get(i));
+                acceptedResults.add(result);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
 
-
-            if (totalReserved < needed) {
-                List<Inventory> otherInventories = inventoryRepository.findAllByProduct_Id(productId).stream()
-                        .filter(inv -> inv.getWarehouse().getActive() && !inv.getWarehouse().getId().equals(order.getWarehouse().getId()))
-                        .toList();
-
-                for (Inventory inv : otherInventories) {
-                    int available = inv.getQuantityOnHand() - inv.getQuantityReserved();
-                    int toReserve = Math.min(needed - totalReserved, available);
-                    if (toReserve > 0) {
-                        inventoryService.sortieStock(inv.getId(), toReserve,
-                                "Réservation commande " + order.getId() + " - produit " + line.getProduct().getName());
-                        totalReserved += toReserve;
-                        if (totalReserved >= needed) break;
-                    }
-                }
+        long[] orderClients = new long[accepted.size()];
+        long[] orderWarehouses = new long[accepted.size()];
+        int lineCount = 0;
+        for (int i = 0; i < accepted.size(); i++) {
+            orderClients[i] = accepted.get(i).getClientId();
+            orderWarehouses[i] = accepted.get(i).getWarehouseId();
+            lineCount += accepted.get(i).getOrderLines().size();
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        long[] orderIds = salesOrderBatchRepository.insertOrders(orderClients, orderWarehouses, createdAt);
+
+        long[] lineOrders = new long[lineCount];
+        long[] lineProducts = new long[lineCount];
+        int[] lineQuantities = new int[lineCount];
+        BigDecimal[] linePrices = new BigDecimal[lineCount];
+        int l = 0;
+        for (int i = 0; i < accepted.size(); i++) {
+            acceptedResults.get(i).setOrderId(orderIds[i]);
+            for (SalesOrderLineRequest line : accepted.get(i).getOrderLines()) {
+                lineOrders[l] = orderIds[i];
+                lineProducts[l] = line.getProductId();
+                lineQuantities[l] = line.getQuantity();
+                linePrices[l] = line.getUnitPrice();
+                l++;
             }
+        }
+        salesOrderBatchRepository.insertLines(lineOrders, lineProducts, lineQuantities, linePrices);
 
+        ClientOrderSummaryProjector.Deltas deltas = new ClientOrderSummaryProjector.Deltas();
+        for (SalesOrderRequest request : accepted) {
+            deltas.created(request.getClientId(), amount(request), createdAt);
+        }
+        summaryProjector.apply(deltas);
+        return results;
+    }
+
+    private static BigDecimal amount(SalesOrderRequest request) {
+        BigDecimal amount = BigDecimal.ZERO;
+        for (SalesOrderLineRequest line : request.getOrderLines()) {
+            amount = amount.add(line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+        }
+        return amount;
+    }
 
-            if (totalReserved < needed) {
-                allReserved = false;
-                int missingQty = needed - totalReserved;
-
-                Supplier defaultSupplier = supplierRepository.findByActiveTrue().stream()
-                        .findFirst()
-                        .orElseThrow(() -> new BusinessException("Aucun fournisseur actif trouvé"));
-
-                PurchaseOrderRequest poRequest = new PurchaseOrderRequest();
-                poRequest.setSupplierId(defaultSupplier.getId());
-                poRequest.setOrderLines(List.of(
-                        new PurchaseOrderLineRequest(
-                                line.getProduct().getId(),
-                                missingQty,
-                                line.getPrice()
-                        )
-                ));
-                purchaseOrderService.create(poRequest);
-
-
-                if (mainInventory == null) {
-                    mainInventory = new Inventory();
-                    mainInventory.setProduct(line.getProduct());
-                    mainInventory.setWarehouse(order.getWarehouse());
-                    mainInventory.setQuantityOnHand(0);
-                    mainInventory.setQuantityReserved(0);
-                    mainInventory = inventoryRepository.save(mainInventory);
-                }
-
-                inventoryService.addStock(mainInventory.getId(), missingQty,
-                        "Réception suite au Purchase Order automatique");
-                inventoryService.sortieStock(mainInventory.getId(), missingQty,
-                        "Réservation complémentaire après réapprovisionnement");
-
-                totalReserved += missingQty;
+    private String validateBulk(SalesOrderRequest request, Set<Long> clients, Set<Long> warehouses, Set<Long> products) {
+        if (request == null) {
+            return "Commande vide";
+        }
+        if (!clients.contains(request.getClientId())) {
+            return "Client non trouvé";
+        }
+        if (!warehouses.contains(request.getWarehouseId())) {
+            return "Entrepôt non trouvé";
+        }
+        if (request.getOrderLines() == null || request.getOrderLines().isEmpty()) {
+            return "La commande doit contenir au moins une ligne";
+        }
+        for (SalesOrderLineRequest line : request.getOrderLines()) {
+            if (!products.contains(line.getProductId())) {
+                return "Produit non trouvé: " + line.getProductId();
+            }
+            if (line.getQuantity() == null || line.getQuantity() < 1) {
+                return "Quantité invalide pour le produit " + line.getProductId();
             }
+            if (line.getUnitPrice() == null || line.getUnitPrice().compareTo(MIN_UNIT_PRICE) < 0) {
+                return "Prix unitaire invalide pour le produit " + line.getProductId();
+            }
+        }
+        return null;
+    }
 
-            line.setQtyReserved(totalReserved);
+    // Requêtes IN découpées pour rester sous la limite de paramètres du pilote
+    private Set<Long> existing(Set<Long> ids, Function<Collection<Long>, List<Long>> lookup) {
+        ids.remove(null);
+        Set<Long> found = new HashSet<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK) {
+            found.addAll(lookup.apply(all.subList(from, Math.min(from + LOOKUP_CHUNK, all.size()))));
         }
+        return found;
+    }
 
-        order.setStatus(OrderStatus.RESERVED);
-        salesOrderRepository.save(order);
 
-        String reservationMessage = allReserved
-                ? "La réservation a été effectuée complètement."
-                : "La réservation est partielle. Un Purchase Order a été créé pour compléter le stock.";
 
-        System.out.println(reservationMessage);
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public SalesOrder confirmerOrderByClient(Long orderId) {
+        // Passage à PENDING avant la réservation : deux confirmations concurrentes ne réservent pas deux fois
+        orderStateMachine.transition(orderId, OrderStatus.PENDING);
+        SalesOrder order = salesOrderRepository.findWithDetailsById(orderId)
+                .orElseThrow(() -> new BusinessException("Commande non trouvée: " + orderId));
+
+        ReservationPlan plan = reservationEngine.plan(order);
+        reservationEngine.apply(plan);
+        reservationExpiry.track(order, plan);
+
+        for (SalesOrderLine line : order.getLines()) {
+            line.setQtyReserved(plan.reservedFor(line));
+        }
+        salesOrderRepository.save(order);
 
+        // Rupture : la commande reste PENDING jusqu'à la réception de la commande d'achat regroupée
+        backorderQueue.enqueue(order, plan.getShortages());
+        if (!plan.hasShortages()) {
+            orderStateMachine.transition(orderId, OrderStatus.RESERVED);
+            order.setStatus(OrderStatus.RESERVED);
+        }
         return order;
     }
 
@@ -194,29 +267,143 @@ public class SalesOrderServiceImpl implements SalesOrderService {
         return salesOrderRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<SalesOrderSummaryResponse> search(Long clientId, OrderStatus status, Long warehouseId,
+                                                        LocalDateTime from, LocalDateTime to,
+                                                        String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE);
+        }
+        // Curseur "<createdAt>_<id>" du dernier élément de la page précédente
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                afterCreatedAt = LocalDateTime.parse(cursor.substring(0, Math.max(separator, 0)));
+                afterId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BusinessException("Curseur invalide");
+            }
+        }
+
+        // Une ligne de plus que demandé pour savoir s'il reste une page
+        SalesOrderSearchRepository.Filter filter =
+                new SalesOrderSearchRepository.Filter(clientId, status, warehouseId, from, to);
+        List<SalesOrderSummaryRow> rows = afterCreatedAt == null
+                ? salesOrderSearchRepository.firstPage(filter, size + 1)
+                : salesOrderSearchRepository.pageAfter(filter, afterCreatedAt, afterId, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<SalesOrderSummaryResponse> items = new ArrayList<>(Math.min(rows.size(), size));
+        for (SalesOrderSummaryRow row : hasMore ? rows.subList(0, size) : rows) {
+            items.add(toSummary(row));
+        }
+        if (!hasMore) {
+            return new CursorPage<>(items, null);
+        }
+        SalesOrderSummaryRow last = rows.get(size - 1);
+        return new CursorPage<>(items, last.createdAt() + "_" + last.id());
+    }
+
+    private SalesOrderSummaryResponse toSummary(SalesOrderSummaryRow row) {
+        return SalesOrderSummaryResponse.builder()
+                .id(row.id())
+                .orderNumber("SO-" + row.id())
+                .clientName(row.clientName())
+                .warehouseCode(row.warehouseName())
+                .status(SalesOrderStatus.valueOf(row.status().name()))
+                .createdAt(row.createdAt())
+                .totalAmount(row.totalAmount())
+                .totalItems(row.totalItems().intValue())
+                .build();
+    }
+
     @Override
     public SalesOrder cancel(Long id) {
-        SalesOrder order = getById(id);
-        order.setStatus(OrderStatus.CANCELED);
-        return salesOrderRepository.save(order);
+        orderStateMachine.transition(id, OrderStatus.CANCELED);
+        // Le stock encore réservé par la commande retourne dans les inventaires (lignes remises à zéro)
+        reservationExpiry.releaseForCancel(List.of(id));
+        return getById(id);
+    }
+
+    // Annulation en lot : une transition gardée par tranche, puis libération du stock réservé agrégée par inventaire
+    // (un UPDATE par inventaire, mouvements insérés en batch). Les commandes non annulables sont ignorées.
+    @Override
+    public BulkCancelResult cancelBulk(BulkCancelRequest request) {
+        List<Long> canceled = new ArrayList<>();
+        int requested = forEachCancelChunk(request, chunk -> {
+            List<Long> moved = orderStateMachine.transitionAllReturningIds(chunk, OrderStatus.CANCELED);
+            if (!moved.isEmpty()) {
+                reservationExpiry.releaseForCancel(moved);
+                canceled.addAll(moved);
+            }
+        });
+        // Les reliquats en attente de ces commandes sont abandonnés au prochain passage de la file
+        return BulkCancelResult.builder()
+                .requested(requested)
+                .canceledIds(canceled)
+                .build();
+    }
+
+    // Passe les commandes sélectionnées par tranches et retourne leur nombre. Un filtre est parcouru en entier,
+    // par clé sur l'id : les commandes annulées quittent les statuts sélectionnés, la tranche suivante repart après.
+    private int forEachCancelChunk(BulkCancelRequest request, Consumer<List<Long>> action) {
+        List<Long> orderIds = request.getOrderIds();
+        if (orderIds != null && !orderIds.isEmpty()) {
+            if (orderIds.size() > MAX_BULK_ORDERS) {
+                throw new BusinessException("Au plus " + MAX_BULK_ORDERS + " commandes par appel");
+            }
+            List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(orderIds));
+            for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK) {
+                action.accept(distinct.subList(from, Math.min(from + LOOKUP_CHUNK, distinct.size())));
+            }
+            return distinct.size();
+        }
+        if (request.getClientId() == null && request.getWarehouseId() == null
+                && request.getFrom() == null && request.getTo() == null) {
+            throw new BusinessException("Indiquez des identifiants de commande ou au moins un filtre");
+        }
+        int selected = 0;
+        long afterId = 0L;
+        List<Long> page;
+        do {
+            page = salesOrderRepository.findIdsByFilter(OrderStateMachine.SALES_ORDER.sourcesOf(OrderStatus.CANCELED),
+                    request.getClientId(), request.getWarehouseId(), request.getFrom(), request.getTo(),
+                    afterId, Limit.of(LOOKUP_CHUNK));
+            if (page.isEmpty()) {
+                break;
+            }
+            selected += page.size();
+            afterId = page.get(page.size() - 1);
+            action.accept(page);
+        } while (page.size() == LOOKUP_CHUNK);
+        return selected;
     }
 
     @Override
     public SalesOrder markAsShipped(Long id) {
-        SalesOrder order = getById(id);
-        order.setStatus(OrderStatus.SHIPPED);
-        return salesOrderRepository.save(order);
+        orderStateMachine.transition(id, OrderStatus.SHIPPED);
+        reservationExpiry.consume(id);
+        return getById(id);
     }
 
     @Override
     public SalesOrder markAsDelivered(Long id) {
-        SalesOrder order = getById(id);
-        order.setStatus(OrderStatus.DELIVERED);
-        return salesOrderRepository.save(order);
+        orderStateMachine.transition(id, OrderStatus.DELIVERED);
+        return getById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderEvent> getEvents(Long id) {
+        getById(id);
+        return orderStateMachine.history(OrderEventType.SALES_ORDER, id);
     }
 
     @Override
     public void delete(Long id) {
+        summaryProjector.onDeleted(List.of(id));
         salesOrderRepository.deleteById(id);
     }
 }
@@ -0,0 +1,110 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Component
+@RequiredArgsConstructor
+public class StockReservationEngine {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryMovementJournal inventoryMovementJournal;
+    private final AvailabilityIndex availabilityIndex;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final CycleCountQueue cycleCountQueue;
+    private final AllocationStrategies allocationStrategies;
+
+    public ReservationPlan plan(SalesOrder order) {
+        return plan(order, allocationStrategies.get());
+    }
+
+    // Charge tous les inventaires candidats en une requête, construit la matrice produit x entrepôt
+    // puis laisse la stratégie choisir les entrepôts sources ; tout est calculé en mémoire
+    public ReservationPlan plan(SalesOrder order, AllocationStrategy strategy) {
+        ReservationPlan plan = new ReservationPlan();
+        Long mainWarehouseId = order.getWarehouse().getId();
+
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (SalesOrderLine line : order.getLines()) {
+            productIds.add(line.getProduct().getId());
+        }
+        if (productIds.isEmpty()) {
+            return plan;
+        }
+
+        Map<Long, List<Inventory>> candidatesByProduct = new HashMap<>();
+        for (Inventory inv : inventoryRepository.findAllWithWarehouseByProductIdIn(productIds)) {
+            candidatesByProduct.computeIfAbsent(inv.getProduct().getId(), k -> new ArrayList<>()).add(inv);
+        }
+
+        // Un entrepôt en inventaire tournant n'est pas candidat, comme un entrepôt inactif
+        AvailabilityMatrix matrix = new AvailabilityMatrix(mainWarehouseId, order.getLines(), candidatesByProduct,
+                cycleCountQueue.frozenWarehouseIds());
+        int[][] allocation = strategy.allocate(matrix);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (SalesOrderLine line : order.getLines()) {
+            int needed = line.getQtyOrdered();
+            int totalReserved = 0;
+            String description = "Réservation commande " + order.getId() + " - produit " + line.getProduct().getName();
+
+            // Les lignes d'un même produit consomment l'allocation du produit dans l'ordre de la commande
+            int row = matrix.rowOf(line.getProduct().getId());
+            for (int col = 0; col < matrix.columns() && totalReserved < needed; col++) {
+                int toReserve = Math.min(needed - totalReserved, allocation[row][col]);
+                if (toReserve > 0) {
+                    Inventory inv = matrix.inventory(row, col);
+                    allocation[row][col] -= toReserve;
+                    inv.setQuantityOnHand(inv.getQuantityOnHand() - toReserve);
+                    plan.touch(inv);
+                    plan.allocate(inv, toReserve);
+                    plan.addMovement(movement(inv, MovementType.OUTBOUND, toReserve, description, now));
+                    totalReserved += toReserve;
+                }
+            }
+
+            // Le manque est mis en file de réapprovisionnement (BackorderQueue), rien n'est réservé pour lui
+            if (totalReserved < needed) {
+                plan.addShortage(line, needed - totalReserved);
+            }
+
+            plan.addReserved(line, totalReserved);
+        }
+
+        return plan;
+    }
+
+    // Écrit en lot les inventaires modifiés et les mouvements calculés par plan()
+    public void apply(ReservationPlan plan) {
+        if (!plan.getTouchedInventories().isEmpty()) {
+            inventoryRepository.saveAll(plan.getTouchedInventories());
+        }
+        if (!plan.getMovements().isEmpty()) {
+            inventoryMovementJournal.record(plan.getMovements());
+
+            for (InventoryMovement movement : plan.getMovements()) {
+                int quantity = movement.getQuantity();
+                int delta = movement.getType() == MovementType.INBOUND ? quantity : -quantity;
+                availabilityIndex.adjustAfterCommit(movement.getInventory().getId(), delta);
+                lowStockAlertEngine.onAvailableChanged(movement.getInventory().getId(), delta);
+            }
+        }
+    }
+
+    private InventoryMovement movement(Inventory inventory, MovementType type, int quantity,
+                                       String description, LocalDateTime date) {
+        return InventoryMovement.builder()
+                .inventory(inventory)
+                .type(type)
+                .quantity(quantity)
+                .movementDate(date)
+                .description(description)
+                .build();
+    }
+}
@@ -0,0 +1,226 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.entity.SalesOrder;
+import com.smartusers.logitrackapi.entity.StockReservation;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.enums.ReservationStatus;
+import com.smartusers.logitrackapi.repository.InventoryBatchRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderLineRepository;
+import com.smartusers.logitrackapi.repository.StockReservationRepository;
+import com.smartusers.logitrackapi.repository.projection.ReservationDeadlineView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Durée de vie des réservations : chaque commande confirmée enregistre ses prélèvements avec une échéance,
+// suivie par une roue temporelle hachée (coût O(1) par commande, aucun balayage de la table des commandes).
+// À l'échéance, les quantités sont rendues au stock en lot : une mise à jour JDBC par inventaire,
+// des mouvements INBOUND insérés en un batch, puis la commande repasse à CREATED en une requête par paquet.
+// La part en rupture n'est suivie qu'une fois réceptionnée et réservée (BackorderQueue).
+@Component
+@Slf4j
+public class StockReservationExpiry {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final OrderStateMachine orderStateMachine;
+    private final SalesOrderLineRepository salesOrderLineRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int releaseBatchSize;
+    private final Clock clock;
+    private final HashedTimerWheel<Long> wheel;
+
+    @Autowired
+    public StockReservationExpiry(StockReservationRepository stockReservationRepository,
+                                  OrderStateMachine orderStateMachine,
+                                  SalesOrderLineRepository salesOrderLineRepository,
+                                  InventoryBatchRepository inventoryBatchRepository,
+                                  AvailabilityIndex availabilityIndex,
+                                  LowStockAlertEngine lowStockAlertEngine,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${logitrack.reservations.ttl-minutes:2880}") long ttlMinutes,
+                                  @Value("${logitrack.reservations.wheel.tick-ms:1000}") long tickMs,
+                                  @Value("${logitrack.reservations.wheel.size:4096}") int wheelSize,
+                                  @Value("${logitrack.reservations.release-batch-size:200}") int releaseBatchSize) {
+        this(stockReservationRepository, orderStateMachine, salesOrderLineRepository, inventoryBatchRepository,
+                availabilityIndex, lowStockAlertEngine, transactionManager,
+                Duration.ofMinutes(ttlMinutes), tickMs, wheelSize, releaseBatchSize, Clock.systemDefaultZone());
+    }
+
+    StockReservationExpiry(StockReservationRepository stockReservationRepository,
+                           OrderStateMachine orderStateMachine,
+                           SalesOrderLineRepository salesOrderLineRepository,
+                           InventoryBatchRepository inventoryBatchRepository,
+                           AvailabilityIndex availabilityIndex,
+                           LowStockAlertEngine lowStockAlertEngine,
+                           PlatformTransactionManager transactionManager,
+                           Duration ttl, long tickMs, int wheelSize, int releaseBatchSize, Clock clock) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.orderStateMachine = orderStateMachine;
+        this.salesOrderLineRepository = salesOrderLineRepository;
+        this.inventoryBatchRepository = inventoryBatchRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.lowStockAlertEngine = lowStockAlertEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.releaseBatchSize = releaseBatchSize;
+        this.clock = clock;
+        this.wheel = new HashedTimerWheel<>(tickMs, wheelSize, clock.millis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<ReservationDeadlineView> deadlines = stockReservationRepository.findActiveDeadlines();
+        for (ReservationDeadlineView deadline : deadlines) {
+            wheel.schedule(deadline.getOrderId(), toMillis(deadline.getExpiresAt()));
+        }
+        log.info("Échéances de réservation réarmées : {}", deadlines.size());
+    }
+
+    // Enregistre les prélèvements du plan et arme l'échéance après commit ; retourne l'échéance
+    public LocalDateTime track(SalesOrder order, ReservationPlan plan) {
+        return trackAllocations(order, plan.getAllocations());
+    }
+
+    // Prélèvements faits hors plan (réception d'une rupture) ; l'échéance de la commande est repoussée
+    public LocalDateTime trackAllocations(SalesOrder order, Map<Inventory, Integer> allocations) {
+        LocalDateTime expiresAt = LocalDateTime.now(clock).plus(ttl);
+        if (allocations.isEmpty()) {
+            return expiresAt;
+        }
+        List<StockReservation> reservations = new ArrayList<>(allocations.size());
+        allocations.forEach((inventory, quantity) -> reservations.add(StockReservation.builder()
+                .salesOrder(order)
+                .inventory(inventory)
+                .quantity(quantity)
+                .expiresAt(expiresAt)
+                .build()));
+        stockReservationRepository.saveAll(reservations);
+
+        Long orderId = order.getId();
+        long deadline = toMillis(expiresAt);
+        afterCommit(() -> wheel.schedule(orderId, deadline));
+        return expiresAt;
+    }
+
+    // Expédition : le stock prélevé est définitivement consommé
+    public void consume(Long orderId) {
+        stockReservationRepository.closeByOrder(orderId, ReservationStatus.CONSUMED, LocalDateTime.now(clock));
+        afterCommit(() -> wheel.cancel(orderId));
+    }
+
+    // Annulation : rend les quantités au stock dans la transaction courante
+    public void releaseForCancel(Collection<Long> orderIds) {
+        release(orderIds, ReservationStatus.RELEASED, "Annulation commande ");
+        afterCommit(() -> orderIds.forEach(wheel::cancel));
+    }
+
+    @Scheduled(fixedDelayString = "${logitrack.reservations.wheel.tick-ms:1000}")
+    public void tick() {
+        List<Long> expired = wheel.advance(clock.millis());
+        for (int from = 0; from < expired.size(); from += releaseBatchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + releaseBatchSize, expired.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Set<Long> released = release(batch, ReservationStatus.EXPIRED, "Expiration réservation commande ");
+                    if (!released.isEmpty()) {
+                        orderStateMachine.transitionAll(released, OrderStatus.CREATED);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Réarmé au tick suivant : la libération est idempotente (réservations verrouillées et filtrées sur ACTIVE)
+                log.warn("Échec de libération de {} réservations expirées : {}", batch.size(), e.getMessage());
+                long retryAt = clock.millis();
+                batch.forEach(orderId -> wheel.schedule(orderId, retryAt));
+            }
+        }
+    }
+
+    int pendingDeadlines() {
+        return wheel.size();
+    }
+
+    // Retourne les commandes dont au moins une réservation active a été libérée
+    private Set<Long> release(Collection<Long> orderIds, ReservationStatus status, String description) {
+        List<StockReservation> active = stockReservationRepository.lockActiveByOrderIdIn(orderIds);
+        if (active.isEmpty()) {
+            return Set.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        Map<Long, Integer> byInventory = new TreeMap<>();
+        Set<Long> releasedOrders = new LinkedHashSet<>();
+        List<Long> reservationIds = new ArrayList<>(active.size());
+        List<InventoryMovement> movements = new ArrayList<>(active.size());
+        for (StockReservation reservation : active) {
+            Inventory inventory = reservation.getInventory();
+            Long orderId = reservation.getSalesOrder().getId();
+            byInventory.merge(inventory.getId(), reservation.getQuantity(), Integer::sum);
+            releasedOrders.add(orderId);
+            reservationIds.add(reservation.getId());
+            movements.add(InventoryMovement.builder()
+                    .inventory(inventory)
+                    .type(MovementType.INBOUND)
+                    .quantity(reservation.getQuantity())
+                    .movementDate(now)
+                    .description(description + orderId)
+                    .build());
+        }
+
+        // Ordre croissant des id d'inventaire : mêmes verrous de ligne dans le même ordre que les autres lots
+        long[] inventoryIds = new long[byInventory.size()];
+        int[] quantities = new int[byInventory.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : byInventory.entrySet()) {
+            inventoryIds[i] = entry.getKey();
+            quantities[i++] = entry.getValue();
+        }
+        inventoryBatchRepository.addOnHand(inventoryIds, quantities);
+        // Un seul batch JDBC, sans passer par saveAll (INSERT unitaires avec les id IDENTITY)
+        inventoryBatchRepository.insertMovements(movements);
+        stockReservationRepository.closeAll(reservationIds, status, now);
+        salesOrderLineRepository.clearReserved(releasedOrders);
+
+        byInventory.forEach((inventoryId, quantity) -> {
+            availabilityIndex.adjustAfterCommit(inventoryId, quantity);
+            lowStockAlertEngine.onAvailableChanged(inventoryId, quantity);
+        });
+        return releasedOrders;
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import java.util.*;
+
+// Transitions autorisées d'un enum de statuts : matrice indexée par ordinal (allowed[from][to]),
+// plus, pour chaque statut cible, l'ensemble de ses statuts sources utilisé par les mises à jour gardées.
+public final class TransitionTable<S extends Enum<S>> {
+
+    private final boolean[][] allowed;
+    private final Map<S, Set<S>> sources;
+
+    private TransitionTable(Class<S> type, boolean[][] allowed) {
+        this.allowed = allowed;
+        this.sources = new EnumMap<>(type);
+        S[] values = type.getEnumConstants();
+        for (S to : values) {
+            EnumSet<S> from = EnumSet.noneOf(type);
+            for (S candidate : values) {
+                if (allowed[candidate.ordinal()][to.ordinal()]) {
+                    from.add(candidate);
+                }
+            }
+            sources.put(to, Collections.unmodifiableSet(from));
+        }
+    }
+
+    public static <S extends Enum<S>> Builder<S> builder(Class<S> type) {
+        return new Builder<>(type);
+    }
+
+    public boolean allows(S from, S to) {
+        return allowed[from.ordinal()][to.ordinal()];
+    }
+
+    public Set<S> sourcesOf(S to) {
+        return sources.get(to);
+    }
+
+    public static final class Builder<S extends Enum<S>> {
+        private final Class<S> type;
+        private final boolean[][] allowed;
+
+        private Builder(Class<S> type) {
+            this.type = type;
+            int size = type.getEnumConstants().length;
+            this.allowed = new boolean[size][size];
+        }
+
+        @SafeVarargs
+        public final Builder<S> allow(S from, S... targets) {
+            for (S to : targets) {
+                allowed[from.ordinal()][to.ordinal()] = true;
+            }
+            return this;
+        }
+
+        public TransitionTable<S> build() {
+            return new TransitionTable<>(type, allowed);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.MovementType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// État de valorisation (coût moyen pondéré et couches FIFO) des inventaires d'un entrepôt,
+// rangé dans des tableaux primitifs indexés par slot. Les coûts sont en dix-millièmes.
+// Une entrée sans coût connu est valorisée au coût moyen courant, à défaut au coût par défaut du produit.
+// Une sortie au-delà du stock laisse une quantité négative (sans couche) que les entrées suivantes comblent.
+public class ValuationLedger {
+
+    public static final int COST_SCALE = 4;
+    private static final int INITIAL_LAYERS = 4;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+
+    private long[] inventoryIds = new long[16];
+    private long[] quantities = new long[16];
+    private long[] averageCosts = new long[16];
+    private long[] fallbackCosts = new long[16];
+    private boolean[] dirty = new boolean[16];
+
+    // Couches FIFO de chaque slot : tampon circulaire (quantité, coût) de la plus ancienne à la plus récente
+    private int[][] layerQuantities = new int[16][];
+    private long[][] layerCosts = new long[16][];
+    private int[] layerHeads = new int[16];
+    private int[] layerCounts = new int[16];
+
+    private int size;
+
+    public static long toScaled(BigDecimal amount) {
+        return amount == null ? -1 : amount.movePointRight(COST_SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal fromScaled(long amount) {
+        return BigDecimal.valueOf(amount, COST_SCALE);
+    }
+
+    // Recharge l'état persisté au dernier point de reprise
+    public void restore(long inventoryId, long quantity, long averageCost, byte[] layers) {
+        int slot = slot(inventoryId);
+        quantities[slot] = quantity;
+        averageCosts[slot] = averageCost;
+        layerHeads[slot] = 0;
+        layerCounts[slot] = 0;
+        if (layers != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(layers);
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                push(slot, buffer.getInt(), buffer.getLong());
+            }
+        }
+    }
+
+    // Coût utilisé pour une entrée sans coût tant qu'aucun coût moyen n'est connu (-1 = aucun)
+    public void fallbackCost(long inventoryId, long unitCost) {
+        fallbackCosts[slot(inventoryId)] = unitCost;
+    }
+
+    // ADJUSTMENT porte son signe ; unitCost = -1 si le mouvement n'a pas de coût
+    public void apply(long inventoryId, MovementType type, int quantity, long unitCost) {
+        int slot = slot(inventoryId);
+        dirty[slot] = true;
+        switch (type) {
+            case INBOUND -> receive(slot, quantity, unitCost);
+            case OUTBOUND -> issue(slot, quantity);
+            case ADJUSTMENT -> {
+                if (quantity >= 0) {
+                    receive(slot, quantity, -1);
+                } else {
+                    issue(slot, -quantity);
+                }
+            }
+        }
+    }
+
+    public int slotOf(long inventoryId) {
+        Integer slot = slots.get(inventoryId);
+        return slot == null ? -1 : slot;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long inventoryId(int slot) {
+        return inventoryIds[slot];
+    }
+
+    public boolean isDirty(int slot) {
+        return dirty[slot];
+    }
+
+    public long quantity(int slot) {
+        return quantities[slot];
+    }
+
+    public long averageCost(int slot) {
+        return averageCosts[slot];
+    }
+
+    public BigDecimal averageValue(int slot) {
+        return fromScaled(averageCosts[slot]).multiply(BigDecimal.valueOf(quantities[slot]));
+    }
+
+    // Somme des couches restantes ; une quantité négative est valorisée au coût moyen
+    public BigDecimal fifoValue(int slot) {
+        if (quantities[slot] < 0) {
+            return averageValue(slot);
+        }
+        int[] qty = layerQuantities[slot];
+        long[] cost = layerCosts[slot];
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < layerCounts[slot]; i++) {
+            int index = (layerHeads[slot] + i) % qty.length;
+            total = total.add(BigDecimal.valueOf(cost[index]).multiply(BigDecimal.valueOf(qty[index])));
+        }
+        return total.movePointLeft(COST_SCALE);
+    }
+
+    // Encodage compact des couches : nombre de couches puis (quantité int, coût long) par couche
+    public byte[] encodeLayers(int slot) {
+        int count = layerCounts[slot];
+        ByteBuffer buffer = ByteBuffer.allocate(4 + count * 12);
+        buffer.putInt(count);
+        int[] qty = layerQuantities[slot];
+        long[] cost = layerCosts[slot];
+        for (int i = 0; i < count; i++) {
+            int index = (layerHeads[slot] + i) % qty.length;
+            buffer.putInt(qty[index]);
+            buffer.putLong(cost[index]);
+        }
+        return buffer.array();
+    }
+
+    private void receive(int slot, int quantity, long unitCost) {
+        long before = quantities[slot];
+        long cost = unitCost >= 0 ? unitCost : currentCost(slot);
+        long after = before + quantity;
+
+        if (before <= 0 || after <= 0) {
+            averageCosts[slot] = cost;
+        } else {
+            averageCosts[slot] = Math.round(((double) before * averageCosts[slot] + (double) quantity * cost) / after);
+        }
+        quantities[slot] = after;
+
+        // La part qui comble une quantité négative n'ouvre pas de couche
+        long layered = Math.min(quantity, Math.max(0, after));
+        if (layered > 0) {
+            push(slot, (int) layered, cost);
+        }
+    }
+
+    private void issue(int slot, int quantity) {
+        quantities[slot] -= quantity;
+        int[] qty = layerQuantities[slot];
+        int remaining = quantity;
+        while (remaining > 0 && layerCounts[slot] > 0) {
+            int head = layerHeads[slot];
+            int taken = Math.min(remaining, qty[head]);
+            qty[head] -= taken;
+            remaining -= taken;
+            if (qty[head] == 0) {
+                layerHeads[slot] = (head + 1) % qty.length;
+                layerCounts[slot]--;
+            }
+        }
+    }
+
+    private long currentCost(int slot) {
+        if (averageCosts[slot] > 0) {
+            return averageCosts[slot];
+        }
+        return Math.max(0, fallbackCosts[slot]);
+    }
+
+    // Ajoute une couche en fin de file, fusionnée avec la dernière si le coût est identique
+    private void push(int slot, int quantity, long cost) {
+        int[] qty = layerQuantities[slot];
+        if (qty == null) {
+            qty = layerQuantities[slot] = new int[INITIAL_LAYERS];
+            layerCosts[slot] = new long[INITIAL_LAYERS];
+        }
+        int count = layerCounts[slot];
+        if (count > 0) {
+            int tail = (layerHeads[slot] + count - 1) % qty.length;
+            if (layerCosts[slot][tail] == cost && (long) qty[tail] + quantity <= Integer.MAX_VALUE) {
+                qty[tail] += quantity;
+                return;
+            }
+        }
+        if (count == qty.length) {
+            grow(slot);
+            qty = layerQuantities[slot];
+        }
+        int index = (layerHeads[slot] + count) % qty.length;
+        qty[index] = quantity;
+        layerCosts[slot][index] = cost;
+        layerCounts[slot] = count + 1;
+    }
+
+    private void grow(int slot) {
+        int[] qty = layerQuantities[slot];
+        long[] cost = layerCosts[slot];
+        int count = layerCounts[slot];
+        int[] newQty = new int[qty.length * 2];
+        long[] newCost = new long[qty.length * 2];
+        for (int i = 0; i < count; i++) {
+            int index = (layerHeads[slot] + i) % qty.length;
+            newQty[i] = qty[index];
+            newCost[i] = cost[index];
+        }
+        layerQuantities[slot] = newQty;
+        layerCosts[slot] = newCost;
+        layerHeads[slot] = 0;
+    }
+
+    private int slot(long inventoryId) {
+        Integer existing = slots.get(inventoryId);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == inventoryIds.length) {
+            int capacity = size * 2;
+            inventoryIds = Arrays.copyOf(inventoryIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            averageCosts = Arrays.copyOf(averageCosts, capacity);
+            fallbackCosts = Arrays.copyOf(fallbackCosts, capacity);
+            dirty = Arrays.copyOf(dirty, capacity);
+            layerQuantities = Arrays.copyOf(layerQuantities, capacity);
+            layerCosts = Arrays.copyOf(layerCosts, capacity);
+            layerHeads = Arrays.copyOf(layerHeads, capacity);
+            layerCounts = Arrays.copyOf(layerCounts, capacity);
+        }
+        int slot = size++;
+        inventoryIds[slot] = inventoryId;
+        fallbackCosts[slot] = -1;
+        slots.put(inventoryId, slot);
+        return slot;
+    }
+}
@@ -11,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +20,7 @@ public class WarehouseServiceImpl implements WarehouseService {
 
     private final WarehouseRepository warehouseRepository;
     private final UserRepository userRepository;
+    private final AvailabilityIndex availabilityIndex;
 
     @Override
     public Warehouse create(Warehouse warehouse) {
@@ -62,6 +64,9 @@ public class WarehouseServiceImpl implements WarehouseService {
         }
 
         existing.setName(warehouse.getName());
+        if (!Objects.equals(existing.getActive(), warehouse.getActive())) {
+            availabilityIndex.reloadAfterCommit();
+        }
         existing.setActive(warehouse.getActive());
 
         if (warehouse.getManager() != null) {
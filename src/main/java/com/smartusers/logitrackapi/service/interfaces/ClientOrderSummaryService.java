@@ -0,0 +1,9 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.dto.salesorder.ClientOrderSummaryResponse;
+
+public interface ClientOrderSummaryService {
+
+    // Lecture d'une ligne de la synthèse, sans parcourir les commandes du client
+    ClientOrderSummaryResponse getByClient(Long clientId);
+}
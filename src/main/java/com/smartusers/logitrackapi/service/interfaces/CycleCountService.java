@@ -0,0 +1,16 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountLineRequest;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountReport;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountResponse;
+
+import java.util.List;
+
+public interface CycleCountService {
+
+    CycleCountResponse start(Long warehouseId);
+
+    CycleCountResponse getById(Long id);
+
+    CycleCountReport complete(Long id, List<CycleCountLineRequest> lines);
+}
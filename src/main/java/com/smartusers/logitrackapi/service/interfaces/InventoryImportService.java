@@ -0,0 +1,10 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.dto.inventory.InventoryImportReport;
+
+import java.io.InputStream;
+
+public interface InventoryImportService {
+
+    InventoryImportReport importCsv(InputStream input);
+}
@@ -0,0 +1,13 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.enums.ExportFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+public interface InventoryMovementExportService {
+
+    StreamingResponseBody exportByInventory(Long inventoryId, LocalDateTime from, LocalDateTime to, ExportFormat format);
+
+    StreamingResponseBody exportByWarehouse(Long warehouseId, LocalDateTime from, LocalDateTime to, ExportFormat format);
+}
@@ -0,0 +1,8 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.dto.inventory.ReconciliationReport;
+
+public interface InventoryReconciliationService {
+
+    ReconciliationReport reconcile(boolean repair);
+}
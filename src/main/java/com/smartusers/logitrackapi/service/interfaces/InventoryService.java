@@ -1,25 +1,41 @@
 package com.smartusers.logitrackapi.service.interfaces;
 
+import com.smartusers.logitrackapi.dto.common.CursorPage;
+import com.smartusers.logitrackapi.dto.inventory.InventoryResponse;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementRequest;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementResult;
 import com.smartusers.logitrackapi.entity.Inventory;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 public interface InventoryService {
 
     Inventory create(Inventory inventory);
 
-    Inventory addStock(Long inventoryId, int quantity, String description);
+    void addStock(Long inventoryId, int quantity, String description);
 
-    Inventory sortieStock(Long inventoryId, int quantity, String description);
+    // Retourne l'id de l'inventaire, ou null si l'entrepôt est en inventaire tournant (réception mise en file).
+    // unitCost (prix d'achat, peut être null) est conservé sur le mouvement pour la valorisation du stock.
+    // purchaseOrderId (peut être null) accompagne une réception mise en file, pour servir ses ruptures au rejeu.
+    Long receiveIntoLocation(Long warehouseId, Long productId, int quantity, BigDecimal unitCost, String description,
+                             Long purchaseOrderId);
+
+    void sortieStock(Long inventoryId, int quantity, String description);
     void reserveStock(Long inventoryId, int quantity);
     Integer checkAvailableByWarehouse(Long productId, Long warehouseId);
 
     Integer checkAvailableInAllWarehouses(Long productId);
     void unreserveStock(Long inventoryId, int quantity);
+
+    List<StockMovementResult> applyMovements(List<StockMovementRequest> requests);
     Inventory update(Long id, Inventory inventory);
 
     List<Inventory> getAll();
 
+    CursorPage<InventoryResponse> search(Long warehouseId, Long productId, boolean lowStock,
+                                         String cursor, int size);
+
     Inventory getById(Long id);
 
     void delete(Long id);
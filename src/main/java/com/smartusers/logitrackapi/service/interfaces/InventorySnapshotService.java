@@ -0,0 +1,15 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.dto.inventory.InventoryStockAtResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface InventorySnapshotService {
+
+    int takeSnapshots();
+
+    InventoryStockAtResponse getStockAt(Long inventoryId, LocalDateTime at);
+
+    List<InventoryStockAtResponse> getWarehouseStockAt(Long warehouseId, LocalDateTime at);
+}
@@ -0,0 +1,9 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.dto.inventory.ValuationReport;
+
+public interface InventoryValuationService {
+
+    // Intègre les mouvements postérieurs au point de reprise de l'entrepôt puis valorise son stock
+    ValuationReport valuate(Long warehouseId);
+}
@@ -0,0 +1,18 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.dto.stockalert.ReorderThresholdRequest;
+import com.smartusers.logitrackapi.entity.LowStockAlert;
+import com.smartusers.logitrackapi.entity.ReorderThreshold;
+
+import java.util.List;
+
+public interface LowStockAlertService {
+
+    ReorderThreshold setThreshold(ReorderThresholdRequest request);
+
+    List<ReorderThreshold> getThresholds();
+
+    void deleteThreshold(Long id);
+
+    List<LowStockAlert> getAlerts(boolean activeOnly);
+}
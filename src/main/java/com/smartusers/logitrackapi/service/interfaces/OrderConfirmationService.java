@@ -0,0 +1,15 @@
+package com.smartusers.logitrackapi.service.interfaces;
+
+import com.smartusers.logitrackapi.dto.salesorder.ConfirmationJobResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface OrderConfirmationService {
+
+    // Met la confirmation en file et retourne aussitôt le job (le même tant qu'un job de la commande est actif)
+    ConfirmationJobResponse submit(Long orderId);
+
+    ConfirmationJobResponse getJob(String jobId);
+
+    // Flux SSE "job" : état courant puis chaque changement, fermé quand le job est terminé
+    SseEmitter subscribe(String jobId);
+}
@@ -1,6 +1,7 @@
 package com.smartusers.logitrackapi.service.interfaces;
 
 import com.smartusers.logitrackapi.dto.purchaseorder.PurchaseOrderRequest;
+import com.smartusers.logitrackapi.entity.OrderEvent;
 import com.smartusers.logitrackapi.entity.PurchaseOrder;
 import com.smartusers.logitrackapi.enums.POStatus;
 import org.springframework.data.domain.Page;
@@ -21,5 +22,7 @@ public interface PurchaseOrderService {
     PurchaseOrder cancel(Long id);
     PurchaseOrder receive(Long id, Long warehouseId);
 
+    List<OrderEvent> getEvents(Long id);
+
     void delete(Long id);
 }
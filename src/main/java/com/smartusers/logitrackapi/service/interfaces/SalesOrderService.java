@@ -1,7 +1,14 @@
 package com.smartusers.logitrackapi.service.interfaces;
 
+import com.smartusers.logitrackapi.dto.common.CursorPage;
+import com.smartusers.logitrackapi.dto.salesorder.BulkCancelRequest;
+import com.smartusers.logitrackapi.dto.salesorder.BulkCancelResult;
+import com.smartusers.logitrackapi.dto.salesorder.BulkSalesOrderResult;
 import com.smartusers.logitrackapi.dto.salesorder.SalesOrderRequest;
+import com.smartusers.logitrackapi.dto.salesorder.SalesOrderSummaryResponse;
+import com.smartusers.logitrackapi.entity.OrderEvent;
 import com.smartusers.logitrackapi.entity.SalesOrder;
+import com.smartusers.logitrackapi.enums.OrderStatus;
 import com.smartusers.logitrackapi.enums.SalesOrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +20,9 @@ public interface SalesOrderService {
 
     SalesOrder create(SalesOrderRequest request);
 
+    // Résultat par commande, dans l'ordre de la requête
+    List<BulkSalesOrderResult> createBulk(List<SalesOrderRequest> requests);
+
 
     SalesOrder confirmerOrderByClient(Long orderId);
     SalesOrder update(Long id, SalesOrderRequest request);
@@ -22,11 +32,21 @@ public interface SalesOrderService {
 
     SalesOrder cancel(Long id);
 
+    // Annule les commandes listées (au plus 5000 par appel), ou à défaut toutes celles correspondant aux filtres
+    BulkCancelResult cancelBulk(BulkCancelRequest request);
+
     SalesOrder markAsShipped(Long id);
 
     SalesOrder markAsDelivered(Long id);
 
+    // Historique des changements de statut, du plus ancien au plus récent
+    List<OrderEvent> getEvents(Long id);
+
    Page<SalesOrder> getAll(Pageable pageable);
 
+    // Recherche filtrée, plus récentes d'abord, paginée par clé (cursor = nextCursor de la page précédente)
+    CursorPage<SalesOrderSummaryResponse> search(Long clientId, OrderStatus status, Long warehouseId,
+                                                 LocalDateTime from, LocalDateTime to, String cursor, int size);
+
     void delete(Long id);
 }
@@ -1,10 +1,14 @@
 package com.smartusers.logitrackapi.controllers;
 
+import com.smartusers.logitrackapi.dto.common.CursorPage;
 import com.smartusers.logitrackapi.dto.inventory.InventoryRequest;
 import com.smartusers.logitrackapi.dto.inventory.InventoryResponse;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementRequest;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementResult;
 import com.smartusers.logitrackapi.entity.Inventory;
 import com.smartusers.logitrackapi.entity.Product;
 import com.smartusers.logitrackapi.entity.Warehouse;
+import com.smartusers.logitrackapi.enums.MovementType;
 import com.smartusers.logitrackapi.mapper.InventoryMapper;
 import com.smartusers.logitrackapi.service.interfaces.InventoryService;
 import org.junit.jupiter.api.BeforeEach;
@@ -127,6 +131,30 @@ class InventoryControllerTest {
         verify(inventoryService, times(1)).getById(1L);
     }
 
+    @Test
+    void testApplyMovements() {
+        List<StockMovementRequest> requests = List.of(new StockMovementRequest(1L, MovementType.INBOUND, 5, null));
+        List<StockMovementResult> results = List.of(StockMovementResult.builder().index(0).inventoryId(1L).success(true).build());
+        when(inventoryService.applyMovements(requests)).thenReturn(results);
+
+        List<StockMovementResult> response = inventoryController.applyMovements(requests);
+
+        assertEquals(1, response.size());
+        assertTrue(response.get(0).isSuccess());
+        verify(inventoryService, times(1)).applyMovements(requests);
+    }
+
+    @Test
+    void testSearch_LowStockUsesLocationThresholds() {
+        CursorPage<InventoryResponse> page = new CursorPage<>(List.of(inventoryResponse), "1");
+        when(inventoryService.search(1L, null, true, null, 50)).thenReturn(page);
+
+        CursorPage<InventoryResponse> response = inventoryController.search(1L, null, true, null, 50);
+
+        assertEquals("1", response.getNextCursor());
+        verify(inventoryService, times(1)).search(1L, null, true, null, 50);
+    }
+
     @Test
     void testDeleteInventory() {
         doNothing().when(inventoryService).delete(1L);
@@ -0,0 +1,124 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.projection.InventoryAvailabilityView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityIndexTest {
+
+    private InventoryRepository inventoryRepository;
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        index = new AvailabilityIndex(inventoryRepository, true);
+
+        when(inventoryRepository.findAllAvailability()).thenReturn(List.of(
+                view(1L, 10L, 1L, 8, true),
+                view(2L, 10L, 2L, 5, true),
+                view(3L, 10L, 3L, 7, false),
+                view(4L, 20L, 1L, -2, true)
+        ));
+        index.load();
+    }
+
+    @Test
+    void testLoad_AggregatesPerLocationAndActiveTotal() {
+        assertTrue(index.isLoaded());
+        assertEquals(8, index.availableIn(10L, 1L));
+        assertEquals(7, index.availableIn(10L, 3L));
+        assertEquals(13, index.availableEverywhere(10L));
+        assertEquals(0, index.availableEverywhere(20L));
+        assertEquals(0, index.availableEverywhere(99L));
+    }
+
+    @Test
+    void testAdjust_OutsideTransactionAppliesImmediately() {
+        index.adjustAfterCommit(1L, -10);
+        assertEquals(0, index.availableIn(10L, 1L));
+        assertEquals(5, index.availableEverywhere(10L));
+
+        index.adjustAfterCommit(1L, 4);
+        assertEquals(2, index.availableIn(10L, 1L));
+        assertEquals(7, index.availableEverywhere(10L));
+    }
+
+    @Test
+    void testRefreshAndRemove() {
+        when(inventoryRepository.findAvailabilityById(5L)).thenReturn(Optional.of(view(5L, 20L, 2L, 6, true)));
+
+        index.refreshAfterCommit(5L);
+        assertEquals(6, index.availableEverywhere(20L));
+
+        index.removeAfterCommit(2L);
+        assertEquals(8, index.availableEverywhere(10L));
+    }
+
+    @Test
+    void testReload_WaitsForCommittedDeltasSoNothingIsCountedTwice() throws Exception {
+        // Base après le commit de la transaction : 8 - 3
+        when(inventoryRepository.findAllAvailability()).thenReturn(List.of(view(1L, 10L, 1L, 5, true)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Void> reload;
+        try {
+            index.adjustAfterCommit(1L, -3);
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+            // Commit fait, variation pas encore appliquée : le rechargement attend
+            reload = CompletableFuture.runAsync(index::load);
+            Thread.sleep(100);
+            assertFalse(reload.isDone());
+            verify(inventoryRepository, times(1)).findAllAvailability();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        reload.get(2, TimeUnit.SECONDS);
+
+        assertEquals(5, index.availableIn(10L, 1L));
+        assertEquals(5, index.availableEverywhere(10L));
+    }
+
+    @Test
+    void testRefresh_AppliesSameTransactionDeltaOnlyOnce() {
+        when(inventoryRepository.findAvailabilityById(1L)).thenReturn(Optional.of(view(1L, 10L, 1L, 6, true)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.refreshAfterCommit(1L);
+            index.adjustAfterCommit(1L, -2);
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(6, index.availableIn(10L, 1L));
+    }
+
+    private InventoryAvailabilityView view(Long id, Long productId, Long warehouseId, int available, boolean active) {
+        return new InventoryAvailabilityView() {
+            public Long getId() { return id; }
+            public Long getProductId() { return productId; }
+            public Long getWarehouseId() { return warehouseId; }
+            public Integer getAvailable() { return available; }
+            public Boolean getActive() { return active; }
+        };
+    }
+}
@@ -0,0 +1,165 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.BackorderStatus;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.repository.*;
+import com.smartusers.logitrackapi.repository.projection.ProductSupplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.*;
+
+class BackorderQueueTest {
+
+    private BackorderRepository backorderRepository;
+    private POLineRepository poLineRepository;
+    private SupplierRepository supplierRepository;
+    private PurchaseOrderBatchRepository purchaseOrderBatchRepository;
+    private InventoryRepository inventoryRepository;
+    private InventoryBatchRepository inventoryBatchRepository;
+    private StockReservationExpiry reservationExpiry;
+    private OrderStateMachine orderStateMachine;
+    private BackorderQueue queue;
+
+    private final Product screw = Product.builder().id(1L).build();
+    private final Product bolt = Product.builder().id(2L).build();
+
+    @BeforeEach
+    void setUp() {
+        backorderRepository = mock(BackorderRepository.class);
+        poLineRepository = mock(POLineRepository.class);
+        supplierRepository = mock(SupplierRepository.class);
+        purchaseOrderBatchRepository = mock(PurchaseOrderBatchRepository.class);
+        inventoryRepository = mock(InventoryRepository.class);
+        inventoryBatchRepository = mock(InventoryBatchRepository.class);
+        reservationExpiry = mock(StockReservationExpiry.class);
+        orderStateMachine = mock(OrderStateMachine.class);
+        queue = new BackorderQueue(backorderRepository, poLineRepository, supplierRepository,
+                purchaseOrderBatchRepository, inventoryRepository, inventoryBatchRepository,
+                mock(AvailabilityIndex.class), mock(LowStockAlertEngine.class), reservationExpiry,
+                orderStateMachine, mock(PlatformTransactionManager.class), 100);
+    }
+
+    @Test
+    void testDrain_OneConsolidatedPurchaseOrderPerSupplier() {
+        SalesOrder first = order(1L, OrderStatus.PENDING);
+        SalesOrder second = order(2L, OrderStatus.PENDING);
+        SalesOrder canceled = order(3L, OrderStatus.CANCELED);
+        Backorder a = backorder(10L, first, screw, 4, "10.00");
+        Backorder b = backorder(11L, second, screw, 6, "15.00");
+        Backorder c = backorder(12L, second, bolt, 2, "3.00");
+        Backorder d = backorder(13L, canceled, bolt, 5, "3.00");
+        when(backorderRepository.lockQueued(any())).thenReturn(List.of(a, b, c, d));
+        when(backorderRepository.findPendingOrderIds(any())).thenReturn(List.of(1L, 2L));
+        // Le boulon n'a jamais été commandé : fournisseur actif par défaut
+        when(poLineRepository.findLastActiveSuppliers(any())).thenReturn(List.of(new ProductSupplier(1L, 7L)));
+        when(supplierRepository.findByActiveTrue()).thenReturn(List.of(Supplier.builder().id(5L).build()));
+        when(purchaseOrderBatchRepository.insertOrders(any(), any())).thenReturn(new long[]{100L, 101L});
+
+        assertEquals(2, queue.drain());
+
+        verify(purchaseOrderBatchRepository).insertOrders(aryEq(new long[]{5L, 7L}), any());
+        verify(purchaseOrderBatchRepository).insertLines(aryEq(new long[]{100L, 101L}), aryEq(new long[]{2L, 1L}),
+                aryEq(new int[]{2, 10}), aryEq(new BigDecimal[]{new BigDecimal("3.0000"), new BigDecimal("13.0000")}));
+        verify(purchaseOrderBatchRepository).markOrdered(aryEq(new long[]{12L, 10L, 11L}),
+                aryEq(new long[]{100L, 101L, 101L}), any());
+        assertEquals(BackorderStatus.CANCELED, d.getStatus());
+    }
+
+    @Test
+    void testDrain_EmptyQueueWritesNothing() {
+        when(backorderRepository.lockQueued(any())).thenReturn(List.of());
+
+        assertEquals(0, queue.drain());
+        verifyNoInteractions(purchaseOrderBatchRepository);
+    }
+
+    @Test
+    void testPromote_ReservesReceivedStockAndPromotesCompleteOrders() {
+        SalesOrder complete = order(1L, OrderStatus.PENDING);
+        SalesOrder waiting = order(2L, OrderStatus.PENDING);
+        Backorder a = backorder(10L, complete, screw, 4, "10.00");
+        Backorder b = backorder(11L, waiting, screw, 6, "10.00");
+        Inventory inventory = Inventory.builder().id(50L).build();
+        when(backorderRepository.lockOrderedByPurchaseOrder(100L)).thenReturn(List.of(a, b));
+        when(inventoryRepository.issueStock(50L, 10)).thenReturn(1);
+        when(inventoryRepository.getReferenceById(50L)).thenReturn(inventory);
+        // La commande 2 attend encore une autre commande d'achat
+        when(backorderRepository.findOrderIdsWithOpenBackorders(any())).thenReturn(List.of(2L));
+
+        Set<Long> promoted = queue.promote(100L, Map.of(1L, 50L));
+
+        assertEquals(Set.of(1L), promoted);
+        assertEquals(BackorderStatus.FULFILLED, a.getStatus());
+        assertEquals(4, a.getSalesOrderLine().getQtyReserved());
+        assertEquals(6, b.getSalesOrderLine().getQtyReserved());
+        verify(inventoryBatchRepository).insertMovements(argThat(movements -> movements.size() == 2));
+        verify(reservationExpiry).trackAllocations(complete, Map.of(inventory, 4));
+        verify(reservationExpiry).trackAllocations(waiting, Map.of(inventory, 6));
+        verify(orderStateMachine).transitionAll(Set.of(1L), OrderStatus.RESERVED);
+    }
+
+    @Test
+    void testPromote_InsufficientReceiptKeepsBackordersOnTheirPurchaseOrder() {
+        Backorder a = backorder(10L, order(1L, OrderStatus.PENDING), screw, 4, "10.00");
+        Backorder late = backorder(11L, order(2L, OrderStatus.CANCELED), screw, 6, "10.00");
+        when(backorderRepository.lockOrderedByPurchaseOrder(100L)).thenReturn(List.of(a, late));
+        when(inventoryRepository.issueStock(50L, 4)).thenReturn(0);
+
+        assertTrue(queue.promote(100L, Map.of(1L, 50L)).isEmpty());
+
+        assertEquals(BackorderStatus.ORDERED, a.getStatus());
+        assertEquals(100L, a.getPurchaseOrder().getId());
+        assertEquals(BackorderStatus.CANCELED, late.getStatus());
+        verifyNoInteractions(reservationExpiry, orderStateMachine);
+    }
+
+    @Test
+    void testPromote_DeferredReceiptLeavesBackordersOrderedUntilReplay() {
+        Backorder a = backorder(10L, order(1L, OrderStatus.PENDING), screw, 4, "10.00");
+        when(backorderRepository.lockOrderedByPurchaseOrder(100L)).thenReturn(List.of(a));
+
+        // Entrepôt en inventaire tournant : aucun inventaire reçu pour le produit
+        assertTrue(queue.promote(100L, Map.of()).isEmpty());
+
+        assertEquals(BackorderStatus.ORDERED, a.getStatus());
+        assertEquals(100L, a.getPurchaseOrder().getId());
+        verifyNoInteractions(inventoryRepository, reservationExpiry, orderStateMachine);
+    }
+
+    @Test
+    void testRequeue_CanceledPurchaseOrderBackordersAreQueuedAgain() {
+        when(backorderRepository.requeueByPurchaseOrder(100L)).thenReturn(3);
+
+        assertEquals(3, queue.requeue(100L));
+        verify(backorderRepository).requeueByPurchaseOrder(100L);
+    }
+
+    private SalesOrder order(Long id, OrderStatus status) {
+        return SalesOrder.builder().id(id).status(status).build();
+    }
+
+    private Backorder backorder(Long id, SalesOrder order, Product product, int quantity, String unitPrice) {
+        SalesOrderLine line = SalesOrderLine.builder().salesOrder(order).product(product)
+                .qtyOrdered(quantity).qtyReserved(0).build();
+        return Backorder.builder()
+                .id(id)
+                .salesOrder(order)
+                .salesOrderLine(line)
+                .product(product)
+                .quantity(quantity)
+                .unitPrice(new BigDecimal(unitPrice))
+                .status(BackorderStatus.ORDERED)
+                .purchaseOrder(PurchaseOrder.builder().id(100L).build())
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.repository.ClientOrderSummaryBatchRepository;
+import com.smartusers.logitrackapi.repository.ClientOrderSummaryRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderTransitionRepository;
+import com.smartusers.logitrackapi.repository.projection.ClientStatusAmount;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClientOrderSummaryProjectorTest {
+
+    private final SalesOrderRepository salesOrderRepository = mock(SalesOrderRepository.class);
+    private final ClientOrderSummaryRepository summaryRepository = mock(ClientOrderSummaryRepository.class);
+    private final ClientOrderSummaryBatchRepository batchRepository = mock(ClientOrderSummaryBatchRepository.class);
+    private final ClientOrderSummaryProjector projector =
+            new ClientOrderSummaryProjector(salesOrderRepository, summaryRepository, batchRepository);
+
+    @Test
+    void testDeltas_CreationsAreMergedPerClientInIdOrder() {
+        LocalDateTime t1 = LocalDateTime.of(2024, 1, 1, 10, 0);
+        ClientOrderSummaryProjector.Deltas deltas = new ClientOrderSummaryProjector.Deltas();
+        deltas.created(7L, new BigDecimal("10.00"), t1.plusHours(1));
+        deltas.created(3L, new BigDecimal("5.00"), t1);
+        deltas.created(7L, new BigDecimal("2.50"), t1);
+
+        List<ClientOrderSummaryBatchRepository.Delta> list = deltas.toList();
+
+        assertEquals(List.of(3L, 7L), list.stream().map(ClientOrderSummaryBatchRepository.Delta::clientId).toList());
+        ClientOrderSummaryBatchRepository.Delta seven = list.get(1);
+        assertEquals(2, seven.orders());
+        assertEquals(2, seven.openOrders());
+        assertEquals(new BigDecimal("12.50"), seven.openValue());
+        assertEquals(new BigDecimal("12.50"), seven.totalValue());
+        assertEquals(t1.plusHours(1), seven.lastOrderAt());
+    }
+
+    @Test
+    void testOnTransition_MovesContributionFromPreviousStatus() {
+        LocalDateTime now = LocalDateTime.now();
+        projector.onTransition(List.of(
+                new SalesOrderTransitionRepository.Moved(1L, 4L, OrderStatus.RESERVED, new BigDecimal("30.00")),
+                new SalesOrderTransitionRepository.Moved(2L, 4L, OrderStatus.CREATED, new BigDecimal("20.00"))),
+                OrderStatus.CANCELED, now);
+
+        verify(batchRepository).apply(argThat(list -> {
+            ClientOrderSummaryBatchRepository.Delta delta = list.get(0);
+            return list.size() == 1
+                    && delta.orders() == 0
+                    && delta.openOrders() == -2
+                    && delta.openValue().compareTo(new BigDecimal("-50.00")) == 0
+                    && delta.totalValue().compareTo(new BigDecimal("-50.00")) == 0
+                    && delta.reservedOrders() == -1
+                    && delta.canceledOrders() == 2
+                    && delta.lastOrderAt() == null;
+        }), eq(now));
+    }
+
+    @Test
+    void testOnDeleted_RemovesOrdersWithTheirCurrentStatus() {
+        when(salesOrderRepository.sumByClientAndStatus(List.of(9L))).thenReturn(List.of(
+                new ClientStatusAmount(4L, OrderStatus.DELIVERED, 1L, new BigDecimal("15.00"))));
+
+        projector.onDeleted(List.of(9L));
+
+        verify(batchRepository).apply(argThat(list -> list.get(0).orders() == -1
+                && list.get(0).openOrders() == 0
+                && list.get(0).deliveredOrders() == -1
+                && list.get(0).totalValue().compareTo(new BigDecimal("-15.00")) == 0), any());
+    }
+
+    @Test
+    void testBackfill_OnlyWhenSummaryTableIsEmpty() {
+        when(summaryRepository.count()).thenReturn(0L, 0L, 3L);
+        when(salesOrderRepository.count()).thenReturn(10L);
+
+        projector.backfill();
+        projector.backfill();
+
+        InOrder order = inOrder(batchRepository);
+        order.verify(batchRepository).lockForRebuild();
+        order.verify(batchRepository).rebuild(any());
+        verify(batchRepository, times(1)).lockForRebuild();
+    }
+
+    @Test
+    void testBackfill_SkippedWhenAnotherInstanceRebuiltWhileWaitingForLock() {
+        when(summaryRepository.count()).thenReturn(0L, 3L);
+        when(salesOrderRepository.count()).thenReturn(10L);
+
+        projector.backfill();
+
+        verify(batchRepository).lockForRebuild();
+        verify(batchRepository, never()).rebuild(any());
+    }
+}
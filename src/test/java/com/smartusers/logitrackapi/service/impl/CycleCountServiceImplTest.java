@@ -0,0 +1,166 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountLineRequest;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountReport;
+import com.smartusers.logitrackapi.dto.cyclecount.CycleCountResponse;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementRequest;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementResult;
+import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.CycleCountStatus;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.mapper.CycleCountMapper;
+import com.smartusers.logitrackapi.repository.*;
+import com.smartusers.logitrackapi.repository.projection.InventoryDeltaView;
+import com.smartusers.logitrackapi.service.interfaces.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CycleCountServiceImplTest {
+
+    private CycleCountRepository cycleCountRepository;
+    private QueuedMovementRepository queuedMovementRepository;
+    private WarehouseRepository warehouseRepository;
+    private InventoryRepository inventoryRepository;
+    private StockReservationRepository stockReservationRepository;
+    private InventoryBatchRepository batchRepository;
+    private InventoryService inventoryService;
+    private BackorderQueue backorderQueue;
+    private CycleCountServiceImpl cycleCountService;
+
+    private final Warehouse warehouse = Warehouse.builder().id(1L).name("Casa").active(true).build();
+    private CycleCount count;
+
+    @BeforeEach
+    void setUp() {
+        cycleCountRepository = mock(CycleCountRepository.class);
+        queuedMovementRepository = mock(QueuedMovementRepository.class);
+        warehouseRepository = mock(WarehouseRepository.class);
+        inventoryRepository = mock(InventoryRepository.class);
+        stockReservationRepository = mock(StockReservationRepository.class);
+        batchRepository = mock(InventoryBatchRepository.class);
+        inventoryService = mock(InventoryService.class);
+        backorderQueue = mock(BackorderQueue.class);
+        CycleCountMapper mapper = mock(CycleCountMapper.class);
+        when(mapper.toResponse(any())).thenAnswer(invocation -> new CycleCountResponse());
+
+        cycleCountService = new CycleCountServiceImpl(cycleCountRepository, queuedMovementRepository,
+                warehouseRepository, inventoryRepository, stockReservationRepository, batchRepository,
+                inventoryService, mock(AvailabilityIndex.class), mock(LowStockAlertEngine.class), backorderQueue, mapper);
+
+        count = CycleCount.builder().id(5L).warehouse(warehouse).status(CycleCountStatus.OPEN).build();
+    }
+
+    @Test
+    void testStart_RefusesSecondOpenCount() {
+        when(warehouseRepository.lockById(1L)).thenReturn(Optional.of(warehouse));
+        when(cycleCountRepository.findOpenByWarehouseId(1L)).thenReturn(Optional.of(count));
+
+        assertThrows(BusinessException.class, () -> cycleCountService.start(1L));
+        verify(cycleCountRepository, never()).save(any());
+    }
+
+    @Test
+    void testComplete_AdjustsCountedStockThenReplaysQueueInOrder() {
+        Inventory counted = Inventory.builder().id(10L).warehouse(warehouse).quantityOnHand(6).quantityReserved(0).build();
+        Inventory exact = Inventory.builder().id(11L).warehouse(warehouse).quantityOnHand(4).quantityReserved(0).build();
+        when(cycleCountRepository.lockById(5L)).thenReturn(Optional.of(count));
+        when(inventoryRepository.lockAllByIdIn(any())).thenReturn(List.of(counted, exact));
+        // 2 unités réservées par une commande non expédiée sont encore en rayon
+        when(stockReservationRepository.sumActiveByInventoryIdIn(any())).thenReturn(List.of(delta(10L, 2L)));
+        when(queuedMovementRepository.findByCycleCount_IdOrderByIdAsc(5L)).thenReturn(List.of(
+                queued(10L, null, MovementType.OUTBOUND, 3),
+                queued(null, 20L, MovementType.INBOUND, 7),
+                queued(11L, null, MovementType.INBOUND, 1)));
+        when(inventoryService.applyMovements(anyList())).thenAnswer(invocation -> {
+            List<StockMovementRequest> run = invocation.getArgument(0);
+            return List.of(StockMovementResult.builder().index(0).inventoryId(run.get(0).getInventoryId()).success(true).build());
+        });
+        when(inventoryService.receiveIntoLocation(1L, 20L, 7, null, null, null)).thenReturn(30L);
+
+        CycleCountReport report = cycleCountService.complete(5L, List.of(
+                new CycleCountLineRequest(10L, 5), new CycleCountLineRequest(11L, 4)));
+
+        assertEquals(2, report.getAdjustments().size());
+        assertEquals(8, report.getAdjustments().get(0).getExpectedQuantity());
+        assertEquals(-3, report.getAdjustments().get(0).getDelta());
+        assertEquals(0, report.getAdjustments().get(1).getDelta());
+        verify(batchRepository).addOnHand(aryEq(new long[]{10L}), aryEq(new int[]{-3}));
+        verify(batchRepository).insertMovements(argThat(movements -> movements.size() == 1
+                && movements.get(0).getType() == MovementType.ADJUSTMENT
+                && movements.get(0).getQuantity() == -3));
+        assertEquals(CycleCountStatus.COMPLETED, count.getStatus());
+
+        InOrder order = inOrder(cycleCountRepository, inventoryService, queuedMovementRepository);
+        order.verify(cycleCountRepository).saveAndFlush(count);
+        order.verify(inventoryService).applyMovements(argThat(run -> run.size() == 1 && run.get(0).getInventoryId() == 10L));
+        order.verify(inventoryService).receiveIntoLocation(1L, 20L, 7, null, null, null);
+        order.verify(inventoryService).applyMovements(argThat(run -> run.size() == 1 && run.get(0).getInventoryId() == 11L));
+        order.verify(queuedMovementRepository).deleteByCycleCountId(5L);
+        assertEquals(List.of(0, 1, 2), report.getReplayed().stream().map(StockMovementResult::getIndex).toList());
+        assertEquals(30L, report.getReplayed().get(1).getInventoryId());
+        verifyNoInteractions(backorderQueue);
+    }
+
+    @Test
+    void testComplete_ReplayedPurchaseOrderReceiptServesItsBackorders() {
+        when(cycleCountRepository.lockById(5L)).thenReturn(Optional.of(count));
+        QueuedMovement receipt = queued(null, 20L, MovementType.INBOUND, 7);
+        receipt.setPurchaseOrder(PurchaseOrder.builder().id(100L).build());
+        when(queuedMovementRepository.findByCycleCount_IdOrderByIdAsc(5L)).thenReturn(List.of(receipt));
+        when(inventoryService.receiveIntoLocation(1L, 20L, 7, null, null, 100L)).thenReturn(30L);
+
+        cycleCountService.complete(5L, List.of());
+
+        InOrder order = inOrder(inventoryService, backorderQueue);
+        order.verify(inventoryService).receiveIntoLocation(1L, 20L, 7, null, null, 100L);
+        order.verify(backorderQueue).promote(100L, java.util.Map.of(20L, 30L));
+    }
+
+    @Test
+    void testComplete_RejectsInventoryOfAnotherWarehouse() {
+        Warehouse other = Warehouse.builder().id(2L).build();
+        when(cycleCountRepository.lockById(5L)).thenReturn(Optional.of(count));
+        when(inventoryRepository.lockAllByIdIn(any())).thenReturn(List.of(
+                Inventory.builder().id(12L).warehouse(other).quantityOnHand(1).build()));
+
+        assertThrows(BusinessException.class,
+                () -> cycleCountService.complete(5L, List.of(new CycleCountLineRequest(12L, 1))));
+        assertEquals(CycleCountStatus.OPEN, count.getStatus());
+        verifyNoInteractions(batchRepository);
+    }
+
+    @Test
+    void testComplete_AlreadyCompleted() {
+        count.setStatus(CycleCountStatus.COMPLETED);
+        when(cycleCountRepository.lockById(5L)).thenReturn(Optional.of(count));
+
+        assertThrows(BusinessException.class, () -> cycleCountService.complete(5L, List.of()));
+    }
+
+    private QueuedMovement queued(Long inventoryId, Long productId, MovementType type, int quantity) {
+        return QueuedMovement.builder()
+                .cycleCount(count)
+                .inventory(inventoryId == null ? null : Inventory.builder().id(inventoryId).build())
+                .product(productId == null ? null : Product.builder().id(productId).build())
+                .type(type)
+                .quantity(quantity)
+                .build();
+    }
+
+    private InventoryDeltaView delta(Long id, Long delta) {
+        return new InventoryDeltaView() {
+            public Long getInventoryId() { return id; }
+            public Long getDelta() { return delta; }
+        };
+    }
+}
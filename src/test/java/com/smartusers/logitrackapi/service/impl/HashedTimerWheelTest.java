@@ -0,0 +1,47 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimerWheelTest {
+
+    @Test
+    void testAdvance_ExpiresAtDeadlineAcrossRounds() {
+        HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(10, 4, 0);
+        wheel.schedule(1L, 25);
+        // 4 seaux de 10 ms : 130 ms demandent plus de trois tours de roue
+        wheel.schedule(2L, 130);
+
+        assertTrue(wheel.advance(19).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(29));
+        assertTrue(wheel.advance(125).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(139));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCancelAndReschedule() {
+        HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(10, 8, 0);
+        wheel.schedule(1L, 20);
+        wheel.schedule(2L, 20);
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+        wheel.schedule(2L, 60);
+
+        assertTrue(wheel.advance(50).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(60));
+    }
+
+    @Test
+    void testPastDeadlineExpiresOnNextTick() {
+        HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(10, 8, 0);
+        wheel.advance(100);
+        wheel.schedule(7L, 5);
+
+        assertTrue(wheel.advance(105).isEmpty());
+        assertEquals(List.of(7L), wheel.advance(110));
+    }
+}
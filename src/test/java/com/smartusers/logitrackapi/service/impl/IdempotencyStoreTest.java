@@ -0,0 +1,88 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.Exception.DuplicateResourceException;
+import com.smartusers.logitrackapi.entity.IdempotencyRecord;
+import com.smartusers.logitrackapi.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreTest {
+
+    private static final String SCOPE = "user:1 POST /api/sales-orders/5/confirm";
+
+    private IdempotencyRecordRepository repository;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        store = new IdempotencyStore(repository, 100, 24, 300);
+    }
+
+    @Test
+    void testBegin_NewKeyIsReservedThenReplayedFromCache() {
+        when(repository.findByScopeAndIdempotencyKey(SCOPE, "k1")).thenReturn(Optional.empty());
+        when(repository.complete(eq(SCOPE), eq("k1"), eq(200), any(), any(), any())).thenReturn(1);
+
+        assertNull(store.begin(SCOPE, "k1", "abc"));
+        verify(repository).saveAndFlush(argThat(record -> !record.isCompleted() && record.getFingerprint().equals("abc")));
+
+        store.complete(SCOPE, "k1", "abc", 200, "{\"id\":5}", null);
+        IdempotencyStore.StoredResponse replay = store.begin(SCOPE, "k1", "abc");
+
+        assertEquals(200, replay.status());
+        assertEquals("{\"id\":5}", replay.body());
+        verify(repository, times(1)).findByScopeAndIdempotencyKey(SCOPE, "k1");
+    }
+
+    @Test
+    void testBegin_CompletedRecordLoadedFromTableAndOtherPayloadRefused() {
+        when(repository.findByScopeAndIdempotencyKey(SCOPE, "k1"))
+                .thenReturn(Optional.of(record(true, LocalDateTime.now())));
+
+        assertEquals(201, store.begin(SCOPE, "k1", "abc").status());
+        assertThrows(BusinessException.class, () -> store.begin(SCOPE, "k1", "autre"));
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testBegin_PendingRequestIsRefusedUntilStale() {
+        IdempotencyRecord pending = record(false, LocalDateTime.now());
+        when(repository.findByScopeAndIdempotencyKey(SCOPE, "k1")).thenReturn(Optional.of(pending));
+        when(repository.takeOver(eq(7L), any(), any())).thenReturn(0, 1);
+
+        assertThrows(DuplicateResourceException.class, () -> store.begin(SCOPE, "k1", "abc"));
+        assertNull(store.begin(SCOPE, "k1", "abc"));
+    }
+
+    @Test
+    void testBegin_ConcurrentInsertIsRefused() {
+        when(repository.findByScopeAndIdempotencyKey(SCOPE, "k1")).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_idempotency_scope_key"));
+
+        assertThrows(DuplicateResourceException.class, () -> store.begin(SCOPE, "k1", "abc"));
+    }
+
+    private IdempotencyRecord record(boolean completed, LocalDateTime createdAt) {
+        return IdempotencyRecord.builder()
+                .id(7L)
+                .scope(SCOPE)
+                .idempotencyKey("k1")
+                .fingerprint("abc")
+                .completed(completed)
+                .responseStatus(completed ? 201 : null)
+                .responseBody(completed ? "{\"id\":5}" : null)
+                .createdAt(createdAt)
+                .completedAt(completed ? createdAt : null)
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.inventory.InventoryImportReport;
+import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.entity.Warehouse;
+import com.smartusers.logitrackapi.repository.InventoryBatchRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.ProductRepository;
+import com.smartusers.logitrackapi.repository.WarehouseRepository;
+import com.smartusers.logitrackapi.repository.projection.InventoryLocationView;
+import com.smartusers.logitrackapi.repository.projection.ProductSkuView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InventoryImportServiceImplTest {
+
+    private InventoryRepository inventoryRepository;
+    private ProductRepository productRepository;
+    private WarehouseRepository warehouseRepository;
+    private InventoryBatchRepository batchRepository;
+    private AvailabilityIndex availabilityIndex;
+    private InventoryImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        productRepository = mock(ProductRepository.class);
+        warehouseRepository = mock(WarehouseRepository.class);
+        batchRepository = mock(InventoryBatchRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        importService = new InventoryImportServiceImpl(inventoryRepository, productRepository, warehouseRepository,
+                batchRepository, availabilityIndex, mock(PlatformTransactionManager.class), 2, 10);
+
+        when(warehouseRepository.findAll()).thenReturn(List.of(
+                Warehouse.builder().id(1L).name("Casa").active(true).build(),
+                Warehouse.builder().id(2L).name("Rabat").active(false).build()));
+        when(productRepository.findIdsBySkuIn(anyCollection())).thenReturn(List.of(
+                sku(10L, "SKU-A"), sku(11L, "SKU-B"), sku(12L, "SKU-C")));
+        // Après le premier paquet, la base contient aussi les inventaires importés
+        when(inventoryRepository.findLocationsByProductIdIn(anyCollection()))
+                .thenReturn(List.of(location(12L, 1L)))
+                .thenReturn(List.of(location(12L, 1L), location(10L, 1L), location(11L, 1L)));
+        when(batchRepository.insertInventories(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    long[] productIds = invocation.getArgument(0);
+                    long[] ids = new long[productIds.length];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = 100 + productIds[i];
+                    }
+                    return ids;
+                });
+    }
+
+    @Test
+    void testImportCsv_WritesByChunkAndReportsRejections() {
+        String csv = "sku,warehouse,quantity\n"
+                + "SKU-A,Casa,5\n"
+                + "SKU-B,Casa,0\n"
+                + "SKU-A,Casa,3\n"
+                + "SKU-C,Casa,1\n"
+                + "SKU-X,Casa,1\n"
+                + "SKU-B,Rabat,1\n"
+                + "SKU-B,Casa,abc\n"
+                + "\n";
+
+        InventoryImportReport report = importService.importCsv(input(csv));
+
+        assertEquals(7, report.getTotalRows());
+        assertEquals(2, report.getImported());
+        assertEquals(5, report.getRejectedCount());
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L),
+                report.getRejections().stream().map(r -> r.getLine()).sorted().toList());
+        assertEquals("Ce produit existe déjà dans cet entrepôt !",
+                report.getRejections().stream().filter(r -> r.getLine() == 5).findFirst().orElseThrow().getReason());
+
+        verify(batchRepository, times(1)).insertInventories(
+                aryEq(new long[]{10L, 11L}), aryEq(new long[]{1L, 1L}), aryEq(new int[]{5, 0}));
+
+        // Seules les quantités positives donnent un mouvement initial
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InventoryMovement>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchRepository, times(1)).insertMovements(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(110L, captor.getValue().get(0).getInventory().getId());
+        assertEquals(5, captor.getValue().get(0).getQuantity());
+
+        verify(productRepository, times(3)).findIdsBySkuIn(anyCollection());
+        verify(availabilityIndex, times(1)).refreshAll();
+    }
+
+    @Test
+    void testImportCsv_WarehouseIdColumnAndQuotedFields() {
+        String csv = "\"quantity\",\"sku\",\"warehouseId\"\n"
+                + "4,\"SKU-A\",1\n";
+
+        InventoryImportReport report = importService.importCsv(input(csv));
+
+        assertEquals(1, report.getImported());
+        assertEquals(0, report.getRejectedCount());
+    }
+
+    @Test
+    void testImportCsv_InvalidHeader() {
+        assertThrows(BusinessException.class, () -> importService.importCsv(input("sku,qty\nA,1\n")));
+        assertThrows(BusinessException.class, () -> importService.importCsv(input("")));
+        verifyNoInteractions(batchRepository);
+    }
+
+    @Test
+    void testSplitCsv() {
+        assertEquals(List.of("a", "b, c", "d\"e", ""),
+                InventoryImportServiceImpl.splitCsv("a,\"b, c\",\"d\"\"e\","));
+    }
+
+    private ByteArrayInputStream input(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ProductSkuView sku(Long id, String sku) {
+        return new ProductSkuView() {
+            public Long getId() { return id; }
+            public String getSku() { return sku; }
+        };
+    }
+
+    private InventoryLocationView location(Long productId, Long warehouseId) {
+        return new InventoryLocationView() {
+            public Long getProductId() { return productId; }
+            public Long getWarehouseId() { return warehouseId; }
+        };
+    }
+}
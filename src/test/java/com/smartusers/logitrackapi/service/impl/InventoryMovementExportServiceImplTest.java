@@ -0,0 +1,100 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.enums.ExportFormat;
+import com.smartusers.logitrackapi.repository.InventoryMovementExportRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.WarehouseRepository;
+import com.smartusers.logitrackapi.repository.projection.MovementExportRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InventoryMovementExportServiceImplTest {
+
+    private InventoryMovementExportRepository exportRepository;
+    private InventoryRepository inventoryRepository;
+    private WarehouseRepository warehouseRepository;
+    private InventoryMovementExportServiceImpl exportService;
+
+    private final LocalDateTime date = LocalDateTime.of(2026, 1, 15, 10, 30);
+
+    @BeforeEach
+    void setUp() {
+        exportRepository = mock(InventoryMovementExportRepository.class);
+        inventoryRepository = mock(InventoryRepository.class);
+        warehouseRepository = mock(WarehouseRepository.class);
+        exportService = new InventoryMovementExportServiceImpl(exportRepository, inventoryRepository,
+                warehouseRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportByInventory_Ndjson() throws Exception {
+        when(inventoryRepository.existsById(1L)).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<MovementExportRow> consumer = invocation.getArgument(3);
+            consumer.accept(new MovementExportRow(1L, 1L, "INBOUND", 10, date, "Réception"));
+            consumer.accept(new MovementExportRow(2L, 1L, "OUTBOUND", 3, date, null));
+            return null;
+        }).when(exportRepository).streamByInventory(eq(1L), isNull(), isNull(), any(Consumer.class));
+
+        String body = run(exportService.exportByInventory(1L, null, null, ExportFormat.NDJSON));
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":1,\"inventoryId\":1,\"type\":\"INBOUND\",\"quantity\":10,"
+                + "\"movementDate\":\"2026-01-15T10:30\",\"description\":\"Réception\"}", lines[0]);
+        assertTrue(lines[1].contains("\"description\":null"));
+        assertTrue(body.endsWith("\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportByWarehouse_CsvEscapesDescription() throws Exception {
+        when(warehouseRepository.existsById(2L)).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<MovementExportRow> consumer = invocation.getArgument(3);
+            consumer.accept(new MovementExportRow(5L, 3L, "OUTBOUND", 4, date, "Commande 7, \"urgent\""));
+            return null;
+        }).when(exportRepository).streamByWarehouse(eq(2L), eq(date), isNull(), any(Consumer.class));
+
+        String body = run(exportService.exportByWarehouse(2L, date, null, ExportFormat.CSV));
+
+        assertEquals("id,inventoryId,type,quantity,movementDate,description\n"
+                + "5,3,OUTBOUND,4,2026-01-15T10:30,\"Commande 7, \"\"urgent\"\"\"\n", body);
+    }
+
+    @Test
+    void testExport_ChecksBeforeStreaming() {
+        when(inventoryRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(BusinessException.class,
+                () -> exportService.exportByInventory(9L, null, null, ExportFormat.CSV));
+        assertThrows(BusinessException.class,
+                () -> exportService.exportByWarehouse(2L, date, date.minusDays(1), ExportFormat.CSV));
+        verifyNoInteractions(exportRepository);
+    }
+
+    @Test
+    void testExportFormat_FromParam() {
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParam("csv"));
+        assertThrows(BusinessException.class, () -> ExportFormat.fromParam("xml"));
+    }
+
+    private String run(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
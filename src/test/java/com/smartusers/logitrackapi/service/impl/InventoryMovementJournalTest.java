@@ -0,0 +1,138 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.InventoryMovement;
+import com.smartusers.logitrackapi.entity.MovementDeadLetter;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.repository.InventoryBatchRepository;
+import com.smartusers.logitrackapi.repository.InventoryMovementRepository;
+import com.smartusers.logitrackapi.repository.MovementDeadLetterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class InventoryMovementJournalTest {
+
+    private InventoryMovementRepository movementRepository;
+    private InventoryBatchRepository batchRepository;
+    private MovementDeadLetterRepository deadLetterRepository;
+    private InventoryMovementJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        movementRepository = mock(InventoryMovementRepository.class);
+        batchRepository = mock(InventoryBatchRepository.class);
+        deadLetterRepository = mock(MovementDeadLetterRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (journal != null) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void testRecord_DisabledSavesImmediately() {
+        journal = journal(false, InventoryMovementJournal.Durability.SYNC);
+
+        journal.record(movement());
+
+        verify(movementRepository, times(1)).save(any(InventoryMovement.class));
+        verifyNoInteractions(batchRepository);
+    }
+
+    @Test
+    void testRecord_SyncWritesBatchOnCallerTransactionBeforeCommit() {
+        journal = journal(true, InventoryMovementJournal.Durability.SYNC);
+        journal.start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journal.record(movement());
+            journal.record(List.of(movement(), movement()));
+            verifyNoInteractions(batchRepository);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+            verify(batchRepository, times(1)).insertMovements(argThat(list -> list.size() == 3));
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verifyNoInteractions(movementRepository);
+    }
+
+    @Test
+    void testRecord_SyncWithoutTransactionWritesImmediately() {
+        journal = journal(true, InventoryMovementJournal.Durability.SYNC);
+        journal.start();
+
+        journal.record(List.of(movement(), movement()));
+
+        verify(batchRepository, times(1)).insertMovements(argThat(list -> list.size() == 2));
+        verifyNoInteractions(movementRepository);
+    }
+
+    @Test
+    void testRecord_AsyncFlushedByWriter() {
+        journal = journal(true, InventoryMovementJournal.Durability.ASYNC);
+        journal.start();
+
+        journal.record(movement());
+
+        verify(batchRepository, timeout(2000).times(1)).insertMovements(argThat(list -> list.size() == 1));
+    }
+
+    @Test
+    void testRecord_AsyncRetriesThenDeadLettersFailedBatch() {
+        journal = journal(true, InventoryMovementJournal.Durability.ASYNC);
+        journal.start();
+        doThrow(new RuntimeException("registre indisponible")).when(batchRepository).insertMovements(anyList());
+
+        journal.record(List.of(movement(), movement()));
+
+        verify(deadLetterRepository, timeout(2000).times(1)).saveAll(argThat(letters -> {
+            List<MovementDeadLetter> list = new ArrayList<>();
+            letters.forEach(list::add);
+            return list.size() == 2 && list.stream().allMatch(l -> l.getInventoryId() == 1L
+                    && l.getType() == MovementType.INBOUND && "registre indisponible".equals(l.getError()));
+        }));
+        verify(batchRepository, times(3)).insertMovements(anyList());
+        verifyNoInteractions(movementRepository);
+    }
+
+    @Test
+    void testRecord_AsyncStoppedWritesDirectlyWithoutThrowing() {
+        journal = journal(true, InventoryMovementJournal.Durability.ASYNC);
+        doThrow(new RuntimeException("registre indisponible")).when(batchRepository).insertMovements(anyList());
+
+        journal.record(movement());
+
+        verify(batchRepository, times(3)).insertMovements(anyList());
+        verify(deadLetterRepository, times(1)).saveAll(anyList());
+    }
+
+    private InventoryMovementJournal journal(boolean enabled, InventoryMovementJournal.Durability durability) {
+        return new InventoryMovementJournal(movementRepository, batchRepository, deadLetterRepository,
+                mock(PlatformTransactionManager.class), enabled, 100, 50, 5, durability, 3, 1);
+    }
+
+    private InventoryMovement movement() {
+        return InventoryMovement.builder()
+                .inventory(Inventory.builder().id(1L).build())
+                .type(MovementType.INBOUND)
+                .quantity(1)
+                .movementDate(LocalDateTime.now())
+                .build();
+    }
+}
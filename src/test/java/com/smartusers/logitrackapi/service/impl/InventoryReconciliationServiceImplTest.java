@@ -0,0 +1,138 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.inventory.ReconciliationMismatch;
+import com.smartusers.logitrackapi.dto.inventory.ReconciliationReport;
+import com.smartusers.logitrackapi.repository.InventoryMovementRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.projection.IdRangeView;
+import com.smartusers.logitrackapi.repository.projection.InventoryDeltaView;
+import com.smartusers.logitrackapi.repository.projection.InventoryQuantityView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InventoryReconciliationServiceImplTest {
+
+    private InventoryRepository inventoryRepository;
+    private InventoryMovementRepository movementRepository;
+    private AvailabilityIndex availabilityIndex;
+    private LowStockAlertEngine lowStockAlertEngine;
+    private InventoryMovementJournal journal;
+    private InventoryReconciliationServiceImpl reconciliationService;
+
+    // id -> quantity_on_hand et id -> solde du registre (l'inventaire 4 n'a aucun mouvement)
+    private final Map<Long, Integer> onHand = new TreeMap<>(Map.of(1L, 10, 2L, 7, 3L, 0, 4L, 3, 5L, 20));
+    private final Map<Long, Long> ledger = new TreeMap<>(Map.of(1L, 10L, 2L, 5L, 3L, 0L, 5L, 20L));
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        movementRepository = mock(InventoryMovementRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        lowStockAlertEngine = mock(LowStockAlertEngine.class);
+        journal = mock(InventoryMovementJournal.class);
+        reconciliationService = new InventoryReconciliationServiceImpl(inventoryRepository, movementRepository,
+                availabilityIndex, lowStockAlertEngine, journal, mock(PlatformTransactionManager.class), 2, 2, 10);
+
+        when(inventoryRepository.findIdRange()).thenReturn(range(1L, 5L));
+        when(inventoryRepository.findOnHandBetween(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            return onHand.entrySet().stream()
+                    .filter(e -> e.getKey() >= from && e.getKey() <= to)
+                    .map(e -> quantity(e.getKey(), e.getValue()))
+                    .toList();
+        });
+        when(movementRepository.sumNetQuantityByInventoryBetween(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            return ledger.entrySet().stream()
+                    .filter(e -> e.getKey() >= from && e.getKey() <= to)
+                    .map(e -> delta(e.getKey(), e.getValue()))
+                    .toList();
+        });
+    }
+
+    @Test
+    void testReconcile_ReportsMismatchesAcrossChunksWithoutRepair() {
+        ReconciliationReport report = reconciliationService.reconcile(false);
+
+        assertEquals(5, report.getInventoriesChecked());
+        assertEquals(2, report.getMismatchCount());
+        assertEquals(0, report.getRepairedCount());
+        assertEquals(List.of(2L, 4L), report.getMismatches().stream().map(ReconciliationMismatch::getInventoryId).toList());
+        assertEquals(5, report.getMismatches().get(0).getLedgerOnHand());
+        assertEquals(0, report.getMismatches().get(1).getLedgerOnHand());
+        verify(movementRepository, atLeast(2)).sumNetQuantityByInventoryBetween(anyLong(), anyLong());
+        verify(inventoryRepository, never()).repairOnHand(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testReconcile_RepairAlignsOnLedgerAndSkipsConcurrentChanges() {
+        when(inventoryRepository.repairOnHand(2L, 7, 5)).thenReturn(1);
+        // L'inventaire 4 a bougé entre la lecture et la correction
+        when(inventoryRepository.repairOnHand(4L, 3, 0)).thenReturn(0);
+
+        ReconciliationReport report = reconciliationService.reconcile(true);
+
+        assertEquals(2, report.getMismatchCount());
+        assertEquals(1, report.getRepairedCount());
+        assertTrue(report.getMismatches().get(0).isRepaired());
+        assertFalse(report.getMismatches().get(1).isRepaired());
+        verify(availabilityIndex, times(1)).adjustAfterCommit(2L, -2);
+        verify(lowStockAlertEngine, times(1)).onAvailableChanged(2L, -2);
+        verify(availabilityIndex, never()).adjustAfterCommit(eq(4L), anyInt());
+    }
+
+    @Test
+    void testReconcile_EmptyTable() {
+        when(inventoryRepository.findIdRange()).thenReturn(range(null, null));
+
+        ReconciliationReport report = reconciliationService.reconcile(true);
+
+        assertEquals(0, report.getInventoriesChecked());
+        assertTrue(report.getMismatches().isEmpty());
+        verify(inventoryRepository, never()).findOnHandBetween(anyLong(), anyLong());
+    }
+
+    @Test
+    void testReconcile_RepairRefusedWhileJournalWritesAfterCommit() {
+        when(journal.writesAfterCommit()).thenReturn(true);
+
+        assertThrows(BusinessException.class, () -> reconciliationService.reconcile(true));
+        verify(inventoryRepository, never()).repairOnHand(any(), anyInt(), anyInt());
+
+        // Le simple contrôle reste possible
+        assertEquals(2, reconciliationService.reconcile(false).getMismatchCount());
+    }
+
+    private IdRangeView range(Long min, Long max) {
+        return new IdRangeView() {
+            public Long getMinId() { return min; }
+            public Long getMaxId() { return max; }
+        };
+    }
+
+    private InventoryQuantityView quantity(Long id, Integer quantity) {
+        return new InventoryQuantityView() {
+            public Long getInventoryId() { return id; }
+            public Integer getQuantity() { return quantity; }
+        };
+    }
+
+    private InventoryDeltaView delta(Long id, Long delta) {
+        return new InventoryDeltaView() {
+            public Long getInventoryId() { return id; }
+            public Long getDelta() { return delta; }
+        };
+    }
+}
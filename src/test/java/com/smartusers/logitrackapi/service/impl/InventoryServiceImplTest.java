@@ -1,13 +1,23 @@
 package com.smartusers.logitrackapi.service.impl;
 
 import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.common.CursorPage;
+import com.smartusers.logitrackapi.dto.inventory.InventoryResponse;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementRequest;
+import com.smartusers.logitrackapi.dto.inventoryMovement.StockMovementResult;
 import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.MovementType;
 import com.smartusers.logitrackapi.repository.*;
+import com.smartusers.logitrackapi.repository.projection.LocationReceipt;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.Collections;
 import java.util.Optional;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -18,6 +28,10 @@ class InventoryServiceImplTest {
     private ProductRepository productRepository;
     private WarehouseRepository warehouseRepository;
     private InventoryMovementRepository movementRepository;
+    private InventoryBatchRepository batchRepository;
+    private InventorySearchRepository searchRepository;
+    private LowStockAlertEngine lowStockAlertEngine;
+    private CycleCountQueue cycleCountQueue;
 
     private InventoryServiceImpl inventoryService;
 
@@ -27,12 +41,24 @@ class InventoryServiceImplTest {
         productRepository = mock(ProductRepository.class);
         warehouseRepository = mock(WarehouseRepository.class);
         movementRepository = mock(InventoryMovementRepository.class);
+        batchRepository = mock(InventoryBatchRepository.class);
+        searchRepository = mock(InventorySearchRepository.class);
+        lowStockAlertEngine = mock(LowStockAlertEngine.class);
+        cycleCountQueue = mock(CycleCountQueue.class);
 
         inventoryService = new InventoryServiceImpl(
                 inventoryRepository,
                 productRepository,
                 warehouseRepository,
-                movementRepository
+                movementRepository,
+                batchRepository,
+                searchRepository,
+                new InventoryMovementJournal(movementRepository, batchRepository,
+                        mock(MovementDeadLetterRepository.class), mock(PlatformTransactionManager.class), false, 1, 1, 1,
+                        InventoryMovementJournal.Durability.SYNC, 1, 0),
+                mock(AvailabilityIndex.class),
+                lowStockAlertEngine,
+                cycleCountQueue
         );
     }
 
@@ -49,7 +75,6 @@ class InventoryServiceImplTest {
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        when(inventoryRepository.findAllByWarehouse_IdAndProduct_Id(1L, 1L)).thenReturn(List.of());
         when(inventoryRepository.save(inv)).thenReturn(inv);
 
         Inventory result = inventoryService.create(inv);
@@ -80,24 +105,63 @@ class InventoryServiceImplTest {
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(p));
         when(warehouseRepository.findById(1L)).thenReturn(Optional.of(w));
-        when(inventoryRepository.findAllByWarehouse_IdAndProduct_Id(1L, 1L))
-                .thenReturn(List.of(Inventory.builder().build()));
+        when(inventoryRepository.save(inv)).thenThrow(new DataIntegrityViolationException("uk_inventory_warehouse_product"));
 
         assertThrows(BusinessException.class, () -> inventoryService.create(inv));
     }
 
+    @Test
+    void testReceiveIntoLocation_ExistingLocationIsIncremented() {
+        when(batchRepository.receiveIntoLocation(1L, 2L, 10)).thenReturn(new LocationReceipt(5L, false));
+
+        Long id = inventoryService.receiveIntoLocation(1L, 2L, 10, null, "Réception commande achat #3", 3L);
+
+        assertEquals(5L, id);
+        verify(batchRepository).insertMovements(argThat(list -> list.size() == 1
+                && list.get(0).getInventory().getId() == 5L
+                && list.get(0).getType() == MovementType.INBOUND
+                && list.get(0).getQuantity() == 10));
+        verify(inventoryRepository, never()).findByWarehouse_IdAndProduct_Id(any(), any());
+    }
+
+    @Test
+    void testReceiveIntoLocation_FrozenWarehouseIsQueued() {
+        when(cycleCountQueue.enqueueReceipt(1L, 2L, 10, null, "Réception commande achat #3", 3L)).thenReturn(true);
+
+        assertNull(inventoryService.receiveIntoLocation(1L, 2L, 10, null, "Réception commande achat #3", 3L));
+        verifyNoInteractions(batchRepository);
+    }
+
+    @Test
+    void testReceiveIntoLocation_InvalidQuantity() {
+        assertThrows(BusinessException.class, () -> inventoryService.receiveIntoLocation(1L, 2L, 0, null, null, null));
+        verifyNoInteractions(batchRepository);
+    }
+
     @Test
     void testAddStock_Success() {
-        Warehouse w = Warehouse.builder().active(true).build();
-        Inventory inv = Inventory.builder().id(1L).quantityOnHand(5).warehouse(w).build();
+        Inventory ref = Inventory.builder().id(1L).build();
 
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inv));
-        when(inventoryRepository.save(any())).thenReturn(inv);
+        when(inventoryRepository.receiveStock(1L, 5)).thenReturn(1);
+        when(inventoryRepository.getReferenceById(1L)).thenReturn(ref);
 
-        Inventory result = inventoryService.addStock(1L, 5, "Ajout");
+        inventoryService.addStock(1L, 5, "Ajout");
 
-        assertEquals(10, result.getQuantityOnHand());
+        verify(inventoryRepository, never()).findById(any());
         verify(movementRepository, times(1)).save(any());
+        verify(lowStockAlertEngine, times(1)).onAvailableChanged(1L, 5);
+    }
+
+    @Test
+    void testAddStock_WarehouseInactive() {
+        Warehouse w = Warehouse.builder().active(false).build();
+        Inventory inv = Inventory.builder().id(1L).quantityOnHand(5).warehouse(w).build();
+
+        when(inventoryRepository.receiveStock(1L, 5)).thenReturn(0);
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inv));
+
+        assertThrows(BusinessException.class, () -> inventoryService.addStock(1L, 5, null));
+        verify(movementRepository, never()).save(any());
     }
 
     @Test
@@ -107,21 +171,16 @@ class InventoryServiceImplTest {
 
     @Test
     void testSortieStock_Success() {
-        Warehouse w = Warehouse.builder().active(true).build();
-        Inventory inv = Inventory.builder()
-                .id(1L)
-                .quantityOnHand(10)
-                .quantityReserved(2)
-                .warehouse(w)
-                .build();
+        Inventory ref = Inventory.builder().id(1L).build();
 
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inv));
-        when(inventoryRepository.save(any())).thenReturn(inv);
+        when(inventoryRepository.issueStock(1L, 5)).thenReturn(1);
+        when(inventoryRepository.getReferenceById(1L)).thenReturn(ref);
 
-        Inventory result = inventoryService.sortieStock(1L, 5, "Sortie");
+        inventoryService.sortieStock(1L, 5, "Sortie");
 
-        assertEquals(5, result.getQuantityOnHand());
+        verify(inventoryRepository, never()).findById(any());
         verify(movementRepository, times(1)).save(any());
+        verify(lowStockAlertEngine, times(1)).onAvailableChanged(1L, -5);
     }
 
     @Test
@@ -133,31 +192,129 @@ class InventoryServiceImplTest {
                 .warehouse(w)
                 .build();
 
+        when(inventoryRepository.issueStock(1L, 5)).thenReturn(0);
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inv));
 
         assertThrows(BusinessException.class,
                 () -> inventoryService.sortieStock(1L, 5, null));
+        verify(movementRepository, never()).save(any());
+        verifyNoInteractions(lowStockAlertEngine);
     }
 
     @Test
     void testReserveStock_Success() {
-        Inventory inv = Inventory.builder().quantityOnHand(10).quantityReserved(3).build();
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inv));
+        when(inventoryRepository.reserveStock(1L, 5)).thenReturn(1);
 
         inventoryService.reserveStock(1L, 5);
 
-        assertEquals(8, inv.getQuantityReserved());
+        verify(inventoryRepository, times(1)).reserveStock(1L, 5);
+        verify(inventoryRepository, never()).save(any());
+        verify(lowStockAlertEngine, times(1)).onAvailableChanged(1L, -5);
     }
 
     @Test
     void testReserveStock_Insufficient() {
         Inventory inv = Inventory.builder().quantityOnHand(5).quantityReserved(4).build();
+        when(inventoryRepository.reserveStock(1L, 3)).thenReturn(0);
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inv));
 
         assertThrows(BusinessException.class,
                 () -> inventoryService.reserveStock(1L, 3));
     }
 
+    @Test
+    void testUnreserveStock_Insufficient() {
+        Inventory inv = Inventory.builder().quantityOnHand(5).quantityReserved(1).build();
+        when(inventoryRepository.releaseStock(1L, 3)).thenReturn(0);
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inv));
+
+        assertThrows(BusinessException.class,
+                () -> inventoryService.unreserveStock(1L, 3));
+    }
+
+    @Test
+    void testApplyMovements_PartialFailure() {
+        Warehouse w = Warehouse.builder().name("W1").active(true).build();
+        Inventory refused = Inventory.builder().id(2L).quantityOnHand(1).quantityReserved(0).warehouse(w).build();
+
+        when(batchRepository.applyOnHandDeltas(any(long[].class), any(int[].class))).thenReturn(new int[]{1, 0});
+        when(inventoryRepository.findAllById(Set.of(2L))).thenReturn(List.of(refused));
+
+        List<StockMovementResult> results = inventoryService.applyMovements(List.of(
+                new StockMovementRequest(1L, MovementType.INBOUND, 5, null),
+                new StockMovementRequest(2L, MovementType.OUTBOUND, 3, null),
+                new StockMovementRequest(3L, MovementType.OUTBOUND, 0, null)
+        ));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(1).getMessage().contains("Disponible: 1"));
+        assertFalse(results.get(2).isSuccess());
+        verify(batchRepository).applyOnHandDeltas(new long[]{1L, 2L}, new int[]{5, -3});
+        verify(batchRepository).insertMovements(argThat(list -> list.size() == 1));
+    }
+
+    @Test
+    void testApplyMovements_FrozenWarehouseIsQueued() {
+        Warehouse w = Warehouse.builder().id(4L).name("W4").active(true).build();
+        Inventory frozen = Inventory.builder().id(2L).quantityOnHand(1).quantityReserved(0).warehouse(w).build();
+        CycleCount count = CycleCount.builder().id(8L).warehouse(w).build();
+
+        when(batchRepository.applyOnHandDeltas(any(long[].class), any(int[].class))).thenReturn(new int[]{0, 0});
+        when(inventoryRepository.findAllById(Set.of(2L))).thenReturn(List.of(frozen));
+        when(cycleCountQueue.lockOpenCounts(Set.of(4L))).thenReturn(java.util.Map.of(4L, count));
+
+        List<StockMovementResult> results = inventoryService.applyMovements(List.of(
+                new StockMovementRequest(2L, MovementType.OUTBOUND, 3, null),
+                new StockMovementRequest(2L, MovementType.INBOUND, 5, "Retour")
+        ));
+
+        assertTrue(results.get(0).isSuccess() && results.get(0).isQueued());
+        assertTrue(results.get(1).isQueued());
+        var order = inOrder(cycleCountQueue);
+        order.verify(cycleCountQueue).enqueue(count, 2L, MovementType.OUTBOUND, 3, null);
+        order.verify(cycleCountQueue).enqueue(count, 2L, MovementType.INBOUND, 5, "Retour");
+        verify(lowStockAlertEngine, never()).onAvailableChanged(any(), anyInt());
+    }
+
+    @Test
+    void testApplyMovements_OversizedBatchIsRefused() {
+        StockMovementRequest request = new StockMovementRequest(1L, MovementType.INBOUND, 1, null);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> inventoryService.applyMovements(Collections.nCopies(5001, request)));
+
+        assertTrue(ex.getMessage().contains("5000"));
+        verifyNoInteractions(batchRepository, movementRepository);
+    }
+
+    @Test
+    void testSearch_ReturnsCursorWhenMoreRows() {
+        when(searchRepository.pageAfter(new InventorySearchRepository.Filter(1L, null, true), 0L, 3)).thenReturn(List.of(
+                new InventoryResponse(4L, 1L, "P", 1L, "W", 5, 0),
+                new InventoryResponse(7L, 2L, "P2", 1L, "W", 3, 1),
+                new InventoryResponse(9L, 3L, "P3", 1L, "W", 2, 0)));
+
+        CursorPage<InventoryResponse> page = inventoryService.search(1L, null, true, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("7", page.getNextCursor());
+    }
+
+    @Test
+    void testSearch_LastPageAndInvalidInput() {
+        when(searchRepository.pageAfter(new InventorySearchRepository.Filter(null, null, false), 7L, 3))
+                .thenReturn(List.of(new InventoryResponse(9L, 3L, "P3", 1L, "W", 2, 0)));
+
+        CursorPage<InventoryResponse> page = inventoryService.search(null, null, false, "7", 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertThrows(BusinessException.class, () -> inventoryService.search(null, null, false, "abc", 2));
+        assertThrows(BusinessException.class, () -> inventoryService.search(null, null, false, null, 0));
+    }
+
     @Test
     void testDeleteInventory_WithReservedStock_Throws() {
         Inventory inv = Inventory.builder().quantityReserved(5).build();
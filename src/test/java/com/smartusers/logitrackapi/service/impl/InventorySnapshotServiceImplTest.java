@@ -0,0 +1,136 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.inventory.InventoryStockAtResponse;
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.InventorySnapshot;
+import com.smartusers.logitrackapi.entity.Product;
+import com.smartusers.logitrackapi.entity.Warehouse;
+import com.smartusers.logitrackapi.repository.InventoryMovementRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.InventorySnapshotRepository;
+import com.smartusers.logitrackapi.repository.projection.InventoryDeltaView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventorySnapshotServiceImplTest {
+
+    @Mock
+    private InventorySnapshotRepository inventorySnapshotRepository;
+
+    @Mock
+    private InventoryMovementRepository inventoryMovementRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @InjectMocks
+    private InventorySnapshotServiceImpl inventorySnapshotService;
+
+    private Inventory inventory;
+    private LocalDateTime monthEnd;
+    private LocalDateTime snapshotDate;
+
+    @BeforeEach
+    void setUp() {
+        inventory = Inventory.builder()
+                .id(1L)
+                .product(Product.builder().id(10L).build())
+                .warehouse(Warehouse.builder().id(2L).build())
+                .build();
+        monthEnd = LocalDateTime.of(2026, 1, 31, 23, 59, 59);
+        snapshotDate = LocalDateTime.of(2026, 1, 31, 0, 0);
+    }
+
+    @Test
+    void testGetStockAt_FromNearestSnapshot() {
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventory));
+        when(inventorySnapshotRepository.findFirstByInventory_IdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(1L, monthEnd))
+                .thenReturn(Optional.of(snapshot(inventory, 50, 5)));
+        when(inventoryMovementRepository.sumNetQuantityBetween(1L, snapshotDate, monthEnd)).thenReturn(-8L);
+
+        InventoryStockAtResponse response = inventorySnapshotService.getStockAt(1L, monthEnd);
+
+        assertEquals(42, response.getQuantityOnHand());
+        assertEquals(5, response.getQuantityReserved());
+        assertEquals(snapshotDate, response.getSnapshotDate());
+        verify(inventoryMovementRepository, never()).findByInventoryId(any());
+    }
+
+    @Test
+    void testGetStockAt_WithoutSnapshotReplaysHistory() {
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventory));
+        when(inventorySnapshotRepository.findFirstByInventory_IdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(1L, monthEnd))
+                .thenReturn(Optional.empty());
+        when(inventoryMovementRepository.sumNetQuantityUntil(1L, monthEnd)).thenReturn(12L);
+
+        InventoryStockAtResponse response = inventorySnapshotService.getStockAt(1L, monthEnd);
+
+        assertEquals(12, response.getQuantityOnHand());
+        assertNull(response.getQuantityReserved());
+        assertNull(response.getSnapshotDate());
+    }
+
+    @Test
+    void testGetStockAt_UnknownInventory() {
+        when(inventoryRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(BusinessException.class, () -> inventorySnapshotService.getStockAt(99L, monthEnd));
+    }
+
+    @Test
+    void testGetWarehouseStockAt_CombinesSnapshotsAndNewInventories() {
+        Inventory recent = Inventory.builder().id(3L).product(Product.builder().id(11L).build()).build();
+        when(inventorySnapshotRepository.findLatestByWarehouseAt(2L, monthEnd))
+                .thenReturn(List.of(snapshot(inventory, 50, 5)));
+        when(inventoryMovementRepository.sumNetQuantityBetween(List.of(1L), snapshotDate, monthEnd))
+                .thenReturn(List.of(delta(1L, 7L)));
+        when(inventoryMovementRepository.sumNetQuantityWithoutSnapshot(2L, monthEnd))
+                .thenReturn(List.of(delta(3L, 4L)));
+        when(inventoryRepository.findAllById(anyIterable())).thenReturn(List.of(recent));
+
+        List<InventoryStockAtResponse> result = inventorySnapshotService.getWarehouseStockAt(2L, monthEnd);
+
+        assertEquals(2, result.size());
+        assertEquals(57, result.get(0).getQuantityOnHand());
+        assertEquals(3L, result.get(1).getInventoryId());
+        assertEquals(4, result.get(1).getQuantityOnHand());
+        assertEquals(11L, result.get(1).getProductId());
+    }
+
+    @Test
+    void testTakeSnapshots() {
+        when(inventorySnapshotRepository.snapshotAll(any(LocalDateTime.class))).thenReturn(3);
+
+        assertEquals(3, inventorySnapshotService.takeSnapshots());
+    }
+
+    private InventorySnapshot snapshot(Inventory inv, int onHand, int reserved) {
+        return InventorySnapshot.builder()
+                .inventory(inv)
+                .quantityOnHand(onHand)
+                .quantityReserved(reserved)
+                .snapshotDate(snapshotDate)
+                .build();
+    }
+
+    private InventoryDeltaView delta(Long inventoryId, Long value) {
+        return new InventoryDeltaView() {
+            public Long getInventoryId() { return inventoryId; }
+            public Long getDelta() { return value; }
+        };
+    }
+}
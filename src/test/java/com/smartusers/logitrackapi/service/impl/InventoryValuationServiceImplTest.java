@@ -0,0 +1,115 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.inventory.ValuationReport;
+import com.smartusers.logitrackapi.entity.ValuationCheckpoint;
+import com.smartusers.logitrackapi.entity.ValuationState;
+import com.smartusers.logitrackapi.enums.MovementType;
+import com.smartusers.logitrackapi.repository.*;
+import com.smartusers.logitrackapi.repository.projection.InventoryValuationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InventoryValuationServiceImplTest {
+
+    private WarehouseRepository warehouseRepository;
+    private InventoryRepository inventoryRepository;
+    private ValuationCheckpointRepository checkpointRepository;
+    private ValuationStateRepository stateRepository;
+    private InventoryValuationRepository valuationRepository;
+    private InventoryValuationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        warehouseRepository = mock(WarehouseRepository.class);
+        inventoryRepository = mock(InventoryRepository.class);
+        checkpointRepository = mock(ValuationCheckpointRepository.class);
+        stateRepository = mock(ValuationStateRepository.class);
+        valuationRepository = mock(InventoryValuationRepository.class);
+        service = new InventoryValuationServiceImpl(warehouseRepository, inventoryRepository,
+                checkpointRepository, stateRepository, valuationRepository, 300);
+
+        when(warehouseRepository.existsById(1L)).thenReturn(true);
+        when(inventoryRepository.findValuationViewsByWarehouseId(1L)).thenReturn(List.of(view(5L, "9.00")));
+    }
+
+    @Test
+    void testValuate_ResumesFromCheckpointAndSavesNewStates() {
+        ValuationCheckpoint checkpoint = checkpoint(100L);
+        when(checkpointRepository.lockByWarehouseId(1L)).thenReturn(Optional.of(checkpoint));
+        ValuationLedger previous = new ValuationLedger();
+        previous.apply(5L, MovementType.INBOUND, 10, ValuationLedger.toScaled(new BigDecimal("2.00")));
+        ValuationState state = ValuationState.builder()
+                .inventoryId(5L).warehouseId(1L).quantity(10L)
+                .averageCost(previous.averageCost(0)).fifoLayers(previous.encodeLayers(0))
+                .build();
+        when(stateRepository.findByWarehouseId(1L)).thenReturn(List.of(state));
+        when(valuationRepository.findLastSettledMovementId(any())).thenReturn(120L);
+        when(valuationRepository.streamByWarehouse(eq(1L), eq(100L), eq(120L), any())).thenAnswer(inv -> {
+            InventoryValuationRepository.MovementSink sink = inv.getArgument(3);
+            sink.accept(5L, MovementType.INBOUND, 10, ValuationLedger.toScaled(new BigDecimal("4.00")));
+            sink.accept(5L, MovementType.OUTBOUND, 12, -1);
+            sink.accept(6L, MovementType.INBOUND, 1, 10_000L);
+            return 3L;
+        });
+
+        ValuationReport report = service.valuate(1L);
+
+        assertEquals(120L, report.getLastMovementId());
+        assertEquals(3L, report.getMovementsApplied());
+        assertEquals(1, report.getLines().size());
+        assertEquals(8, report.getLines().get(0).getQuantity());
+        assertEquals(0, new BigDecimal("32.00").compareTo(report.getTotalFifoValue()));
+        assertEquals(0, new BigDecimal("24.00").compareTo(report.getTotalAverageValue()));
+        assertEquals(120L, checkpoint.getLastMovementId());
+        assertEquals(8L, state.getQuantity());
+        verify(stateRepository).saveAll(argThat(states ->
+                states instanceof List<?> list && list.size() == 1
+                        && ((ValuationState) list.get(0)).getInventoryId() == 6L));
+    }
+
+    @Test
+    void testValuate_NothingSettledSinceCheckpointReadsNoMovement() {
+        when(checkpointRepository.lockByWarehouseId(1L)).thenReturn(Optional.of(checkpoint(100L)));
+        when(valuationRepository.findLastSettledMovementId(any())).thenReturn(100L);
+
+        ValuationReport report = service.valuate(1L);
+
+        assertEquals(0L, report.getMovementsApplied());
+        assertEquals(0, BigDecimal.ZERO.compareTo(report.getTotalFifoValue()));
+        verify(valuationRepository, never()).streamByWarehouse(any(), anyLong(), anyLong(), any());
+        verify(stateRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testValuate_UnknownWarehouse() {
+        assertThrows(BusinessException.class, () -> service.valuate(2L));
+        verifyNoInteractions(checkpointRepository);
+    }
+
+    private ValuationCheckpoint checkpoint(long lastMovementId) {
+        return ValuationCheckpoint.builder()
+                .id(1L)
+                .lastMovementId(lastMovementId)
+                .movementsApplied(0L)
+                .build();
+    }
+
+    private InventoryValuationView view(Long inventoryId, String originalPrice) {
+        return new InventoryValuationView() {
+            public Long getInventoryId() { return inventoryId; }
+            public Long getProductId() { return 50L; }
+            public String getSku() { return "SKU-50"; }
+            public String getName() { return "Produit"; }
+            public BigDecimal getOriginalPrice() { return new BigDecimal(originalPrice); }
+        };
+    }
+}
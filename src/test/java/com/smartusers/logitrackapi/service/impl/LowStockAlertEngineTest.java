@@ -0,0 +1,153 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.LowStockAlert;
+import com.smartusers.logitrackapi.event.LowStockAlertEvent;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import com.smartusers.logitrackapi.repository.LowStockAlertRepository;
+import com.smartusers.logitrackapi.repository.ReorderThresholdRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LowStockAlertEngineTest {
+
+    private ReorderThresholdRepository thresholdRepository;
+    private LowStockAlertRepository alertRepository;
+    private InventoryRepository inventoryRepository;
+    private AvailabilityIndex availabilityIndex;
+    private ApplicationEventPublisher eventPublisher;
+    private LowStockAlertEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        thresholdRepository = mock(ReorderThresholdRepository.class);
+        alertRepository = mock(LowStockAlertRepository.class);
+        inventoryRepository = mock(InventoryRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        engine = new LowStockAlertEngine(thresholdRepository, alertRepository, inventoryRepository,
+                availabilityIndex, eventPublisher, mock(PlatformTransactionManager.class));
+
+        when(availabilityIndex.isLoaded()).thenReturn(true);
+        when(thresholdRepository.findThresholdForInventory(1L)).thenReturn(Optional.of(10));
+        when(alertRepository.save(any(LowStockAlert.class))).thenAnswer(invocation -> {
+            LowStockAlert alert = invocation.getArgument(0);
+            alert.setId(77L);
+            return alert;
+        });
+    }
+
+    @Test
+    void testDropBelowThreshold_RaisesOnceUntilRecovery() {
+        when(availabilityIndex.availableOf(1L)).thenReturn(8, 5, 12);
+
+        engine.onAvailableChanged(1L, -4);
+        engine.onAvailableChanged(1L, -3);
+
+        verify(alertRepository, times(1)).save(any(LowStockAlert.class));
+        verify(eventPublisher, times(1)).publishEvent(new LowStockAlertEvent(77L, 1L, 8, 10, true));
+        assertTrue(engine.hasActiveAlert(1L));
+
+        engine.onAvailableChanged(1L, 7);
+
+        verify(alertRepository, times(1)).resolve(eq(77L), any());
+        verify(eventPublisher, times(1)).publishEvent(new LowStockAlertEvent(77L, 1L, 12, 10, false));
+        assertFalse(engine.hasActiveAlert(1L));
+        verify(thresholdRepository, times(1)).findThresholdForInventory(1L);
+    }
+
+    @Test
+    void testIncreaseWithoutActiveAlert_DoesNothing() {
+        engine.onAvailableChanged(1L, 5);
+
+        verifyNoInteractions(thresholdRepository, alertRepository, eventPublisher);
+    }
+
+    @Test
+    void testNoThreshold_NoAlert() {
+        when(thresholdRepository.findThresholdForInventory(2L)).thenReturn(Optional.empty());
+        when(availabilityIndex.availableOf(2L)).thenReturn(0);
+
+        engine.onAvailableChanged(2L, -5);
+
+        verify(alertRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testThresholdChanged_ReloadsThresholdAndAlertsWithoutWaitingForAMovement() {
+        when(availabilityIndex.availableOf(1L)).thenReturn(8);
+        when(thresholdRepository.findThresholdForInventory(1L)).thenReturn(Optional.of(5), Optional.of(10));
+        when(inventoryRepository.findByWarehouse_IdAndProduct_Id(3L, 4L))
+                .thenReturn(Optional.of(Inventory.builder().id(1L).build()));
+
+        engine.onAvailableChanged(1L, -2);
+        verify(alertRepository, never()).save(any());
+
+        // Seuil relevé au-dessus du stock actuel
+        engine.thresholdChanged(4L, 3L);
+
+        verify(thresholdRepository, times(2)).findThresholdForInventory(1L);
+        verify(eventPublisher, times(1)).publishEvent(new LowStockAlertEvent(77L, 1L, 8, 10, true));
+    }
+
+    @Test
+    void testThresholdChanged_CacheKeptUntilCommit() {
+        when(availabilityIndex.availableOf(1L)).thenReturn(8);
+        when(thresholdRepository.findThresholdForInventory(1L)).thenReturn(Optional.of(5), Optional.of(10));
+        when(inventoryRepository.findByWarehouse_IdAndProduct_Id(3L, 4L))
+                .thenReturn(Optional.of(Inventory.builder().id(1L).build()));
+        engine.onAvailableChanged(1L, -2);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            engine.thresholdChanged(4L, 3L);
+            verify(thresholdRepository, times(1)).findThresholdForInventory(1L);
+            verifyNoInteractions(eventPublisher);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(thresholdRepository, times(2)).findThresholdForInventory(1L);
+        verify(eventPublisher, times(1)).publishEvent(new LowStockAlertEvent(77L, 1L, 8, 10, true));
+    }
+
+    @Test
+    void testThresholdRemoved_ResolvesActiveAlert() {
+        when(availabilityIndex.availableOf(1L)).thenReturn(8);
+        when(thresholdRepository.findThresholdForInventory(1L)).thenReturn(Optional.of(10), Optional.empty());
+        when(inventoryRepository.findByWarehouse_IdAndProduct_Id(3L, 4L))
+                .thenReturn(Optional.of(Inventory.builder().id(1L).build()));
+        engine.onAvailableChanged(1L, -2);
+        assertTrue(engine.hasActiveAlert(1L));
+
+        engine.thresholdChanged(4L, 3L);
+
+        verify(alertRepository, times(1)).resolve(eq(77L), any());
+        assertFalse(engine.hasActiveAlert(1L));
+    }
+
+    @Test
+    void testLoadActiveAlerts_DeduplicatesAfterRestart() {
+        when(alertRepository.findByActiveTrue()).thenReturn(List.of(
+                LowStockAlert.builder().id(5L).inventory(Inventory.builder().id(1L).build()).active(true).build()));
+        when(availabilityIndex.availableOf(1L)).thenReturn(3);
+
+        engine.loadActiveAlerts();
+        engine.onAvailableChanged(1L, -2);
+
+        verify(alertRepository, never()).save(any());
+    }
+}
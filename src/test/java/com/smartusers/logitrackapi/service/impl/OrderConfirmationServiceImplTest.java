@@ -0,0 +1,104 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.ResourceNotFoundException;
+import com.smartusers.logitrackapi.Exception.ServiceUnavailableException;
+import com.smartusers.logitrackapi.dto.salesorder.ConfirmationJobResponse;
+import com.smartusers.logitrackapi.entity.SalesOrder;
+import com.smartusers.logitrackapi.enums.ConfirmationJobStatus;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.repository.SalesOrderRepository;
+import com.smartusers.logitrackapi.service.interfaces.SalesOrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderConfirmationServiceImplTest {
+
+    private final SalesOrderService salesOrderService = mock(SalesOrderService.class);
+    private final SalesOrderRepository salesOrderRepository = mock(SalesOrderRepository.class);
+    private OrderConfirmationServiceImpl service;
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void testSubmit_RunsConfirmationAndRecordsOutcome() throws InterruptedException {
+        service = new OrderConfirmationServiceImpl(salesOrderService, salesOrderRepository, 2, 10, 60, 1000);
+        when(salesOrderRepository.findWarehouseIdById(1L)).thenReturn(Optional.of(5L));
+        when(salesOrderService.confirmerOrderByClient(1L))
+                .thenReturn(SalesOrder.builder().id(1L).status(OrderStatus.RESERVED).build());
+
+        ConfirmationJobResponse submitted = service.submit(1L);
+        assertEquals(5L, submitted.getWarehouseId());
+
+        ConfirmationJobResponse done = awaitFinished(submitted.getJobId());
+        assertEquals(ConfirmationJobStatus.SUCCEEDED, done.getStatus());
+        assertEquals(OrderStatus.RESERVED, done.getOrderStatus());
+        assertNotNull(done.getFinishedAt());
+    }
+
+    @Test
+    void testSubmit_FailureIsReportedOnTheJob() throws InterruptedException {
+        service = new OrderConfirmationServiceImpl(salesOrderService, salesOrderRepository, 1, 10, 60, 1000);
+        when(salesOrderRepository.findWarehouseIdById(1L)).thenReturn(Optional.of(5L));
+        when(salesOrderService.confirmerOrderByClient(1L)).thenThrow(new IllegalStateException("Entrepôt inactif"));
+
+        ConfirmationJobResponse done = awaitFinished(service.submit(1L).getJobId());
+
+        assertEquals(ConfirmationJobStatus.FAILED, done.getStatus());
+        assertEquals("Entrepôt inactif", done.getMessage());
+    }
+
+    @Test
+    void testSubmit_SameOrderReusesActiveJobAndFullLaneIsRefused() throws InterruptedException {
+        service = new OrderConfirmationServiceImpl(salesOrderService, salesOrderRepository, 1, 1, 60, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(salesOrderRepository.findWarehouseIdById(anyLong())).thenReturn(Optional.of(5L));
+        when(salesOrderService.confirmerOrderByClient(1L)).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return SalesOrder.builder().id(1L).status(OrderStatus.RESERVED).build();
+        });
+        when(salesOrderService.confirmerOrderByClient(2L))
+                .thenReturn(SalesOrder.builder().id(2L).status(OrderStatus.RESERVED).build());
+
+        ConfirmationJobResponse first = service.submit(1L);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(first.getJobId(), service.submit(1L).getJobId());
+        ConfirmationJobResponse queued = service.submit(2L);
+        assertEquals(ConfirmationJobStatus.QUEUED, queued.getStatus());
+        assertThrows(ServiceUnavailableException.class, () -> service.submit(3L));
+
+        release.countDown();
+        assertEquals(ConfirmationJobStatus.SUCCEEDED, awaitFinished(queued.getJobId()).getStatus());
+        verify(salesOrderService, times(1)).confirmerOrderByClient(1L);
+    }
+
+    @Test
+    void testSubmit_UnknownOrderAndJob() {
+        service = new OrderConfirmationServiceImpl(salesOrderService, salesOrderRepository, 1, 10, 60, 1000);
+        when(salesOrderRepository.findWarehouseIdById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.submit(9L));
+        assertThrows(ResourceNotFoundException.class, () -> service.getJob("inconnu"));
+    }
+
+    private ConfirmationJobResponse awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        ConfirmationJobResponse job = service.getJob(jobId);
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = service.getJob(jobId);
+        }
+        return job;
+    }
+}
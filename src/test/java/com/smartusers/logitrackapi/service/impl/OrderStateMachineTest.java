@@ -0,0 +1,66 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.Exception.ResourceNotFoundException;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.enums.POStatus;
+import com.smartusers.logitrackapi.repository.OrderEventRepository;
+import com.smartusers.logitrackapi.repository.PurchaseOrderRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderTransitionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderStateMachineTest {
+
+    private final SalesOrderRepository salesOrderRepository = mock(SalesOrderRepository.class);
+    private final SalesOrderTransitionRepository transitionRepository = mock(SalesOrderTransitionRepository.class);
+    private final OrderEventRepository orderEventRepository = mock(OrderEventRepository.class);
+    private final ClientOrderSummaryProjector summaryProjector = mock(ClientOrderSummaryProjector.class);
+    private final OrderStateMachine stateMachine = new OrderStateMachine(salesOrderRepository,
+            transitionRepository, mock(PurchaseOrderRepository.class), orderEventRepository, summaryProjector);
+
+    @Test
+    void testTables_TerminalStatusesHaveNoExit() {
+        for (OrderStatus to : OrderStatus.values()) {
+            assertFalse(OrderStateMachine.SALES_ORDER.allows(OrderStatus.DELIVERED, to));
+            assertFalse(OrderStateMachine.SALES_ORDER.allows(OrderStatus.CANCELED, to));
+        }
+        assertEquals(EnumSet.of(OrderStatus.RESERVED), OrderStateMachine.SALES_ORDER.sourcesOf(OrderStatus.SHIPPED));
+        assertEquals(EnumSet.of(POStatus.DRAFT, POStatus.CREATED, POStatus.APPROVED),
+                OrderStateMachine.PURCHASE_ORDER.sourcesOf(POStatus.CANCELLED));
+        assertTrue(OrderStateMachine.PURCHASE_ORDER.sourcesOf(POStatus.DRAFT).isEmpty());
+        // Une réservation passe toujours par la confirmation (PENDING)
+        assertEquals(EnumSet.of(OrderStatus.PENDING), OrderStateMachine.SALES_ORDER.sourcesOf(OrderStatus.RESERVED));
+    }
+
+    @Test
+    void testTransitionAll_FeedsSummaryFromMovedRowsOnly() {
+        SalesOrderTransitionRepository.Moved moved =
+                new SalesOrderTransitionRepository.Moved(2L, 4L, OrderStatus.RESERVED, new BigDecimal("30.00"));
+        when(transitionRepository.transition(any(), any(), eq(OrderStatus.CREATED), any()))
+                .thenReturn(List.of(), List.of(moved));
+
+        assertEquals(0, stateMachine.transitionAll(List.of(1L, 2L), OrderStatus.CREATED));
+        verifyNoInteractions(summaryProjector);
+
+        assertEquals(List.of(2L), stateMachine.transitionAllReturningIds(List.of(1L, 2L), OrderStatus.CREATED));
+        verify(transitionRepository, times(2)).transition(eq(List.of(1L, 2L)),
+                eq(EnumSet.of(OrderStatus.PENDING, OrderStatus.RESERVED)), eq(OrderStatus.CREATED), any());
+        verify(summaryProjector, times(1)).onTransition(eq(List.of(moved)), eq(OrderStatus.CREATED), any());
+        verifyNoInteractions(orderEventRepository);
+    }
+
+    @Test
+    void testTransition_UnknownOrder() {
+        when(salesOrderRepository.findStatusById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> stateMachine.transition(9L, OrderStatus.SHIPPED));
+    }
+}
@@ -9,7 +9,6 @@ import com.smartusers.logitrackapi.repository.*;
 import com.smartusers.logitrackapi.service.interfaces.InventoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +17,8 @@ import org.springframework.data.domain.Page;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,12 +42,14 @@ class PurchaseOrderServiceImplTest {
     private WarehouseRepository warehouseRepository;
 
     @Mock
-    private InventoryRepository inventoryRepository;
+    private InventoryService inventoryService;
 
     @Mock
-    private InventoryService inventoryService;
+    private OrderEventRepository orderEventRepository;
+
+    @Mock
+    private BackorderQueue backorderQueue;
 
-    @InjectMocks
     private PurchaseOrderServiceImpl poService;
 
     private Supplier supplier;
@@ -56,6 +59,11 @@ class PurchaseOrderServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        poService = new PurchaseOrderServiceImpl(purchaseOrderRepository, poLineRepository, supplierRepository,
+                productRepository, warehouseRepository, inventoryService,
+                new OrderStateMachine(mock(SalesOrderRepository.class), mock(SalesOrderTransitionRepository.class),
+                        purchaseOrderRepository, orderEventRepository, mock(ClientOrderSummaryProjector.class)),
+                backorderQueue);
 
         supplier = new Supplier();
         supplier.setId(1L);
@@ -112,11 +120,13 @@ class PurchaseOrderServiceImplTest {
         po.setId(1L);
         po.setStatus(POStatus.CREATED);
 
+        acceptTransition(po, POStatus.APPROVED);
         when(purchaseOrderRepository.findById(1L)).thenReturn(Optional.of(po));
-        when(purchaseOrderRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
         PurchaseOrder result = poService.approve(1L);
         assertEquals(POStatus.APPROVED, result.getStatus());
+        verify(orderEventRepository, times(1)).appendPurchaseOrderTransitions(eq(List.of(1L)), eq(POStatus.APPROVED), any());
+        verify(purchaseOrderRepository, never()).save(any());
     }
 
     @Test
@@ -125,14 +135,23 @@ class PurchaseOrderServiceImplTest {
         po.setId(1L);
         po.setStatus(POStatus.APPROVED);
 
-        when(purchaseOrderRepository.findById(1L)).thenReturn(Optional.of(po));
+        when(purchaseOrderRepository.findStatusById(1L)).thenReturn(Optional.of(POStatus.APPROVED));
 
         BusinessException ex = assertThrows(BusinessException.class, () -> poService.approve(1L));
-        assertTrue(ex.getMessage().contains("Seules les commandes en statut CREATED peuvent être approuvées"));
+        assertTrue(ex.getMessage().contains("Transition impossible de APPROVED vers APPROVED"));
+        verifyNoInteractions(orderEventRepository);
+    }
+
+    @Test
+    void testReceivePurchaseOrder_AlreadyReceivedIsRefusedBeforeStockEntry() {
+        when(purchaseOrderRepository.findStatusById(1L)).thenReturn(Optional.of(POStatus.RECEIVED));
+
+        assertThrows(BusinessException.class, () -> poService.receive(1L, 1L));
+        verifyNoInteractions(inventoryService, backorderQueue);
     }
 
     @Test
-    void testReceivePurchaseOrderWithExistingInventory() {
+    void testReceivePurchaseOrder_ReceivesEachLineIntoLocation() {
         PurchaseOrder po = new PurchaseOrder();
         po.setId(1L);
         po.setStatus(POStatus.APPROVED);
@@ -140,23 +159,19 @@ class PurchaseOrderServiceImplTest {
         POLine line = new POLine();
         line.setProduct(product);
         line.setQuantityOrdered(10);
+        line.setUnitPrice(new BigDecimal("15.00"));
         po.setLines(Collections.singletonList(line));
 
-        Inventory inventory = new Inventory();
-        inventory.setId(1L);
-        inventory.setWarehouse(warehouse);
-        inventory.setProduct(product);
-        inventory.setQuantityOnHand(5);
-
+        acceptTransition(po, POStatus.RECEIVED);
         when(purchaseOrderRepository.findById(1L)).thenReturn(Optional.of(po));
         when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        when(inventoryRepository.findByWarehouse_IdAndProduct_Id(1L, 1L)).thenReturn(Optional.of(inventory));
-        when(purchaseOrderRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(inventoryService.receiveIntoLocation(anyLong(), anyLong(), anyInt(), any(), any(), any())).thenReturn(7L);
 
         PurchaseOrder result = poService.receive(1L, 1L);
 
         assertEquals(POStatus.RECEIVED, result.getStatus());
-        verify(inventoryService, times(1)).addStock(1L, 10, "Réception commande achat #1");
+        verify(inventoryService, times(1)).receiveIntoLocation(1L, 1L, 10, new BigDecimal("15.00"), "Réception commande achat #1", 1L);
+        verify(backorderQueue, times(1)).promote(1L, Map.of(1L, 7L));
     }
 
     @Test
@@ -165,11 +180,21 @@ class PurchaseOrderServiceImplTest {
         po.setId(1L);
         po.setStatus(POStatus.CREATED);
 
+        acceptTransition(po, POStatus.CANCELLED);
         when(purchaseOrderRepository.findById(1L)).thenReturn(Optional.of(po));
-        when(purchaseOrderRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
         PurchaseOrder result = poService.cancel(1L);
         assertEquals(POStatus.CANCELLED, result.getStatus());
+        verify(backorderQueue, times(1)).requeue(1L);
+    }
+
+    @Test
+    void testCancelPurchaseOrder_ReceivedIsRefusedWithoutRequeuingBackorders() {
+        when(purchaseOrderRepository.transition(any(), any(), any(), any())).thenReturn(0);
+        when(purchaseOrderRepository.findStatusById(1L)).thenReturn(Optional.of(POStatus.RECEIVED));
+
+        assertThrows(BusinessException.class, () -> poService.cancel(1L));
+        verifyNoInteractions(backorderQueue);
     }
 
     @Test
@@ -197,4 +222,12 @@ class PurchaseOrderServiceImplTest {
         BusinessException ex = assertThrows(BusinessException.class, () -> poService.delete(1L));
         assertTrue(ex.getMessage().contains("Seules les commandes en statut CREATED ou CANCELLED peuvent être supprimées"));
     }
+
+    // Simule la mise à jour gardée : la commande relue porte le nouveau statut
+    private void acceptTransition(PurchaseOrder po, POStatus to) {
+        when(purchaseOrderRepository.transition(eq(List.of(po.getId())), any(), eq(to), any())).thenAnswer(inv -> {
+            po.setStatus(to);
+            return 1;
+        });
+    }
 }
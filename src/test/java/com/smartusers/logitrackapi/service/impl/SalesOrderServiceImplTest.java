@@ -1,28 +1,38 @@
 package com.smartusers.logitrackapi.service.impl;
 
 import com.smartusers.logitrackapi.Exception.BusinessException;
+import com.smartusers.logitrackapi.dto.common.CursorPage;
+import com.smartusers.logitrackapi.dto.salesorder.BulkCancelRequest;
+import com.smartusers.logitrackapi.dto.salesorder.BulkCancelResult;
+import com.smartusers.logitrackapi.dto.salesorder.BulkSalesOrderResult;
 import com.smartusers.logitrackapi.dto.salesorder.SalesOrderLineRequest;
 import com.smartusers.logitrackapi.dto.salesorder.SalesOrderRequest;
-import com.smartusers.logitrackapi.dto.purchaseorder.PurchaseOrderLineRequest;
-import com.smartusers.logitrackapi.dto.purchaseorder.PurchaseOrderRequest;
+import com.smartusers.logitrackapi.dto.salesorder.SalesOrderSummaryResponse;
 import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.AllocationStrategyType;
 import com.smartusers.logitrackapi.enums.OrderStatus;
 import com.smartusers.logitrackapi.repository.*;
-import com.smartusers.logitrackapi.service.interfaces.InventoryService;
-import com.smartusers.logitrackapi.service.interfaces.PurchaseOrderService;
+import com.smartusers.logitrackapi.repository.projection.SalesOrderSummaryRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 
 class SalesOrderServiceImplTest {
@@ -46,26 +56,60 @@ class SalesOrderServiceImplTest {
     private InventoryRepository inventoryRepository;
 
     @Mock
-    private InventoryService inventoryService;
+    private InventoryMovementRepository inventoryMovementRepository;
 
     @Mock
-    private PurchaseOrderService purchaseOrderService;
+    private StockReservationExpiry reservationExpiry;
 
     @Mock
-    private SupplierRepository supplierRepository;
+    private SalesOrderBatchRepository salesOrderBatchRepository;
+
+    @Mock
+    private SalesOrderSearchRepository salesOrderSearchRepository;
+
+    @Mock
+    private SalesOrderTransitionRepository salesOrderTransitionRepository;
+
+    @Mock
+    private OrderEventRepository orderEventRepository;
+
+    @Mock
+    private ClientOrderSummaryProjector summaryProjector;
+
+    @Mock
+    private BackorderQueue backorderQueue;
 
-    @InjectMocks
     private SalesOrderServiceImpl salesOrderService;
 
     private User client;
     private Warehouse warehouse;
     private Product product;
-    private Supplier supplier;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
+        salesOrderService = new SalesOrderServiceImpl(
+                salesOrderRepository,
+                salesOrderLineRepository,
+                userRepository,
+                warehouseRepository,
+                productRepository,
+                new StockReservationEngine(inventoryRepository,
+                        new InventoryMovementJournal(inventoryMovementRepository, mock(InventoryBatchRepository.class),
+                                mock(MovementDeadLetterRepository.class), mock(PlatformTransactionManager.class), false, 1, 1, 1,
+                                InventoryMovementJournal.Durability.SYNC, 1, 0),
+                        mock(AvailabilityIndex.class), mock(LowStockAlertEngine.class), mock(CycleCountQueue.class),
+                        new AllocationStrategies(AllocationStrategyType.MIN_SOURCES, List.of())),
+                reservationExpiry,
+                salesOrderBatchRepository,
+                salesOrderSearchRepository,
+                new OrderStateMachine(salesOrderRepository, salesOrderTransitionRepository,
+                        mock(PurchaseOrderRepository.class), orderEventRepository, summaryProjector),
+                summaryProjector,
+                backorderQueue
+        );
+
         client = new User();
         client.setId(1L);
 
@@ -76,9 +120,6 @@ class SalesOrderServiceImplTest {
         product = new Product();
         product.setId(1L);
 
-        supplier = new Supplier();
-        supplier.setId(1L);
-        supplier.setActive(true);
     }
 
     @Test
@@ -105,6 +146,7 @@ class SalesOrderServiceImplTest {
         assertEquals(OrderStatus.CREATED, order.getStatus());
         assertEquals(1, order.getLines().size());
         assertEquals(product.getId(), order.getLines().get(0).getProduct().getId());
+        verify(summaryProjector).onCreated(1L, new BigDecimal("250.0"), order.getCreatedAt());
     }
 
     @Test
@@ -121,6 +163,8 @@ class SalesOrderServiceImplTest {
         line.setPrice(new BigDecimal("50.0"));
         order.getLines().add(line);
 
+        acceptTransition(order, OrderStatus.PENDING);
+        acceptTransition(order, OrderStatus.RESERVED);
         when(salesOrderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
 
         Inventory inventory = new Inventory();
@@ -130,19 +174,22 @@ class SalesOrderServiceImplTest {
         inventory.setQuantityOnHand(10);
         inventory.setQuantityReserved(0);
 
-        when(inventoryRepository.findAllByWarehouse_IdAndProduct_Id(1L, 1L))
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any()))
                 .thenReturn(Collections.singletonList(inventory));
 
         SalesOrder confirmedOrder = salesOrderService.confirmerOrderByClient(1L);
 
         assertEquals(OrderStatus.RESERVED, confirmedOrder.getStatus());
         assertEquals(5, confirmedOrder.getLines().get(0).getQtyReserved());
-        verify(inventoryService, times(1))
-                .sortieStock(inventory.getId(), 5, "Réservation commande 1 - produit " + product.getName());
+        assertEquals(5, inventory.getQuantityOnHand());
+        verify(inventoryRepository, times(1)).findAllWithWarehouseByProductIdIn(any());
+        verify(inventoryMovementRepository, times(1)).save(any(InventoryMovement.class));
+        verify(backorderQueue, times(1)).enqueue(order, Map.of());
+        verify(reservationExpiry, times(1)).track(eq(order), argThat(plan -> plan.getAllocations().get(inventory) == 5));
     }
 
     @Test
-    void testConfirmerOrderByClient_NotEnoughStock_CreatesPurchaseOrder() {
+    void testConfirmerOrderByClient_NotEnoughStock_QueuesBackorderAndStaysPending() {
         SalesOrder order = new SalesOrder();
         order.setId(1L);
         order.setWarehouse(warehouse);
@@ -155,6 +202,7 @@ class SalesOrderServiceImplTest {
         line.setPrice(new BigDecimal("50.0"));
         order.getLines().add(line);
 
+        acceptTransition(order, OrderStatus.PENDING);
         when(salesOrderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
 
         Inventory inventory = new Inventory();
@@ -164,22 +212,141 @@ class SalesOrderServiceImplTest {
         inventory.setQuantityOnHand(5);
         inventory.setQuantityReserved(0);
 
-        when(inventoryRepository.findAllByWarehouse_IdAndProduct_Id(1L, 1L))
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any()))
                 .thenReturn(Collections.singletonList(inventory));
 
-        when(supplierRepository.findByActiveTrue())
-                .thenReturn(Collections.singletonList(supplier));
+        SalesOrder confirmedOrder = salesOrderService.confirmerOrderByClient(1L);
 
-        when(purchaseOrderService.create(any(PurchaseOrderRequest.class)))
-                .thenReturn(null);
+        assertEquals(OrderStatus.PENDING, confirmedOrder.getStatus());
+        assertEquals(5, confirmedOrder.getLines().get(0).getQtyReserved());
+        assertEquals(0, inventory.getQuantityOnHand());
+        // Seul le prélèvement réel est écrit : plus de réception fictive du manque
+        verify(inventoryMovementRepository, times(1)).save(any(InventoryMovement.class));
+        verify(inventoryMovementRepository, never()).saveAll(any());
+        verify(backorderQueue, times(1)).enqueue(eq(order), argThat(shortages -> shortages.get(line) == 5));
+        verify(salesOrderTransitionRepository, never()).transition(any(), any(), eq(OrderStatus.RESERVED), any());
+        verify(reservationExpiry, times(1)).track(eq(order), argThat(plan -> plan.getAllocations().get(inventory) == 5));
+    }
 
-        SalesOrder confirmedOrder = salesOrderService.confirmerOrderByClient(1L);
+    @Test
+    void testCancel_ReleasesReservedStock() {
+        SalesOrderLine line = new SalesOrderLine();
+        line.setProduct(product);
+        line.setQtyOrdered(5);
+        line.setQtyReserved(5);
+        SalesOrder order = SalesOrder.builder().id(3L).warehouse(warehouse).status(OrderStatus.RESERVED)
+                .lines(new ArrayList<>(List.of(line))).build();
+        acceptTransition(order, OrderStatus.CANCELED);
+        when(salesOrderRepository.findById(3L)).thenReturn(Optional.of(order));
+
+        SalesOrder canceled = salesOrderService.cancel(3L);
+
+        assertEquals(OrderStatus.CANCELED, canceled.getStatus());
+        verify(salesOrderTransitionRepository).transition(eq(List.of(3L)),
+                eq(EnumSet.of(OrderStatus.CREATED, OrderStatus.PENDING, OrderStatus.RESERVED)), eq(OrderStatus.CANCELED), any());
+        verify(reservationExpiry, times(1)).releaseForCancel(List.of(3L));
+        // Les lignes sont remises à zéro par la libération, pas une seconde fois ici
+        verify(salesOrderLineRepository, never()).clearReserved(any());
+        verify(summaryProjector, times(1)).onTransition(argThat(moved -> moved.size() == 1 && moved.get(0).id() == 3L),
+                eq(OrderStatus.CANCELED), any());
+        verify(salesOrderRepository, never()).save(any());
+    }
 
-        assertEquals(OrderStatus.RESERVED, confirmedOrder.getStatus());
-        assertEquals(10, confirmedOrder.getLines().get(0).getQtyReserved());
-        verify(purchaseOrderService, times(1)).create(any(PurchaseOrderRequest.class));
-        verify(inventoryService, times(2)).sortieStock(anyLong(), anyInt(), anyString());
-        verify(inventoryService, times(1)).addStock(anyLong(), anyInt(), anyString());
+    @Test
+    void testCancel_DeliveredOrderIsRefusedWithoutReleasingAnything() {
+        when(salesOrderTransitionRepository.transition(any(), any(), any(), any())).thenReturn(List.of());
+        when(salesOrderRepository.findStatusById(3L)).thenReturn(Optional.of(OrderStatus.DELIVERED));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> salesOrderService.cancel(3L));
+
+        assertTrue(ex.getMessage().contains("DELIVERED"));
+        verifyNoInteractions(reservationExpiry, orderEventRepository, summaryProjector);
+    }
+
+    @Test
+    void testCancelBulk_OneTransitionAndReleaseForCanceledOrdersOnly() {
+        // La commande 6 est déjà livrée
+        when(salesOrderTransitionRepository.transition(any(), any(), eq(OrderStatus.CANCELED), any())).thenReturn(List.of(
+                moved(4L, OrderStatus.RESERVED), moved(5L, OrderStatus.CREATED)));
+
+        BulkCancelResult result = salesOrderService.cancelBulk(
+                BulkCancelRequest.builder().orderIds(List.of(4L, 5L, 6L, 4L)).build());
+
+        assertEquals(3, result.getRequested());
+        assertEquals(List.of(4L, 5L), result.getCanceledIds());
+        verify(salesOrderTransitionRepository, times(1)).transition(eq(List.of(4L, 5L, 6L)), any(), eq(OrderStatus.CANCELED), any());
+        verify(reservationExpiry, times(1)).releaseForCancel(List.of(4L, 5L));
+        verify(salesOrderLineRepository, never()).clearReserved(any());
+        verify(summaryProjector, times(1)).onTransition(argThat(moved -> moved.size() == 2), eq(OrderStatus.CANCELED), any());
+    }
+
+    @Test
+    void testCancelBulk_FilterSelectsCancelableStatusesAndEmptyRequestIsRefused() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(salesOrderRepository.findIdsByFilter(any(), any(), any(), any(), any(), anyLong(), any())).thenReturn(List.of());
+
+        BulkCancelResult result = salesOrderService.cancelBulk(BulkCancelRequest.builder().clientId(1L).from(from).build());
+
+        assertEquals(0, result.getRequested());
+        verify(salesOrderRepository).findIdsByFilter(eq(EnumSet.of(OrderStatus.CREATED, OrderStatus.PENDING, OrderStatus.RESERVED)),
+                eq(1L), isNull(), eq(from), isNull(), eq(0L), eq(Limit.of(1000)));
+        verify(salesOrderTransitionRepository, never()).transition(any(), any(), any(), any());
+        assertThrows(BusinessException.class, () -> salesOrderService.cancelBulk(new BulkCancelRequest()));
+        verifyNoInteractions(reservationExpiry);
+    }
+
+    @Test
+    void testCancelBulk_FilterPagesThroughAllMatches() {
+        List<Long> first = LongStream.rangeClosed(1, 1000).boxed().toList();
+        when(salesOrderRepository.findIdsByFilter(any(), any(), any(), any(), any(), eq(0L), any())).thenReturn(first);
+        when(salesOrderRepository.findIdsByFilter(any(), any(), any(), any(), any(), eq(1000L), any()))
+                .thenReturn(List.of(1001L, 1002L));
+        when(salesOrderTransitionRepository.transition(any(), any(), eq(OrderStatus.CANCELED), any())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> moved(id, OrderStatus.CREATED)).toList();
+        });
+
+        BulkCancelResult result = salesOrderService.cancelBulk(BulkCancelRequest.builder().warehouseId(1L).build());
+
+        assertEquals(1002, result.getRequested());
+        assertEquals(1002, result.getCanceledIds().size());
+        verify(salesOrderTransitionRepository, times(2)).transition(any(), any(), eq(OrderStatus.CANCELED), any());
+        verify(reservationExpiry, times(1)).releaseForCancel(List.of(1001L, 1002L));
+        verify(salesOrderRepository, times(2)).findIdsByFilter(any(), any(), any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void testMarkAsShipped_ConsumesReservationsAfterGuardedTransition() {
+        SalesOrder order = SalesOrder.builder().id(4L).warehouse(warehouse).status(OrderStatus.RESERVED).build();
+        acceptTransition(order, OrderStatus.SHIPPED);
+        when(salesOrderRepository.findById(4L)).thenReturn(Optional.of(order));
+
+        assertEquals(OrderStatus.SHIPPED, salesOrderService.markAsShipped(4L).getStatus());
+        verify(reservationExpiry, times(1)).consume(4L);
+        verify(salesOrderRepository, never()).save(any());
+    }
+
+    @Test
+    void testSearch_ReturnsSummariesAndResumesAfterCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123456000);
+        SalesOrderSearchRepository.Filter filter =
+                new SalesOrderSearchRepository.Filter(1L, OrderStatus.RESERVED, null, null, null);
+        when(salesOrderSearchRepository.firstPage(filter, 3)).thenReturn(List.of(
+                new SalesOrderSummaryRow(9L, "Ali", "Casa", OrderStatus.RESERVED, createdAt, new BigDecimal("40.00"), 4L),
+                new SalesOrderSummaryRow(8L, "Ali", "Casa", OrderStatus.RESERVED, createdAt, new BigDecimal("5.00"), 1L),
+                new SalesOrderSummaryRow(7L, "Ali", "Casa", OrderStatus.RESERVED, createdAt.minusDays(1), BigDecimal.ZERO, 0L)));
+
+        CursorPage<SalesOrderSummaryResponse> page = salesOrderService.search(1L, OrderStatus.RESERVED, null,
+                null, null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("SO-9", page.getItems().get(0).getOrderNumber());
+        assertEquals(4, page.getItems().get(0).getTotalItems());
+        assertEquals("2026-03-01T10:15:30.123456_8", page.getNextCursor());
+
+        salesOrderService.search(1L, OrderStatus.RESERVED, null, null, null, page.getNextCursor(), 2);
+        verify(salesOrderSearchRepository).pageAfter(filter, createdAt, 8L, 3);
+        assertThrows(BusinessException.class, () -> salesOrderService.search(null, null, null, null, null, "abc", 2));
     }
 
     @Test
@@ -194,4 +361,47 @@ class SalesOrderServiceImplTest {
                 () -> salesOrderService.create(request));
         assertEquals("Client non trouvé", ex.getMessage());
     }
+
+    @Test
+    void testCreateBulk_ResolvesIdsOnceAndBatchesValidOrders() {
+        SalesOrderRequest valid = SalesOrderRequest.builder().clientId(1L).warehouseId(1L)
+                .orderLines(List.of(new SalesOrderLineRequest(1L, 2, new BigDecimal("5.00")),
+                        new SalesOrderLineRequest(1L, 1, new BigDecimal("6.00"))))
+                .build();
+        SalesOrderRequest unknownProduct = SalesOrderRequest.builder().clientId(1L).warehouseId(1L)
+                .orderLines(List.of(new SalesOrderLineRequest(42L, 1, new BigDecimal("5.00"))))
+                .build();
+        SalesOrderRequest second = SalesOrderRequest.builder().clientId(1L).warehouseId(1L)
+                .orderLines(List.of(new SalesOrderLineRequest(1L, 3, new BigDecimal("5.00"))))
+                .build();
+        when(userRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(warehouseRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(productRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(salesOrderBatchRepository.insertOrders(any(), any(), any())).thenReturn(new long[]{10L, 11L});
+
+        List<BulkSalesOrderResult> results = salesOrderService.createBulk(List.of(valid, unknownProduct, second));
+
+        assertEquals(10L, results.get(0).getOrderId());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Produit non trouvé: 42", results.get(1).getMessage());
+        assertEquals(11L, results.get(2).getOrderId());
+        verify(productRepository, times(1)).findExistingIds(any());
+        verify(salesOrderBatchRepository).insertLines(aryEq(new long[]{10L, 10L, 11L}), aryEq(new long[]{1L, 1L, 1L}),
+                aryEq(new int[]{2, 1, 3}), any());
+        verify(salesOrderRepository, never()).saveAndFlush(any());
+        verify(summaryProjector, times(1)).apply(any());
+    }
+
+    // Simule la mise à jour gardée : la commande relue porte le nouveau statut
+    private void acceptTransition(SalesOrder order, OrderStatus to) {
+        when(salesOrderTransitionRepository.transition(eq(List.of(order.getId())), any(), eq(to), any())).thenAnswer(inv -> {
+            OrderStatus from = order.getStatus();
+            order.setStatus(to);
+            return List.of(moved(order.getId(), from));
+        });
+    }
+
+    private static SalesOrderTransitionRepository.Moved moved(Long id, OrderStatus from) {
+        return new SalesOrderTransitionRepository.Moved(id, 1L, from, BigDecimal.ZERO);
+    }
 }
@@ -0,0 +1,196 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.*;
+import com.smartusers.logitrackapi.enums.AllocationStrategyType;
+import com.smartusers.logitrackapi.repository.InventoryBatchRepository;
+import com.smartusers.logitrackapi.repository.InventoryMovementRepository;
+import com.smartusers.logitrackapi.repository.MovementDeadLetterRepository;
+import com.smartusers.logitrackapi.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StockReservationEngineTest {
+
+    private InventoryRepository inventoryRepository;
+    private InventoryMovementRepository movementRepository;
+    private CycleCountQueue cycleCountQueue;
+    private AllocationStrategies strategies;
+    private StockReservationEngine engine;
+
+    private Warehouse mainWarehouse;
+    private Warehouse otherWarehouse;
+    private Warehouse inactiveWarehouse;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        cycleCountQueue = mock(CycleCountQueue.class);
+        movementRepository = mock(InventoryMovementRepository.class);
+        strategies = new AllocationStrategies(AllocationStrategyType.MIN_SOURCES, List.of(2L, 1L));
+        engine = new StockReservationEngine(inventoryRepository,
+                new InventoryMovementJournal(movementRepository, mock(InventoryBatchRepository.class),
+                        mock(MovementDeadLetterRepository.class), mock(PlatformTransactionManager.class), false, 1, 1, 1,
+                        InventoryMovementJournal.Durability.SYNC, 1, 0),
+                mock(AvailabilityIndex.class), mock(LowStockAlertEngine.class), cycleCountQueue, strategies);
+
+        mainWarehouse = Warehouse.builder().id(1L).active(true).build();
+        otherWarehouse = Warehouse.builder().id(2L).active(true).build();
+        inactiveWarehouse = Warehouse.builder().id(3L).active(false).build();
+        product = Product.builder().id(10L).name("Produit").build();
+    }
+
+    @Test
+    void testPlan_MainWarehouseFirstThenOthers() {
+        Inventory main = inventory(1L, mainWarehouse, 4);
+        Inventory inactive = inventory(3L, inactiveWarehouse, 50);
+        Inventory other = inventory(2L, otherWarehouse, 10);
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any()))
+                .thenReturn(List.of(main, other, inactive));
+
+        SalesOrderLine line = line(7);
+        ReservationPlan plan = engine.plan(order(line), strategies.get(AllocationStrategyType.MAIN_WAREHOUSE_FIRST));
+
+        assertFalse(plan.hasShortages());
+        assertEquals(7, plan.reservedFor(line));
+        assertEquals(0, main.getQuantityOnHand());
+        assertEquals(7, other.getQuantityOnHand());
+        assertEquals(50, inactive.getQuantityOnHand());
+        assertEquals(2, plan.getMovements().size());
+        verify(inventoryRepository, times(1)).findAllWithWarehouseByProductIdIn(any());
+    }
+
+    @Test
+    void testPlan_MinSourcesServesWholeOrderFromOneWarehouse() {
+        Product second = Product.builder().id(11L).name("Second").build();
+        Inventory main = inventory(1L, mainWarehouse, 4);
+        Inventory other = inventory(2L, otherWarehouse, 10);
+        Inventory otherSecond = inventory(4L, otherWarehouse, 5);
+        otherSecond.setProduct(second);
+        Inventory mainSecond = inventory(5L, mainWarehouse, 5);
+        mainSecond.setProduct(second);
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any()))
+                .thenReturn(List.of(main, other, otherSecond, mainSecond));
+
+        SalesOrderLine first = line(7);
+        SalesOrderLine secondLine = SalesOrderLine.builder().product(second).qtyOrdered(3).price(BigDecimal.ONE).build();
+        ReservationPlan plan = engine.plan(order(first, secondLine));
+
+        assertFalse(plan.hasShortages());
+        assertEquals(4, main.getQuantityOnHand());
+        assertEquals(5, mainSecond.getQuantityOnHand());
+        assertEquals(3, other.getQuantityOnHand());
+        assertEquals(2, otherSecond.getQuantityOnHand());
+    }
+
+    @Test
+    void testPlan_MinSourcesPrefersMainWarehouseOnTie() {
+        Inventory main = inventory(1L, mainWarehouse, 5);
+        Inventory other = inventory(2L, otherWarehouse, 10);
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any())).thenReturn(List.of(other, main));
+
+        ReservationPlan plan = engine.plan(order(line(5)));
+
+        assertEquals(0, main.getQuantityOnHand());
+        assertEquals(10, other.getQuantityOnHand());
+        assertEquals(1, plan.getAllocations().size());
+    }
+
+    @Test
+    void testPlan_LargestStockFirstAndPreferredRanking() {
+        Inventory main = inventory(1L, mainWarehouse, 4);
+        Inventory other = inventory(2L, otherWarehouse, 6);
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any())).thenReturn(List.of(main, other));
+
+        engine.plan(order(line(8)), strategies.get(AllocationStrategyType.LARGEST_STOCK_FIRST));
+        assertEquals(2, main.getQuantityOnHand());
+        assertEquals(0, other.getQuantityOnHand());
+
+        main.setQuantityOnHand(4);
+        other.setQuantityOnHand(6);
+        engine.plan(order(line(3)), strategies.get(AllocationStrategyType.PREFERRED_RANKING));
+        assertEquals(4, main.getQuantityOnHand());
+        assertEquals(3, other.getQuantityOnHand());
+    }
+
+    @Test
+    void testPlan_FrozenWarehouseIsSkipped() {
+        Inventory main = inventory(1L, mainWarehouse, 4);
+        Inventory other = inventory(2L, otherWarehouse, 10);
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any())).thenReturn(List.of(main, other));
+        when(cycleCountQueue.frozenWarehouseIds()).thenReturn(Set.of(1L));
+
+        SalesOrderLine line = line(3);
+        ReservationPlan plan = engine.plan(order(line));
+
+        assertEquals(4, main.getQuantityOnHand());
+        assertEquals(7, other.getQuantityOnHand());
+        assertEquals(3, plan.getAllocations().get(other));
+    }
+
+    @Test
+    void testPlan_LinesSharingProductSeeEachOthersAllocation() {
+        Inventory main = inventory(1L, mainWarehouse, 5);
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any())).thenReturn(List.of(main));
+
+        SalesOrderLine first = line(3);
+        SalesOrderLine second = line(3);
+        ReservationPlan plan = engine.plan(order(first, second));
+
+        assertEquals(3, plan.reservedFor(first));
+        assertEquals(2, plan.reservedFor(second));
+        assertEquals(1, plan.getShortages().get(second));
+        assertEquals(0, main.getQuantityOnHand());
+    }
+
+    @Test
+    void testPlan_ShortageIsReportedWithoutPhantomReceipt() {
+        when(inventoryRepository.findAllWithWarehouseByProductIdIn(any())).thenReturn(new ArrayList<>());
+
+        SalesOrderLine line = line(4);
+        ReservationPlan plan = engine.plan(order(line));
+        engine.apply(plan);
+
+        assertEquals(0, plan.reservedFor(line));
+        assertEquals(4, plan.getShortages().get(line));
+        assertTrue(plan.getTouchedInventories().isEmpty());
+        assertTrue(plan.getMovements().isEmpty());
+        verify(inventoryRepository, never()).saveAll(any());
+        verify(movementRepository, never()).saveAll(any());
+    }
+
+    private Inventory inventory(Long id, Warehouse warehouse, int onHand) {
+        return Inventory.builder()
+                .id(id)
+                .product(product)
+                .warehouse(warehouse)
+                .quantityOnHand(onHand)
+                .quantityReserved(0)
+                .build();
+    }
+
+    private SalesOrderLine line(int qty) {
+        return SalesOrderLine.builder()
+                .product(product)
+                .qtyOrdered(qty)
+                .price(new BigDecimal("10.0"))
+                .build();
+    }
+
+    private SalesOrder order(SalesOrderLine... lines) {
+        return SalesOrder.builder()
+                .id(1L)
+                .warehouse(mainWarehouse)
+                .lines(new ArrayList<>(List.of(lines)))
+                .build();
+    }
+}
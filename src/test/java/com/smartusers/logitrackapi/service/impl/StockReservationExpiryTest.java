@@ -0,0 +1,157 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.entity.Inventory;
+import com.smartusers.logitrackapi.entity.SalesOrder;
+import com.smartusers.logitrackapi.entity.StockReservation;
+import com.smartusers.logitrackapi.enums.OrderStatus;
+import com.smartusers.logitrackapi.enums.ReservationStatus;
+import com.smartusers.logitrackapi.repository.InventoryBatchRepository;
+import com.smartusers.logitrackapi.repository.SalesOrderLineRepository;
+import com.smartusers.logitrackapi.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.*;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StockReservationExpiryTest {
+
+    private StockReservationRepository reservationRepository;
+    private OrderStateMachine orderStateMachine;
+    private SalesOrderLineRepository salesOrderLineRepository;
+    private InventoryBatchRepository batchRepository;
+    private AvailabilityIndex availabilityIndex;
+    private MutableClock clock;
+    private StockReservationExpiry expiry;
+
+    private final Inventory first = Inventory.builder().id(1L).build();
+    private final Inventory second = Inventory.builder().id(2L).build();
+    private final SalesOrder order = SalesOrder.builder().id(9L).build();
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(StockReservationRepository.class);
+        orderStateMachine = mock(OrderStateMachine.class);
+        salesOrderLineRepository = mock(SalesOrderLineRepository.class);
+        batchRepository = mock(InventoryBatchRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        clock = new MutableClock();
+        expiry = new StockReservationExpiry(reservationRepository, orderStateMachine, salesOrderLineRepository,
+                batchRepository, availabilityIndex, mock(LowStockAlertEngine.class),
+                mock(PlatformTransactionManager.class), Duration.ofMinutes(30), 1000, 64, 100, clock);
+    }
+
+    @Test
+    void testTick_ReleasesExpiredReservationsInOneBatch() {
+        expiry.track(order, plan());
+        when(reservationRepository.lockActiveByOrderIdIn(List.of(9L))).thenReturn(List.of(
+                reservation(100L, first, 3), reservation(101L, second, 2), reservation(102L, first, 1)));
+
+        clock.advance(Duration.ofMinutes(29));
+        expiry.tick();
+        verifyNoInteractions(batchRepository);
+
+        clock.advance(Duration.ofMinutes(2));
+        expiry.tick();
+
+        verify(batchRepository, times(1)).addOnHand(aryEq(new long[]{1L, 2L}), aryEq(new int[]{4, 2}));
+        verify(batchRepository, times(1)).insertMovements(argThat(movements -> movements.size() == 3));
+        verify(reservationRepository, times(1)).closeAll(eq(List.of(100L, 101L, 102L)), eq(ReservationStatus.EXPIRED), any());
+        verify(salesOrderLineRepository, times(1)).clearReserved(Set.of(9L));
+        verify(orderStateMachine, times(1)).transitionAll(Set.of(9L), OrderStatus.CREATED);
+        verify(availabilityIndex, times(1)).adjustAfterCommit(1L, 4);
+        verify(availabilityIndex, times(1)).adjustAfterCommit(2L, 2);
+        assertNoPendingDeadline();
+    }
+
+    @Test
+    void testConsume_CancelsDeadline() {
+        expiry.track(order, plan());
+
+        expiry.consume(9L);
+        clock.advance(Duration.ofHours(1));
+        expiry.tick();
+
+        verify(reservationRepository, times(1)).closeByOrder(eq(9L), eq(ReservationStatus.CONSUMED), any());
+        verify(reservationRepository, never()).lockActiveByOrderIdIn(any());
+        assertNoPendingDeadline();
+    }
+
+    @Test
+    void testTick_AlreadyClosedReservationsAreSkipped() {
+        expiry.track(order, plan());
+        when(reservationRepository.lockActiveByOrderIdIn(List.of(9L))).thenReturn(List.of());
+
+        clock.advance(Duration.ofHours(1));
+        expiry.tick();
+
+        verifyNoInteractions(batchRepository);
+        verify(orderStateMachine, never()).transitionAll(any(), any());
+    }
+
+    @Test
+    void testTick_FailedReleaseIsRetried() {
+        expiry.track(order, plan());
+        when(reservationRepository.lockActiveByOrderIdIn(List.of(9L)))
+                .thenThrow(new IllegalStateException("verrou"))
+                .thenReturn(List.of(reservation(100L, first, 3)));
+
+        clock.advance(Duration.ofHours(1));
+        expiry.tick();
+        clock.advance(Duration.ofSeconds(1));
+        expiry.tick();
+
+        verify(batchRepository, times(1)).addOnHand(aryEq(new long[]{1L}), aryEq(new int[]{3}));
+    }
+
+    private void assertNoPendingDeadline() {
+        assertEquals(0, expiry.pendingDeadlines());
+    }
+
+    private ReservationPlan plan() {
+        ReservationPlan plan = new ReservationPlan();
+        plan.allocate(first, 4);
+        plan.allocate(second, 2);
+        return plan;
+    }
+
+    private StockReservation reservation(Long id, Inventory inventory, int quantity) {
+        return StockReservation.builder()
+                .id(id)
+                .salesOrder(order)
+                .inventory(inventory)
+                .quantity(quantity)
+                .expiresAt(LocalDateTime.now(clock))
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.smartusers.logitrackapi.service.impl;
+
+import com.smartusers.logitrackapi.enums.MovementType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValuationLedgerTest {
+
+    @Test
+    void testFifoAndAverage_ConsumeOldestLayersFirst() {
+        ValuationLedger ledger = new ValuationLedger();
+        ledger.apply(1L, MovementType.INBOUND, 10, cost("2.00"));
+        ledger.apply(1L, MovementType.INBOUND, 10, cost("4.00"));
+        ledger.apply(1L, MovementType.OUTBOUND, 15, -1);
+
+        int slot = ledger.slotOf(1L);
+        assertEquals(5, ledger.quantity(slot));
+        assertEquals(0, new BigDecimal("20.00").compareTo(ledger.fifoValue(slot)));
+        assertEquals(0, new BigDecimal("15.00").compareTo(ledger.averageValue(slot)));
+    }
+
+    @Test
+    void testInboundWithoutCost_UsesAverageThenFallback() {
+        ValuationLedger ledger = new ValuationLedger();
+        ledger.fallbackCost(1L, cost("1.50"));
+        ledger.apply(1L, MovementType.INBOUND, 4, -1);
+        ledger.apply(2L, MovementType.INBOUND, 2, cost("3.00"));
+        ledger.apply(2L, MovementType.ADJUSTMENT, 2, -1);
+
+        assertEquals(ValuationLedger.toScaled(new BigDecimal("1.50")), ledger.averageCost(ledger.slotOf(1L)));
+        assertEquals(0, new BigDecimal("12.00").compareTo(ledger.fifoValue(ledger.slotOf(2L))));
+    }
+
+    @Test
+    void testNegativeStock_FilledByNextReceipt() {
+        ValuationLedger ledger = new ValuationLedger();
+        ledger.apply(1L, MovementType.INBOUND, 2, cost("5.00"));
+        ledger.apply(1L, MovementType.OUTBOUND, 5, -1);
+        assertEquals(-3, ledger.quantity(ledger.slotOf(1L)));
+
+        ledger.apply(1L, MovementType.INBOUND, 4, cost("7.00"));
+
+        int slot = ledger.slotOf(1L);
+        assertEquals(1, ledger.quantity(slot));
+        assertEquals(0, new BigDecimal("7.00").compareTo(ledger.fifoValue(slot)));
+        assertEquals(ValuationLedger.toScaled(new BigDecimal("7.00")), ledger.averageCost(slot));
+    }
+
+    @Test
+    void testEncodeRestore_RoundTripsLayers() {
+        ValuationLedger ledger = new ValuationLedger();
+        for (int i = 1; i <= 10; i++) {
+            ledger.apply(1L, MovementType.INBOUND, 1, i * 10_000L);
+        }
+        ledger.apply(1L, MovementType.OUTBOUND, 3, -1);
+        int slot = ledger.slotOf(1L);
+
+        ValuationLedger restored = new ValuationLedger();
+        restored.restore(1L, ledger.quantity(slot), ledger.averageCost(slot), ledger.encodeLayers(slot));
+        int restoredSlot = restored.slotOf(1L);
+
+        assertFalse(restored.isDirty(restoredSlot));
+        assertEquals(0, ledger.fifoValue(slot).compareTo(restored.fifoValue(restoredSlot)));
+        restored.apply(1L, MovementType.OUTBOUND, 1, -1);
+        assertEquals(0, new BigDecimal("45.00").compareTo(restored.fifoValue(restoredSlot)));
+    }
+
+    private long cost(String value) {
+        return ValuationLedger.toScaled(new BigDecimal(value));
+    }
+}
@@ -26,6 +26,9 @@ class WarehouseServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
     @InjectMocks
     private WarehouseServiceImpl warehouseService;
 